@@ -0,0 +1,145 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.eclipse.lemminx.utils.IOUtils;
+
+/**
+ * The XML documents used by the benchmarks.
+ * 
+ * <p>
+ * The small, medium and huge documents are generated catalogs of items. The
+ * nasa document is loaded from the file given with the
+ * <code>lemminx.benchmarks.nasa</code> system property (or from the test
+ * resources of org.eclipse.lemminx) and is replaced with the huge document
+ * when it doesn't exist.
+ * </p>
+ *
+ */
+public class BenchmarkDocuments {
+
+	public static final String NASA_PROPERTY = "lemminx.benchmarks.nasa";
+
+	private static final String DEFAULT_NASA_PATH = "../org.eclipse.lemminx/src/test/resources/xml/nasa.xml";
+
+	/**
+	 * The grammar used to validate the generated documents.
+	 */
+	public enum Grammar {
+		none, xsd, dtd;
+	}
+
+	private static Path grammarDir;
+
+	private BenchmarkDocuments() {
+	}
+
+	/**
+	 * Returns the content of the document for the given size.
+	 * 
+	 * @param size    the document size (small, medium, huge or nasa).
+	 * @param grammar the grammar to associate to the document.
+	 * @return the content of the document for the given size.
+	 */
+	public static String getDocument(String size, Grammar grammar) {
+		switch (size) {
+		case "small":
+			return generate(10, grammar);
+		case "medium":
+			return generate(1000, grammar);
+		case "huge":
+			return generate(50000, grammar);
+		case "nasa":
+			String nasa = loadNasa();
+			return nasa != null ? nasa : generate(50000, grammar);
+		default:
+			throw new IllegalArgumentException("Unknown document size '" + size + "'.");
+		}
+	}
+
+	/**
+	 * Returns the offset of the item in the middle of the given document.
+	 * 
+	 * @param text the document content.
+	 * @return the offset of the item in the middle of the given document.
+	 */
+	public static int getMiddleOffset(String text) {
+		int offset = text.indexOf('<', text.length() / 2);
+		return offset != -1 ? offset : text.length() / 2;
+	}
+
+	private static String generate(int items, Grammar grammar) {
+		StringBuilder xml = new StringBuilder(items * 200);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		if (grammar == Grammar.dtd) {
+			xml.append("<!DOCTYPE catalog SYSTEM \"").append(getGrammarURI("catalog.dtd")).append("\">\n");
+			xml.append("<catalog>\n");
+		} else if (grammar == Grammar.xsd) {
+			xml.append("<catalog xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ");
+			xml.append("xsi:noNamespaceSchemaLocation=\"").append(getGrammarURI("catalog.xsd")).append("\">\n");
+		} else {
+			xml.append("<catalog>\n");
+		}
+		for (int i = 0; i < items; i++) {
+			xml.append("  <!-- item ").append(i).append(" -->\n");
+			xml.append("  <item id=\"item").append(i).append("\" category=\"c").append(i % 7).append("\">\n");
+			xml.append("    <name>Item ").append(i).append("</name>\n");
+			xml.append("    <price currency=\"EUR\">").append(i % 100).append(".50</price>\n");
+			xml.append("    <description><![CDATA[Description of <item> ").append(i).append("]]></description>\n");
+			xml.append("    <tags>\n");
+			xml.append("      <tag>t").append(i % 3).append("</tag>\n");
+			xml.append("      <tag>t").append(i % 5).append("</tag>\n");
+			xml.append("    </tags>\n");
+			xml.append("  </item>\n");
+		}
+		xml.append("</catalog>\n");
+		return xml.toString();
+	}
+
+	private static String loadNasa() {
+		Path path = Paths.get(System.getProperty(NASA_PROPERTY, DEFAULT_NASA_PATH));
+		if (!Files.exists(path)) {
+			return null;
+		}
+		try {
+			return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new RuntimeException("Error while loading '" + path + "'.", e);
+		}
+	}
+
+	private static synchronized String getGrammarURI(String fileName) {
+		try {
+			if (grammarDir == null) {
+				grammarDir = Files.createTempDirectory("lemminx-benchmarks");
+				grammarDir.toFile().deleteOnExit();
+			}
+			Path file = grammarDir.resolve(fileName);
+			if (!Files.exists(file)) {
+				try (InputStream in = BenchmarkDocuments.class.getResourceAsStream(fileName)) {
+					Files.write(file, IOUtils.convertStreamToString(in).getBytes(StandardCharsets.UTF_8));
+				}
+				file.toFile().deleteOnExit();
+			}
+			return file.toUri().toString();
+		} catch (IOException e) {
+			throw new RuntimeException("Error while creating the grammar '" + fileName + "'.", e);
+		}
+	}
+}
\ No newline at end of file
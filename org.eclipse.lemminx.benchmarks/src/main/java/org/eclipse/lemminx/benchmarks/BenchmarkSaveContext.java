@@ -0,0 +1,39 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.function.Predicate;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.services.extensions.save.AbstractSaveContext;
+
+/**
+ * Save context used to update the settings of the language service used by
+ * the benchmarks.
+ *
+ */
+class BenchmarkSaveContext extends AbstractSaveContext {
+
+	public BenchmarkSaveContext(Object settings) {
+		super(settings);
+	}
+
+	@Override
+	public DOMDocument getDocument(String uri) {
+		return null;
+	}
+
+	@Override
+	public void collectDocumentToValidate(Predicate<DOMDocument> validateDocumentPredicate) {
+
+	}
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the search of the node and the attribute at a given offset (used
+ * by completion, hover, etc) in a deep document and in a wide document:
+ * 
+ * <ul>
+ * <li>index : the node is found with the offset index of the document.</li>
+ * <li>tree : the node is found by walking the DOM tree.</li>
+ * </ul>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DOMLookupBenchmark {
+
+	private static final int OFFSETS = 1024;
+
+	/**
+	 * deep : nested elements, wide : a root element with a lot of children which
+	 * have a lot of attributes.
+	 */
+	@Param({ "deep", "wide" })
+	public String shape;
+
+	@Param({ "index", "tree" })
+	public String lookup;
+
+	private DOMDocument document;
+
+	private int[] offsets;
+
+	private int next;
+
+	@Setup
+	public void setup() {
+		String text = "deep".equals(shape) ? createDeepDocument() : createWideDocument();
+		// the nodes are never stored in a compact table to compare the lookup with the
+		// same DOM tree
+		DOMParser.getInstance().setCompactThreshold(Integer.MAX_VALUE);
+		DOMParser.getInstance().setOffsetIndexThreshold("index".equals(lookup) ? 0 : Integer.MAX_VALUE);
+		document = DOMParser.getInstance().parse(text, "benchmark.xml", null);
+		Random random = new Random(0);
+		offsets = new int[OFFSETS];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = random.nextInt(text.length());
+		}
+		// create the offset index
+		document.findNodeAt(0);
+	}
+
+	@TearDown
+	public void tearDown() {
+		DOMParser.getInstance().setCompactThreshold(DOMParser.DEFAULT_COMPACT_THRESHOLD);
+		DOMParser.getInstance().setOffsetIndexThreshold(DOMParser.DEFAULT_OFFSET_INDEX_THRESHOLD);
+	}
+
+	@Benchmark
+	public DOMNode findNodeAt() {
+		return document.findNodeAt(nextOffset());
+	}
+
+	@Benchmark
+	public DOMAttr findAttrAt() {
+		return document.findAttrAt(nextOffset());
+	}
+
+	private int nextOffset() {
+		int offset = offsets[next];
+		next = (next + 1) % offsets.length;
+		return offset;
+	}
+
+	private static String createDeepDocument() {
+		StringBuilder xml = new StringBuilder();
+		int depth = 200;
+		for (int i = 0; i < depth; i++) {
+			xml.append("<level").append(i).append(" id=\"").append(i).append("\">");
+			for (int j = 0; j < 20; j++) {
+				xml.append("<item name=\"item").append(j).append("\">text</item>");
+			}
+		}
+		for (int i = depth - 1; i >= 0; i--) {
+			xml.append("</level").append(i).append('>');
+		}
+		return xml.toString();
+	}
+
+	private static String createWideDocument() {
+		StringBuilder xml = new StringBuilder("<root>\n");
+		for (int i = 0; i < 10000; i++) {
+			xml.append("  <item");
+			for (int j = 0; j < 16; j++) {
+				xml.append(" a").append(j).append("=\"").append(i).append("\"");
+			}
+			xml.append(">text</item>\n");
+		}
+		xml.append("</root>");
+		return xml.toString();
+	}
+}
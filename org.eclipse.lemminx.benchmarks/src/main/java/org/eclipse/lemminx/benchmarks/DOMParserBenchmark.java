@@ -0,0 +1,95 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.benchmarks.BenchmarkDocuments.Grammar;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the {@link DOMParser} which parses a whole document.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DOMParserBenchmark {
+
+	@Param({ "small", "medium", "huge", "nasa" })
+	public String size;
+
+	/**
+	 * true if the nodes are stored in a compact table whatever the document size.
+	 */
+	@Param({ "false", "true" })
+	public boolean compact;
+
+	/**
+	 * true if the children of the root element are parsed in parallel whatever
+	 * the document size.
+	 */
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private TextDocument document;
+
+	private int middleOffset;
+
+	@Setup
+	public void setup() {
+		document = new TextDocument(BenchmarkDocuments.getDocument(size, Grammar.none), "benchmark.xml");
+		middleOffset = BenchmarkDocuments.getMiddleOffset(document.getText());
+		DOMParser.getInstance().setCompactThreshold(compact ? 0 : DOMParser.DEFAULT_COMPACT_THRESHOLD);
+		DOMParser.getInstance().setParallelThreshold(parallel ? 0 : Integer.MAX_VALUE);
+	}
+
+	@TearDown
+	public void tearDown() {
+		DOMParser.getInstance().setCompactThreshold(DOMParser.DEFAULT_COMPACT_THRESHOLD);
+		DOMParser.getInstance().setParallelThreshold(DOMParser.DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	@Benchmark
+	public DOMDocument parse() {
+		return DOMParser.getInstance().parse(document, null);
+	}
+
+	/**
+	 * Parse the document and find the node and the attribute in the middle of the
+	 * document, like the first hover after the open of the document.
+	 */
+	@Benchmark
+	public DOMAttr parseAndFindAttr() {
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document, null);
+		return DOMNode.findAttrAt(xmlDocument.findNodeAt(middleOffset), middleOffset);
+	}
+}
\ No newline at end of file
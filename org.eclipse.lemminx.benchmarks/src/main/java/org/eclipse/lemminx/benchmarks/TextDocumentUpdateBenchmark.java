@@ -0,0 +1,120 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.benchmarks.BenchmarkDocuments.Grammar;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a didChange which types a character in the middle of a
+ * document and removes it:
+ * 
+ * <ul>
+ * <li>update of the text of the document.</li>
+ * <li>update of the text and of the DOM document with the incremental
+ * parser.</li>
+ * <li>update of the text and full parse of the DOM document.</li>
+ * </ul>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextDocumentUpdateBenchmark {
+
+	@Param({ "small", "medium", "huge", "nasa" })
+	public String size;
+
+	private ModelTextDocument<DOMDocument> incrementalDocument;
+
+	private ModelTextDocument<DOMDocument> fullDocument;
+
+	private List<TextDocumentContentChangeEvent> insert;
+
+	private List<TextDocumentContentChangeEvent> remove;
+
+	@Setup
+	public void setup() throws BadLocationException {
+		String text = BenchmarkDocuments.getDocument(size, Grammar.none);
+		incrementalDocument = new ModelTextDocument<DOMDocument>(text, "benchmark.xml",
+				(document, cancelChecker) -> DOMParser.getInstance().parse(document, null, true, cancelChecker),
+				(document, xmlDocument, region, cancelChecker) -> DOMParser.getInstance().parseIncremental(document,
+						xmlDocument, region, true, cancelChecker));
+		incrementalDocument.setIncremental(true);
+		incrementalDocument.getModel().join();
+
+		fullDocument = new ModelTextDocument<DOMDocument>(text, "benchmark.xml",
+				(document, cancelChecker) -> DOMParser.getInstance().parse(document, null, true, cancelChecker));
+		fullDocument.setIncremental(true);
+		fullDocument.getModel().join();
+
+		// insert a space in the middle of the text content of an element
+		int offset = text.indexOf('>', BenchmarkDocuments.getMiddleOffset(text)) + 1;
+		Position position = incrementalDocument.positionAt(offset);
+		insert = createChange(new Range(position, position), 0, " ");
+		remove = createChange(new Range(position, new Position(position.getLine(), position.getCharacter() + 1)), 1,
+				"");
+	}
+
+	@Benchmark
+	public void updateText() {
+		TextDocument document = incrementalDocument;
+		document.update(insert);
+		document.update(remove);
+	}
+
+	@Benchmark
+	public DOMDocument updateIncrementalDOM() {
+		incrementalDocument.update(insert);
+		incrementalDocument.getModel().join();
+		incrementalDocument.update(remove);
+		return incrementalDocument.getModel().join();
+	}
+
+	@Benchmark
+	public DOMDocument updateFullDOM() {
+		fullDocument.update(insert);
+		fullDocument.getModel().join();
+		fullDocument.update(remove);
+		return fullDocument.getModel().join();
+	}
+
+	private static List<TextDocumentContentChangeEvent> createChange(Range range, int rangeLength, String text) {
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(range, rangeLength, text);
+		return Collections.singletonList(change);
+	}
+}
\ No newline at end of file
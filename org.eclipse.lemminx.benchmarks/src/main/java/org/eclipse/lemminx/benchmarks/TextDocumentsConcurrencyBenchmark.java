@@ -0,0 +1,160 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.lemminx.benchmarks.BenchmarkDocuments.Grammar;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.ModelTextDocuments;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the text documents manager used by several threads which open,
+ * edit, read and close dozens of documents:
+ * 
+ * <ul>
+ * <li>each thread edits its own documents and reads the documents of the
+ * other threads.</li>
+ * <li>each thread opens and closes a document.</li>
+ * </ul>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TextDocumentsConcurrencyBenchmark {
+
+	@Param({ "small", "medium" })
+	public String size;
+
+	@Param({ "48" })
+	public int documentCount;
+
+	private ModelTextDocuments<DOMDocument> documents;
+
+	private String text;
+
+	private Position position;
+
+	private final AtomicInteger threadCount = new AtomicInteger();
+
+	/**
+	 * The documents edited by a thread.
+	 */
+	@State(Scope.Thread)
+	public static class ThreadDocuments {
+
+		private int thread;
+
+		private List<String> uris;
+
+		private int next;
+
+		private int version;
+
+		@Setup
+		public void setup(TextDocumentsConcurrencyBenchmark benchmark) {
+			thread = benchmark.threadCount.getAndIncrement();
+			uris = new ArrayList<>();
+			for (int i = 0; i < benchmark.documentCount; i++) {
+				// the documents are shared between the threads in round-robin
+				if (i % 8 == thread % 8) {
+					uris.add(getURI(i));
+				}
+			}
+		}
+
+		String nextURI() {
+			String uri = uris.get(next);
+			next = (next + 1) % uris.size();
+			return uri;
+		}
+	}
+
+	@Setup
+	public void setup() throws BadLocationException {
+		text = BenchmarkDocuments.getDocument(size, Grammar.none);
+		documents = new ModelTextDocuments<DOMDocument>(
+				(document, cancelChecker) -> DOMParser.getInstance().parse(document, null, true, cancelChecker));
+		for (int i = 0; i < documentCount; i++) {
+			documents.onDidOpenTextDocument(createOpen(getURI(i)));
+		}
+		ModelTextDocument<DOMDocument> document = documents.get(getURI(0));
+		position = document.positionAt(text.indexOf('>', BenchmarkDocuments.getMiddleOffset(text)) + 1);
+	}
+
+	@Benchmark
+	public ModelTextDocument<DOMDocument> editAndRead(ThreadDocuments threadDocuments) {
+		String uri = threadDocuments.nextURI();
+		// insert a space and remove it
+		documents.onDidChangeTextDocument(createChange(uri, ++threadDocuments.version, new Range(position, position), 0,
+				" "));
+		documents.onDidChangeTextDocument(createChange(uri, ++threadDocuments.version,
+				new Range(position, new Position(position.getLine(), position.getCharacter() + 1)), 1, ""));
+		// read a document like a request does
+		return documents.get(getURI(ThreadLocalRandom.current().nextInt(documentCount)));
+	}
+
+	@Benchmark
+	public ModelTextDocument<DOMDocument> openAndClose(ThreadDocuments threadDocuments) {
+		String uri = "file:///benchmark-open" + threadDocuments.thread + ".xml";
+		documents.onDidOpenTextDocument(createOpen(uri));
+		return documents.onDidCloseTextDocument(new DidCloseTextDocumentParams(new TextDocumentIdentifier(uri)));
+	}
+
+	private DidOpenTextDocumentParams createOpen(String uri) {
+		return new DidOpenTextDocumentParams(new TextDocumentItem(uri, "xml", 1, text));
+	}
+
+	private static DidChangeTextDocumentParams createChange(String uri, int version, Range range, int rangeLength,
+			String text) {
+		return new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(uri, version),
+				Collections.singletonList(new TextDocumentContentChangeEvent(range, rangeLength, text)));
+	}
+
+	private static String getURI(int index) {
+		return "file:///benchmark" + index + ".xml";
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.benchmarks.BenchmarkDocuments.Grammar;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lsp4j.Diagnostic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the validation of a document with a XML Schema or a DTD.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+	@Param({ "small", "medium", "huge" })
+	public String size;
+
+	@Param({ "xsd", "dtd" })
+	public Grammar grammar;
+
+	private XMLLanguageService languageService;
+
+	private DOMDocument document;
+
+	private XMLValidationSettings validationSettings;
+
+	@Setup
+	public void setup() {
+		languageService = new XMLLanguageService();
+		TextDocument textDocument = new TextDocument(BenchmarkDocuments.getDocument(size, grammar),
+				"file:///benchmark.xml");
+		document = DOMParser.getInstance().parse(textDocument, languageService.getResolverExtensionManager());
+		languageService.setDocumentProvider(uri -> document);
+
+		ContentModelSettings settings = new ContentModelSettings();
+		settings.setUseCache(false);
+		validationSettings = new XMLValidationSettings();
+		settings.setValidation(validationSettings);
+		languageService.doSave(new BenchmarkSaveContext(settings));
+		languageService.initializeIfNeeded();
+	}
+
+	@Benchmark
+	public List<Diagnostic> validate() {
+		return languageService.doDiagnostics(document, validationSettings, () -> {
+		});
+	}
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.benchmarks.BenchmarkDocuments.Grammar;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.settings.ContentModelSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.eclipse.lemminx.settings.SharedSettings;
+import org.eclipse.lemminx.settings.XMLSymbolSettings;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Hover;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextEdit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the completion, formatting, document symbols and hover of the
+ * {@link XMLLanguageService} for a document bound to a XML Schema.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XMLLanguageServiceBenchmark {
+
+	@Param({ "small", "medium", "huge" })
+	public String size;
+
+	private XMLLanguageService languageService;
+
+	private SharedSettings sharedSettings;
+
+	private TextDocument textDocument;
+
+	private DOMDocument document;
+
+	private Position completionPosition;
+
+	private Position hoverPosition;
+
+	@Setup
+	public void setup() throws BadLocationException {
+		languageService = new XMLLanguageService();
+		String text = BenchmarkDocuments.getDocument(size, Grammar.xsd);
+		textDocument = new TextDocument(text, "file:///benchmark.xml");
+		document = DOMParser.getInstance().parse(textDocument, languageService.getResolverExtensionManager());
+		languageService.setDocumentProvider(uri -> document);
+
+		ContentModelSettings settings = new ContentModelSettings();
+		settings.setUseCache(false);
+		languageService.doSave(new BenchmarkSaveContext(settings));
+		languageService.initializeIfNeeded();
+		sharedSettings = new SharedSettings();
+
+		// complete after the '<' of the start tag of an item element and hover its name
+		int offset = text.indexOf("<item ", BenchmarkDocuments.getMiddleOffset(text));
+		completionPosition = textDocument.positionAt(offset + 1);
+		hoverPosition = textDocument.positionAt(offset + 2);
+	}
+
+	@Benchmark
+	public CompletionList completion() {
+		return languageService.doComplete(document, completionPosition, sharedSettings);
+	}
+
+	@Benchmark
+	public List<? extends TextEdit> formatting() {
+		return languageService.format(textDocument, null, sharedSettings);
+	}
+
+	@Benchmark
+	public List<DocumentSymbol> documentSymbols() {
+		return languageService.findDocumentSymbols(document, new XMLSymbolSettings());
+	}
+
+	@Benchmark
+	public Hover hover() {
+		return languageService.doHover(document, hoverPosition, sharedSettings);
+	}
+}
\ No newline at end of file
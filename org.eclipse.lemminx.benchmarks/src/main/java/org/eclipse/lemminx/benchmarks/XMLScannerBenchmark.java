@@ -0,0 +1,73 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.benchmarks.BenchmarkDocuments.Grammar;
+import org.eclipse.lemminx.dom.parser.Scanner;
+import org.eclipse.lemminx.dom.parser.TokenType;
+import org.eclipse.lemminx.dom.parser.XMLScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of the {@link XMLScanner} which scans all tokens of a document.
+ * 
+ * <p>
+ * Use the JMH <code>-prof gc</code> option to compare the allocation rate.
+ * </p>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XMLScannerBenchmark {
+
+	@Param({ "small", "medium", "huge", "nasa" })
+	public String size;
+
+	private String text;
+
+	@Setup
+	public void setup() {
+		text = BenchmarkDocuments.getDocument(size, Grammar.none);
+	}
+
+	@Benchmark
+	public void scan(Blackhole blackhole) {
+		Scanner scanner = XMLScanner.createScanner(text);
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS) {
+			blackhole.consume(scanner.getTokenOffset());
+			token = scanner.scan();
+		}
+	}
+
+	@Benchmark
+	public void scanTokens(Blackhole blackhole) {
+		XMLScanner.scanTokens(text, false, (type, start, end) -> blackhole.consume(start));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
+import org.eclipse.lemminx.extensions.xsd.participants.diagnostics.XSDValidator;
+import org.eclipse.lsp4j.Diagnostic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the validation of a XML Schema which imports a set of XML
+ * Schemas (each imported XML Schema imports a common XML Schema):
+ * 
+ * <ul>
+ * <li>shared : the compiled imported XML Schemas are shared between the
+ * validations.</li>
+ * <li>none : the imported XML Schemas are compiled on each validation.</li>
+ * </ul>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XSDValidationBenchmark {
+
+	private static final int TYPES = 200;
+
+	@Param({ "1", "12" })
+	public int imports;
+
+	@Param({ "shared", "none" })
+	public String pool;
+
+	private DOMDocument document;
+
+	private LSPXMLGrammarPool importedGrammarPool;
+
+	@Setup
+	public void setup() throws IOException {
+		Path dir = Files.createTempDirectory("lemminx-benchmarks-xsd");
+		dir.toFile().deleteOnExit();
+		write(dir.resolve("common.xsd"), generateSchema("common", null));
+		StringBuilder xsd = new StringBuilder();
+		xsd.append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:main\"");
+		for (int i = 0; i < imports; i++) {
+			xsd.append(" xmlns:i").append(i).append("=\"urn:imported").append(i).append("\"");
+		}
+		xsd.append(">\n");
+		for (int i = 0; i < imports; i++) {
+			write(dir.resolve("imported" + i + ".xsd"), generateSchema("imported" + i, "common"));
+			xsd.append("  <xs:import namespace=\"urn:imported").append(i).append("\" schemaLocation=\"imported")
+					.append(i).append(".xsd\" />\n");
+		}
+		xsd.append("  <xs:element name=\"main\">\n");
+		xsd.append("    <xs:complexType>\n");
+		xsd.append("      <xs:sequence>\n");
+		for (int i = 0; i < imports; i++) {
+			xsd.append("        <xs:element name=\"e").append(i).append("\" type=\"i").append(i)
+					.append(":Type0\" />\n");
+		}
+		xsd.append("      </xs:sequence>\n");
+		xsd.append("    </xs:complexType>\n");
+		xsd.append("  </xs:element>\n");
+		xsd.append("</xs:schema>\n");
+		document = DOMParser.getInstance().parse(xsd.toString(), dir.resolve("main.xsd").toUri().toString(), null);
+		importedGrammarPool = "shared".equals(pool) ? new LSPXMLGrammarPool() : null;
+	}
+
+	@Benchmark
+	public List<Diagnostic> validate() {
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		XSDValidator.doDiagnostics(document, null, importedGrammarPool, diagnostics, false, () -> {
+		});
+		return diagnostics;
+	}
+
+	private static String generateSchema(String name, String importedName) {
+		StringBuilder xsd = new StringBuilder();
+		xsd.append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:").append(name)
+				.append("\" xmlns:tns=\"urn:").append(name).append("\"");
+		if (importedName != null) {
+			xsd.append(" xmlns:c=\"urn:").append(importedName).append("\"");
+		}
+		xsd.append(">\n");
+		if (importedName != null) {
+			xsd.append("  <xs:import namespace=\"urn:").append(importedName).append("\" schemaLocation=\"")
+					.append(importedName).append(".xsd\" />\n");
+		}
+		for (int i = 0; i < TYPES; i++) {
+			xsd.append("  <xs:complexType name=\"Type").append(i).append("\">\n");
+			xsd.append("    <xs:sequence>\n");
+			xsd.append("      <xs:element name=\"name\" type=\"xs:string\" />\n");
+			xsd.append("      <xs:element name=\"value\" type=\"")
+					.append(importedName != null ? "c:Type" + i : "xs:decimal").append("\" minOccurs=\"0\" />\n");
+			xsd.append("      <xs:element name=\"child\" type=\"tns:Type").append((i + 1) % TYPES)
+					.append("\" minOccurs=\"0\" maxOccurs=\"unbounded\" />\n");
+			xsd.append("    </xs:sequence>\n");
+			xsd.append("    <xs:attribute name=\"id\" type=\"xs:ID\" />\n");
+			xsd.append("  </xs:complexType>\n");
+		}
+		xsd.append("</xs:schema>\n");
+		return xsd.toString();
+	}
+
+	private static void write(Path file, String content) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		file.toFile().deleteOnExit();
+	}
+}
@@ -28,6 +28,8 @@ import java.util.stream.Collectors;
 
 import org.eclipse.lemminx.client.ExtendedClientCapabilities;
 import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.ServerExecutors;
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
 import org.eclipse.lemminx.commons.ParentProcessWatcher.ProcessLanguageServer;
 import org.eclipse.lemminx.customservice.ActionableNotification;
 import org.eclipse.lemminx.customservice.AutoCloseTagResponse;
@@ -99,6 +101,7 @@ public class XMLLanguageServer
 		xmlLanguageService.setNotificationService(this);
 		xmlLanguageService.setCommandService(xmlWorkspaceService);
 		xmlLanguageService.setValidationService(this);
+		xmlLanguageService.registerComponent(getExecutors());
 
 		delayer = Executors.newScheduledThreadPool(1);
 	}
@@ -211,6 +214,7 @@ public class XMLLanguageServer
 			if (serverSettings != null) {
 				String workDir = serverSettings.getNormalizedWorkDir();
 				FilesUtils.setCachePathSetting(workDir);
+				updateExecutors(serverSettings);
 			}
 		}
 		ContentModelSettings cmSettings = ContentModelSettings.getContentModelXMLSettings(initSettings);
@@ -223,6 +227,33 @@ public class XMLLanguageServer
 		xmlTextDocumentService.updateSettings(initSettings);
 	}
 
+	/**
+	 * Update the executors with the given server settings.
+	 *
+	 * @param serverSettings the server settings.
+	 */
+	private void updateExecutors(ServerSettings serverSettings) {
+		ServerExecutors executors = getExecutors();
+		if (serverSettings.getInteractiveThreads() != null) {
+			executors.setThreads(ExecutorKind.INTERACTIVE, serverSettings.getInteractiveThreads());
+		}
+		if (serverSettings.getRequestThreads() != null) {
+			executors.setThreads(ExecutorKind.REQUEST, serverSettings.getRequestThreads());
+		}
+		if (serverSettings.getParseThreads() != null) {
+			executors.setThreads(ExecutorKind.PARSE, serverSettings.getParseThreads());
+		}
+		if (serverSettings.getValidationWorkers() != null) {
+			executors.setThreads(ExecutorKind.VALIDATION, serverSettings.getValidationWorkers());
+		}
+		if (serverSettings.getBackgroundThreads() != null) {
+			executors.setThreads(ExecutorKind.BACKGROUND, serverSettings.getBackgroundThreads());
+		}
+		if (serverSettings.getVirtualThreads() != null) {
+			executors.setVirtualThreads(serverSettings.getVirtualThreads());
+		}
+	}
+
 	@Override
 	public CompletableFuture<Object> shutdown() {
 		xmlLanguageService.dispose();
@@ -240,6 +271,8 @@ public class XMLLanguageServer
 	@Override
 	public void exit(int exitCode) {
 		delayer.shutdown();
+		xmlTextDocumentService.getValidationScheduler().shutdown();
+		xmlTextDocumentService.getExecutors().shutdown();
 		System.exit(exitCode);
 	}
 
@@ -271,6 +304,16 @@ public class XMLLanguageServer
 		return xmlTextDocumentService.getSharedSettings();
 	}
 
+	/**
+	 * Returns the executors used to process the requests, parse the documents and
+	 * execute background tasks.
+	 *
+	 * @return the executors.
+	 */
+	public ServerExecutors getExecutors() {
+		return xmlTextDocumentService.getExecutors();
+	}
+
 	public ScheduledFuture<?> schedule(Runnable command, int delay, TimeUnit unit) {
 		return delayer.schedule(command, delay, unit);
 	}
@@ -284,14 +327,14 @@ public class XMLLanguageServer
 	public CompletableFuture<AutoCloseTagResponse> closeTag(TextDocumentPositionParams params) {
 		return xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().doAutoClose(xmlDocument, params.getPosition(), getSettings().getCompletionSettings(), cancelChecker);
-		});
+		}, ExecutorKind.INTERACTIVE);
 	}
 
 	@Override
 	public CompletableFuture<Position> matchingTagPosition(TextDocumentPositionParams params) {
 		return xmlTextDocumentService.computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().getMatchingTagPosition(xmlDocument, params.getPosition(), cancelChecker);
-		});
+		}, ExecutorKind.INTERACTIVE);
 	}
 
 	@Override
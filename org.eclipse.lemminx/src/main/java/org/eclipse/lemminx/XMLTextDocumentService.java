@@ -14,16 +14,17 @@ package org.eclipse.lemminx;
 
 import static org.eclipse.lsp4j.jsonrpc.CompletableFutures.computeAsync;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -33,17 +34,25 @@ import com.google.gson.JsonPrimitive;
 import org.eclipse.lemminx.client.ExtendedClientCapabilities;
 import org.eclipse.lemminx.client.LimitExceededWarner;
 import org.eclipse.lemminx.client.LimitFeature;
+import org.eclipse.lemminx.commons.ModelResultCache;
 import org.eclipse.lemminx.commons.ModelTextDocument;
 import org.eclipse.lemminx.commons.ModelTextDocuments;
 import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.commons.MultiCancelChecker;
+import org.eclipse.lemminx.commons.ServerExecutors;
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
 import org.eclipse.lemminx.commons.TextDocuments;
+import org.eclipse.lemminx.commons.ValidationScheduler;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.dom.DOMParserOptions;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.services.DocumentSymbolsResult;
 import org.eclipse.lemminx.services.SymbolInformationResult;
 import org.eclipse.lemminx.services.XMLLanguageService;
 import org.eclipse.lemminx.services.extensions.save.AbstractSaveContext;
+import org.eclipse.lemminx.services.extensions.save.ISaveContext.SaveContextType;
 import org.eclipse.lemminx.settings.CompositeSettings;
 import org.eclipse.lemminx.settings.SharedSettings;
 import org.eclipse.lemminx.settings.XMLCodeLensSettings;
@@ -106,8 +115,17 @@ import org.eclipse.lsp4j.services.TextDocumentService;
  */
 public class XMLTextDocumentService implements TextDocumentService {
 
+	/**
+	 * The delay in milliseconds before validating the documents collected when a
+	 * file or the settings are saved.
+	 */
+	private static final long SAVE_VALIDATION_DELAY = 500;
+
 	private final XMLLanguageServer xmlLanguageServer;
 	private final TextDocuments<ModelTextDocument<DOMDocument>> documents;
+	private final ModelResultCache.Statistics resultCacheStatistics;
+	private final ValidationScheduler validationScheduler;
+	private final ServerExecutors executors;
 	private SharedSettings sharedSettings;
 	private LimitExceededWarner limitExceededWarner;
 
@@ -116,16 +134,20 @@ public class XMLTextDocumentService implements TextDocumentService {
 	 */
 	class SaveContext extends AbstractSaveContext {
 
-		private final Collection<ModelTextDocument<DOMDocument>> documentsToValidate;
+		private final Set<ModelTextDocument<DOMDocument>> documentsToValidate;
 
 		public SaveContext(Object settings) {
 			super(settings);
-			this.documentsToValidate = new ArrayList<>();
+			this.documentsToValidate = new LinkedHashSet<>();
 		}
 
 		public SaveContext(String uri) {
+			this(uri, new LinkedHashSet<>());
+		}
+
+		private SaveContext(String uri, Set<ModelTextDocument<DOMDocument>> documentsToValidate) {
 			super(uri);
-			this.documentsToValidate = new ArrayList<>();
+			this.documentsToValidate = documentsToValidate;
 		}
 
 		@Override
@@ -139,6 +161,16 @@ public class XMLTextDocumentService implements TextDocumentService {
 			});
 		}
 
+		@Override
+		public void collectDocumentToValidate(Collection<String> documentURIs) {
+			for (String documentURI : documentURIs) {
+				ModelTextDocument<DOMDocument> document = documents.get(documentURI);
+				if (document != null) {
+					documentsToValidate.add(document);
+				}
+			}
+		}
+
 		@Override
 		public DOMDocument getDocument(String uri) {
 			return xmlLanguageServer.getDocument(uri);
@@ -147,6 +179,17 @@ public class XMLTextDocumentService implements TextDocumentService {
 		public void triggerValidationIfNeeded() {
 			triggerValidationFor(documentsToValidate);
 		}
+
+		/**
+		 * Invalidate the results computed for all the documents when the settings are
+		 * saved and for the documents which depend on the saved file otherwise.
+		 */
+		public void invalidateResults() {
+			Collection<ModelTextDocument<DOMDocument>> documentsToInvalidate = getType() == SaveContextType.SETTINGS
+					? documents.all()
+					: documentsToValidate;
+			documentsToInvalidate.forEach(ModelTextDocument::invalidateResults);
+		}
 	}
 
 	final ScheduledExecutorService delayer = Executors.newScheduledThreadPool(2);
@@ -157,10 +200,22 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	public XMLTextDocumentService(XMLLanguageServer xmlLanguageServer) {
 		this.xmlLanguageServer = xmlLanguageServer;
+		this.executors = new ServerExecutors();
 		DOMParser parser = DOMParser.getInstance();
-		this.documents = new ModelTextDocuments<DOMDocument>((document, cancelChecker) -> {
-			return parser.parse(document, getXMLLanguageService().getResolverExtensionManager(), true, cancelChecker);
+		// the children of the root element of large documents are parsed with the
+		// parse executor
+		DOMParserOptions parserOptions = new DOMParserOptions();
+		parserOptions.setExecutors(executors);
+		ModelTextDocuments<DOMDocument> documents = new ModelTextDocuments<DOMDocument>((document, cancelChecker) -> {
+			return parser.parse(document, getXMLLanguageService().getResolverExtensionManager(), true, parserOptions,
+					cancelChecker);
+		}, (document, xmlDocument, region, cancelChecker) -> {
+			return parser.parseIncremental(document, xmlDocument, region, true, parserOptions, cancelChecker);
 		});
+		documents.setExecutor(executors.getExecutor(ExecutorKind.PARSE));
+		this.documents = documents;
+		this.resultCacheStatistics = documents.getResultCacheStatistics();
+		this.validationScheduler = new ValidationScheduler(executors.getExecutor(ExecutorKind.VALIDATION));
 		this.sharedSettings = new SharedSettings();
 		this.limitExceededWarner = null;
 	}
@@ -207,14 +262,14 @@ public class XMLTextDocumentService implements TextDocumentService {
 			CompletionList list = getXMLLanguageService().doComplete(xmlDocument, params.getPosition(), sharedSettings,
 					cancelChecker);
 			return Either.forRight(list);
-		});
+		}, ExecutorKind.INTERACTIVE);
 	}
 
 	@Override
 	public CompletableFuture<Hover> hover(HoverParams params) {
 		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().doHover(xmlDocument, params.getPosition(), sharedSettings, cancelChecker);
-		});
+		}, ExecutorKind.INTERACTIVE);
 	}
 
 	/**
@@ -252,7 +307,7 @@ public class XMLTextDocumentService implements TextDocumentService {
 	public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(DocumentHighlightParams params) {
 		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().findDocumentHighlights(xmlDocument, params.getPosition(), cancelChecker);
-		});
+		}, ExecutorKind.INTERACTIVE);
 	}
 
 	@Override
@@ -269,7 +324,8 @@ public class XMLTextDocumentService implements TextDocumentService {
 			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
 
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
+		return computeCachedDOMAsync(params.getTextDocument(),
+				Arrays.asList("documentSymbol", hierarchicalDocumentSymbolSupport), (cancelChecker, xmlDocument) -> {
 			boolean resultLimitExceeded = false;
 			List<Either<SymbolInformation, DocumentSymbol>> symbols = null;
 
@@ -301,12 +357,12 @@ public class XMLTextDocumentService implements TextDocumentService {
 						LimitFeature.SYMBOLS);
 			}
 			return symbols;
-		});
+		}, ExecutorKind.REQUEST);
 	}
 
 	@Override
 	public CompletableFuture<List<? extends TextEdit>> formatting(DocumentFormattingParams params) {
-		return computeAsync((cancelChecker) -> {
+		return computeAsync(executors.getExecutor(ExecutorKind.REQUEST), (cancelChecker) -> {
 			String uri = params.getTextDocument().getUri();
 			TextDocument document = getDocument(uri);
 			if (document == null) {
@@ -319,13 +375,19 @@ public class XMLTextDocumentService implements TextDocumentService {
 
 	@Override
 	public CompletableFuture<List<? extends TextEdit>> rangeFormatting(DocumentRangeFormattingParams params) {
-		return computeAsync((cancelChecker) -> {
+		return computeAsync(executors.getExecutor(ExecutorKind.REQUEST), (cancelChecker) -> {
 			String uri = params.getTextDocument().getUri();
-			TextDocument document = getDocument(uri);
+			ModelTextDocument<DOMDocument> document = getDocument(uri);
 			if (document == null) {
 				return null;
 			}
 			CompositeSettings settings = new CompositeSettings(getSharedSettings(), params.getOptions());
+			DOMDocument xmlDocument = document.getModelIfLoaded();
+			if (xmlDocument != null) {
+				// the scanner checkpoints of the parsed document limit the parse of the
+				// formatter to the text which precedes the range
+				return getXMLLanguageService().format(xmlDocument, params.getRange(), settings);
+			}
 			return getXMLLanguageService().format(document, params.getRange(), settings);
 		});
 	}
@@ -340,6 +402,11 @@ public class XMLTextDocumentService implements TextDocumentService {
 	@Override
 	public void didOpen(DidOpenTextDocumentParams params) {
 		TextDocument document = documents.onDidOpenTextDocument(params);
+		// The grammars of the opened document are unknown until it is validated
+		ContentModelManager contentModelManager = getXMLLanguageService().getComponent(ContentModelManager.class);
+		if (contentModelManager != null) {
+			contentModelManager.getGrammarDependencies().open(document.getUri());
+		}
 		triggerValidationFor(document);
 	}
 
@@ -357,24 +424,30 @@ public class XMLTextDocumentService implements TextDocumentService {
 		documents.onDidCloseTextDocument(params);
 		TextDocumentIdentifier document = params.getTextDocument();
 		String uri = document.getUri();
+		validationScheduler.cancel(uri);
 		xmlLanguageServer.getLanguageClient()
 				.publishDiagnostics(new PublishDiagnosticsParams(uri, Collections.emptyList()));
 		getLimitExceededWarner().evictValue(uri);
+		// The closed document must not be revalidated when a grammar changes
+		ContentModelManager contentModelManager = getXMLLanguageService().getComponent(ContentModelManager.class);
+		if (contentModelManager != null) {
+			contentModelManager.getGrammarDependencies().remove(uri);
+		}
 	}
 
 	@Override
 	public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params) {
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
+		return computeCachedDOMAsync(params.getTextDocument(), "foldingRange", (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().getFoldingRanges(xmlDocument, sharedSettings.getFoldingSettings(),
 					cancelChecker);
-		});
+		}, ExecutorKind.REQUEST);
 	}
 
 	@Override
 	public CompletableFuture<List<DocumentLink>> documentLink(DocumentLinkParams params) {
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
+		return computeCachedDOMAsync(params.getTextDocument(), "documentLink", (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().findDocumentLinks(xmlDocument);
-		});
+		}, ExecutorKind.REQUEST);
 	}
 
 	@Override
@@ -424,10 +497,10 @@ public class XMLTextDocumentService implements TextDocumentService {
 		if (!sharedSettings.getCodeLensSettings().isEnabled()) {
 			return CompletableFuture.completedFuture(Collections.emptyList());
 		}
-		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
+		return computeCachedDOMAsync(params.getTextDocument(), "codeLens", (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().getCodeLens(xmlDocument, sharedSettings.getCodeLensSettings(),
 					cancelChecker);
-		});
+		}, ExecutorKind.REQUEST);
 	}
 
 	@Override
@@ -473,12 +546,12 @@ public class XMLTextDocumentService implements TextDocumentService {
 	public CompletableFuture<LinkedEditingRanges> linkedEditingRange(LinkedEditingRangeParams params) {
 		return computeDOMAsync(params.getTextDocument(), (cancelChecker, xmlDocument) -> {
 			return getXMLLanguageService().findLinkedEditingRanges(xmlDocument, params.getPosition(), cancelChecker);
-		});
+		}, ExecutorKind.INTERACTIVE);
 	}
 
 	@Override
 	public void didSave(DidSaveTextDocumentParams params) {
-		computeAsync((monitor) -> {
+		computeAsync(executors.getExecutor(ExecutorKind.BACKGROUND), (monitor) -> {
 			// A document was saved, collect documents to revalidate
 			SaveContext context = new SaveContext(params.getTextDocument().getUri());
 			doSave(context);
@@ -501,6 +574,27 @@ public class XMLTextDocumentService implements TextDocumentService {
 		doSave(context);
 	}
 
+	/**
+	 * Process the given files which have changed outside of the editor (ex : XML
+	 * Schemas which are generated by a build) in background and validate once the
+	 * documents collected for all the files.
+	 *
+	 * @param uris the URIs of the changed files.
+	 */
+	void doSave(Collection<String> uris) {
+		computeAsync(executors.getExecutor(ExecutorKind.BACKGROUND), (monitor) -> {
+			Set<ModelTextDocument<DOMDocument>> documentsToValidate = new LinkedHashSet<>();
+			for (String uri : uris) {
+				getXMLLanguageService().doSave(new SaveContext(uri, documentsToValidate));
+			}
+			// the changed files (ex : an XML Schema) can change the results computed for
+			// the documents which depend on them
+			documentsToValidate.forEach(ModelTextDocument::invalidateResults);
+			triggerValidationFor(documentsToValidate);
+			return null;
+		});
+	}
+
 	/**
 	 * Save settings or XML file.
 	 *
@@ -508,32 +602,44 @@ public class XMLTextDocumentService implements TextDocumentService {
 	 */
 	void doSave(SaveContext context) {
 		getXMLLanguageService().doSave(context);
+		// the settings or the saved file (ex : an XML Schema) can change the results
+		// computed for the documents
+		context.invalidateResults();
 		context.triggerValidationIfNeeded();
 	}
 
 	private void triggerValidationFor(Collection<ModelTextDocument<DOMDocument>> documents) {
-		if (!documents.isEmpty()) {
-			xmlLanguageServer.schedule(() -> {
-				documents.forEach(document -> {
-					try {
-						validate(document.getModel().getNow(null));
-					} catch (CancellationException e) {
-						// Ignore the error and continue to validate other documents
-					}
-				});
-			}, 500, TimeUnit.MILLISECONDS);
-		}
+		documents.forEach(document -> triggerValidationFor(document, SAVE_VALIDATION_DELAY));
 	}
 
-	@SuppressWarnings("unchecked")
 	private void triggerValidationFor(TextDocument document) {
-		((ModelTextDocument<DOMDocument>) document).getModel().thenAcceptAsync(xmlDocument -> {
-			validate(xmlDocument);
-		});
+		triggerValidationFor(document, 0);
+	}
+
+	/**
+	 * Schedule the validation of the given document with the validation scheduler
+	 * which coalesces the validation requests of the document.
+	 * 
+	 * @param document the document to validate.
+	 * @param minDelay the minimum delay in milliseconds before validating the
+	 *                 document.
+	 */
+	@SuppressWarnings("unchecked")
+	private void triggerValidationFor(TextDocument document, long minDelay) {
+		ModelTextDocument<DOMDocument> modelDocument = (ModelTextDocument<DOMDocument>) document;
+		// the validation starts when the document is parsed
+		validationScheduler.schedule(document.getUri(), modelDocument::getModel, this::validate, minDelay);
 	}
 
 	void validate(DOMDocument xmlDocument) throws CancellationException {
-		CancelChecker cancelChecker = xmlDocument.getCancelChecker();
+		validate(xmlDocument, null);
+	}
+
+	private void validate(DOMDocument xmlDocument, CancelChecker validationCancelChecker)
+			throws CancellationException {
+		CancelChecker cancelChecker = validationCancelChecker != null
+				? new MultiCancelChecker(xmlDocument.getCancelChecker(), validationCancelChecker)
+				: xmlDocument.getCancelChecker();
 		cancelChecker.checkCanceled();
 		getXMLLanguageService().publishDiagnostics(xmlDocument,
 				params -> xmlLanguageServer.getLanguageClient().publishDiagnostics(params),
@@ -560,6 +666,26 @@ public class XMLTextDocumentService implements TextDocumentService {
 		sharedSettings.getPreferences().merge(newPreferences);
 	}
 
+	/**
+	 * Returns the validation scheduler which coalesces the validation requests of
+	 * the documents.
+	 * 
+	 * @return the validation scheduler.
+	 */
+	public ValidationScheduler getValidationScheduler() {
+		return validationScheduler;
+	}
+
+	/**
+	 * Returns the executors used to process the requests, parse the documents and
+	 * execute background tasks.
+	 * 
+	 * @return the executors.
+	 */
+	public ServerExecutors getExecutors() {
+		return executors;
+	}
+
 	public XMLSymbolSettings getSharedSymbolSettings() {
 		return sharedSettings.getSymbolSettings();
 	}
@@ -621,17 +747,74 @@ public class XMLTextDocumentService implements TextDocumentService {
 	 */
 	public <R> CompletableFuture<R> computeDOMAsync(TextDocumentIdentifier documentIdentifier,
 			BiFunction<CancelChecker, DOMDocument, R> code) {
+		return computeDOMAsync(documentIdentifier, code, ExecutorKind.REQUEST);
+	}
+
+	/**
+	 * Returns the DOM document for a given uri in a future and then apply the
+	 * given function with the executor of the given kind.
+	 * 
+	 * @param <R>
+	 * @param documentIdentifier the document indetifier.
+	 * @param code               a bi function that accepts a {@link CancelChecker}
+	 *                           and parsed {@link DOMDocument} and returns the to
+	 *                           be computed value
+	 * @param kind               the kind of executor used to apply the function.
+	 * @return the DOM document for a given uri in a future and then apply the given
+	 *         function.
+	 */
+	public <R> CompletableFuture<R> computeDOMAsync(TextDocumentIdentifier documentIdentifier,
+			BiFunction<CancelChecker, DOMDocument, R> code, ExecutorKind kind) {
+		ModelTextDocument<DOMDocument> document = getDocument(documentIdentifier.getUri());
+		if (document != null) {
+			return computeModelAsync(document.getModel(), code, executors.getExecutor(kind));
+		}
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * Returns the DOM document for a given uri in a future and then apply the
+	 * given function with the executor of the given kind, or returns the result
+	 * cached for the given key if it has already been computed for the current
+	 * version of the document.
+	 * 
+	 * @param <R>
+	 * @param documentIdentifier the document indetifier.
+	 * @param key                the key of the result (the request kind and the
+	 *                           parameters used to compute the result).
+	 * @param code               a bi function that accepts a {@link CancelChecker}
+	 *                           and parsed {@link DOMDocument} and returns the to
+	 *                           be computed value
+	 * @param kind               the kind of executor used to apply the function.
+	 * @return the DOM document for a given uri in a future and then apply the given
+	 *         function.
+	 */
+	private <R> CompletableFuture<R> computeCachedDOMAsync(TextDocumentIdentifier documentIdentifier, Object key,
+			BiFunction<CancelChecker, DOMDocument, R> code, ExecutorKind kind) {
 		ModelTextDocument<DOMDocument> document = getDocument(documentIdentifier.getUri());
 		if (document != null) {
-			return computeModelAsync(document.getModel(), code);
+			return computeModelAsync(document.getModel(), (cancelChecker, xmlDocument) -> {
+				return document.computeResult(xmlDocument, key, () -> code.apply(cancelChecker, xmlDocument));
+			}, executors.getExecutor(kind));
 		}
 		return CompletableFuture.completedFuture(null);
 	}
 
+	/**
+	 * Returns the hit and miss statistics of the results (ex : document symbols,
+	 * folding ranges) cached for the current version of the documents.
+	 * 
+	 * @return the hit and miss statistics of the results cached for the current
+	 *         version of the documents.
+	 */
+	public ModelResultCache.Statistics getResultCacheStatistics() {
+		return resultCacheStatistics;
+	}
+
 	private static <R, M> CompletableFuture<R> computeModelAsync(CompletableFuture<M> loadModel,
-			BiFunction<CancelChecker, M, R> code) {
+			BiFunction<CancelChecker, M, R> code, Executor executor) {
 		CompletableFuture<CancelChecker> start = new CompletableFuture<>();
-		CompletableFuture<R> result = start.thenCombineAsync(loadModel, code);
+		CompletableFuture<R> result = start.thenCombineAsync(loadModel, code, executor);
 		CancelChecker cancelIndicator = () -> {
 			if (result.isCancelled())
 				throw new CancellationException();
@@ -14,11 +14,14 @@ package org.eclipse.lemminx;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
 import org.eclipse.lemminx.services.extensions.commands.IXMLCommandService;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
@@ -61,7 +64,8 @@ public class XMLWorkspaceService implements WorkspaceService, IXMLCommandService
 				throw new ResponseErrorException(new ResponseError(ResponseErrorCode.InternalError,
 						"No command handler for the command: " + params.getCommand(), null));
 			}
-			return CompletableFutures.computeAsync(cancelChecker -> {
+			return CompletableFutures.computeAsync(xmlLanguageServer.getExecutors().getExecutor(ExecutorKind.REQUEST),
+					cancelChecker -> {
 				try {
 					return handler.executeCommand(params, xmlLanguageServer.getSharedSettings(), cancelChecker);
 				} catch (Exception e) {
@@ -93,11 +97,16 @@ public class XMLWorkspaceService implements WorkspaceService, IXMLCommandService
 		XMLTextDocumentService xmlTextDocumentService = (XMLTextDocumentService) xmlLanguageServer
 				.getTextDocumentService();
 		List<FileEvent> changes = params.getChanges();
+		Set<String> uris = new LinkedHashSet<>();
 		for (FileEvent change : changes) {
 			if (!xmlTextDocumentService.documentIsOpen(change.getUri())) {
-				xmlTextDocumentService.doSave(change.getUri());
+				uris.add(change.getUri());
 			}
 		}
+		if (!uris.isEmpty()) {
+			// the documents which depend on several changed files are validated once
+			xmlTextDocumentService.doSave(uris);
+		}
 	}
 
 	@Override
@@ -0,0 +1,391 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.util.Arrays;
+
+import org.eclipse.lsp4j.Position;
+
+/**
+ * Line tracker which stores the start offset of each line in an int array and
+ * the line delimiter of each line in a byte array.
+ * 
+ * <p>
+ * The line of an offset is found with a binary search, the offset of a position
+ * is computed directly from the array and the arrays are patched when the text
+ * is replaced: the lines before the replaced region are kept, the lines after
+ * the replaced region are shifted with {@link System#arraycopy}, only the
+ * inserted text and the line delimiters around the region are scanned.
+ * </p>
+ * 
+ * <p>
+ * The line scheme is the same than {@link ILineTracker} implementations of
+ * Eclipse (ex : "a\nbc\n" -> [0,2], [2,3], [5,0]) with "\r", "\n" and "\r\n"
+ * line delimiters.
+ * </p>
+ *
+ */
+class ArrayLineTracker implements ILineTracker {
+
+	private static final byte NO_DELIMITER = 0;
+	private static final byte CR = 1;
+	private static final byte LF = 2;
+	private static final byte CRLF = 3;
+
+	private static final String[] DELIMITERS = { null, "\r", "\n", "\r\n" };
+
+	// The number of lines traversed by the sweep of the batch conversion before
+	// searching the line with a binary search
+	private static final int MAX_SWEEP_LINES = 8;
+
+	// The start offset of each line
+	private int[] lineStarts;
+
+	// The line delimiter of each line, the last line has no delimiter
+	private byte[] delimiters;
+
+	private int lines;
+
+	private int textLength;
+
+	/**
+	 * The line delimiters (end offset and kind) found in a text.
+	 */
+	private static class Delimiters {
+
+		private int[] ends = new int[8];
+		private byte[] kinds = new byte[8];
+		private int size;
+
+		void add(int end, byte kind) {
+			if (kind == LF && size > 0 && kinds[size - 1] == CR && ends[size - 1] == end - 1) {
+				// '\r' followed by '\n'
+				kinds[size - 1] = CRLF;
+				ends[size - 1] = end;
+				return;
+			}
+			if (size == ends.length) {
+				ends = Arrays.copyOf(ends, size * 2);
+				kinds = Arrays.copyOf(kinds, size * 2);
+			}
+			ends[size] = end;
+			kinds[size] = kind;
+			size++;
+		}
+
+		void addAll(String text, int offset) {
+			int length = text.length();
+			for (int i = 0; i < length; i++) {
+				char c = text.charAt(i);
+				if (c == '\r') {
+					if (i + 1 < length && text.charAt(i + 1) == '\n') {
+						add(offset + i + 2, CRLF);
+						i++;
+					} else {
+						add(offset + i + 1, CR);
+					}
+				} else if (c == '\n') {
+					add(offset + i + 1, LF);
+				}
+			}
+		}
+	}
+
+	public ArrayLineTracker() {
+		set("");
+	}
+
+	@Override
+	public String getLineDelimiter(int line) throws BadLocationException {
+		checkLine(line);
+		return line < lines ? DELIMITERS[delimiters[line]] : null;
+	}
+
+	@Override
+	public int computeNumberOfLines(String text) {
+		Delimiters delimiters = new Delimiters();
+		delimiters.addAll(text, 0);
+		return delimiters.size;
+	}
+
+	@Override
+	public int getNumberOfLines() {
+		return lines;
+	}
+
+	@Override
+	public int getNumberOfLines(int offset, int length) throws BadLocationException {
+		if (offset < 0 || offset + length > textLength) {
+			throw new BadLocationException();
+		}
+		if (length == 0) {
+			return 1;
+		}
+		int startLine = getLineNumberOfOffset(offset);
+		if (startLine == lines - 1) {
+			// the last line has no delimiter
+			return 1;
+		}
+		int target = offset + length;
+		int nextLineStart = lineStarts[startLine + 1];
+		if (nextLineStart > target) {
+			return 1;
+		}
+		if (nextLineStart == target) {
+			return 2;
+		}
+		return getLineNumberOfOffset(target) - startLine + 1;
+	}
+
+	@Override
+	public int getLineOffset(int line) throws BadLocationException {
+		checkLine(line);
+		if (line == lines) {
+			throw new BadLocationException();
+		}
+		return lineStarts[line];
+	}
+
+	@Override
+	public int getLineLength(int line) throws BadLocationException {
+		int trackedLines = getTrackedLines();
+		if (line < 0 || line > trackedLines) {
+			throw new BadLocationException();
+		}
+		if (line == trackedLines) {
+			return 0;
+		}
+		return getLineEndWithDelimiter(line) - lineStarts[line];
+	}
+
+	@Override
+	public int getLineNumberOfOffset(int offset) throws BadLocationException {
+		if (offset < 0) {
+			throw new BadLocationException("Negative offset : " + offset); //$NON-NLS-1$
+		} else if (offset > textLength) {
+			throw new BadLocationException("Offset > length: " + offset + " > " + textLength); //$NON-NLS-1$//$NON-NLS-2$
+		}
+		if (offset == textLength) {
+			return lines - 1;
+		}
+		return findLine(offset, 0);
+	}
+
+	@Override
+	public Line getLineInformationOfOffset(int offset) throws BadLocationException {
+		if (offset > textLength) {
+			throw new BadLocationException("Offset > length: " + offset + " > " + textLength); //$NON-NLS-1$//$NON-NLS-2$
+		}
+		if (offset == textLength) {
+			int lineStart = lineStarts[lines - 1];
+			return new Line(lineStart, textLength - lineStart);
+		}
+		return getLineInformation(offset < 0 ? -1 : findLine(offset, 0));
+	}
+
+	@Override
+	public Line getLineInformation(int line) throws BadLocationException {
+		checkLine(line);
+		if (line == lines) {
+			return new Line(textLength, 0);
+		}
+		return new Line(lineStarts[line], getLineEnd(line) - lineStarts[line]);
+	}
+
+	@Override
+	public Position getPositionAt(int offset) throws BadLocationException {
+		int line = getLineNumberOfOffset(offset);
+		return new Position(line, offset - lineStarts[line]);
+	}
+
+	/**
+	 * Returns the positions of the given offsets.
+	 * 
+	 * <p>
+	 * When the offsets are sorted, the positions are computed with one sweep of
+	 * the lines: the line of an offset is searched from the line of the previous
+	 * offset, and with a binary search only if it is far from the previous line.
+	 * </p>
+	 * 
+	 * @param offsets the offsets.
+	 * @return the positions of the given offsets.
+	 * @throws BadLocationException if an offset is out of bounds.
+	 */
+	public Position[] getPositionsAt(int... offsets) throws BadLocationException {
+		Position[] positions = new Position[offsets.length];
+		int line = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			int offset = offsets[i];
+			if (offset < lineStarts[line] || offset > textLength) {
+				// the offsets are not sorted
+				line = getLineNumberOfOffset(offset);
+			} else {
+				int sweptLines = 0;
+				while (line + 1 < lines && lineStarts[line + 1] <= offset) {
+					if (++sweptLines > MAX_SWEEP_LINES) {
+						line = findLine(offset, line);
+						break;
+					}
+					line++;
+				}
+			}
+			positions[i] = new Position(line, offset - lineStarts[line]);
+		}
+		return positions;
+	}
+
+	@Override
+	public int getOffsetAt(Position position) throws BadLocationException {
+		int line = position.getLine();
+		checkLine(line);
+		int lineOffset = textLength;
+		int lineEnd = textLength;
+		if (line < lines) {
+			lineOffset = lineStarts[line];
+			lineEnd = getLineEnd(line);
+		}
+		int character = position.getCharacter();
+		int offset = lineOffset + character;
+		if (offset > lineEnd) {
+			throw new BadLocationException(
+					"The character value, {" + character + "} of the line" + line + "}, is out of bounds.");
+		}
+		return offset;
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) throws BadLocationException {
+		int start = offset;
+		int end = offset + length;
+		if (start < 0 || length < 0 || end > textLength) {
+			throw new BadLocationException();
+		}
+		if (length == 0 && text.isEmpty()) {
+			return;
+		}
+		int delta = text.length() - length;
+		int startLine = findLine(start, 0);
+		int endLine = findLine(end, startLine);
+
+		// The lines before the start line are not changed except the line delimiter of
+		// the previous line (ex : '\r' followed by an inserted '\n')
+		int prefixLines = Math.max(startLine, 1);
+		Delimiters changed = new Delimiters();
+		if (startLine > 0) {
+			changed.add(lineStarts[startLine], delimiters[startLine - 1]);
+		}
+		if (startLine < lines - 1 && delimiters[startLine] == CRLF && lineStarts[startLine + 1] == start + 1) {
+			// the region starts between '\r' and '\n'
+			changed.add(start, CR);
+		}
+		changed.addAll(text, start);
+		int suffixLine = endLine;
+		if (endLine < lines - 1 && delimiters[endLine] == CRLF && lineStarts[endLine + 1] == end + 1) {
+			// the region ends between '\r' and '\n'
+			changed.add(end + 1 + delta, LF);
+			suffixLine++;
+		}
+		if (suffixLine < lines - 1) {
+			// the line delimiter after the region (ex : '\n' after an inserted '\r')
+			changed.add(lineStarts[suffixLine + 1] + delta, delimiters[suffixLine]);
+			suffixLine++;
+		}
+
+		// Update the arrays : [prefix lines][changed lines][shifted suffix lines]
+		int suffixLines = lines - 1 - suffixLine;
+		int newLines = prefixLines + changed.size + suffixLines;
+		ensureCapacity(newLines);
+		System.arraycopy(lineStarts, suffixLine + 1, lineStarts, prefixLines + changed.size, suffixLines);
+		System.arraycopy(delimiters, suffixLine, delimiters, prefixLines - 1 + changed.size, suffixLines + 1);
+		System.arraycopy(changed.ends, 0, lineStarts, prefixLines, changed.size);
+		System.arraycopy(changed.kinds, 0, delimiters, prefixLines - 1, changed.size);
+		if (delta != 0) {
+			for (int i = prefixLines + changed.size; i < newLines; i++) {
+				lineStarts[i] += delta;
+			}
+		}
+		lines = newLines;
+		textLength += delta;
+	}
+
+	@Override
+	public void set(String text) {
+		Delimiters delimiters = new Delimiters();
+		if (text != null) {
+			delimiters.addAll(text, 0);
+		}
+		this.lines = delimiters.size + 1;
+		this.lineStarts = new int[lines];
+		this.delimiters = new byte[lines];
+		System.arraycopy(delimiters.ends, 0, lineStarts, 1, delimiters.size);
+		System.arraycopy(delimiters.kinds, 0, this.delimiters, 0, delimiters.size);
+		this.textLength = text != null ? text.length() : 0;
+	}
+
+	/**
+	 * Returns the number of lines of the Eclipse line trackers which don't count
+	 * the last empty line.
+	 */
+	private int getTrackedLines() {
+		return lineStarts[lines - 1] < textLength ? lines : lines - 1;
+	}
+
+	private void checkLine(int line) throws BadLocationException {
+		if (line < 0 || line > getTrackedLines()) {
+			throw new BadLocationException("The line value, {" + line + "}, is out of bounds.");
+		}
+	}
+
+	/**
+	 * Returns the end offset of the given line without the line delimiter.
+	 */
+	private int getLineEnd(int line) {
+		if (line + 1 < lines) {
+			byte delimiter = delimiters[line];
+			return lineStarts[line + 1] - (delimiter == CRLF ? 2 : 1);
+		}
+		return textLength;
+	}
+
+	/**
+	 * Returns the end offset of the given line with the line delimiter.
+	 */
+	private int getLineEndWithDelimiter(int line) {
+		return line + 1 < lines ? lineStarts[line + 1] : textLength;
+	}
+
+	/**
+	 * Returns the last line which starts before or at the given offset, searched
+	 * from the given line.
+	 */
+	private int findLine(int offset, int fromLine) {
+		int low = fromLine;
+		int high = lines - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (lineStarts[mid] <= offset) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > lineStarts.length) {
+			int newCapacity = Math.max(capacity, lineStarts.length + (lineStarts.length >> 1));
+			lineStarts = Arrays.copyOf(lineStarts, newCapacity);
+			delimiters = Arrays.copyOf(delimiters, newCapacity);
+		}
+	}
+}
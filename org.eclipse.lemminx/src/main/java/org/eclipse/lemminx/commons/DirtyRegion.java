@@ -0,0 +1,116 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+/**
+ * The region of a text document which has been modified since a given version
+ * of the text.
+ *
+ * <p>
+ * A dirty region merges several text changes in one region which is expressed
+ * both with offsets of the old text (before the changes) and offsets of the new
+ * text (after the changes) :
+ * </p>
+ *
+ * <ul>
+ * <li>[start, oldEnd[ is the replaced region in the old text.</li>
+ * <li>[start, newEnd[ is the replacing region in the new text.</li>
+ * </ul>
+ *
+ */
+public class DirtyRegion {
+
+	private int start;
+
+	private int oldEnd;
+
+	private int newEnd;
+
+	public DirtyRegion(int offset, int length, int newLength) {
+		this.start = offset;
+		this.oldEnd = offset + length;
+		this.newEnd = offset + newLength;
+	}
+
+	/**
+	 * Creates a copy of the given dirty region.
+	 *
+	 * @param region the dirty region to copy.
+	 */
+	public DirtyRegion(DirtyRegion region) {
+		this.start = region.start;
+		this.oldEnd = region.oldEnd;
+		this.newEnd = region.newEnd;
+	}
+
+	/**
+	 * Merge the given text change with this dirty region.
+	 *
+	 * @param offset    the start offset of the change (in the current text).
+	 * @param length    the length of the replaced text.
+	 * @param newLength the length of the inserted text.
+	 */
+	public void merge(int offset, int length, int newLength) {
+		int changeEnd = offset + length;
+		if (changeEnd > newEnd) {
+			// the text after the region is the old text shifted by the delta of the region
+			oldEnd += changeEnd - newEnd;
+			newEnd = changeEnd;
+		}
+		if (offset < start) {
+			// the text before the region is the same in the old and the new text
+			start = offset;
+		}
+		newEnd += newLength - length;
+	}
+
+	/**
+	 * Returns the start offset of the region (same offset in old and new text).
+	 *
+	 * @return the start offset of the region (same offset in old and new text).
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the end offset of the region in the old text.
+	 *
+	 * @return the end offset of the region in the old text.
+	 */
+	public int getOldEnd() {
+		return oldEnd;
+	}
+
+	/**
+	 * Returns the end offset of the region in the new text.
+	 *
+	 * @return the end offset of the region in the new text.
+	 */
+	public int getNewEnd() {
+		return newEnd;
+	}
+
+	/**
+	 * Returns the difference between the new and the old text length.
+	 *
+	 * @return the difference between the new and the old text length.
+	 */
+	public int getDelta() {
+		return newEnd - oldEnd;
+	}
+
+	@Override
+	public String toString() {
+		return "[start=" + start + ", oldEnd=" + oldEnd + ", newEnd=" + newEnd + "]";
+	}
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Incremental update of a model linked to a {@link ModelTextDocument}.
+ *
+ * @param <T> the model type (ex : DOM Document)
+ */
+@FunctionalInterface
+public interface IModelUpdater<T> {
+
+	/**
+	 * Returns a new model which is the given model, loaded with a previous text of
+	 * the given document, updated with the given region or null if the model
+	 * cannot be updated incrementally (the model must be parsed fully in this
+	 * case).
+	 *
+	 * <p>
+	 * The given model must not be modified: it can be used by other threads while
+	 * the new model is created. The given model can be returned only if the text
+	 * has not changed.
+	 * </p>
+	 *
+	 * @param document      the text document.
+	 * @param model         the model loaded with a previous text of the document.
+	 * @param region        the region modified since the model was loaded and null
+	 *                      if the text has not changed.
+	 * @param cancelChecker the cancel checker.
+	 * @return the updated model or null if the model cannot be updated
+	 *         incrementally.
+	 */
+	T update(TextDocument document, T model, DirtyRegion region, CancelChecker cancelChecker);
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the results computed with the model of a {@link ModelTextDocument}
+ * (ex : the document symbols, the folding ranges) for the current version of
+ * the document.
+ * 
+ * <p>
+ * The results are stored by key (the request kind and the request parameters
+ * which are used to compute the result) and they are removed when the text or
+ * the version of the document changes (see {@link #invalidate()}), so a
+ * request which is sent again by the client for the same version of the
+ * document returns the cached result.
+ * </p>
+ *
+ */
+public class ModelResultCache {
+
+	private static final Object NULL_RESULT = new Object();
+
+	/**
+	 * Hit and miss statistics of the result caches.
+	 */
+	public static class Statistics {
+
+		private final AtomicLong hitCount = new AtomicLong();
+
+		private final AtomicLong missCount = new AtomicLong();
+
+		/**
+		 * Returns the number of times a cached result was returned.
+		 * 
+		 * @return the number of times a cached result was returned.
+		 */
+		public long getHitCount() {
+			return hitCount.get();
+		}
+
+		/**
+		 * Returns the number of times a result was computed.
+		 * 
+		 * @return the number of times a result was computed.
+		 */
+		public long getMissCount() {
+			return missCount.get();
+		}
+
+		/**
+		 * Returns the ratio of requests which returned a cached result and 1 if there
+		 * were no request.
+		 * 
+		 * @return the ratio of requests which returned a cached result.
+		 */
+		public double getHitRate() {
+			long hits = hitCount.get();
+			long requests = hits + missCount.get();
+			return requests == 0 ? 1.0 : (double) hits / requests;
+		}
+	}
+
+	private final Map<Object, Object> results;
+
+	private volatile Statistics statistics;
+
+	private int generation;
+
+	public ModelResultCache() {
+		this.results = new HashMap<>();
+		this.statistics = new Statistics();
+	}
+
+	/**
+	 * Returns the current generation of the cache which is incremented when the
+	 * cache is invalidated.
+	 * 
+	 * @return the current generation of the cache.
+	 */
+	public synchronized int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Returns the cached result for the given key if the cache has not been
+	 * invalidated since the given generation, otherwise compute the result and
+	 * cache it.
+	 * 
+	 * @param <R>        the result type.
+	 * @param generation the generation of the cache when the model used to compute
+	 *                   the result was loaded.
+	 * @param key        the key (request kind and parameters).
+	 * @param compute    the function which computes the result.
+	 * @return the cached or computed result.
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R get(int generation, Object key, Supplier<R> compute) {
+		synchronized (this) {
+			Object result = this.generation == generation ? results.get(key) : null;
+			if (result != null) {
+				statistics.hitCount.incrementAndGet();
+				return result == NULL_RESULT ? null : (R) result;
+			}
+		}
+		statistics.missCount.incrementAndGet();
+		R result = compute.get();
+		synchronized (this) {
+			if (this.generation == generation) {
+				results.put(key, result != null ? result : NULL_RESULT);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the cached results.
+	 */
+	public synchronized void invalidate() {
+		generation++;
+		results.clear();
+	}
+
+	/**
+	 * Returns the hit and miss statistics of the cache.
+	 * 
+	 * @return the hit and miss statistics of the cache.
+	 */
+	public Statistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Set the statistics updated by the cache (ex : the statistics shared by all
+	 * the documents).
+	 * 
+	 * @param statistics the statistics updated by the cache.
+	 */
+	public void setStatistics(Statistics statistics) {
+		this.statistics = statistics;
+	}
+}
@@ -11,11 +11,16 @@
 *******************************************************************************/
 package org.eclipse.lemminx.commons;
 
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 import org.eclipse.lsp4j.TextDocumentItem;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
@@ -33,16 +38,62 @@ public class ModelTextDocument<T> extends TextDocument {
 
 	private final BiFunction<TextDocument, CancelChecker, T> parse;
 
+	private final IModelUpdater<T> update;
+
 	private CompletableFuture<T> model;
 
+	// The last loaded model which can be updated incrementally with the dirty
+	// region
+	private T lastModel;
+
+	private DirtyRegion dirtyRegion;
+
+	private int textModificationStamp;
+
+	private boolean updatingText;
+
+	// The executor used to parse the model and null to use the common pool
+	private Executor executor;
+
+	// The results computed with the model of the current version
+	private final ModelResultCache resultCache = new ModelResultCache();
+
+	// The model loaded from the current text and the generation of the result
+	// cache when it was loaded
+	private T loadedModel;
+
+	private int loadedGeneration;
+
 	public ModelTextDocument(TextDocumentItem document, BiFunction<TextDocument, CancelChecker, T> parse) {
+		this(document, parse, null);
+	}
+
+	public ModelTextDocument(TextDocumentItem document, BiFunction<TextDocument, CancelChecker, T> parse,
+			IModelUpdater<T> update) {
 		super(document);
 		this.parse = parse;
+		this.update = update;
 	}
 
 	public ModelTextDocument(String text, String uri, BiFunction<TextDocument, CancelChecker, T> parse) {
+		this(text, uri, parse, null);
+	}
+
+	public ModelTextDocument(String text, String uri, BiFunction<TextDocument, CancelChecker, T> parse,
+			IModelUpdater<T> update) {
 		super(text, uri);
 		this.parse = parse;
+		this.update = update;
+	}
+
+	/**
+	 * Set the executor used to load the model.
+	 * 
+	 * @param executor the executor used to load the model and null to use the
+	 *                 common pool.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
 	}
 
 	/**
@@ -51,10 +102,10 @@ public class ModelTextDocument<T> extends TextDocument {
 	 * 
 	 * @return the completable future which loads the model.
 	 */
-	public CompletableFuture<T> getModel() {
+	public synchronized CompletableFuture<T> getModel() {
 		if (model == null) {
 			int version = super.getVersion();
-			model = CompletableFutures.computeAsync((requestCancelChecker) -> {
+			Function<CancelChecker, T> loadModel = (requestCancelChecker) -> {
 				long start = System.currentTimeMillis();
 				try {
 					LOGGER.fine("Start parsing of model with version '" + version);
@@ -62,8 +113,16 @@ public class ModelTextDocument<T> extends TextDocument {
 					// version of document changes
 					MultiCancelChecker cancelChecker = new MultiCancelChecker(requestCancelChecker,
 							new TextDocumentVersionChecker(this, version));
+					// try to update the last loaded model with the changed region
+					T updatedModel = updateModel(cancelChecker);
+					if (updatedModel != null) {
+						return updatedModel;
+					}
 					// parse the model
-					return parse.apply(this, cancelChecker);
+					int stamp = getTextModificationStamp();
+					T parsedModel = parse.apply(this, cancelChecker);
+					setLastModel(parsedModel, stamp);
+					return parsedModel;
 				} catch (CancellationException e) {
 					LOGGER.fine("Stop parsing parsing of model with version '" + version + "' in "
 							+ (System.currentTimeMillis() - start) + "ms");
@@ -72,14 +131,131 @@ public class ModelTextDocument<T> extends TextDocument {
 					LOGGER.fine("End parse of model with version '" + version + "' in "
 							+ (System.currentTimeMillis() - start) + "ms");
 				}
-			});
+			};
+			model = executor != null ? CompletableFutures.computeAsync(executor, loadModel)
+					: CompletableFutures.computeAsync(loadModel);
 		}
 		return model;
 	}
 
+	/**
+	 * Returns the model of the current text if it is already loaded and null
+	 * otherwise.
+	 * 
+	 * <p>
+	 * Unlike {@link #getModel()}, the model is not loaded when it is not loaded
+	 * yet, and null is returned when the load of the model has been canceled or
+	 * has failed.
+	 * </p>
+	 * 
+	 * @return the model of the current text if it is already loaded and null
+	 *         otherwise.
+	 */
+	public synchronized T getModelIfLoaded() {
+		CompletableFuture<T> model = this.model;
+		if (model == null || !model.isDone() || model.isCompletedExceptionally()) {
+			return null;
+		}
+		return model.getNow(null);
+	}
+
+	/**
+	 * Returns a new model which is the last loaded model updated with the changed
+	 * region and null if the model must be parsed fully.
+	 * 
+	 * <p>
+	 * The update is done without locking the document (like the parse), with a
+	 * copy of the dirty region taken with the text modification stamp. The new
+	 * model is kept to be updated with the next changes only if the text has not
+	 * changed during the update, otherwise the last loaded model and the dirty
+	 * region which includes the new changes are kept.
+	 * </p>
+	 * 
+	 * @param cancelChecker the cancel checker.
+	 * @return a new model which is the last loaded model updated with the changed
+	 *         region and null if the model must be parsed fully.
+	 */
+	private T updateModel(CancelChecker cancelChecker) {
+		if (update == null) {
+			return null;
+		}
+		T previousModel;
+		DirtyRegion region;
+		int stamp;
+		synchronized (this) {
+			if (lastModel == null) {
+				return null;
+			}
+			previousModel = lastModel;
+			region = dirtyRegion != null ? new DirtyRegion(dirtyRegion) : null;
+			stamp = textModificationStamp;
+		}
+		long start = System.currentTimeMillis();
+		T updatedModel = update.update(this, previousModel, region, cancelChecker);
+		if (updatedModel != null) {
+			LOGGER.fine("Model updated incrementally with region " + region + " in "
+					+ (System.currentTimeMillis() - start) + "ms");
+			setLastModel(updatedModel, stamp);
+		}
+		return updatedModel;
+	}
+
+	private void setLoadedModel(T model) {
+		loadedModel = model;
+		loadedGeneration = resultCache.getGeneration();
+	}
+
+	private synchronized int getTextModificationStamp() {
+		return textModificationStamp;
+	}
+
+	private synchronized void setLastModel(T model, int stamp) {
+		if (stamp == textModificationStamp) {
+			setLoadedModel(model);
+		}
+		if (update != null && stamp == textModificationStamp) {
+			// the text has not changed during the parse, the model can be updated
+			// incrementally with the next changes.
+			lastModel = model;
+			dirtyRegion = null;
+		}
+	}
+
+	@Override
+	public synchronized void update(List<TextDocumentContentChangeEvent> changes) {
+		updatingText = true;
+		try {
+			super.update(changes);
+		} finally {
+			updatingText = false;
+		}
+	}
+
 	@Override
-	public void setText(String text) {
-		super.setText(text);
+	protected void textChanged(int offset, int length, int newLength) {
+		if (lastModel == null) {
+			return;
+		}
+		if (dirtyRegion == null) {
+			dirtyRegion = new DirtyRegion(offset, length, newLength);
+		} else {
+			dirtyRegion.merge(offset, length, newLength);
+		}
+	}
+
+	@Override
+	protected void setContent(CharSequence content) {
+		super.setContent(content);
+		synchronized (this) {
+			textModificationStamp++;
+			if (!updatingText) {
+				// the changed region is unknown, the model must be parsed fully
+				lastModel = null;
+				dirtyRegion = null;
+			}
+			loadedModel = null;
+			resultCache.invalidate();
+		}
 		// text changed, cancel the completable future which load the model
 		cancelModel();
 	}
@@ -87,17 +263,74 @@ public class ModelTextDocument<T> extends TextDocument {
 	@Override
 	public void setVersion(int version) {
 		super.setVersion(version);
+		synchronized (this) {
+			loadedModel = null;
+			resultCache.invalidate();
+		}
 		// version changed, cancel the completable future which load the model
 		cancelModel();
 	}
 
+	/**
+	 * Returns the result for the given key computed with the given model for the
+	 * current version of the document, or compute it with the given function and
+	 * cache it until the text or the version of the document changes.
+	 * 
+	 * <p>
+	 * The result is cached only if the given model is the model loaded from the
+	 * current text.
+	 * </p>
+	 * 
+	 * @param <R>     the result type.
+	 * @param model   the model used to compute the result.
+	 * @param key     the key of the result (the request kind and the parameters
+	 *                used to compute the result).
+	 * @param compute the function which computes the result.
+	 * @return the cached or computed result.
+	 */
+	public <R> R computeResult(T model, Object key, Supplier<R> compute) {
+		int generation;
+		synchronized (this) {
+			generation = model == loadedModel ? loadedGeneration : -1;
+		}
+		if (generation == -1) {
+			// the model is not loaded from the current text
+			return compute.get();
+		}
+		return resultCache.get(generation, key, compute);
+	}
+
+	/**
+	 * Remove the cached results of the document (ex : when the settings used to
+	 * compute them change).
+	 */
+	public synchronized void invalidateResults() {
+		resultCache.invalidate();
+		// the loaded model is still the model of the current text
+		loadedGeneration = resultCache.getGeneration();
+	}
+
+	/**
+	 * Returns the cache of the results computed with the model of the current
+	 * version.
+	 * 
+	 * @return the cache of the results computed with the model of the current
+	 *         version.
+	 */
+	public ModelResultCache getResultCache() {
+		return resultCache;
+	}
+
 	/**
 	 * Cancel the completable future which loads the model.
 	 */
-	private void cancelModel() {
+	private synchronized void cancelModel() {
+		CompletableFuture<T> model = this.model;
 		if (model != null) {
+			// the model is loaded with the new text by the next call of getModel(), even if
+			// it is called by a thread which waits for the canceled model
+			this.model = null;
 			model.cancel(true);
-			model = null;
 		}
 	}
 
@@ -11,6 +11,7 @@
 *******************************************************************************/
 package org.eclipse.lemminx.commons;
 
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
 import org.eclipse.lsp4j.TextDocumentItem;
@@ -27,14 +28,47 @@ public class ModelTextDocuments<T> extends TextDocuments<ModelTextDocument<T>> {
 
 	private final BiFunction<TextDocument, CancelChecker, T> parse;
 
+	private final IModelUpdater<T> update;
+
+	private Executor executor;
+
+	// The statistics of the result caches of all the documents
+	private final ModelResultCache.Statistics resultCacheStatistics = new ModelResultCache.Statistics();
+
 	public ModelTextDocuments(BiFunction<TextDocument, CancelChecker, T> parse) {
+		this(parse, null);
+	}
+
+	public ModelTextDocuments(BiFunction<TextDocument, CancelChecker, T> parse, IModelUpdater<T> update) {
 		this.parse = parse;
+		this.update = update;
 	}
 
 	@Override
 	public ModelTextDocument<T> createDocument(TextDocumentItem document) {
-		ModelTextDocument<T> doc = new ModelTextDocument<T>(document, parse);
+		ModelTextDocument<T> doc = new ModelTextDocument<T>(document, parse, update);
 		doc.setIncremental(isIncremental());
+		doc.setExecutor(executor);
+		doc.getResultCache().setStatistics(resultCacheStatistics);
 		return doc;
 	}
+
+	/**
+	 * Returns the hit and miss statistics of the result caches of the documents.
+	 * 
+	 * @return the hit and miss statistics of the result caches of the documents.
+	 */
+	public ModelResultCache.Statistics getResultCacheStatistics() {
+		return resultCacheStatistics;
+	}
+
+	/**
+	 * Set the executor used to load the model of the documents.
+	 * 
+	 * @param executor the executor used to load the model of the documents and
+	 *                 null to use the common pool.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
 }
\ No newline at end of file
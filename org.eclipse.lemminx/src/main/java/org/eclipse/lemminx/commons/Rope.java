@@ -0,0 +1,383 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable rope used to store the text of a {@link TextDocument} which is
+ * updated incrementally.
+ *
+ * <p>
+ * A rope is a balanced binary tree where each leaf is a range of a String. A
+ * replace creates a new rope which shares the unchanged leaves with the
+ * original rope, so an edit costs O(log n) and doesn't copy the whole text.
+ * The String of the whole text is created only when {@link #toString()} is
+ * called and is cached.
+ * </p>
+ *
+ */
+public abstract class Rope implements CharSequence {
+
+	/**
+	 * Leaves smaller than this length are merged when they are concatenated.
+	 */
+	private static final int MERGE_LENGTH = 256;
+
+	/**
+	 * The depth of a rope is kept under this value (in addition to log2 of the
+	 * leaves count) to keep O(log n) for charAt and replace.
+	 */
+	private static final int MAX_EXTRA_DEPTH = 16;
+
+	private static final Rope EMPTY = new Leaf("", 0, 0);
+
+	private volatile String text;
+
+	/**
+	 * Returns the rope for the given text.
+	 *
+	 * @param text the text.
+	 * @return the rope for the given text.
+	 */
+	public static Rope of(CharSequence text) {
+		if (text instanceof Rope) {
+			return (Rope) text;
+		}
+		if (text.length() == 0) {
+			return EMPTY;
+		}
+		String s = text.toString();
+		return new Leaf(s, 0, s.length());
+	}
+
+	/**
+	 * Returns a new rope where the text between start (inclusive) and end
+	 * (exclusive) is replaced with the given text.
+	 *
+	 * @param start the start offset.
+	 * @param end   the end offset.
+	 * @param text  the text to insert.
+	 * @return a new rope where the text between start (inclusive) and end
+	 *         (exclusive) is replaced with the given text.
+	 */
+	public Rope replace(int start, int end, CharSequence text) {
+		checkRange(start, end, length());
+		Rope result = concat(concat(subSequence(0, start), of(text)), subSequence(end, length()));
+		return result.isBalanced() ? result : result.rebalance();
+	}
+
+	@Override
+	public abstract Rope subSequence(int start, int end);
+
+	/**
+	 * Copy the characters of this rope between srcBegin (inclusive) and srcEnd
+	 * (exclusive) into the destination array.
+	 *
+	 * @param srcBegin the start offset.
+	 * @param srcEnd   the end offset.
+	 * @param dst      the destination array.
+	 * @param dstBegin the start offset in the destination array.
+	 */
+	public abstract void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin);
+
+	/**
+	 * Returns the depth of the tree.
+	 *
+	 * @return the depth of the tree.
+	 */
+	abstract int depth();
+
+	/**
+	 * Returns the number of leaves.
+	 *
+	 * @return the number of leaves.
+	 */
+	abstract int leafCount();
+
+	abstract void collectLeaves(List<Rope> leaves);
+
+	/**
+	 * Returns the String of the whole text, created the first time and then
+	 * cached.
+	 */
+	@Override
+	public String toString() {
+		String text = this.text;
+		if (text == null) {
+			char[] chars = new char[length()];
+			getChars(0, chars.length, chars, 0);
+			text = new String(chars);
+			this.text = text;
+		}
+		return text;
+	}
+
+	/**
+	 * Returns the String of the whole text if it is already created and null
+	 * otherwise.
+	 */
+	String getCachedText() {
+		return text;
+	}
+
+	private boolean isBalanced() {
+		return depth() <= 32 - Integer.numberOfLeadingZeros(leafCount()) + MAX_EXTRA_DEPTH;
+	}
+
+	private Rope rebalance() {
+		List<Rope> leaves = new ArrayList<>(leafCount());
+		collectLeaves(leaves);
+		return build(leaves, 0, leaves.size());
+	}
+
+	private static Rope build(List<Rope> leaves, int from, int to) {
+		if (to - from == 1) {
+			return leaves.get(from);
+		}
+		int middle = (from + to) >>> 1;
+		return new Node(build(leaves, from, middle), build(leaves, middle, to));
+	}
+
+	private static Rope concat(Rope left, Rope right) {
+		if (left.length() == 0) {
+			return right;
+		}
+		if (right.length() == 0) {
+			return left;
+		}
+		if (left.length() + right.length() <= MERGE_LENGTH && left.depth() == 0 && right.depth() == 0) {
+			return merge(left, right);
+		}
+		if (right.length() < MERGE_LENGTH && right.depth() == 0 && left instanceof Node) {
+			// merge small leaves to avoid a tree with a lot of tiny leaves when the user
+			// types characters
+			Node node = (Node) left;
+			if (node.right.depth() == 0 && node.right.length() + right.length() <= MERGE_LENGTH) {
+				return new Node(node.left, merge(node.right, right));
+			}
+		}
+		return new Node(left, right);
+	}
+
+	private static Rope merge(Rope left, Rope right) {
+		char[] chars = new char[left.length() + right.length()];
+		left.getChars(0, left.length(), chars, 0);
+		right.getChars(0, right.length(), chars, left.length());
+		return of(new String(chars));
+	}
+
+	private static void checkRange(int start, int end, int length) {
+		if (start < 0 || start > end || end > length) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+	}
+
+	/**
+	 * A leaf which is a range of a String.
+	 */
+	private static class Leaf extends Rope {
+
+		private final String value;
+
+		private final int offset;
+
+		private final int length;
+
+		Leaf(String value, int offset, int length) {
+			this.value = value;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+			}
+			return value.charAt(offset + index);
+		}
+
+		@Override
+		public Rope subSequence(int start, int end) {
+			checkRange(start, end, length);
+			if (start == 0 && end == length) {
+				return this;
+			}
+			if (start == end) {
+				return EMPTY;
+			}
+			return new Leaf(value, offset + start, end - start);
+		}
+
+		@Override
+		public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+			value.getChars(offset + srcBegin, offset + srcEnd, dst, dstBegin);
+		}
+
+		@Override
+		public String toString() {
+			if (getCachedText() == null && offset == 0 && length == value.length()) {
+				return value;
+			}
+			return super.toString();
+		}
+
+		@Override
+		int depth() {
+			return 0;
+		}
+
+		@Override
+		int leafCount() {
+			return 1;
+		}
+
+		@Override
+		void collectLeaves(List<Rope> leaves) {
+			leaves.add(this);
+		}
+	}
+
+	/**
+	 * A leaf of a rope with its start offset in the rope.
+	 */
+	private static class LeafCursor {
+
+		private final Leaf leaf;
+
+		private final int start;
+
+		LeafCursor(Leaf leaf, int start) {
+			this.leaf = leaf;
+			this.start = start;
+		}
+	}
+
+	/**
+	 * A node which concatenates two ropes.
+	 */
+	private static class Node extends Rope {
+
+		private final Rope left;
+
+		private final Rope right;
+
+		private final int length;
+
+		private final int depth;
+
+		private final int leafCount;
+
+		// the last leaf accessed by charAt, to scan the rope without searching the
+		// leaf of each character
+		private volatile LeafCursor cursor;
+
+		Node(Rope left, Rope right) {
+			this.left = left;
+			this.right = right;
+			this.length = left.length() + right.length();
+			this.depth = Math.max(left.depth(), right.depth()) + 1;
+			this.leafCount = left.leafCount() + right.leafCount();
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			String text = getCachedText();
+			if (text != null) {
+				return text.charAt(index);
+			}
+			LeafCursor cursor = this.cursor;
+			if (cursor != null && index >= cursor.start && index < cursor.start + cursor.leaf.length) {
+				return cursor.leaf.charAt(index - cursor.start);
+			}
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+			}
+			Rope rope = this;
+			int start = 0;
+			while (rope instanceof Node) {
+				Node node = (Node) rope;
+				int leftLength = node.left.length();
+				if (index - start < leftLength) {
+					rope = node.left;
+				} else {
+					rope = node.right;
+					start += leftLength;
+				}
+			}
+			this.cursor = new LeafCursor((Leaf) rope, start);
+			return rope.charAt(index - start);
+		}
+
+		@Override
+		public Rope subSequence(int start, int end) {
+			checkRange(start, end, length);
+			if (start == 0 && end == length) {
+				return this;
+			}
+			int leftLength = left.length();
+			if (end <= leftLength) {
+				return left.subSequence(start, end);
+			}
+			if (start >= leftLength) {
+				return right.subSequence(start - leftLength, end - leftLength);
+			}
+			return concat(left.subSequence(start, leftLength), right.subSequence(0, end - leftLength));
+		}
+
+		@Override
+		public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+			String text = getCachedText();
+			if (text != null) {
+				text.getChars(srcBegin, srcEnd, dst, dstBegin);
+				return;
+			}
+			int leftLength = left.length();
+			if (srcBegin < leftLength) {
+				int leftEnd = Math.min(srcEnd, leftLength);
+				left.getChars(srcBegin, leftEnd, dst, dstBegin);
+				dstBegin += leftEnd - srcBegin;
+			}
+			if (srcEnd > leftLength) {
+				right.getChars(Math.max(srcBegin - leftLength, 0), srcEnd - leftLength, dst, dstBegin);
+			}
+		}
+
+		@Override
+		int depth() {
+			return depth;
+		}
+
+		@Override
+		int leafCount() {
+			return leafCount;
+		}
+
+		@Override
+		void collectLeaves(List<Rope> leaves) {
+			left.collectLeaves(leaves);
+			right.collectLeaves(leaves);
+		}
+	}
+}
@@ -0,0 +1,411 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The executors used by the language server to process the requests, parse the
+ * documents and execute background tasks.
+ *
+ * <p>
+ * Each kind of task has its own bounded executor, so a long task (ex : the
+ * parse or the validation of a large document) cannot starve the interactive
+ * requests (ex : completion, hover). The interactive executor is elastic : it
+ * keeps its reserved threads and creates new threads when they are busy instead
+ * of queuing the requests, and when the maximum number of threads is reached
+ * the request is executed by the caller thread. The threads of the interactive
+ * executor have a higher priority than the other threads, the threads of the
+ * background executor have the lowest priority.
+ * </p>
+ *
+ * <p>
+ * On JDK 21+, the request, interactive and background executors can be backed
+ * by virtual threads (see {@link #setVirtualThreads(boolean)}). The executor
+ * returned by {@link #getExecutor(ExecutorKind)} always executes the tasks with
+ * the current backing executor, so the callers can keep a reference to it when
+ * virtual threads are enabled or disabled.
+ * </p>
+ *
+ */
+public class ServerExecutors {
+
+	private static final Logger LOGGER = Logger.getLogger(ServerExecutors.class.getName());
+
+	/**
+	 * The maximum number of threads of an elastic executor.
+	 */
+	static final int ELASTIC_MAX_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * The kind of tasks.
+	 */
+	public enum ExecutorKind {
+
+		/**
+		 * Requests which are sent while the user types (ex : completion, hover,
+		 * linked editing).
+		 */
+		INTERACTIVE("lemminx-interactive", 2, Thread.NORM_PRIORITY + 1, true, true),
+
+		/**
+		 * Other requests (ex : document symbols, formatting, commands).
+		 */
+		REQUEST("lemminx-request", Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+				Thread.NORM_PRIORITY, true, false),
+
+		/**
+		 * Parse of the documents.
+		 */
+		PARSE("lemminx-parse", Math.max(1, Runtime.getRuntime().availableProcessors() / 2), Thread.NORM_PRIORITY,
+				false, false),
+
+		/**
+		 * Validation of the documents.
+		 */
+		VALIDATION("lemminx-validation", Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+				Thread.NORM_PRIORITY - 1, false, false),
+
+		/**
+		 * Background tasks (ex : collect of the documents to validate when a file is
+		 * saved).
+		 */
+		BACKGROUND("lemminx-background", 1, Thread.MIN_PRIORITY, true, false);
+
+		private final String threadName;
+
+		private final int defaultThreads;
+
+		private final int priority;
+
+		private final boolean virtualThreadsSupported;
+
+		private final boolean elastic;
+
+		private ExecutorKind(String threadName, int defaultThreads, int priority, boolean virtualThreadsSupported,
+				boolean elastic) {
+			this.threadName = threadName;
+			this.defaultThreads = defaultThreads;
+			this.priority = priority;
+			this.virtualThreadsSupported = virtualThreadsSupported;
+			this.elastic = elastic;
+		}
+
+		/**
+		 * Returns the default number of threads of the executor.
+		 *
+		 * @return the default number of threads of the executor.
+		 */
+		public int getDefaultThreads() {
+			return defaultThreads;
+		}
+	}
+
+	private final Map<ExecutorKind, ThreadPoolExecutor> executors;
+
+	private final Map<ExecutorKind, ExecutorService> kindExecutors;
+
+	private final Supplier<ExecutorService> virtualThreadsExecutorFactory;
+
+	private volatile VirtualThreadsExecutor virtualThreadsExecutor;
+
+	public ServerExecutors() {
+		this(ServerExecutors::createVirtualThreadsExecutor);
+	}
+
+	/**
+	 * Constructor used by the tests to replace the executor which creates a
+	 * virtual thread per task.
+	 *
+	 * @param virtualThreadsExecutorFactory the factory of the virtual threads
+	 *                                      executor which returns null if the JVM
+	 *                                      doesn't support virtual threads.
+	 */
+	ServerExecutors(Supplier<ExecutorService> virtualThreadsExecutorFactory) {
+		this.virtualThreadsExecutorFactory = virtualThreadsExecutorFactory;
+		this.executors = new EnumMap<>(ExecutorKind.class);
+		this.kindExecutors = new EnumMap<>(ExecutorKind.class);
+		for (ExecutorKind kind : ExecutorKind.values()) {
+			ThreadPoolExecutor executor = kind.elastic
+					? new ThreadPoolExecutor(kind.defaultThreads, getMaximumThreads(kind, kind.defaultThreads), 60,
+							TimeUnit.SECONDS, new SynchronousQueue<>(), createThreadFactory(kind),
+							new ThreadPoolExecutor.CallerRunsPolicy())
+					: new ThreadPoolExecutor(kind.defaultThreads, kind.defaultThreads, 60, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(), createThreadFactory(kind));
+			executor.allowCoreThreadTimeOut(true);
+			executors.put(kind, executor);
+			kindExecutors.put(kind, new KindExecutor(kind, executor));
+		}
+	}
+
+	/**
+	 * Returns the executor for the given kind of tasks.
+	 *
+	 * @param kind the kind of tasks.
+	 * @return the executor for the given kind of tasks.
+	 */
+	public ExecutorService getExecutor(ExecutorKind kind) {
+		return kindExecutors.get(kind);
+	}
+
+	/**
+	 * Set the number of threads of the executor for the given kind of tasks. It is
+	 * the maximum number of threads of a bounded executor and the number of
+	 * reserved threads of an elastic executor.
+	 *
+	 * @param kind    the kind of tasks.
+	 * @param threads the number of threads.
+	 */
+	public synchronized void setThreads(ExecutorKind kind, int threads) {
+		ThreadPoolExecutor executor = executors.get(kind);
+		if (threads < 1 || threads == executor.getCorePoolSize()) {
+			return;
+		}
+		int maximumThreads = getMaximumThreads(kind, threads);
+		if (maximumThreads >= executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(maximumThreads);
+			executor.setCorePoolSize(threads);
+		} else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(maximumThreads);
+		}
+	}
+
+	/**
+	 * Returns the number of threads of the executor for the given kind of tasks.
+	 * It is the maximum number of threads of a bounded executor and the number of
+	 * reserved threads of an elastic executor.
+	 *
+	 * @param kind the kind of tasks.
+	 * @return the number of threads of the executor for the given kind of tasks.
+	 */
+	public int getThreads(ExecutorKind kind) {
+		return executors.get(kind).getCorePoolSize();
+	}
+
+	/**
+	 * Returns the maximum number of threads of the executor for the given kind of
+	 * tasks.
+	 *
+	 * @param kind the kind of tasks.
+	 * @return the maximum number of threads of the executor for the given kind of
+	 *         tasks.
+	 */
+	int getMaximumThreads(ExecutorKind kind) {
+		return executors.get(kind).getMaximumPoolSize();
+	}
+
+	private static int getMaximumThreads(ExecutorKind kind, int threads) {
+		return kind.elastic ? Math.max(threads, ELASTIC_MAX_THREADS) : threads;
+	}
+
+	/**
+	 * Set true if the request, interactive and background tasks must be executed
+	 * with virtual threads. This setting is ignored if the JVM doesn't support
+	 * virtual threads.
+	 *
+	 * @param virtualThreads true if the tasks must be executed with virtual
+	 *                       threads.
+	 */
+	public synchronized void setVirtualThreads(boolean virtualThreads) {
+		if (virtualThreads == (virtualThreadsExecutor != null)) {
+			return;
+		}
+		if (virtualThreads) {
+			ExecutorService executor = virtualThreadsExecutorFactory.get();
+			if (executor != null) {
+				virtualThreadsExecutor = new VirtualThreadsExecutor(executor);
+			}
+		} else {
+			// the new tasks are executed with the platform threads before the virtual
+			// threads executor is shut down when its running tasks are finished.
+			VirtualThreadsExecutor executor = virtualThreadsExecutor;
+			virtualThreadsExecutor = null;
+			executor.retire();
+		}
+	}
+
+	/**
+	 * Returns true if the request, interactive and background tasks are executed
+	 * with virtual threads and false otherwise.
+	 *
+	 * @return true if the request, interactive and background tasks are executed
+	 *         with virtual threads and false otherwise.
+	 */
+	public boolean isVirtualThreads() {
+		return virtualThreadsExecutor != null;
+	}
+
+	/**
+	 * Shutdown the executors.
+	 */
+	public synchronized void shutdown() {
+		for (ThreadPoolExecutor executor : executors.values()) {
+			executor.shutdown();
+		}
+		VirtualThreadsExecutor virtualThreadsExecutor = this.virtualThreadsExecutor;
+		if (virtualThreadsExecutor != null) {
+			virtualThreadsExecutor.executor.shutdown();
+		}
+	}
+
+	private static ExecutorService createVirtualThreadsExecutor() {
+		try {
+			// Executors.newVirtualThreadPerTaskExecutor() is available since JDK 21
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (NoSuchMethodException e) {
+			LOGGER.warning("Virtual threads are not supported by the JVM " + System.getProperty("java.version"));
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Error while creating the virtual threads executor", e);
+		}
+		return null;
+	}
+
+	/**
+	 * The executor of a kind of tasks which executes the tasks with the virtual
+	 * threads executor when it is enabled and with the platform threads executor
+	 * of the kind otherwise.
+	 */
+	private class KindExecutor extends AbstractExecutorService {
+
+		private final ExecutorKind kind;
+
+		private final ThreadPoolExecutor platformExecutor;
+
+		KindExecutor(ExecutorKind kind, ThreadPoolExecutor platformExecutor) {
+			this.kind = kind;
+			this.platformExecutor = platformExecutor;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			VirtualThreadsExecutor virtualThreadsExecutor = kind.virtualThreadsSupported
+					? ServerExecutors.this.virtualThreadsExecutor
+					: null;
+			if (virtualThreadsExecutor != null && !platformExecutor.isShutdown()
+					&& virtualThreadsExecutor.tryExecute(command)) {
+				return;
+			}
+			platformExecutor.execute(command);
+		}
+
+		@Override
+		public void shutdown() {
+			platformExecutor.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			platformExecutor.shutdownNow();
+			return Collections.emptyList();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return platformExecutor.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return platformExecutor.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return platformExecutor.awaitTermination(timeout, unit);
+		}
+	}
+
+	/**
+	 * The virtual threads executor which counts its running tasks to be shut down
+	 * only when they are finished, once it has been replaced by the platform
+	 * threads executors.
+	 */
+	private static class VirtualThreadsExecutor {
+
+		private final ExecutorService executor;
+
+		private final AtomicInteger runningTasks;
+
+		private volatile boolean retired;
+
+		VirtualThreadsExecutor(ExecutorService executor) {
+			this.executor = executor;
+			this.runningTasks = new AtomicInteger();
+		}
+
+		/**
+		 * Execute the given task and returns false if the executor is retired.
+		 */
+		boolean tryExecute(Runnable command) {
+			runningTasks.incrementAndGet();
+			if (retired) {
+				taskDone();
+				return false;
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						command.run();
+					} finally {
+						taskDone();
+					}
+				});
+				return true;
+			} catch (RejectedExecutionException e) {
+				taskDone();
+				return false;
+			}
+		}
+
+		void retire() {
+			retired = true;
+			if (runningTasks.get() == 0) {
+				executor.shutdown();
+			}
+		}
+
+		private void taskDone() {
+			if (runningTasks.decrementAndGet() == 0 && retired) {
+				executor.shutdown();
+			}
+		}
+	}
+
+	private static ThreadFactory createThreadFactory(ExecutorKind kind) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, kind.threadName + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(kind.priority);
+			return thread;
+		};
+	}
+}
@@ -35,10 +35,14 @@ public class TextDocument extends TextDocumentItem {
 
 	private static String DEFAULT_DELIMTER = System.lineSeparator();
 
-	private ILineTracker lineTracker;
+	private ArrayLineTracker lineTracker;
 
 	private boolean incremental;
 
+	// The text content which is a String or a Rope when the document has been
+	// updated incrementally
+	private volatile CharSequence content;
+
 	public TextDocument(TextDocumentItem document) {
 		this(document.getText(), document.getUri());
 		super.setVersion(document.getVersion());
@@ -48,6 +52,73 @@ public class TextDocument extends TextDocumentItem {
 	public TextDocument(String text, String uri) {
 		super.setUri(uri);
 		super.setText(text);
+		this.content = text;
+	}
+
+	/**
+	 * Returns the text content of the document.
+	 * 
+	 * <p>
+	 * When the document has been updated incrementally, the String of the text is
+	 * created the first time this method is called and then cached. The text of
+	 * the {@link TextDocumentItem} is updated with it.
+	 * </p>
+	 */
+	@Override
+	public String getText() {
+		String text = content.toString();
+		if (super.getText() != text) {
+			super.setText(text);
+		}
+		return text;
+	}
+
+	@Override
+	public void setText(String text) {
+		super.setText(text);
+		setContent(text);
+	}
+
+	/**
+	 * Returns the text content of the document as a char sequence, without
+	 * creating the String of the whole text when the document has been updated
+	 * incrementally.
+	 * 
+	 * @return the text content of the document as a char sequence.
+	 */
+	public CharSequence getTextSequence() {
+		return content;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof TextDocument) {
+			// update the text of the TextDocumentItem which is compared
+			((TextDocument) obj).getText();
+		}
+		getText();
+		return super.equals(obj);
+	}
+
+	@Override
+	public int hashCode() {
+		getText();
+		return super.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		getText();
+		return super.toString();
+	}
+
+	/**
+	 * Set the text content of the document.
+	 * 
+	 * @param content the text content (String or {@link Rope}).
+	 */
+	protected void setContent(CharSequence content) {
+		this.content = content;
 	}
 
 	public void setIncremental(boolean incremental) {
@@ -66,6 +137,19 @@ public class TextDocument extends TextDocumentItem {
 		return lineTracker.getPositionAt(position);
 	}
 
+	/**
+	 * Returns the positions of the given offsets. The positions are computed with
+	 * one sweep of the lines when the offsets are sorted.
+	 * 
+	 * @param offsets the offsets.
+	 * @return the positions of the given offsets.
+	 * @throws BadLocationException if an offset is out of bounds.
+	 */
+	public Position[] positionsAt(int... offsets) throws BadLocationException {
+		ArrayLineTracker lineTracker = getLineTracker();
+		return lineTracker.getPositionsAt(offsets);
+	}
+
 	public int offsetAt(Position position) throws BadLocationException {
 		ILineTracker lineTracker = getLineTracker();
 		return lineTracker.getOffsetAt(position);
@@ -74,8 +158,7 @@ public class TextDocument extends TextDocumentItem {
 	public String lineText(int lineNumber) throws BadLocationException {
 		ILineTracker lineTracker = getLineTracker();
 		Line line = lineTracker.getLineInformation(lineNumber);
-		String text = super.getText();
-		return text.substring(line.offset, line.offset + line.length);
+		return content.subSequence(line.offset, line.offset + line.length).toString();
 	}
 
 	public String lineDelimiter(int lineNumber) throws BadLocationException {
@@ -97,8 +180,7 @@ public class TextDocument extends TextDocumentItem {
 			Position pos = positionAt(textOffset);
 			ILineTracker lineTracker = getLineTracker();
 			Line line = lineTracker.getLineInformation(pos.getLine());
-			String text = super.getText();
-			String lineText = text.substring(line.offset, textOffset);
+			String lineText = content.subSequence(line.offset, textOffset).toString();
 			int position = lineText.length();
 			Matcher m = wordDefinition.matcher(lineText);
 			int currentPosition = 0;
@@ -119,19 +201,19 @@ public class TextDocument extends TextDocumentItem {
 		}
 	}
 
-	private ILineTracker getLineTracker() {
+	private ArrayLineTracker getLineTracker() {
 		if (lineTracker == null) {
 			lineTracker = createLineTracker();
 		}
 		return lineTracker;
 	}
 
-	private synchronized ILineTracker createLineTracker() {
+	private synchronized ArrayLineTracker createLineTracker() {
 		if (lineTracker != null) {
 			return lineTracker;
 		}
-		ILineTracker lineTracker = isIncremental() ? new TreeLineTracker(new ListLineTracker()) : new ListLineTracker();
-		lineTracker.set(super.getText());
+		ArrayLineTracker lineTracker = new ArrayLineTracker();
+		lineTracker.set(getText());
 		return lineTracker;
 	}
 
@@ -150,8 +232,8 @@ public class TextDocument extends TextDocumentItem {
 			try {
 				long start = System.currentTimeMillis();
 				synchronized (lock) {
-					// Initialize buffer and line tracker from the current text document
-					StringBuilder buffer = new StringBuilder(getText());
+					// Initialize the rope from the current text document
+					Rope rope = Rope.of(content);
 
 					// Loop for each changes and update the buffer
 					for (int i = 0; i < changes.size(); i++) {
@@ -164,16 +246,18 @@ public class TextDocument extends TextDocumentItem {
 							length = changeEvent.getRangeLength().intValue();
 						} else {
 							// range is optional and if not given, the whole file content is replaced
-							length = buffer.length();
+							length = rope.length();
 							range = new Range(positionAt(0), positionAt(length));
 						}
 						String text = changeEvent.getText();
 						int startOffset = offsetAt(range.getStart());
-						buffer.replace(startOffset, startOffset + length, text);
+						rope = rope.replace(startOffset, startOffset + length, text);
 						lineTracker.replace(startOffset, length, text);
+						textChanged(startOffset, length, text.length());
 					}
-					// Update the new text content from the updated buffer
-					setText(buffer.toString());
+					// Update the new text content from the updated rope without creating the
+					// String of the whole text
+					setContent(rope);
 				}
 				LOGGER.fine("Text document content updated in " + (System.currentTimeMillis() - start) + "ms");
 			} catch (BadLocationException e) {
@@ -185,9 +269,22 @@ public class TextDocument extends TextDocumentItem {
 			// https://github.com/Microsoft/vscode-languageserver-node/blob/master/server/src/main.ts
 			TextDocumentContentChangeEvent last = changes.size() > 0 ? changes.get(changes.size() - 1) : null;
 			if (last != null) {
+				textChanged(0, content.length(), last.getText().length());
 				setText(last.getText());
 				lineTracker.set(last.getText());
 			}
 		}
 	}
+
+	/**
+	 * Called by {@link #update(List)} for each change applied to the text
+	 * document, before the new text is set.
+	 * 
+	 * @param offset    the start offset of the change.
+	 * @param length    the length of the replaced text.
+	 * @param newLength the length of the inserted text.
+	 */
+	protected void textChanged(int offset, int length, int newLength) {
+		// Do nothing
+	}
 }
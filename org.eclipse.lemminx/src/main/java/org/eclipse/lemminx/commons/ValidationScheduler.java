@@ -0,0 +1,274 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Validation scheduler which coalesces the validation requests of a document.
+ *
+ * <p>
+ * Each validation request of a document (identified by its URI) starts a new
+ * generation for the document:
+ * <ul>
+ * <li>the validation which is waiting to start is replaced by the new
+ * one.</li>
+ * <li>the running validation is stopped by its {@link CancelChecker}.</li>
+ * </ul>
+ * The validation starts after a debounce delay which depends on the measured
+ * cost of the previous validations of the document: a document which is
+ * validated quickly is validated as soon as possible, a document which is
+ * expensive to validate waits for the user to stop typing. The validations are
+ * executed by the given executor (see
+ * {@link ServerExecutors.ExecutorKind#VALIDATION}) which bounds the number of
+ * validations running at the same time.
+ * </p>
+ *
+ * <p>
+ * A validation which needs an input computed asynchronously (ex : the DOM
+ * document which is parsed) is submitted to the executor only when its input is
+ * available, so that a worker never waits for it.
+ * </p>
+ *
+ */
+public class ValidationScheduler {
+
+	private static final Logger LOGGER = Logger.getLogger(ValidationScheduler.class.getName());
+
+	/**
+	 * The maximum debounce delay in milliseconds.
+	 */
+	private static final long MAX_DEBOUNCE_DELAY = 1000;
+
+	private final ScheduledExecutorService delayer;
+
+	private final Executor workers;
+
+	private final Map<String, DocumentValidation> validations;
+
+	private volatile boolean shutdown;
+
+	/**
+	 * The validation state of a document.
+	 */
+	private static class DocumentValidation {
+
+		// the generation of the last validation request
+		private volatile int generation;
+
+		// the validation which waits for the debounce delay
+		private ScheduledFuture<?> pending;
+
+		// the average cost of the validation in milliseconds
+		private volatile long averageCost;
+
+		void recordCost(long cost) {
+			long average = averageCost;
+			// exponential moving average which gives more weight to the last validations
+			averageCost = average == 0 ? cost : (average * 3 + cost) / 4;
+		}
+
+		long getDebounceDelay() {
+			return Math.min(averageCost, MAX_DEBOUNCE_DELAY);
+		}
+	}
+
+	/**
+	 * Validation scheduler which executes the validations with the given executor.
+	 *
+	 * @param workers the executor of the validations.
+	 */
+	public ValidationScheduler(Executor workers) {
+		this.delayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "lemminx-validation-delayer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.workers = workers;
+		this.validations = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Schedule the validation of the document with the given URI after the
+	 * debounce delay.
+	 *
+	 * @param uri        the document URI.
+	 * @param validation the validation which must stop when the given cancel
+	 *                   checker throws a {@link CancellationException}.
+	 */
+	public void schedule(String uri, Consumer<CancelChecker> validation) {
+		schedule(uri, validation, 0);
+	}
+
+	/**
+	 * Schedule the validation of the document with the given URI after the
+	 * debounce delay and at least after the given delay.
+	 *
+	 * @param uri        the document URI.
+	 * @param validation the validation which must stop when the given cancel
+	 *                   checker throws a {@link CancellationException}.
+	 * @param minDelay   the minimum delay in milliseconds.
+	 */
+	public void schedule(String uri, Consumer<CancelChecker> validation, long minDelay) {
+		schedule(uri, () -> CompletableFuture.completedFuture(null),
+				(input, cancelChecker) -> validation.accept(cancelChecker), minDelay);
+	}
+
+	/**
+	 * Schedule the validation of the document with the given URI after the
+	 * debounce delay and at least after the given delay. The validation is
+	 * executed when the future returned by the given input supplier is completed.
+	 *
+	 * @param <T>        the input type.
+	 * @param uri        the document URI.
+	 * @param input      the supplier of the input of the validation (ex : the DOM
+	 *                   document) which is called once the delay expired.
+	 * @param validation the validation which must stop when the given cancel
+	 *                   checker throws a {@link CancellationException}.
+	 * @param minDelay   the minimum delay in milliseconds.
+	 */
+	public <T> void schedule(String uri, Supplier<CompletableFuture<T>> input,
+			BiConsumer<T, CancelChecker> validation, long minDelay) {
+		if (shutdown) {
+			return;
+		}
+		DocumentValidation state = validations.computeIfAbsent(uri, k -> new DocumentValidation());
+		synchronized (state) {
+			int generation = ++state.generation;
+			if (state.pending != null) {
+				state.pending.cancel(false);
+				state.pending = null;
+			}
+			long delay = Math.max(minDelay, state.getDebounceDelay());
+			Runnable task = () -> start(state, generation, input, validation);
+			if (delay <= 0) {
+				task.run();
+				return;
+			}
+			try {
+				state.pending = delayer.schedule(task, delay, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				// the scheduler is shut down
+			}
+		}
+	}
+
+	/**
+	 * Cancel the validation of the document with the given URI (ex : when the
+	 * document is closed).
+	 *
+	 * @param uri the document URI.
+	 */
+	public void cancel(String uri) {
+		DocumentValidation state = validations.remove(uri);
+		if (state != null) {
+			synchronized (state) {
+				state.generation++;
+				if (state.pending != null) {
+					state.pending.cancel(false);
+					state.pending = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the input of the validation and submit the validation to the workers
+	 * when the input is available.
+	 */
+	private <T> void start(DocumentValidation state, int generation, Supplier<CompletableFuture<T>> input,
+			BiConsumer<T, CancelChecker> validation) {
+		if (isCanceled(state, generation)) {
+			return;
+		}
+		CompletableFuture<T> future;
+		try {
+			future = input.get();
+		} catch (CancellationException e) {
+			// Ignore the error, a new validation is scheduled
+			return;
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Error while validating the document", e);
+			return;
+		}
+		future.whenComplete((value, error) -> {
+			if (error != null) {
+				Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+				if (!(cause instanceof CancellationException)) {
+					LOGGER.log(Level.SEVERE, "Error while validating the document", cause);
+				}
+				// else the document has changed, a new validation is scheduled
+				return;
+			}
+			if (isCanceled(state, generation)) {
+				return;
+			}
+			try {
+				workers.execute(() -> validate(state, generation, value, validation));
+			} catch (RejectedExecutionException e) {
+				if (!shutdown) {
+					LOGGER.log(Level.WARNING, "The validation of the document cannot be executed", e);
+				}
+			}
+		});
+	}
+
+	private <T> void validate(DocumentValidation state, int generation, T input,
+			BiConsumer<T, CancelChecker> validation) {
+		CancelChecker cancelChecker = () -> {
+			if (isCanceled(state, generation)) {
+				// the validation is superseded by a new validation request
+				throw new CancellationException();
+			}
+		};
+		try {
+			cancelChecker.checkCanceled();
+			long start = System.currentTimeMillis();
+			validation.accept(input, cancelChecker);
+			state.recordCost(System.currentTimeMillis() - start);
+		} catch (CancellationException e) {
+			// Ignore the error, a new validation is scheduled
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Error while validating the document", e);
+		}
+	}
+
+	private boolean isCanceled(DocumentValidation state, int generation) {
+		return shutdown || state.generation != generation;
+	}
+
+	/**
+	 * Stop the running validations and the scheduler. The executor of the
+	 * validations is not shut down.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		delayer.shutdownNow();
+	}
+}
@@ -84,6 +84,27 @@ public class DOMAttr extends DOMNode implements org.w3c.dom.Attr {
 		this.ownerElement = ownerElement;
 	}
 
+	/**
+	 * Returns a copy of this attribute for the given owner element in a new
+	 * version of the DOM document.
+	 *
+	 * @param ownerElement the owner element of the copy.
+	 * @return a copy of this attribute.
+	 */
+	@Override
+	DOMAttr copy(DOMNode ownerElement) {
+		DOMAttr copy = nodeAttrName != null
+				? new DOMAttr(name, nodeAttrName.getStart(), nodeAttrName.getEnd(), ownerElement)
+				: new DOMAttr(name, ownerElement);
+		copy.originalValue = originalValue;
+		copy.quotelessValue = quotelessValue;
+		if (nodeAttrValue != null) {
+			copy.nodeAttrValue = copy.new AttrNameOrValue(nodeAttrValue.getStart(), nodeAttrValue.getEnd());
+		}
+		copy.hasDelimiter = hasDelimiter;
+		return copy;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
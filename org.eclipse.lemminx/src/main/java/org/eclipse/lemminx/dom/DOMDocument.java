@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.parser.Constants;
+import org.eclipse.lemminx.dom.parser.ScannerCheckpoints;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lemminx.utils.DOMUtils;
 import org.eclipse.lemminx.utils.StringUtils;
@@ -66,8 +67,17 @@ public class DOMDocument extends DOMNode implements Document {
 	private CancelChecker cancelChecker;
 	private String externalGrammarFromNamespaceURI;
 
+	// the offset index used to find the node at a given offset
+	private volatile DOMOffsetIndex offsetIndex;
+
+	private volatile ScannerCheckpoints scannerCheckpoints;
+
+	private volatile boolean wellFormednessErrors;
+
+	private volatile PositionsBatch positionsBatch;
+
 	public DOMDocument(TextDocument textDocument, URIResolverExtensionManager resolverExtensionManager) {
-		super(0, textDocument.getText().length());
+		super(0, textDocument.getTextSequence().length());
 		this.textDocument = textDocument;
 		this.resolverExtensionManager = resolverExtensionManager;
 		resetGrammar();
@@ -81,6 +91,80 @@ public class DOMDocument extends DOMNode implements Document {
 		return cancelChecker;
 	}
 
+	@Override
+	public DOMNode findNodeAt(int offset) {
+		DOMOffsetIndex index = offsetIndex;
+		if (index != null) {
+			return index.findNodeAt(offset);
+		}
+		return super.findNodeAt(offset);
+	}
+
+	@Override
+	public DOMNode findNodeBefore(int offset) {
+		DOMOffsetIndex index = offsetIndex;
+		if (index != null) {
+			return index.findNodeBefore(offset);
+		}
+		return super.findNodeBefore(offset);
+	}
+
+	/**
+	 * Set the offset index of the nodes, created by the parser.
+	 * 
+	 * @param offsetIndex the offset index of the nodes and null if it is not used.
+	 */
+	void setOffsetIndex(DOMOffsetIndex offsetIndex) {
+		this.offsetIndex = offsetIndex;
+	}
+
+	/**
+	 * Returns the offset index of the nodes and null if it is not used.
+	 * 
+	 * @return the offset index of the nodes and null if it is not used.
+	 */
+	DOMOffsetIndex getOffsetIndex() {
+		return offsetIndex;
+	}
+
+	/**
+	 * Returns the offsets where a scanner can restart, recorded when the document
+	 * was parsed, and null if the document is a DTD.
+	 * 
+	 * @return the offsets where a scanner can restart and null if the document is
+	 *         a DTD.
+	 */
+	public ScannerCheckpoints getScannerCheckpoints() {
+		return scannerCheckpoints;
+	}
+
+	void setScannerCheckpoints(ScannerCheckpoints scannerCheckpoints) {
+		this.scannerCheckpoints = scannerCheckpoints;
+	}
+
+	/**
+	 * Returns true if the parser has found a construct which is not well-formed
+	 * (ex : an element which is not closed, an end tag without start tag) and
+	 * false otherwise.
+	 * 
+	 * <p>
+	 * The parser doesn't check all the well-formedness constraints : false
+	 * doesn't mean that the document is well-formed. The incremental parse keeps
+	 * the constructs found in the previous versions of the document, even if they
+	 * have been modified since.
+	 * </p>
+	 * 
+	 * @return true if the parser has found a construct which is not well-formed
+	 *         and false otherwise.
+	 */
+	public boolean hasWellFormednessErrors() {
+		return wellFormednessErrors;
+	}
+
+	void setWellFormednessErrors(boolean wellFormednessErrors) {
+		this.wellFormednessErrors = wellFormednessErrors;
+	}
+
 	public List<DOMNode> getRoots() {
 		return super.getChildren();
 	}
@@ -90,6 +174,56 @@ public class DOMDocument extends DOMNode implements Document {
 		return textDocument.positionAt(offset);
 	}
 
+	public Position[] positionsAt(int... offsets) throws BadLocationException {
+		checkCanceled();
+		PositionsBatch batch = getPositionsBatch();
+		if (batch != null && isValidOffsets(offsets)) {
+			return batch.add(offsets);
+		}
+		return textDocument.positionsAt(offsets);
+	}
+
+	private boolean isValidOffsets(int... offsets) {
+		int length = textDocument.getTextSequence().length();
+		for (int offset : offsets) {
+			if (offset < 0 || offset > length) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Defer the conversion of the offsets done by {@link #positionsAt(int...)}
+	 * in the current thread until the returned batch is resolved.
+	 * 
+	 * @return the opened batch and null if a batch is already opened.
+	 */
+	public synchronized PositionsBatch deferPositions() {
+		if (positionsBatch != null) {
+			return null;
+		}
+		return positionsBatch = new PositionsBatch(this);
+	}
+
+	/**
+	 * Returns the positions batch opened by the current thread and null
+	 * otherwise.
+	 * 
+	 * @return the positions batch opened by the current thread and null
+	 *         otherwise.
+	 */
+	public PositionsBatch getPositionsBatch() {
+		PositionsBatch batch = positionsBatch;
+		return batch != null && batch.isOwner() ? batch : null;
+	}
+
+	synchronized void closePositionsBatch(PositionsBatch batch) {
+		if (positionsBatch == batch) {
+			positionsBatch = null;
+		}
+	}
+
 	public int offsetAt(Position position) throws BadLocationException {
 		checkCanceled();
 		return textDocument.offsetAt(position);
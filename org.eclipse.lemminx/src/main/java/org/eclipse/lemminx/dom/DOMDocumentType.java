@@ -35,10 +35,25 @@ public class DOMDocumentType extends DTDDeclNode implements org.w3c.dom.Document
 
 	private String content; // |<!DOCTYPE ... >|
 
+	// true if the doctype is closed by the '>' of an end tag (ex : <!DOCTYPE root>)
+	boolean closedByEndTagClose;
+
 	public DOMDocumentType(int start, int end) {
 		super(start, end);
 	}
 
+	@Override
+	DOMDocumentType copy(DOMNode parent) {
+		DOMDocumentType copy = (DOMDocumentType) super.copy(parent);
+		copy.kind = copy.getCopy(this, kind);
+		copy.publicId = copy.getCopy(this, publicId);
+		copy.systemId = copy.getCopy(this, systemId);
+		copy.internalSubset = copy.getCopy(this, internalSubset);
+		// the entities are collected from the children of the copy
+		copy.entitiesNodes = null;
+		return copy;
+	}
+
 	@Override
 	public DOMDocumentType getOwnerDocType() {
 		return this;
@@ -12,16 +12,12 @@
  */
 package org.eclipse.lemminx.dom;
 
-import static org.eclipse.lemminx.dom.DOMAttr.XMLNS_ATTR;
-import static org.eclipse.lemminx.dom.DOMAttr.XMLNS_NO_DEFAULT_ATTR;
-
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
-import org.eclipse.lemminx.utils.StringUtils;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.TypeInfo;
@@ -41,6 +37,8 @@ public class DOMElement extends DOMNode implements org.w3c.dom.Element {
 
 	int endTagOpenOffset = NULL_VALUE; // <root> |</root >
 	int endTagCloseOffset = NULL_VALUE;// <root> </root |>
+
+	private volatile NamespaceScope namespaceScope;
 	// DomElement.end = <root> </root>| , is always scanner.getTokenEnd()
 
 	public DOMElement(int start, int end) {
@@ -145,37 +143,67 @@ public class DOMElement extends DOMNode implements org.w3c.dom.Element {
 	 * @return the namespace URI for the given prefix and null otherwise.
 	 */
 	public String getNamespaceURI(String prefix) {
-		String namespaceURI = getNamespaceURI(prefix, this);
-		if (namespaceURI != null) {
-			return namespaceURI;
+		return getNamespaceScope().getNamespaceURI(prefix);
+	}
+
+	/**
+	 * Returns the namespace scope of the element.
+	 *
+	 * <p>
+	 * The scope is created the first time it is accessed, with the scopes of the
+	 * ancestor elements which are not created yet. So when the scope of an element
+	 * is created, the scopes of its ancestor elements are created too.
+	 * </p>
+	 *
+	 * @return the namespace scope of the element.
+	 */
+	public NamespaceScope getNamespaceScope() {
+		NamespaceScope scope = namespaceScope;
+		if (scope != null) {
+			return scope;
 		}
-		// try to get the namespace from the parent element
-		DOMNode parent = getParentNode();
-		while (parent != null) {
-			if (parent.getNodeType() == DOMNode.ELEMENT_NODE) {
-				DOMElement parentElement = ((DOMElement) parent);
-				namespaceURI = getNamespaceURI(prefix, parentElement);
-				if (namespaceURI != null) {
-					return namespaceURI;
-				}
+		// search the nearest ancestor element which has a scope
+		List<DOMElement> elements = new ArrayList<>();
+		scope = NamespaceScope.EMPTY;
+		DOMElement element = this;
+		while (element != null) {
+			NamespaceScope elementScope = element.namespaceScope;
+			if (elementScope != null) {
+				scope = elementScope;
+				break;
 			}
-			parent = parent.getParentNode();
+			elements.add(element);
+			element = element.getParentElement();
 		}
-		return null;
+		// create the scopes from this ancestor
+		for (int i = elements.size() - 1; i >= 0; i--) {
+			element = elements.get(i);
+			scope = NamespaceScope.create(scope, element);
+			element.namespaceScope = scope;
+		}
+		return scope;
+	}
+
+	@Override
+	DOMElement copy(DOMNode parent) {
+		DOMElement copy = (DOMElement) super.copy(parent);
+		// the scope of the copy is created with the attributes of the copy
+		copy.namespaceScope = null;
+		return copy;
 	}
 
 	/**
-	 * Returns the namespace URI from the given prefix declared in the given element
-	 * and null otherwise.
+	 * Reset the namespace scope of the element and returns true if the scope was
+	 * created and false otherwise.
 	 *
-	 * @param prefix  the prefix
-	 * @param element the DOM element
-	 * @return the namespace URI from the given prefix declared in the given element
-	 *         and null otherwise.
+	 * @return true if the scope was created and false otherwise.
 	 */
-	private static String getNamespaceURI(String prefix, DOMElement element) {
-		boolean hasPrefix = !StringUtils.isEmpty(prefix);
-		return hasPrefix ? element.getAttribute(XMLNS_NO_DEFAULT_ATTR + prefix) : element.getAttribute(XMLNS_ATTR);
+	boolean resetNamespaceScope() {
+		if (namespaceScope == null) {
+			return false;
+		}
+		namespaceScope = null;
+		return true;
 	}
 
 	public Collection<String> getAllPrefixes() {
@@ -198,30 +226,7 @@ public class DOMElement extends DOMNode implements org.w3c.dom.Element {
 	 * @return the xmlns prefix from the given namespace URI and null otherwise.
 	 */
 	public String getPrefix(String namespaceURI) {
-		if (namespaceURI == null) {
-			return null;
-		}
-		if (hasAttributes()) {
-			for (DOMAttr attr : getAttributeNodes()) {
-				String prefix = attr.getPrefixIfMatchesURI(namespaceURI);
-				if (prefix != null) {
-					return prefix;
-				}
-			}
-		}
-		// try to get the prefix in the parent element
-		DOMNode parent = getParentNode();
-		while (parent != null) {
-			if (parent.getNodeType() == DOMNode.ELEMENT_NODE) {
-				DOMElement parentElement = ((DOMElement) parent);
-				String prefix = parentElement.getPrefix(namespaceURI);
-				if (prefix != null) {
-					return prefix;
-				}
-			}
-			parent = parent.getParentNode();
-		}
-		return null;
+		return getNamespaceScope().getPrefix(namespaceURI);
 	}
 
 	public boolean isDocumentElement() {
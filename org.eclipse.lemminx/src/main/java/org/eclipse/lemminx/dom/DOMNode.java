@@ -12,8 +12,10 @@
  */
 package org.eclipse.lemminx.dom;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
@@ -28,7 +30,7 @@ import org.w3c.dom.UserDataHandler;
  * DOM node.
  *
  */
-public abstract class DOMNode implements Node, DOMRange {
+public abstract class DOMNode implements Node, DOMRange, Cloneable {
 
 	/**
 	 * Null value used for offset.
@@ -60,16 +62,47 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	public static final short DTD_DECL_NODE = 105;
 
+	/**
+	 * The number of attributes from which the attribute at a given offset is
+	 * searched with a binary search.
+	 */
+	private static final int BINARY_SEARCH_ATTRIBUTES_THRESHOLD = 8;
+
+	// FNV-1a constants used to compute the structural hash of the subtrees
+	private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+	private static final long HASH_PRIME = 0x100000001b3L;
+
 	boolean closed = false;
 
 	private XMLNamedNodeMap<DOMAttr> attributeNodes;
 	private XMLNodeList<DOMNode> children;
 
-	final int start; // |<root> </root>
+	// The children which are stored in a compact table (for large documents) and
+	// which are not materialized
+	private volatile DOMNodeTable compactTable;
+	private int compactFirstChild;
+
+	// The attributes which are stored in a compact table and which are not
+	// materialized
+	private volatile DOMNodeTable compactAttributesTable;
+	private int compactIndex;
+
+	// The shift of the offsets stored in the compact tables, which are shared by
+	// the versions of the DOM document, and null if they are not shifted
+	private OffsetShift compactShift;
+
+	// The children copied from a node of a previous version of the DOM document
+	// which are not materialized
+	private volatile CopiedChildren copiedChildren;
+
+	int start; // |<root> </root>
 	int end; // <root> </root>|
 
 	DOMNode parent;
 
+	// The structural hash of the subtree, 0 when it is not computed
+	private volatile long subtreeHash;
+
 	private static final NodeList EMPTY_CHILDREN = new NodeList() {
 
 		@Override
@@ -150,6 +183,35 @@ public abstract class DOMNode implements Node, DOMRange {
 
 	}
 
+	/**
+	 * The children of a node of a previous version of the DOM document which are
+	 * copied the first time the children of its copy are accessed.
+	 */
+	private static final class CopiedChildren {
+
+		// the node of the previous version
+		final DOMNode source;
+		// the shift of the offsets of the children (which follow the replaced children)
+		final OffsetShift shift;
+		// the children of the source which are replaced with the nodes of the new
+		// version, for the ancestors of the modified region
+		final int fromIndex;
+		final int toIndex;
+		final List<DOMNode> replacement;
+
+		CopiedChildren(DOMNode source, OffsetShift shift) {
+			this(source, shift, 0, 0, null);
+		}
+
+		CopiedChildren(DOMNode source, OffsetShift shift, int fromIndex, int toIndex, List<DOMNode> replacement) {
+			this.source = source;
+			this.shift = shift;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+			this.replacement = replacement;
+		}
+	}
+
 	public DOMNode(int start, int end) {
 		this.start = start;
 		this.end = end;
@@ -191,6 +253,7 @@ public abstract class DOMNode implements Node, DOMRange {
 		result.append(getNodeName());
 		result.append(", closed: ");
 		result.append(closed);
+		List<DOMNode> children = children();
 		if (children != null && children.size() > 0) {
 			result.append(", \n");
 			for (int i = 0; i < indent + 1; i++) {
@@ -280,7 +343,11 @@ public abstract class DOMNode implements Node, DOMRange {
 
 	public static DOMAttr findAttrAt(DOMNode node, int offset) {
 		if (node != null && node.hasAttributes()) {
-			for (DOMAttr attr : node.getAttributeNodes()) {
+			List<DOMAttr> attributes = node.getAttributeNodes();
+			if (attributes.size() >= BINARY_SEARCH_ATTRIBUTES_THRESHOLD && isSortedByOffset(attributes)) {
+				return findSortedAttrAt(attributes, offset);
+			}
+			for (DOMAttr attr : attributes) {
 				if (attr.isIncluded(offset)) {
 					return attr;
 				}
@@ -289,6 +356,44 @@ public abstract class DOMNode implements Node, DOMRange {
 		return null;
 	}
 
+	private static boolean isSortedByOffset(List<DOMAttr> attributes) {
+		DOMAttr first = attributes.get(0);
+		DOMAttr last = attributes.get(attributes.size() - 1);
+		// the parsed attributes are sorted by offset, the attributes which are
+		// created by code have no offset.
+		return first.getStart() >= 0 && first.getStart() <= last.getStart();
+	}
+
+	/**
+	 * Returns the first attribute which includes the given offset by using a
+	 * binary search in the given attributes sorted by offset.
+	 * 
+	 * @param attributes the attributes sorted by offset.
+	 * @param offset     the offset.
+	 * @return the first attribute which includes the given offset and null
+	 *         otherwise.
+	 */
+	private static DOMAttr findSortedAttrAt(List<DOMAttr> attributes, int offset) {
+		// search the first attribute which ends after the offset
+		int low = 0;
+		int high = attributes.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (attributes.get(mid).getEnd() < offset) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (low < attributes.size()) {
+			DOMAttr attr = attributes.get(low);
+			if (attr.isIncluded(offset)) {
+				return attr;
+			}
+		}
+		return null;
+	}
+
 	public static DOMNode findNodeOrAttrAt(DOMDocument document, int offset) {
 		DOMNode node = document.findNodeAt(offset);
 		if (node != null) {
@@ -344,7 +449,7 @@ public abstract class DOMNode implements Node, DOMRange {
 		if (!hasAttributes()) {
 			return null;
 		}
-		for (DOMAttr attr : attributeNodes) {
+		for (DOMAttr attr : attributes()) {
 			if (name.equals(attr.getName())) {
 				return attr;
 			}
@@ -353,7 +458,18 @@ public abstract class DOMNode implements Node, DOMRange {
 	}
 
 	public String getAttribute(String name) {
-		DOMAttr attr = getAttributeNode(name);
+		return getUnquotedValue(getAttributeNode(name));
+	}
+
+	/**
+	 * Returns the value of the given attribute without quotes and null if there is
+	 * no attribute or no value.
+	 * 
+	 * @param attr the attribute.
+	 * @return the value of the given attribute without quotes and null if there is
+	 *         no attribute or no value.
+	 */
+	static String getUnquotedValue(DOMAttr attr) {
 		String value = attr != null ? attr.getValue() : null;
 		if (value == null) {
 			return null;
@@ -384,6 +500,7 @@ public abstract class DOMNode implements Node, DOMRange {
 			return null;
 		}
 
+		XMLNamedNodeMap<DOMAttr> attributeNodes = attributes();
 		if (index > attributeNodes.getLength() - 1) {
 			return null;
 		}
@@ -401,6 +518,9 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	@Override
 	public boolean hasAttributes() {
+		if (compactAttributesTable != null) {
+			return true;
+		}
 		return attributeNodes != null && attributeNodes.size() != 0;
 	}
 
@@ -414,16 +534,50 @@ public abstract class DOMNode implements Node, DOMRange {
 	}
 
 	public void setAttributeNode(DOMAttr attr) {
+		if (compactAttributesTable != null) {
+			materializeAttributes();
+		}
 		if (attributeNodes == null) {
 			attributeNodes = new XMLNamedNodeMap<>();
 		}
 		attributeNodes.add(attr);
+		if (isElement() && attr.isXmlns()) {
+			// the namespace scopes of the element and its descendants must be computed
+			// with the new xmlns attribute
+			resetNamespaceScopes();
+		}
 	}
 
 	public List<DOMAttr> getAttributeNodes() {
+		return attributes();
+	}
+
+	private XMLNamedNodeMap<DOMAttr> attributes() {
+		if (compactAttributesTable != null) {
+			materializeAttributes();
+		}
 		return attributeNodes;
 	}
 
+	private void materializeAttributes() {
+		DOMNodeTable table = compactAttributesTable;
+		if (table == null) {
+			return;
+		}
+		synchronized (table) {
+			if (compactAttributesTable == table) {
+				XMLNamedNodeMap<DOMAttr> attributes = table.materializeAttributes(this, compactIndex);
+				if (compactShift != null) {
+					for (DOMAttr attr : attributes) {
+						compactShift.apply(attr);
+					}
+				}
+				attributeNodes = attributes;
+				compactAttributesTable = null;
+			}
+		}
+	}
+
 	/**
 	 * Returns a list of children, each having an attribute called name, with a
 	 * value of value
@@ -451,12 +605,320 @@ public abstract class DOMNode implements Node, DOMRange {
 	 * @return the node children.
 	 */
 	public List<DOMNode> getChildren() {
+		List<DOMNode> children = children();
 		if (children == null) {
 			return Collections.emptyList();
 		}
 		return children;
 	}
 
+	private XMLNodeList<DOMNode> children() {
+		if (copiedChildren != null) {
+			materializeCopiedChildren();
+		}
+		if (compactTable != null) {
+			materializeChildren();
+		}
+		return children;
+	}
+
+	private void materializeChildren() {
+		DOMNodeTable table = compactTable;
+		if (table == null) {
+			return;
+		}
+		synchronized (table) {
+			if (compactTable == table) {
+				int materialized = children != null ? children.size() : 0;
+				table.materializeChildren(this, compactFirstChild);
+				if (compactShift != null) {
+					// the offsets of the table are the offsets of the version which has been parsed
+					for (int i = materialized; i < children.size(); i++) {
+						DOMNode child = children.get(i);
+						compactShift.apply(child);
+						child.compactShift = compactShift;
+					}
+				}
+				compactTable = null;
+			}
+		}
+	}
+
+	/**
+	 * Add the given child, created from the compact table, without materializing
+	 * the children of this node.
+	 * 
+	 * @param child the node child to add.
+	 */
+	void addMaterializedChild(DOMNode child) {
+		child.parent = this;
+		if (children == null) {
+			children = new XMLNodeList<>();
+		}
+		children.add(child);
+	}
+
+	/**
+	 * Set the compact table which stores the children of this node. The children
+	 * stored in the table follow the children which are already materialized.
+	 * 
+	 * @param table      the compact table.
+	 * @param firstChild the index of the first child in the table.
+	 */
+	void setCompactChildren(DOMNodeTable table, int firstChild) {
+		compactFirstChild = firstChild;
+		compactTable = table;
+	}
+
+	/**
+	 * Set the compact table which stores the attributes of this node.
+	 * 
+	 * @param table the compact table.
+	 * @param index the index of this node in the table.
+	 */
+	void setCompactAttributes(DOMNodeTable table, int index) {
+		compactIndex = index;
+		compactAttributesTable = table;
+	}
+
+	/**
+	 * Returns the compact table which stores the attributes of this node and null
+	 * if the attributes are materialized.
+	 * 
+	 * @return the compact table which stores the attributes of this node and null
+	 *         if the attributes are materialized.
+	 */
+	DOMNodeTable getCompactAttributesTable() {
+		return compactAttributesTable;
+	}
+
+	/**
+	 * Returns the index of this node in the compact table which stores its
+	 * attributes.
+	 * 
+	 * @return the index of this node in the compact table which stores its
+	 *         attributes.
+	 */
+	int getCompactIndex() {
+		return compactIndex;
+	}
+
+	/**
+	 * Returns the compact table which stores the children of this node and null if
+	 * the children are materialized.
+	 * 
+	 * @return the compact table which stores the children of this node and null if
+	 *         the children are materialized.
+	 */
+	DOMNodeTable getCompactTable() {
+		return compactTable;
+	}
+
+	/**
+	 * Returns the index of the first child in the compact table.
+	 * 
+	 * @return the index of the first child in the compact table.
+	 */
+	int getCompactFirstChild() {
+		return compactFirstChild;
+	}
+
+	/**
+	 * Returns a copy of this node, without its children, for the given parent in a
+	 * new version of the DOM document.
+	 * 
+	 * <p>
+	 * The copy has the offsets and the structural hash of this node and its
+	 * attributes are copied (the attributes stored in a compact table are shared
+	 * with this node).
+	 * </p>
+	 * 
+	 * @param parent the parent of the copy.
+	 * @return a copy of this node, without its children.
+	 */
+	DOMNode copy(DOMNode parent) {
+		DOMNode copy;
+		try {
+			copy = (DOMNode) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+		copy.parent = parent;
+		copy.compactTable = null;
+		copy.children = null;
+		copy.copiedChildren = null;
+		copy.compactAttributesTable = null;
+		copy.attributeNodes = null;
+		DOMNodeTable attributesTable = compactAttributesTable;
+		if (attributesTable != null) {
+			synchronized (attributesTable) {
+				if (compactAttributesTable == attributesTable) {
+					attributesTable.share();
+					copy.compactAttributesTable = attributesTable;
+					return copy;
+				}
+			}
+		}
+		XMLNamedNodeMap<DOMAttr> attributes = attributeNodes;
+		if (attributes != null) {
+			copy.attributeNodes = new XMLNamedNodeMap<>();
+			for (DOMAttr attr : attributes) {
+				copy.attributeNodes.add(attr.copy(copy));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of this node for the given parent in a new version of the DOM
+	 * document, whose offsets are shifted with the given shift.
+	 * 
+	 * <p>
+	 * The children of this node are shared with the copy : they are copied with
+	 * the given shift the first time the children of the copy are accessed, and
+	 * the children stored in a compact table are materialized from the same table.
+	 * The copy keeps this node (and the previous version of the DOM document) until
+	 * its children are accessed.
+	 * </p>
+	 * 
+	 * @param parent the parent of the copy.
+	 * @param shift  the shift of the offsets and null if the offsets are not
+	 *               shifted.
+	 * @return a copy of this node.
+	 */
+	DOMNode copy(DOMNode parent, OffsetShift shift) {
+		DOMNode copy = copy(parent);
+		if (shift != null) {
+			shift.apply(copy);
+			copy.compactShift = OffsetShift.combine(compactShift, shift);
+		}
+		CopiedChildren copied = copiedChildren;
+		if (copied != null && copied.replacement == null) {
+			// the children of this node are not copied yet, the copy shares them with the
+			// node this node is copied from
+			copy.copiedChildren = new CopiedChildren(copied.source, OffsetShift.combine(copied.shift, shift));
+		} else if (copied != null || compactTable != null || (children != null && !children.isEmpty())) {
+			copy.copiedChildren = new CopiedChildren(this, shift);
+		}
+		return copy;
+	}
+
+	/**
+	 * Set the children of this copy of the given node of a previous version of the
+	 * DOM document, which includes a region modified in the new version : the
+	 * children of the given node are copied the first time the children of this
+	 * copy are accessed, except the children between the given indexes which are
+	 * replaced with the given nodes.
+	 * 
+	 * @param source      the node of the previous version.
+	 * @param fromIndex   the index of the first child to replace.
+	 * @param toIndex     the index after the last child to replace.
+	 * @param replacement the nodes of the new version which replace the children.
+	 * @param shift       the shift of the offsets of the children which follow the
+	 *                    replaced children.
+	 */
+	void setCopiedChildren(DOMNode source, int fromIndex, int toIndex, List<DOMNode> replacement,
+			OffsetShift shift) {
+		for (DOMNode node : replacement) {
+			node.parent = this;
+		}
+		copiedChildren = new CopiedChildren(source, shift, fromIndex, toIndex, new ArrayList<>(replacement));
+	}
+
+	/**
+	 * Returns true if the children of this node are copied from a node of a
+	 * previous version of the DOM document and are not accessed yet.
+	 * 
+	 * @return true if the children of this node are copied from a node of a
+	 *         previous version of the DOM document and are not accessed yet.
+	 */
+	boolean hasCopiedChildren() {
+		return copiedChildren != null;
+	}
+
+	private void materializeCopiedChildren() {
+		CopiedChildren copied = copiedChildren;
+		if (copied == null) {
+			return;
+		}
+		synchronized (copied) {
+			if (copiedChildren != copied) {
+				return;
+			}
+			XMLNodeList<DOMNode> copies = new XMLNodeList<>();
+			if (copied.replacement == null) {
+				for (DOMNode child : copied.source.shareChildren(this, copied.shift)) {
+					copies.add(child.copy(this, copied.shift));
+				}
+			} else {
+				List<DOMNode> sourceChildren = copied.source.getChildren();
+				for (int i = 0; i < copied.fromIndex; i++) {
+					copies.add(sourceChildren.get(i).copy(this, null));
+				}
+				copies.addAll(copied.replacement);
+				for (int i = copied.toIndex; i < sourceChildren.size(); i++) {
+					copies.add(sourceChildren.get(i).copy(this, copied.shift));
+				}
+			}
+			children = copies;
+			copiedChildren = null;
+		}
+	}
+
+	/**
+	 * Set the children of this node which are stored in a compact table to the
+	 * given copy of this node and returns the children which are materialized,
+	 * they must be copied by the caller.
+	 * 
+	 * @param copy  the copy of this node.
+	 * @param shift the shift of the offsets of the copy.
+	 * @return the children which are materialized.
+	 */
+	private List<DOMNode> shareChildren(DOMNode copy, OffsetShift shift) {
+		if (copiedChildren != null) {
+			materializeCopiedChildren();
+		}
+		DOMNodeTable table = compactTable;
+		if (table != null) {
+			synchronized (table) {
+				if (compactTable == table) {
+					table.share();
+					copy.compactFirstChild = compactFirstChild;
+					copy.compactShift = OffsetShift.combine(compactShift, shift);
+					copy.compactTable = table;
+					return children != null ? new ArrayList<>(children) : Collections.emptyList();
+				}
+			}
+		}
+		return getChildren();
+	}
+
+	/**
+	 * Returns the children of this node which are materialized, without
+	 * materializing the children which are stored in a compact table (they follow
+	 * the materialized children).
+	 * 
+	 * @return the children of this node which are materialized.
+	 */
+	List<DOMNode> getMaterializedChildren() {
+		if (copiedChildren != null) {
+			materializeCopiedChildren();
+		}
+		List<DOMNode> children = this.children;
+		return children != null ? children : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the shift of the offsets stored in the compact tables of this node
+	 * and null if they are not shifted.
+	 * 
+	 * @return the shift of the offsets stored in the compact tables of this node
+	 *         and null if they are not shifted.
+	 */
+	OffsetShift getCompactShift() {
+		return compactShift;
+	}
+
 	/**
 	 * Add node child and set child.parent to {@code this}
 	 * 
@@ -464,10 +926,62 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	public void addChild(DOMNode child) {
 		child.parent = this;
+		XMLNodeList<DOMNode> children = children();
+		if (children == null) {
+			children = new XMLNodeList<>();
+			this.children = children;
+		}
+		children.add(child);
+	}
+
+	/**
+	 * Replace the children between the given indexes with the given nodes and set
+	 * their parent to {@code this}.
+	 * 
+	 * @param fromIndex   the index of the first child to replace.
+	 * @param toIndex     the index after the last child to replace.
+	 * @param newChildren the new children.
+	 */
+	void replaceChildren(int fromIndex, int toIndex, List<DOMNode> newChildren) {
+		XMLNodeList<DOMNode> children = children();
 		if (children == null) {
 			children = new XMLNodeList<>();
+			this.children = children;
+		}
+		children.subList(fromIndex, toIndex).clear();
+		for (DOMNode child : newChildren) {
+			child.parent = this;
+			// the namespace scopes of the new children were computed with their previous
+			// parent
+			child.resetNamespaceScopes();
+		}
+		children.addAll(fromIndex, newChildren);
+	}
+
+	/**
+	 * Reset the namespace scopes of the elements of the subtree of this node.
+	 * 
+	 * <p>
+	 * The scope of an element is created only when the scope of its parent
+	 * element is created, so the descendants of an element which has no scope are
+	 * not visited (and the children which are not materialized from a compact
+	 * table have no scope).
+	 * </p>
+	 */
+	void resetNamespaceScopes() {
+		Deque<DOMNode> nodes = new ArrayDeque<>();
+		nodes.push(this);
+		while (!nodes.isEmpty()) {
+			DOMNode node = nodes.pop();
+			if (node.isElement() && !((DOMElement) node).resetNamespaceScope()) {
+				continue;
+			}
+			if (node.children != null) {
+				for (DOMNode child : node.children) {
+					nodes.push(child);
+				}
+			}
 		}
-		getChildren().add(child);
 	}
 
 	/**
@@ -480,6 +994,72 @@ public abstract class DOMNode implements Node, DOMRange {
 		return getChildren().get(index);
 	}
 
+	/**
+	 * Returns the structural hash of the subtree of this node.
+	 * 
+	 * <p>
+	 * The hash is computed from the text of the node which is not covered by its
+	 * children and from the hashes and lengths of its children (like a Merkle
+	 * tree), so it doesn't depend on the offset of the node: two subtrees with the
+	 * same hash have the same text and the same structure. The hash is computed on
+	 * the first call and it is kept until the children of the node are updated by
+	 * an incremental parse, so the hash of the unchanged subtrees is not computed
+	 * again after an update of the document.
+	 * </p>
+	 * 
+	 * @return the structural hash of the subtree of this node.
+	 */
+	public long getSubtreeHash() {
+		long hash = subtreeHash;
+		if (hash != 0) {
+			return hash;
+		}
+		DOMDocument document = getOwnerDocument();
+		return getSubtreeHash(document != null ? document.getTextDocument().getTextSequence() : "");
+	}
+
+	private long getSubtreeHash(CharSequence text) {
+		long hash = subtreeHash;
+		if (hash != 0) {
+			return hash;
+		}
+		hash = HASH_OFFSET ^ getNodeType();
+		int offset = Math.max(start, 0);
+		for (DOMNode child : getChildren()) {
+			if (child.start > offset) {
+				hash = hashText(hash, text, offset, child.start);
+			}
+			hash = (hash ^ child.getSubtreeHash(text)) * HASH_PRIME;
+			hash = (hash ^ (child.end - child.start)) * HASH_PRIME;
+			offset = Math.max(offset, child.end);
+		}
+		hash = hashText(hash, text, offset, end);
+		if (closed) {
+			hash = (hash ^ 1) * HASH_PRIME;
+		}
+		if (hash == 0) {
+			hash = 1;
+		}
+		subtreeHash = hash;
+		return hash;
+	}
+
+	private static long hashText(long hash, CharSequence text, int from, int to) {
+		to = Math.min(to, text.length());
+		for (int i = from; i < to; i++) {
+			hash = (hash ^ text.charAt(i)) * HASH_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Reset the structural hash of the subtree of this node when its children are
+	 * updated.
+	 */
+	void resetSubtreeHash() {
+		subtreeHash = 0;
+	}
+
 	public boolean isClosed() {
 		return closed;
 	}
@@ -601,7 +1181,8 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	@Override
 	public DOMNode getFirstChild() {
-		return this.children != null && children.size() > 0 ? this.children.get(0) : null;
+		XMLNodeList<DOMNode> children = children();
+		return children != null && children.size() > 0 ? children.get(0) : null;
 	}
 
 	/*
@@ -611,7 +1192,8 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	@Override
 	public DOMNode getLastChild() {
-		return this.children != null && this.children.size() > 0 ? this.children.get(this.children.size() - 1) : null;
+		XMLNodeList<DOMNode> children = children();
+		return children != null && children.size() > 0 ? children.get(children.size() - 1) : null;
 	}
 
 	/*
@@ -621,7 +1203,7 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	@Override
 	public NamedNodeMap getAttributes() {
-		return attributeNodes;
+		return attributes();
 	}
 
 	/*
@@ -631,6 +1213,7 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	@Override
 	public NodeList getChildNodes() {
+		XMLNodeList<DOMNode> children = children();
 		return children != null ? children : EMPTY_CHILDREN;
 	}
 
@@ -774,6 +1357,9 @@ public abstract class DOMNode implements Node, DOMRange {
 	 */
 	@Override
 	public boolean hasChildNodes() {
+		if (compactTable != null) {
+			return true;
+		}
 		return children != null && !children.isEmpty();
 	}
 
@@ -0,0 +1,698 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.lemminx.dom.DOMNode.XMLNamedNodeMap;
+
+/**
+ * Compact storage of DOM nodes used for large documents.
+ *
+ * <p>
+ * The nodes are stored in a struct of arrays (offsets, first child and next
+ * sibling indexes, interned name ids, flags) instead of {@link DOMNode}
+ * instances. They are stored by the parser while the tokens are scanned (see
+ * {@link #addElement(int, int)}), without creating {@link DOMNode} instances.
+ * The children of a {@link DOMNode} which are stored in the table
+ * are materialized as {@link DOMNode} instances the first time they are
+ * accessed (see {@link DOMNode#getChildren()}). The attributes are stored
+ * with the offsets of their names and values, they are materialized as
+ * {@link DOMAttr} instances the first time the attributes of a materialized
+ * node are accessed (see {@link DOMNode#getAttributeNodes()}) and the values
+ * are read from the parsed text at that time.
+ * </p>
+ *
+ * <p>
+ * Only elements, texts, comments, CDATA sections and processing instructions
+ * can be stored in the table.
+ * </p>
+ *
+ * <p>
+ * A table is not modified once the document is parsed, so it is shared by
+ * the versions of a DOM document updated by the incremental parser : the nodes
+ * of a new version are materialized from the same table and their offsets are
+ * shifted when they are materialized (see {@link OffsetShift}).
+ * </p>
+ *
+ * <p>
+ * The arrays of the nodes are released once all the nodes are materialized and
+ * the arrays of the attributes are released once all the attributes are
+ * materialized. The arrays of a shared table are not released since each
+ * version materializes its own nodes.
+ * </p>
+ *
+ */
+final class DOMNodeTable {
+
+	static final int NONE = -1;
+
+	private static final byte ELEMENT = 1;
+	private static final byte TEXT = 2;
+	private static final byte COMMENT = 3;
+	private static final byte CDATA = 4;
+	private static final byte PROCESSING_INSTRUCTION = 5;
+
+	// node flags
+	private static final int CLOSED = 1;
+	private static final int SELF_CLOSED = 1 << 1;
+	private static final int WHITESPACE = 1 << 2;
+	private static final int COMMENT_SAME_LINE_END_TAG = 1 << 3;
+	private static final int PROLOG = 1 << 4;
+	private static final int PI = 1 << 5;
+	private static final int START_TAG_CLOSE = 1 << 6;
+
+	// attribute flags
+	private static final int DELIMITER = 1;
+	private static final int VALUE = 1 << 1;
+
+	// number of offsets stored for each node:
+	// - element: start tag open, start tag close, end tag open, end tag close
+	// - comment, CDATA: start content, end content
+	// - processing instruction: start content, end content, end tag open
+	private static final int OFFSETS = 4;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final DOMDocument ownerDocument;
+	// the text which is parsed, used to read the attribute values
+	private CharSequence text;
+	// true if the table is shared by several versions of the DOM document
+	private boolean shared;
+
+	private int size;
+	private byte[] kinds;
+	private int[] starts;
+	private int[] ends;
+	private int[] offsets;
+	private int[] flags;
+	private int[] names;
+	private int[] firstChildren;
+	private int[] nextSiblings;
+	private int[] firstAttributes;
+	private int[] attributeCounts;
+
+	// true when the parser has stored all the nodes
+	private boolean completed;
+	// number of the nodes which are materialized
+	private int materializedNodes;
+
+	private int attributeSize;
+	// number of the nodes which have attributes and number of those whose
+	// attributes are materialized
+	private int attributeOwners;
+	private int materializedAttributeOwners;
+	private int[] attributeNames;
+	private int[] attributeNameStarts;
+	private int[] attributeNameEnds;
+	private int[] attributeValueStarts;
+	private int[] attributeValueEnds;
+	private int[] attributeFlags;
+
+	// the ids of the names, used only while the nodes are stored
+	private Map<String, Integer> nameIds;
+	private String[] nameTable;
+
+	DOMNodeTable(DOMDocument ownerDocument, CharSequence text) {
+		this.ownerDocument = ownerDocument;
+		this.text = text;
+		this.kinds = new byte[INITIAL_CAPACITY];
+		this.starts = new int[INITIAL_CAPACITY];
+		this.ends = new int[INITIAL_CAPACITY];
+		this.offsets = new int[INITIAL_CAPACITY * OFFSETS];
+		this.flags = new int[INITIAL_CAPACITY];
+		this.names = new int[INITIAL_CAPACITY];
+		this.firstChildren = new int[INITIAL_CAPACITY];
+		this.nextSiblings = new int[INITIAL_CAPACITY];
+		this.firstAttributes = new int[INITIAL_CAPACITY];
+		this.attributeCounts = new int[INITIAL_CAPACITY];
+		this.attributeNames = new int[INITIAL_CAPACITY];
+		this.attributeNameStarts = new int[INITIAL_CAPACITY];
+		this.attributeNameEnds = new int[INITIAL_CAPACITY];
+		this.attributeValueStarts = new int[INITIAL_CAPACITY];
+		this.attributeValueEnds = new int[INITIAL_CAPACITY];
+		this.attributeFlags = new int[INITIAL_CAPACITY];
+		this.nameIds = new HashMap<>();
+		this.nameTable = new String[64];
+	}
+
+	/**
+	 * Stores a new element and returns its index. The node is linked to its parent
+	 * with {@link #addChild(int, int, int)}.
+	 *
+	 * @param start the start offset.
+	 * @param end   the end offset.
+	 * @return the index of the new element.
+	 */
+	int addElement(int start, int end) {
+		int index = add(ELEMENT, start, end);
+		int offset = index * OFFSETS;
+		offsets[offset] = DOMNode.NULL_VALUE;
+		offsets[offset + 1] = DOMNode.NULL_VALUE;
+		offsets[offset + 2] = DOMNode.NULL_VALUE;
+		offsets[offset + 3] = DOMNode.NULL_VALUE;
+		return index;
+	}
+
+	/**
+	 * Stores a new closed text node and returns its index.
+	 *
+	 * @param start      the start offset.
+	 * @param end        the end offset.
+	 * @param whitespace true if the text contains only whitespaces.
+	 * @return the index of the new text node.
+	 */
+	int addText(int start, int end, boolean whitespace) {
+		int index = add(TEXT, start, end);
+		flags[index] = whitespace ? CLOSED | WHITESPACE : CLOSED;
+		return index;
+	}
+
+	/**
+	 * Stores a new comment and returns its index.
+	 *
+	 * @param start the start offset.
+	 * @param end   the end offset.
+	 * @return the index of the new comment.
+	 */
+	int addComment(int start, int end) {
+		return add(COMMENT, start, end);
+	}
+
+	/**
+	 * Stores a new CDATA section and returns its index.
+	 *
+	 * @param start the start offset.
+	 * @param end   the end offset.
+	 * @return the index of the new CDATA section.
+	 */
+	int addCDATASection(int start, int end) {
+		return add(CDATA, start, end);
+	}
+
+	/**
+	 * Stores a new processing instruction (or prolog) and returns its index.
+	 *
+	 * @param start the start offset.
+	 * @param end   the end offset.
+	 * @return the index of the new processing instruction.
+	 */
+	int addProcessingInstruction(int start, int end) {
+		int index = add(PROCESSING_INSTRUCTION, start, end);
+		offsets[index * OFFSETS + 2] = DOMNode.NULL_VALUE;
+		return index;
+	}
+
+	private int add(byte kind, int start, int end) {
+		int index = size;
+		ensureCapacity(index + 1);
+		size++;
+		kinds[index] = kind;
+		starts[index] = start;
+		ends[index] = end;
+		flags[index] = 0;
+		names[index] = NONE;
+		firstChildren[index] = NONE;
+		nextSiblings[index] = NONE;
+		firstAttributes[index] = attributeSize;
+		attributeCounts[index] = 0;
+		int offset = index * OFFSETS;
+		offsets[offset] = 0;
+		offsets[offset + 1] = 0;
+		return index;
+	}
+
+	/**
+	 * Link the given child to the given parent after the given previous sibling.
+	 *
+	 * @param parent          the index of the parent and {@link #NONE} if the
+	 *                        parent is not stored in the table.
+	 * @param previousSibling the index of the previous sibling and {@link #NONE}
+	 *                        if the child is the first child.
+	 * @param child           the index of the child.
+	 */
+	void addChild(int parent, int previousSibling, int child) {
+		if (previousSibling != NONE) {
+			nextSiblings[previousSibling] = child;
+		} else if (parent != NONE) {
+			firstChildren[parent] = child;
+		}
+	}
+
+	boolean isElement(int index) {
+		return kinds[index] == ELEMENT;
+	}
+
+	boolean isProcessingInstruction(int index) {
+		return kinds[index] == PROCESSING_INSTRUCTION;
+	}
+
+	/**
+	 * Returns true if the given node is an element with the given tag name.
+	 *
+	 * @param index the index of the node.
+	 * @param tag   the tag name.
+	 * @return true if the given node is an element with the given tag name.
+	 */
+	boolean isSameTag(int index, String tag) {
+		return kinds[index] == ELEMENT && Objects.equals(getName(names[index]), tag);
+	}
+
+	boolean hasAttributes(int index) {
+		return attributeCounts[index] > 0;
+	}
+
+	int getStart(int index) {
+		return starts[index];
+	}
+
+	int getEnd(int index) {
+		return ends[index];
+	}
+
+	int getFirstChild(int index) {
+		return firstChildren[index];
+	}
+
+	int getNextSibling(int index) {
+		return nextSiblings[index];
+	}
+
+	void setEnd(int index, int end) {
+		ends[index] = end;
+	}
+
+	boolean isClosed(int index) {
+		return (flags[index] & CLOSED) != 0;
+	}
+
+	void setClosed(int index) {
+		flags[index] |= CLOSED;
+	}
+
+	void setSelfClosed(int index) {
+		flags[index] |= SELF_CLOSED;
+	}
+
+	void setStartTagClose(int index) {
+		flags[index] |= START_TAG_CLOSE;
+	}
+
+	void setCommentSameLineEndTag(int index, boolean commentSameLineEndTag) {
+		if (commentSameLineEndTag) {
+			flags[index] |= COMMENT_SAME_LINE_END_TAG;
+		}
+	}
+
+	/**
+	 * Set the tag name of the given element or the target of the given processing
+	 * instruction.
+	 *
+	 * @param index the index of the node.
+	 * @param name  the name.
+	 */
+	void setName(int index, String name) {
+		names[index] = getNameId(name);
+	}
+
+	/**
+	 * Set the target of the given processing instruction and mark it as a prolog
+	 * or as a processing instruction.
+	 *
+	 * @param index  the index of the processing instruction.
+	 * @param target the target.
+	 * @param prolog true if the processing instruction is a prolog.
+	 */
+	void setTarget(int index, String target, boolean prolog) {
+		names[index] = getNameId(target);
+		flags[index] |= prolog ? PROLOG : PI;
+	}
+
+	void setStartTagOpenOffset(int index, int offset) {
+		offsets[index * OFFSETS] = offset;
+	}
+
+	void setStartTagCloseOffset(int index, int offset) {
+		offsets[index * OFFSETS + 1] = offset;
+	}
+
+	int getStartTagCloseOffset(int index) {
+		return offsets[index * OFFSETS + 1];
+	}
+
+	/**
+	 * Set the end tag open offset of the given element or processing instruction.
+	 *
+	 * @param index  the index of the node.
+	 * @param offset the end tag open offset.
+	 */
+	void setEndTagOpenOffset(int index, int offset) {
+		offsets[index * OFFSETS + 2] = offset;
+	}
+
+	void setEndTagCloseOffset(int index, int offset) {
+		offsets[index * OFFSETS + 3] = offset;
+	}
+
+	/**
+	 * Set the content offsets of the given comment, CDATA section or processing
+	 * instruction.
+	 *
+	 * @param index the index of the node.
+	 * @param start the start offset of the content.
+	 * @param end   the end offset of the content.
+	 */
+	void setContent(int index, int start, int end) {
+		int offset = index * OFFSETS;
+		offsets[offset] = start;
+		offsets[offset + 1] = end;
+	}
+
+	/**
+	 * Stores a new attribute of the given node and returns its index.
+	 *
+	 * @param index the index of the node.
+	 * @param name  the attribute name.
+	 * @param start the start offset of the attribute name.
+	 * @param end   the end offset of the attribute name.
+	 * @return the index of the new attribute.
+	 */
+	int addAttribute(int index, String name, int start, int end) {
+		int count = attributeCounts[index];
+		if (count == 0) {
+			firstAttributes[index] = attributeSize;
+			attributeOwners++;
+		} else if (firstAttributes[index] + count != attributeSize) {
+			// the attributes of a node are contiguous, move the previous attributes of the
+			// node after the last stored attribute
+			ensureAttributeCapacity(attributeSize + count);
+			for (int i = 0; i < count; i++) {
+				moveAttribute(firstAttributes[index] + i, attributeSize + i);
+			}
+			firstAttributes[index] = attributeSize;
+			attributeSize += count;
+		}
+		int attr = attributeSize;
+		ensureAttributeCapacity(attr + 1);
+		attributeSize++;
+		attributeCounts[index]++;
+		attributeNames[attr] = getNameId(name);
+		attributeNameStarts[attr] = start;
+		attributeNameEnds[attr] = end;
+		attributeValueStarts[attr] = NONE;
+		attributeValueEnds[attr] = NONE;
+		attributeFlags[attr] = 0;
+		return attr;
+	}
+
+	private void moveAttribute(int from, int to) {
+		attributeNames[to] = attributeNames[from];
+		attributeNameStarts[to] = attributeNameStarts[from];
+		attributeNameEnds[to] = attributeNameEnds[from];
+		attributeValueStarts[to] = attributeValueStarts[from];
+		attributeValueEnds[to] = attributeValueEnds[from];
+		attributeFlags[to] = attributeFlags[from];
+	}
+
+	/**
+	 * Set the offsets of the value of the given attribute. The value is read from
+	 * the text of the document when the attribute is materialized.
+	 *
+	 * @param attr  the index of the attribute.
+	 * @param start the start offset of the value.
+	 * @param end   the end offset of the value.
+	 */
+	void setAttributeValue(int attr, int start, int end) {
+		attributeValueStarts[attr] = start;
+		attributeValueEnds[attr] = end;
+		attributeFlags[attr] |= VALUE;
+	}
+
+	/**
+	 * Set the '=' offsets of the given attribute which are used as value offsets
+	 * when the attribute has no value.
+	 *
+	 * @param attr  the index of the attribute.
+	 * @param start the start offset of the delimiter.
+	 * @param end   the end offset of the delimiter.
+	 */
+	void setAttributeDelimiter(int attr, int start, int end) {
+		attributeValueStarts[attr] = start;
+		attributeValueEnds[attr] = end;
+		attributeFlags[attr] |= DELIMITER;
+	}
+
+	/**
+	 * Creates the {@link DOMNode} instances for the given first child index and its
+	 * siblings and add them to the given parent.
+	 *
+	 * @param parent     the parent node.
+	 * @param firstChild the index of the first child.
+	 */
+	synchronized void materializeChildren(DOMNode parent, int firstChild) {
+		for (int index = firstChild; index != NONE; index = nextSiblings[index]) {
+			DOMNode child = createNode(index);
+			child.closed = (flags[index] & CLOSED) != 0;
+			if (attributeCounts[index] > 0) {
+				child.setCompactAttributes(this, index);
+			}
+			if (firstChildren[index] != NONE) {
+				child.setCompactChildren(this, firstChildren[index]);
+			}
+			parent.addMaterializedChild(child);
+			materializedNodes++;
+		}
+		releaseMaterialized();
+	}
+
+	private DOMNode createNode(int index) {
+		int start = starts[index];
+		int end = ends[index];
+		int nodeFlags = flags[index];
+		int offset = index * OFFSETS;
+		switch (kinds[index]) {
+		case ELEMENT:
+			DOMElement element = ownerDocument.createElement(start, end);
+			element.tag = getName(names[index]);
+			element.startTagOpenOffset = offsets[offset];
+			element.startTagCloseOffset = offsets[offset + 1];
+			element.endTagOpenOffset = offsets[offset + 2];
+			element.endTagCloseOffset = offsets[offset + 3];
+			element.selfClosed = (nodeFlags & SELF_CLOSED) != 0;
+			return element;
+		case TEXT:
+			DOMText textNode = ownerDocument.createText(start, end);
+			textNode.setWhitespace((nodeFlags & WHITESPACE) != 0);
+			return textNode;
+		case COMMENT:
+			DOMComment comment = ownerDocument.createComment(start, end);
+			comment.startContent = offsets[offset];
+			comment.endContent = offsets[offset + 1];
+			comment.commentSameLineEndTag = (nodeFlags & COMMENT_SAME_LINE_END_TAG) != 0;
+			return comment;
+		case CDATA:
+			DOMCDATASection cdata = ownerDocument.createCDataSection(start, end);
+			cdata.startContent = offsets[offset];
+			cdata.endContent = offsets[offset + 1];
+			cdata.setWhitespace((nodeFlags & WHITESPACE) != 0);
+			return cdata;
+		default:
+			DOMProcessingInstruction processingInstruction = ownerDocument.createProcessingInstruction(start, end);
+			processingInstruction.target = getName(names[index]);
+			processingInstruction.startContent = offsets[offset];
+			processingInstruction.endContent = offsets[offset + 1];
+			processingInstruction.endTagOpenOffset = offsets[offset + 2];
+			processingInstruction.prolog = (nodeFlags & PROLOG) != 0;
+			processingInstruction.processingInstruction = (nodeFlags & PI) != 0;
+			processingInstruction.startTagClose = (nodeFlags & START_TAG_CLOSE) != 0;
+			return processingInstruction;
+		}
+	}
+
+	/**
+	 * Creates the {@link DOMAttr} instances of the node stored at the given index.
+	 *
+	 * @param ownerElement the materialized node.
+	 * @param index        the index of the node in the table.
+	 * @return the attributes of the node.
+	 */
+	synchronized XMLNamedNodeMap<DOMAttr> materializeAttributes(DOMNode ownerElement, int index) {
+		XMLNamedNodeMap<DOMAttr> attributes = new XMLNamedNodeMap<>();
+		for (int i = firstAttributes[index]; i < firstAttributes[index] + attributeCounts[index]; i++) {
+			attributes.add(createAttribute(i, ownerElement));
+		}
+		materializedAttributeOwners++;
+		releaseMaterialized();
+		return attributes;
+	}
+
+	/**
+	 * Releases the arrays of the nodes if they are all materialized and the arrays
+	 * of the attributes if they are all materialized. The arrays are kept while the
+	 * nodes are stored by the parser.
+	 */
+	private void releaseMaterialized() {
+		if (!completed || shared) {
+			return;
+		}
+		boolean nodesMaterialized = materializedNodes == size;
+		boolean attributesMaterialized = materializedAttributeOwners == attributeOwners;
+		if (nodesMaterialized) {
+			kinds = null;
+			starts = null;
+			ends = null;
+			offsets = null;
+			flags = null;
+			names = null;
+			firstChildren = null;
+			nextSiblings = null;
+		}
+		if (attributesMaterialized) {
+			attributeNames = null;
+			attributeNameStarts = null;
+			attributeNameEnds = null;
+			attributeValueStarts = null;
+			attributeValueEnds = null;
+			attributeFlags = null;
+			text = null;
+		}
+		if (nodesMaterialized && attributesMaterialized) {
+			// the first attribute indexes and the attribute counts are used to materialize
+			// the attributes
+			firstAttributes = null;
+			attributeCounts = null;
+			nameTable = null;
+		}
+	}
+
+	/**
+	 * Returns true if the nodes and the attributes stored in this table are all
+	 * materialized and the arrays of this table are released.
+	 *
+	 * @return true if the nodes and the attributes stored in this table are all
+	 *         materialized and the arrays of this table are released.
+	 */
+	synchronized boolean isReleased() {
+		return completed && !shared && materializedNodes == size && materializedAttributeOwners == attributeOwners;
+	}
+
+	private DOMAttr createAttribute(int index, DOMNode ownerElement) {
+		DOMAttr attr = new DOMAttr(getName(attributeNames[index]), attributeNameStarts[index],
+				attributeNameEnds[index], ownerElement);
+		int valueStart = attributeValueStarts[index];
+		if (valueStart != NONE) {
+			int valueEnd = attributeValueEnds[index];
+			String value = (attributeFlags[index] & VALUE) != 0
+					? text.subSequence(valueStart, valueEnd).toString()
+					: null;
+			attr.setValue(value, valueStart, valueEnd);
+		}
+		attr.setDelimiter((attributeFlags[index] & DELIMITER) != 0);
+		return attr;
+	}
+
+	/**
+	 * Marks this table as shared by several versions of the DOM document : its
+	 * arrays are not released anymore.
+	 */
+	synchronized void share() {
+		shared = true;
+	}
+
+	/**
+	 * Marks the end of the parse : releases the unused capacity of the arrays, the
+	 * ids of the names and the arrays whose nodes are already materialized.
+	 */
+	synchronized void complete() {
+		completed = true;
+		nameIds = null;
+		kinds = Arrays.copyOf(kinds, size);
+		starts = Arrays.copyOf(starts, size);
+		ends = Arrays.copyOf(ends, size);
+		offsets = Arrays.copyOf(offsets, size * OFFSETS);
+		flags = Arrays.copyOf(flags, size);
+		names = Arrays.copyOf(names, size);
+		firstChildren = Arrays.copyOf(firstChildren, size);
+		nextSiblings = Arrays.copyOf(nextSiblings, size);
+		firstAttributes = Arrays.copyOf(firstAttributes, size);
+		attributeCounts = Arrays.copyOf(attributeCounts, size);
+		attributeNames = Arrays.copyOf(attributeNames, attributeSize);
+		attributeNameStarts = Arrays.copyOf(attributeNameStarts, attributeSize);
+		attributeNameEnds = Arrays.copyOf(attributeNameEnds, attributeSize);
+		attributeValueStarts = Arrays.copyOf(attributeValueStarts, attributeSize);
+		attributeValueEnds = Arrays.copyOf(attributeValueEnds, attributeSize);
+		attributeFlags = Arrays.copyOf(attributeFlags, attributeSize);
+		releaseMaterialized();
+	}
+
+	/**
+	 * Returns the number of nodes stored in the table.
+	 *
+	 * @return the number of nodes stored in the table.
+	 */
+	int size() {
+		return size;
+	}
+
+	private int getNameId(String name) {
+		if (name == null) {
+			return NONE;
+		}
+		Integer id = nameIds.get(name);
+		if (id == null) {
+			id = nameIds.size();
+			if (id == nameTable.length) {
+				nameTable = Arrays.copyOf(nameTable, id * 2);
+			}
+			nameTable[id] = name;
+			nameIds.put(name, id);
+		}
+		return id;
+	}
+
+	private String getName(int id) {
+		return id != NONE ? nameTable[id] : null;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= kinds.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, kinds.length * 2);
+		kinds = Arrays.copyOf(kinds, newCapacity);
+		starts = Arrays.copyOf(starts, newCapacity);
+		ends = Arrays.copyOf(ends, newCapacity);
+		offsets = Arrays.copyOf(offsets, newCapacity * OFFSETS);
+		flags = Arrays.copyOf(flags, newCapacity);
+		names = Arrays.copyOf(names, newCapacity);
+		firstChildren = Arrays.copyOf(firstChildren, newCapacity);
+		nextSiblings = Arrays.copyOf(nextSiblings, newCapacity);
+		firstAttributes = Arrays.copyOf(firstAttributes, newCapacity);
+		attributeCounts = Arrays.copyOf(attributeCounts, newCapacity);
+	}
+
+	private void ensureAttributeCapacity(int capacity) {
+		if (capacity <= attributeNames.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, attributeNames.length * 2);
+		attributeNames = Arrays.copyOf(attributeNames, newCapacity);
+		attributeNameStarts = Arrays.copyOf(attributeNameStarts, newCapacity);
+		attributeNameEnds = Arrays.copyOf(attributeNameEnds, newCapacity);
+		attributeValueStarts = Arrays.copyOf(attributeValueStarts, newCapacity);
+		attributeValueEnds = Arrays.copyOf(attributeValueEnds, newCapacity);
+		attributeFlags = Arrays.copyOf(attributeFlags, newCapacity);
+	}
+}
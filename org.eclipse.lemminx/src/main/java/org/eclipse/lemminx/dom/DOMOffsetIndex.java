@@ -0,0 +1,725 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offset index of the nodes of a DOM document.
+ *
+ * <p>
+ * The document and its nodes are stored in arrays in document order (start
+ * and end offsets, parent, next sibling and last child indexes) which are
+ * sorted by start offset. The node at a given offset is found with a binary
+ * search of the last node which starts before the offset and a walk to the
+ * root through the parent indexes, without recursion and without walking the
+ * children lists of each level.
+ * </p>
+ *
+ * <p>
+ * The arrays are split in chunks of a fixed size and the index is a list of
+ * segments (ranges of the entries of a chunk). An entry references another
+ * entry with the id of its chunk and its index in the chunk, which don't change
+ * when entries are inserted or removed before it.
+ * </p>
+ *
+ * <p>
+ * The index is created by the parser once the document is parsed. The nodes
+ * which are stored in a compact table (see {@link DOMNodeTable}) are indexed
+ * without being materialized : the {@link DOMNode} of an index is materialized
+ * when it is found, with the children lists of its ancestors.
+ * </p>
+ *
+ * <p>
+ * The index is immutable. When a DOM document is updated by the incremental
+ * parser, the index of the new version is created from the index of the
+ * previous version (see {@link #update(DOMNode, DOMNode, int, int, int, List)})
+ * : the entries of the modified region are replaced, the chunks which are not
+ * modified are shared by the two indexes and the offsets of the segments which
+ * follow the region are shifted with the delta of their segment.
+ * </p>
+ *
+ */
+final class DOMOffsetIndex {
+
+	private static final int NONE = -1;
+
+	/**
+	 * The default number of bits of the index of an entry in its chunk.
+	 */
+	static final int DEFAULT_CHUNK_BITS = 10;
+
+	// number of segments, in addition to the segments of the full chunks, from
+	// which the entries of an updated index are copied in new chunks
+	private static final int MAX_EXTRA_SEGMENTS = 16;
+
+	private final int chunkBits;
+	private final Segment[] segments;
+	// the index of the first segment of each chunk id
+	private final int[] firstSegments;
+	private final int size;
+
+	private DOMOffsetIndex(int chunkBits, List<Segment> segments, int chunkCount) {
+		this.chunkBits = chunkBits;
+		this.segments = segments.toArray(new Segment[segments.size()]);
+		this.firstSegments = new int[chunkCount];
+		Arrays.fill(firstSegments, NONE);
+		int[] lastSegments = new int[chunkCount];
+		int position = 0;
+		for (int i = 0; i < this.segments.length; i++) {
+			Segment segment = this.segments[i];
+			segment.position = position;
+			position += segment.to - segment.from;
+			int id = segment.chunk.id;
+			if (firstSegments[id] == NONE) {
+				firstSegments[id] = i;
+			} else {
+				this.segments[lastSegments[id]].nextSegment = i;
+			}
+			lastSegments[id] = i;
+		}
+		this.size = position;
+	}
+
+	/**
+	 * Create the offset index of the given DOM document and null if the index
+	 * cannot be created (the nodes are not sorted).
+	 *
+	 * <p>
+	 * The nodes which are stored in a compact table are not materialized.
+	 * </p>
+	 *
+	 * @param document the DOM document.
+	 * @return the offset index of the given DOM document and null if the index
+	 *         cannot be created.
+	 */
+	static DOMOffsetIndex create(DOMDocument document) {
+		return create(document, DEFAULT_CHUNK_BITS);
+	}
+
+	/**
+	 * Create the offset index of the given DOM document with chunks of the given
+	 * size and null if the index cannot be created (the nodes are not sorted).
+	 *
+	 * @param document  the DOM document.
+	 * @param chunkBits the number of bits of the index of an entry in its chunk.
+	 * @return the offset index of the given DOM document and null if the index
+	 *         cannot be created.
+	 */
+	static DOMOffsetIndex create(DOMDocument document, int chunkBits) {
+		Builder builder = new Builder(64);
+		int root = builder.add(document, document.start, document.end, NONE);
+		builder.addDescendants(root, document);
+		if (!builder.isSorted()) {
+			return null;
+		}
+		return create(builder, chunkBits);
+	}
+
+	/**
+	 * Create the offset index of the entries of the given builder, whose indexes
+	 * are the positions of the entries.
+	 */
+	private static DOMOffsetIndex create(Builder builder, int chunkBits) {
+		int chunkSize = 1 << chunkBits;
+		List<Segment> segments = new ArrayList<>();
+		int id = 0;
+		for (int from = 0; from < builder.size; from += chunkSize) {
+			int to = Math.min(from + chunkSize, builder.size);
+			Segment segment = new Segment(new Chunk(id++, builder, from, to), 0, to - from, 0);
+			segment.nodes = Arrays.copyOfRange(builder.nodes, from, to);
+			segments.add(segment);
+		}
+		return new DOMOffsetIndex(chunkBits, segments, id);
+	}
+
+	/**
+	 * Returns the index of the new version of a DOM document updated by the
+	 * incremental parser, created from this index of the previous version, and null
+	 * if the index cannot be created (the nodes are not sorted).
+	 *
+	 * <p>
+	 * Only the entries of the modified region are indexed : they replace the
+	 * entries of the previous version, the end offsets of the ancestors of the
+	 * region are shifted in copies of their chunks and the offsets of the
+	 * entries which follow the region are shifted with the delta of their
+	 * segment. The other chunks are shared with this index. The entries are
+	 * copied in new chunks when the index has too many segments.
+	 * </p>
+	 *
+	 * @param parent      the parent of the region in the previous version.
+	 * @param newParent   the parent of the region in the new version.
+	 * @param start       the start offset of the region.
+	 * @param oldEnd      the end offset of the region in the previous version.
+	 * @param delta       the delta to add to the offsets which follow the region.
+	 * @param newChildren the children parsed in the region.
+	 * @return the index of the new version and null if the index cannot be
+	 *         created.
+	 */
+	DOMOffsetIndex update(DOMNode parent, DOMNode newParent, int start, int oldEnd, int delta,
+			List<DOMNode> newChildren) {
+		int parentPosition = findLastBefore(parent.start + 1);
+		if (getStart(parentPosition) != parent.start || getEnd(parentPosition) != parent.end) {
+			return null;
+		}
+		// the entries of the region are the entries which start in the region
+		int from = findLastBefore(start) + 1;
+		int to = findLastBefore(oldEnd) + 1;
+		if (from <= parentPosition || to < from) {
+			return null;
+		}
+		// the child which precedes the region and the child which follows the region
+		int previous = NONE;
+		if (from - 1 != parentPosition) {
+			previous = from - 1;
+			while (getParent(previous) != parentPosition) {
+				previous = getParent(previous);
+				if (previous == NONE) {
+					return null;
+				}
+			}
+		}
+		int next = to < size && getParent(to) == parentPosition ? to : NONE;
+		int nextRef = toRef(next);
+
+		// Index the subtrees of the new children in new chunks
+		Builder builder = new Builder(16);
+		int lastChild = NONE;
+		for (DOMNode child : newChildren) {
+			int index = builder.add(child, child.start, child.end, NONE);
+			if (lastChild != NONE) {
+				builder.nextSiblings[lastChild] = index;
+			}
+			lastChild = index;
+			builder.addDescendants(index, child);
+		}
+		if (!builder.isSorted() || (builder.size > 0 && (builder.starts[0] < getStart(from - 1)
+				|| (to < size && builder.starts[builder.size - 1] > getStart(to) + delta)))) {
+			return null;
+		}
+		int chunkSize = 1 << chunkBits;
+		int firstId = firstSegments.length;
+		int chunkCount = firstId + (builder.size + chunkSize - 1) / chunkSize;
+		if (chunkCount > 1 << (31 - chunkBits)) {
+			// the ids of the chunks are exhausted
+			return compact().update(parent, newParent, start, oldEnd, delta, newChildren);
+		}
+		// the entries of the builder are stored from the first new chunk
+		int firstRef = firstId << chunkBits;
+		for (int i = 0; i < builder.size; i++) {
+			builder.parents[i] = builder.parents[i] != NONE ? firstRef + builder.parents[i] : toRef(parentPosition);
+			builder.nextSiblings[i] = builder.nextSiblings[i] != NONE ? firstRef + builder.nextSiblings[i] : NONE;
+			builder.lastChildren[i] = builder.lastChildren[i] != NONE ? firstRef + builder.lastChildren[i] : NONE;
+		}
+		if (lastChild != NONE) {
+			builder.nextSiblings[lastChild] = nextRef;
+		}
+
+		// Update the entries of the ancestors and of the previous child in copies of
+		// their chunks
+		Map<Integer, Chunk> copies = new HashMap<>();
+		for (int ancestor = parentPosition; ancestor != NONE; ancestor = getParent(ancestor)) {
+			Segment segment = segments[findSegment(ancestor)];
+			getCopy(segment.chunk, copies).ends[segment.from + ancestor - segment.position] += delta;
+		}
+		if (previous != NONE) {
+			Segment segment = segments[findSegment(previous)];
+			getCopy(segment.chunk, copies).nextSiblings[segment.from + previous - segment.position] = builder.size > 0
+					? firstRef
+					: nextRef;
+		}
+		if (next == NONE) {
+			Segment segment = segments[findSegment(parentPosition)];
+			getCopy(segment.chunk, copies).lastChildren[segment.from + parentPosition - segment.position] = lastChild != NONE
+					? firstRef + lastChild
+					: toRef(previous);
+		}
+
+		// The segments of the new index : the entries which precede the region, the
+		// new entries and the entries which follow the region
+		List<Segment> newSegments = new ArrayList<>();
+		for (Segment segment : segments) {
+			if (segment.position < from) {
+				int end = Math.min(segment.to, segment.from + from - segment.position);
+				newSegments.add(new Segment(getChunk(segment.chunk, copies), segment.from, end, segment.delta));
+			}
+		}
+		int id = firstId;
+		for (int i = 0; i < builder.size; i += chunkSize) {
+			int end = Math.min(i + chunkSize, builder.size);
+			newSegments.add(new Segment(new Chunk(id++, builder, i, end), 0, end - i, 0));
+		}
+		for (Segment segment : segments) {
+			int segmentEnd = segment.position + segment.to - segment.from;
+			if (segmentEnd > to) {
+				int begin = segment.from + Math.max(0, to - segment.position);
+				newSegments.add(new Segment(getChunk(segment.chunk, copies), begin, segment.to, segment.delta + delta));
+			}
+		}
+		DOMOffsetIndex index = new DOMOffsetIndex(chunkBits, newSegments, chunkCount);
+
+		// The nodes of the new version which are known : the ancestors of the region
+		// and the new nodes
+		DOMNode node = newParent;
+		for (int ancestor = parentPosition; ancestor != NONE; ancestor = getParent(ancestor)) {
+			index.setNode(ancestor, node);
+			node = node.parent;
+		}
+		for (int i = 0; i < builder.size; i++) {
+			index.setNode(from + i, builder.nodes[i]);
+		}
+		if (newSegments.size() > (index.size >> chunkBits) * 2 + MAX_EXTRA_SEGMENTS) {
+			return index.compact();
+		}
+		return index;
+	}
+
+	/**
+	 * Returns a copy of this index whose entries are stored in new chunks, with one
+	 * segment by chunk.
+	 */
+	private synchronized DOMOffsetIndex compact() {
+		Builder builder = new Builder(size);
+		for (Segment segment : segments) {
+			Chunk chunk = segment.chunk;
+			for (int i = segment.from; i < segment.to; i++) {
+				int position = builder.size++;
+				builder.starts[position] = chunk.starts[i] + segment.delta;
+				builder.ends[position] = chunk.ends[i] + segment.delta;
+				builder.parents[position] = toPosition(chunk.parents[i]);
+				builder.nextSiblings[position] = toPosition(chunk.nextSiblings[i]);
+				builder.lastChildren[position] = toPosition(chunk.lastChildren[i]);
+				builder.nodes[position] = segment.nodes != null ? segment.nodes[i - segment.from] : null;
+			}
+		}
+		return create(builder, chunkBits);
+	}
+
+	/**
+	 * Returns the node at the given offset (see {@link DOMNode#findNodeAt(int)}).
+	 *
+	 * @param offset the offset.
+	 * @return the node at the given offset.
+	 */
+	DOMNode findNodeAt(int offset) {
+		int last = findLastBefore(offset);
+		// The node is the deepest node of the path from the document to the last node
+		// which starts before the offset, whose ancestors include the offset.
+		int result = last;
+		for (int index = last; index > 0; index = getParent(index)) {
+			if (!DOMNode.isIncluded(getStart(index), getEnd(index), offset)) {
+				result = getParent(index);
+			}
+		}
+		return getNode(result);
+	}
+
+	/**
+	 * Returns the node before the given offset (see
+	 * {@link DOMNode#findNodeBefore(int)}).
+	 *
+	 * @param offset the offset.
+	 * @return the node before the given offset.
+	 */
+	DOMNode findNodeBefore(int offset) {
+		int last = findLastBefore(offset);
+		// The path from the document to the last node which starts before the offset
+		// is the path of the last child which starts before the offset of each level.
+		int depth = 0;
+		for (int index = last; index > 0; index = getParent(index)) {
+			depth++;
+		}
+		int[] path = new int[depth];
+		for (int index = last; index > 0; index = getParent(index)) {
+			path[--depth] = index;
+		}
+		for (int index : path) {
+			int end = getEnd(index);
+			if (offset < end) {
+				continue;
+			}
+			int lastChild = getLastChild(index);
+			if (lastChild != NONE && getEnd(lastChild) == end) {
+				continue;
+			}
+			return getNode(index);
+		}
+		return getNode(last);
+	}
+
+	/**
+	 * Returns the position of the last node which starts before the given offset
+	 * and 0 (the document) if there is no such node.
+	 */
+	private int findLastBefore(int offset) {
+		// the last segment whose first entry starts before the offset
+		int low = 0;
+		int high = segments.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			Segment segment = segments[mid];
+			if (offset <= segment.chunk.starts[segment.from] + segment.delta) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		if (low == 0) {
+			return 0;
+		}
+		Segment segment = segments[low - 1];
+		int[] starts = segment.chunk.starts;
+		low = segment.from + 1;
+		high = segment.to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (offset <= starts[mid] + segment.delta) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return segment.position + low - 1 - segment.from;
+	}
+
+	/**
+	 * Returns the node stored at the given position and materializes it (with the
+	 * children lists of its ancestors) if it is not materialized.
+	 */
+	private synchronized DOMNode getNode(int position) {
+		if (getCachedNode(position) == null) {
+			int depth = 0;
+			for (int ancestor = position; getCachedNode(ancestor) == null; ancestor = getParent(ancestor)) {
+				depth++;
+			}
+			int[] path = new int[depth];
+			for (int ancestor = position; getCachedNode(ancestor) == null; ancestor = getParent(ancestor)) {
+				path[--depth] = ancestor;
+			}
+			for (int ancestor : path) {
+				if (getCachedNode(ancestor) == null) {
+					// the children are indexed in the order of the children list
+					int parent = getParent(ancestor);
+					int child = parent + 1;
+					for (DOMNode node : getCachedNode(parent).getChildren()) {
+						setNode(child, node);
+						child = getNextSibling(child);
+					}
+				}
+			}
+		}
+		return getCachedNode(position);
+	}
+
+	private DOMNode getCachedNode(int position) {
+		Segment segment = segments[findSegment(position)];
+		return segment.nodes != null ? segment.nodes[position - segment.position] : null;
+	}
+
+	private void setNode(int position, DOMNode node) {
+		Segment segment = segments[findSegment(position)];
+		if (segment.nodes == null) {
+			segment.nodes = new DOMNode[segment.to - segment.from];
+		}
+		segment.nodes[position - segment.position] = node;
+	}
+
+	private int getStart(int position) {
+		Segment segment = segments[findSegment(position)];
+		return segment.chunk.starts[segment.from + position - segment.position] + segment.delta;
+	}
+
+	private int getEnd(int position) {
+		Segment segment = segments[findSegment(position)];
+		return segment.chunk.ends[segment.from + position - segment.position] + segment.delta;
+	}
+
+	private int getParent(int position) {
+		Segment segment = segments[findSegment(position)];
+		return toPosition(segment.chunk.parents[segment.from + position - segment.position]);
+	}
+
+	private int getNextSibling(int position) {
+		Segment segment = segments[findSegment(position)];
+		return toPosition(segment.chunk.nextSiblings[segment.from + position - segment.position]);
+	}
+
+	private int getLastChild(int position) {
+		Segment segment = segments[findSegment(position)];
+		return toPosition(segment.chunk.lastChildren[segment.from + position - segment.position]);
+	}
+
+	/**
+	 * Returns the index of the segment which stores the given position.
+	 */
+	private int findSegment(int position) {
+		int low = 0;
+		int high = segments.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (segments[mid].position <= position) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the position of the entry with the given reference (chunk id and
+	 * index in the chunk).
+	 */
+	private int toPosition(int ref) {
+		if (ref == NONE) {
+			return NONE;
+		}
+		int id = ref >>> chunkBits;
+		int index = ref & ((1 << chunkBits) - 1);
+		for (int i = firstSegments[id]; i != NONE; i = segments[i].nextSegment) {
+			Segment segment = segments[i];
+			if (index >= segment.from && index < segment.to) {
+				return segment.position + index - segment.from;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Returns the reference (chunk id and index in the chunk) of the entry at the
+	 * given position.
+	 */
+	private int toRef(int position) {
+		if (position == NONE) {
+			return NONE;
+		}
+		Segment segment = segments[findSegment(position)];
+		return (segment.chunk.id << chunkBits) | (segment.from + position - segment.position);
+	}
+
+	private static Chunk getCopy(Chunk chunk, Map<Integer, Chunk> copies) {
+		Chunk copy = copies.get(chunk.id);
+		if (copy == null) {
+			copy = new Chunk(chunk);
+			copies.put(chunk.id, copy);
+		}
+		return copy;
+	}
+
+	private static Chunk getChunk(Chunk chunk, Map<Integer, Chunk> copies) {
+		Chunk copy = copies.get(chunk.id);
+		return copy != null ? copy : chunk;
+	}
+
+	/**
+	 * Returns the number of indexed nodes.
+	 *
+	 * @return the number of indexed nodes.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of segments of the index.
+	 *
+	 * @return the number of segments of the index.
+	 */
+	int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * The entries of a chunk, which are not modified once the chunk is indexed.
+	 * The references to other entries are the ids of their chunk and their indexes
+	 * in the chunk.
+	 */
+	private static class Chunk {
+
+		final int id;
+		final int[] starts;
+		final int[] ends;
+		final int[] parents;
+		final int[] nextSiblings;
+		final int[] lastChildren;
+
+		Chunk(int id, Builder builder, int from, int to) {
+			this.id = id;
+			this.starts = Arrays.copyOfRange(builder.starts, from, to);
+			this.ends = Arrays.copyOfRange(builder.ends, from, to);
+			this.parents = Arrays.copyOfRange(builder.parents, from, to);
+			this.nextSiblings = Arrays.copyOfRange(builder.nextSiblings, from, to);
+			this.lastChildren = Arrays.copyOfRange(builder.lastChildren, from, to);
+		}
+
+		Chunk(Chunk chunk) {
+			this.id = chunk.id;
+			this.starts = chunk.starts.clone();
+			this.ends = chunk.ends.clone();
+			this.parents = chunk.parents.clone();
+			this.nextSiblings = chunk.nextSiblings.clone();
+			this.lastChildren = chunk.lastChildren.clone();
+		}
+	}
+
+	/**
+	 * A range of the entries of a chunk, whose offsets are shifted with a delta.
+	 */
+	private static class Segment {
+
+		final Chunk chunk;
+		final int from;
+		final int to;
+		final int delta;
+		// the position of the first entry in the index
+		int position;
+		// the index of the next segment of the same chunk
+		int nextSegment = NONE;
+		// the nodes and null for the nodes which are not materialized yet
+		DOMNode[] nodes;
+
+		Segment(Chunk chunk, int from, int to, int delta) {
+			this.chunk = chunk;
+			this.from = from;
+			this.to = to;
+			this.delta = delta;
+		}
+	}
+
+	/**
+	 * The children of an indexed node : the materialized children followed by the
+	 * children stored in a compact table.
+	 */
+	private static class Children {
+
+		final int parent;
+		final List<DOMNode> materialized;
+		final DOMNodeTable table;
+		// the shift of the offsets stored in the table
+		final OffsetShift shift;
+		int next;
+		int compactChild;
+
+		Children(int parent, DOMNode node) {
+			this.parent = parent;
+			this.materialized = node.getMaterializedChildren();
+			this.table = node.getCompactTable();
+			this.compactChild = table != null ? node.getCompactFirstChild() : DOMNodeTable.NONE;
+			this.shift = node.getCompactShift();
+		}
+
+		Children(int parent, DOMNodeTable table, int firstChild, OffsetShift shift) {
+			this.parent = parent;
+			this.materialized = Collections.emptyList();
+			this.table = table;
+			this.compactChild = firstChild;
+			this.shift = shift;
+		}
+
+		int shift(int offset) {
+			return shift != null ? shift.apply(offset) : offset;
+		}
+	}
+
+	private static class Builder {
+
+		int size;
+		int[] starts;
+		int[] ends;
+		int[] parents;
+		int[] nextSiblings;
+		int[] lastChildren;
+		DOMNode[] nodes;
+
+		Builder(int capacity) {
+			capacity = Math.max(capacity, 1);
+			starts = new int[capacity];
+			ends = new int[capacity];
+			parents = new int[capacity];
+			nextSiblings = new int[capacity];
+			lastChildren = new int[capacity];
+			nodes = new DOMNode[capacity];
+		}
+
+		int add(DOMNode node, int start, int end, int parent) {
+			if (size == starts.length) {
+				int capacity = size * 2;
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				parents = Arrays.copyOf(parents, capacity);
+				nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+				lastChildren = Arrays.copyOf(lastChildren, capacity);
+				nodes = Arrays.copyOf(nodes, capacity);
+			}
+			int index = size++;
+			starts[index] = start;
+			ends[index] = end;
+			parents[index] = parent;
+			nextSiblings[index] = NONE;
+			lastChildren[index] = NONE;
+			nodes[index] = node;
+			if (parent != NONE) {
+				if (lastChildren[parent] != NONE) {
+					nextSiblings[lastChildren[parent]] = index;
+				}
+				lastChildren[parent] = index;
+			}
+			return index;
+		}
+
+		/**
+		 * Add the descendants of the given node stored at the given index.
+		 */
+		void addDescendants(int index, DOMNode node) {
+			Deque<Children> stack = new ArrayDeque<>();
+			stack.push(new Children(index, node));
+			while (!stack.isEmpty()) {
+				Children children = stack.peek();
+				if (children.next < children.materialized.size()) {
+					DOMNode child = children.materialized.get(children.next++);
+					int childIndex = add(child, child.start, child.end, children.parent);
+					if (!child.getMaterializedChildren().isEmpty() || child.getCompactTable() != null) {
+						stack.push(new Children(childIndex, child));
+					}
+				} else if (children.compactChild != DOMNodeTable.NONE) {
+					// the children stored in the compact table follow the materialized children
+					DOMNodeTable table = children.table;
+					int child = children.compactChild;
+					children.compactChild = table.getNextSibling(child);
+					int childIndex = add(null, children.shift(table.getStart(child)),
+							children.shift(table.getEnd(child)), children.parent);
+					if (table.getFirstChild(child) != DOMNodeTable.NONE) {
+						stack.push(new Children(childIndex, table, table.getFirstChild(child), children.shift));
+					}
+				} else {
+					stack.pop();
+				}
+			}
+		}
+
+		boolean isSorted() {
+			for (int i = 1; i < size; i++) {
+				if (starts[i - 1] > starts[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
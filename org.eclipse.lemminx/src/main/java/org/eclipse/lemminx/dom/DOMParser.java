@@ -17,12 +17,27 @@
  */
 package org.eclipse.lemminx.dom;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.DirtyRegion;
+import org.eclipse.lemminx.commons.ServerExecutors;
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.parser.Scanner;
+import org.eclipse.lemminx.dom.parser.ScannerCheckpoints;
+import org.eclipse.lemminx.dom.parser.ScannerState;
 import org.eclipse.lemminx.dom.parser.TokenType;
 import org.eclipse.lemminx.dom.parser.XMLScanner;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
@@ -40,6 +55,15 @@ public class DOMParser {
 
 	private static final DOMParser INSTANCE = new DOMParser();
 
+	/**
+	 * The minimum text length of a chunk which is parsed in parallel.
+	 */
+	private static final int MIN_PARALLEL_CHUNK_SIZE = 128 * 1024;
+
+	private static final DOMParserOptions DEFAULT_OPTIONS = new DOMParserOptions();
+
+	private final NameTable nameTable = new NameTable();
+
 	public static DOMParser getInstance() {
 		return INSTANCE;
 	}
@@ -48,6 +72,16 @@ public class DOMParser {
 
 	}
 
+	/**
+	 * Returns the table of the names (element, attribute and processing
+	 * instruction names) shared by the parsed documents.
+	 * 
+	 * @return the table of the names shared by the parsed documents.
+	 */
+	public NameTable getNameTable() {
+		return nameTable;
+	}
+
 	public DOMDocument parse(String text, String uri, URIResolverExtensionManager resolverExtensionManager) {
 		return parse(new TextDocument(text, uri), resolverExtensionManager);
 	}
@@ -68,9 +102,20 @@ public class DOMParser {
 
 	public DOMDocument parse(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
 			boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		return parse(document, resolverExtensionManager, ignoreWhitespaceContent, DEFAULT_OPTIONS, monitor);
+	}
+
+	public DOMDocument parse(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
+			boolean ignoreWhitespaceContent, DOMParserOptions options, CancelChecker monitor) {
 		boolean isDTD = DOMUtils.isDTD(document.getUri());
-		boolean inDTDInternalSubset = false;
-		String text = document.getText();
+		CharSequence text = document.getTextSequence();
+		if (!isDTD && text.length() >= options.getParallelThreshold()) {
+			DOMDocument xmlDocument = parseParallel(document, resolverExtensionManager, ignoreWhitespaceContent,
+					options, monitor);
+			if (xmlDocument != null) {
+				return xmlDocument;
+			}
+		}
 		Scanner scanner = XMLScanner.createScanner(text, 0, isDTD);
 		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
 		xmlDocument.setCancelChecker(monitor);
@@ -83,15 +128,619 @@ public class DOMParser {
 			// nothing should affect it's closed status
 			curr.closed = true;
 		}
-		DOMNode lastClosed = curr;
+		ParserState state = createState(curr, xmlDocument, text, isDTD, options);
+		TokenType token = parseTokens(scanner, Integer.MAX_VALUE, state, xmlDocument, document, text,
+				ignoreWhitespaceContent, monitor);
+		endParse(token, state, xmlDocument, text);
+		return xmlDocument;
+	}
+
+	private ParserState createState(DOMNode curr, DOMDocument xmlDocument, CharSequence text, boolean isDTD,
+			DOMParserOptions options) {
+		ParserState state = new ParserState(curr);
+		if (!isDTD && text.length() >= options.getCompactThreshold()) {
+			state.table = new DOMNodeTable(xmlDocument, text);
+		}
+		state.offsetIndex = text.length() >= options.getOffsetIndexThreshold();
+		if (!isDTD) {
+			state.checkpoints = new ScannerCheckpoints();
+			xmlDocument.setScannerCheckpoints(state.checkpoints);
+		}
+		return state;
+	}
+
+	private static void endParse(TokenType token, ParserState state, DOMDocument xmlDocument,
+			CharSequence text) {
+		DOMNode curr = state.curr;
+		if (state.previousTokenWasEndTagOpen) {
+			if (token != TokenType.EndTag) {
+				// The excepted token is not an EndTag, create a fake end tag element
+				DOMElement element = xmlDocument.createElement(state.endTagOpenOffset, state.endTagOpenOffset + 2);
+				element.endTagOpenOffset = state.endTagOpenOffset;
+				curr.addChild(element);
+				state.wellFormednessErrors = true;
+			}
+		}
+		while (curr.parent != null) {
+			if (!curr.isClosed()) {
+				// ex : <a>
+				state.wellFormednessErrors = true;
+			}
+			curr.end = text.length();
+			curr = curr.parent;
+		}
+		xmlDocument.setWellFormednessErrors(state.wellFormednessErrors);
+		if (state.table != null) {
+			state.table.complete();
+		}
+		if (state.offsetIndex) {
+			xmlDocument.setOffsetIndex(DOMOffsetIndex.create(xmlDocument));
+		}
+	}
+
+	/**
+	 * Parse the given text document by parsing the children of the root element in
+	 * parallel and returns null if the text document must be parsed sequentially.
+	 * 
+	 * <p>
+	 * The prolog and the start tag of the root element are parsed first, then the
+	 * content of the root element is split in chunks which start with a start tag
+	 * of a top-level child. Each chunk is parsed in a temporary element (like the
+	 * incremental parse does) and the parsed children are added to the root
+	 * element in order. The end of the document is parsed last.
+	 * </p>
+	 * 
+	 * <p>
+	 * The chunks are submitted to the parse executor and the calling thread parses
+	 * the chunks which are not started yet : the parse doesn't wait for the
+	 * threads of the executor which can be busy (or be the calling thread). When
+	 * a chunk cannot be parsed independently, the other chunks are canceled.
+	 * </p>
+	 */
+	DOMDocument parseParallel(TextDocument document, URIResolverExtensionManager resolverExtensionManager,
+			boolean ignoreWhitespaceContent, DOMParserOptions options, CancelChecker monitor) {
+		ServerExecutors executors = options.getExecutors();
+		if (executors == null) {
+			return null;
+		}
+		// the chunks are parsed by the threads of the executor and the calling thread
+		int parallelism = executors.getThreads(ExecutorKind.PARSE) + 1;
+		CharSequence text = document.getTextSequence();
+		int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, text.length() / (parallelism * 4));
+		int[] splitOffsets = findSplitOffsets(text, chunkSize);
+		if (splitOffsets == null) {
+			return null;
+		}
+		DOMDocument xmlDocument = new DOMDocument(document, resolverExtensionManager);
+		xmlDocument.setCancelChecker(monitor);
+		ParserState state = createState(xmlDocument, xmlDocument, text, false, options);
+
+		// Parse the prolog and the start tag of the root element
+		Scanner scanner = XMLScanner.createScanner(text, 0);
+		TokenType token = parseTokens(scanner, splitOffsets[0], state, xmlDocument, document, text,
+				ignoreWhitespaceContent, monitor);
+		DOMNode root = state.curr;
+		if (token != TokenType.StartTagOpen || scanner.getTokenOffset() != splitOffsets[0] || !root.isElement()
+				|| root.parent != xmlDocument || root.closed || state.previousTokenWasEndTagOpen) {
+			return null;
+		}
+
+		// Parse the chunks in parallel
+		List<FutureTask<ParserState>> chunks = new ArrayList<>(splitOffsets.length - 1);
+		AtomicBoolean failed = new AtomicBoolean();
+		CancelChecker chunkMonitor = () -> {
+			if (failed.get()) {
+				// another chunk cannot be parsed independently
+				throw new CancellationException();
+			}
+			if (monitor != null) {
+				monitor.checkCanceled();
+			}
+		};
+		for (int i = 0; i < splitOffsets.length - 1; i++) {
+			int start = splitOffsets[i];
+			int end = splitOffsets[i + 1];
+			chunks.add(new FutureTask<>(() -> {
+				try {
+					ParserState chunkState = parseChunk(start, end, (DOMElement) root, xmlDocument, document, text,
+							ignoreWhitespaceContent, state.table != null, chunkMonitor);
+					if (chunkState == null) {
+						cancelChunks(chunks, failed);
+					}
+					return chunkState;
+				} catch (RuntimeException | Error e) {
+					cancelChunks(chunks, failed);
+					throw e;
+				}
+			}));
+		}
+		Executor executor = executors.getExecutor(ExecutorKind.PARSE);
+		try {
+			for (FutureTask<ParserState> chunk : chunks) {
+				executor.execute(chunk);
+			}
+		} catch (RejectedExecutionException e) {
+			// the executor is shut down, the chunks are parsed by the calling thread
+		}
+		// the chunks which are not started by the executor are parsed by the calling
+		// thread, from the last one because the executor starts the first ones
+		for (int i = chunks.size() - 1; i >= 0; i--) {
+			chunks.get(i).run();
+		}
+		int lastClosedEnd = state.lastClosedEnd;
+		for (FutureTask<ParserState> chunk : chunks) {
+			ParserState chunkState = getChunkState(chunk, failed);
+			if (chunkState == null) {
+				// the chunk cannot be parsed independently
+				return null;
+			}
+			// the comments which are parsed before the first closed node of the chunk
+			// don't know the last closed node
+			DOMNode temp = chunkState.curr;
+			updateCommentsSameLineEndTag(temp, lastClosedEnd, document);
+			if (chunkState.lastClosedEnd != DOMNode.NULL_VALUE) {
+				lastClosedEnd = chunkState.lastClosedEnd;
+			}
+			state.checkpoints.addAll(chunkState.checkpoints);
+			state.wellFormednessErrors |= chunkState.wellFormednessErrors;
+			List<DOMNode> children = temp.getChildren();
+			int size = root.getChildren().size();
+			root.replaceChildren(size, size, children.subList(1, children.size()));
+		}
+		state.lastClosedEnd = lastClosedEnd;
+
+		// Parse the end of the document
+		scanner = XMLScanner.createScanner(text, splitOffsets[splitOffsets.length - 1]);
+		token = parseTokens(scanner, Integer.MAX_VALUE, state, xmlDocument, document, text, ignoreWhitespaceContent,
+				monitor);
+		endParse(token, state, xmlDocument, text);
+		return xmlDocument;
+	}
+
+	/**
+	 * Cancel the given chunks because one of them cannot be parsed independently.
+	 */
+	private static void cancelChunks(List<FutureTask<ParserState>> chunks, AtomicBoolean failed) {
+		failed.set(true);
+		for (FutureTask<ParserState> chunk : chunks) {
+			chunk.cancel(false);
+		}
+	}
+
+	/**
+	 * Returns the parser state of the given parsed chunk and null if the chunk
+	 * cannot be parsed independently or if it was canceled because another chunk
+	 * cannot be parsed independently.
+	 */
+	private static ParserState getChunkState(FutureTask<ParserState> chunk, AtomicBoolean failed) {
+		try {
+			return chunk.get();
+		} catch (CancellationException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (failed.get() && cause instanceof CancellationException) {
+				return null;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Returns a new version of the given DOM document, which was parsed with a
+	 * previous text of the given text document, by parsing only the given
+	 * modified region.
+	 * 
+	 * <p>
+	 * The content of the smallest element which includes the region is parsed
+	 * again (only between the children elements which are not impacted by the
+	 * changes). The other nodes are copied in the new version, where the new
+	 * nodes replace the old nodes and the offsets of the nodes which follow the
+	 * region are shifted. The given DOM document is never modified, so it can
+	 * still be used by the requests which have been started with it.
+	 * </p>
+	 * 
+	 * <p>
+	 * When the changes cross structural boundaries (ex : the end tag of the
+	 * enclosing element is modified, an unclosed element is inserted, etc) null is
+	 * returned : the text document must be parsed fully in this case.
+	 * </p>
+	 * 
+	 * @param document                the text document.
+	 * @param xmlDocument             the DOM document parsed with a previous text
+	 *                                of the text document.
+	 * @param region                  the region modified since the DOM document
+	 *                                was parsed and null if the text has not
+	 *                                changed.
+	 * @param ignoreWhitespaceContent true if whitespace content must be ignored
+	 *                                (must be the same value used to parse the DOM
+	 *                                document).
+	 * @param monitor                 the cancel checker.
+	 * @return the new version of the DOM document, the given DOM document if the
+	 *         text has not changed and null if the text document must be parsed
+	 *         fully.
+	 */
+	public DOMDocument parseIncremental(TextDocument document, DOMDocument xmlDocument, DirtyRegion region,
+			boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		return parseIncremental(document, xmlDocument, region, ignoreWhitespaceContent, DEFAULT_OPTIONS, monitor);
+	}
+
+	/**
+	 * Parse the region of the given text document which has been modified since
+	 * the given DOM document was parsed with the given options.
+	 * 
+	 * @param document                the text document.
+	 * @param xmlDocument             the DOM document parsed with a previous text
+	 *                                of the text document.
+	 * @param region                  the region modified since the DOM document
+	 *                                was parsed and null if the text has not
+	 *                                changed.
+	 * @param ignoreWhitespaceContent true if whitespace content must be ignored
+	 *                                (must be the same value used to parse the DOM
+	 *                                document).
+	 * @param options                 the parser options.
+	 * @param monitor                 the cancel checker.
+	 * @return the new version of the DOM document, the given DOM document if the
+	 *         text has not changed and null if the text document must be parsed
+	 *         fully.
+	 * @see #parseIncremental(TextDocument, DOMDocument, DirtyRegion, boolean,
+	 *      CancelChecker)
+	 */
+	public DOMDocument parseIncremental(TextDocument document, DOMDocument xmlDocument, DirtyRegion region,
+			boolean ignoreWhitespaceContent, DOMParserOptions options, CancelChecker monitor) {
+		if (xmlDocument.getTextDocument() != document || xmlDocument.isDTD()) {
+			return null;
+		}
+		if (region == null) {
+			// the text has not changed
+			xmlDocument.setCancelChecker(monitor);
+			return xmlDocument;
+		}
+		CharSequence text = document.getTextSequence();
+		int delta = region.getDelta();
+		if (xmlDocument.end + delta != text.length()) {
+			return null;
+		}
+		DOMElement parent = findEnclosingElement(xmlDocument, region);
+		if (parent == null) {
+			return null;
+		}
+
+		// Search the children which are not impacted by the changes
+		List<DOMNode> children = parent.getChildren();
+		int first = findFirstChildToParse(children, region.getStart());
+		int last = findFirstChildAfterRegion(children, region.getOldEnd());
+		int start = first > 0 ? children.get(first - 1).end : parent.startTagCloseOffset + 1;
+		int oldEnd = last < children.size() ? children.get(last).start : parent.endTagOpenOffset;
+		if (last > first && children.get(last - 1).end > oldEnd) {
+			// a child to parse again ends after the region (ex : '</' without tag name
+			// before the end tag of the parent)
+			return null;
+		}
+		int newEnd = oldEnd + delta;
+
+		// Parse the region in a temporary element to keep the DOM document unchanged
+		// if the changes cross structural boundaries. The temporary element has a
+		// temporary parent to process the tokens which close the element (ex : '</>')
+		// like the full parse does.
+		DOMElement temp = xmlDocument.createElement(parent.start, parent.end);
+		temp.startTagCloseOffset = parent.startTagCloseOffset;
+		xmlDocument.createElement(parent.start, parent.end).addChild(temp);
+		if (first > 0) {
+			// the parent has already children, add a fake child to parse whitespaces
+			// content like the full parse does.
+			temp.addChild(xmlDocument.createText(start, start));
+		}
+		ParserState state = new ParserState(temp);
+		state.lastClosedEnd = findLastClosedEndBefore(parent, first);
+		Scanner scanner = XMLScanner.createScanner(text, start);
+		TokenType token = parseTokens(scanner, newEnd, state, xmlDocument, document, text, ignoreWhitespaceContent,
+				monitor);
+		TokenType expectedToken = last < children.size() ? TokenType.StartTagOpen : TokenType.EndTagOpen;
+		if (token != expectedToken || scanner.getTokenOffset() != newEnd || state.curr != temp || temp.closed
+				|| state.previousTokenWasEndTagOpen || state.doctypeFound) {
+			// The changes cross structural boundaries
+			return null;
+		}
+		if (state.tempWhitespaceContent != null && token == TokenType.EndTagOpen) {
+			temp.addChild(state.tempWhitespaceContent);
+		}
+		List<DOMNode> newChildren = temp.getChildren();
+		if (first > 0) {
+			newChildren = newChildren.subList(1, newChildren.size());
+		}
+
+		// Create the new version of the DOM document. The given DOM document is not
+		// modified because it can be used by other threads. The nodes store absolute
+		// offsets and the link to their parent, so they cannot be shared by the two
+		// versions : only the ancestors of the region are copied and the parsed
+		// children replace the children of the region in the copy of the parent. The
+		// other nodes are copied (without parsing their text) with shifted offsets
+		// after the region the first time the children of their parent are accessed
+		// (see DOMNode#copy(DOMNode, OffsetShift)).
+		DOMDocument newDocument = new DOMDocument(document, xmlDocument.getResolverExtensionManager());
+		OffsetShift shift = new OffsetShift(oldEnd, delta);
+		for (DOMNode child : newChildren) {
+			// the namespace scopes of the new children were computed with their temporary
+			// parent
+			child.resetNamespaceScopes();
+		}
+		DOMNode newParent = null;
+		List<DOMNode> replacement = newChildren;
+		int fromIndex = first;
+		int toIndex = last;
+		for (DOMNode ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+			DOMNode newAncestor;
+			if (ancestor == xmlDocument) {
+				newAncestor = newDocument;
+			} else {
+				newAncestor = ancestor.copy(null);
+				shiftEnd(newAncestor, shift);
+				newAncestor.resetSubtreeHash();
+			}
+			newAncestor.setCopiedChildren(ancestor, fromIndex, toIndex, replacement, shift);
+			if (newParent == null) {
+				newParent = newAncestor;
+			}
+			if (ancestor.parent != null) {
+				fromIndex = indexOfChild(ancestor.parent.getChildren(), ancestor);
+				toIndex = fromIndex + 1;
+				replacement = Collections.singletonList(newAncestor);
+			}
+		}
+		if (last < children.size()) {
+			// the last closed node before the first child after the region has changed
+			List<DOMComment> comments = new ArrayList<>();
+			collectCommentsBeforeClosed(children.get(last), comments);
+			for (DOMComment comment : comments) {
+				if (comment.commentSameLineEndTag != isCommentSameLineEndTag(shift.apply(comment.start),
+						state.lastClosedEnd, document)) {
+					updateCommentsSameLineEndTag(newParent.getChildren().get(first + newChildren.size()),
+							state.lastClosedEnd, document);
+					break;
+				}
+			}
+		}
+		if (text.length() >= options.getOffsetIndexThreshold()) {
+			// the index of the given DOM document references its nodes, update it with the
+			// nodes of the new version
+			DOMOffsetIndex index = xmlDocument.getOffsetIndex();
+			DOMOffsetIndex newIndex = index != null
+					? index.update(parent, newParent, start, oldEnd, delta, newChildren)
+					: null;
+			newDocument.setOffsetIndex(newIndex != null ? newIndex : DOMOffsetIndex.create(newDocument));
+		}
+		ScannerCheckpoints checkpoints = xmlDocument.getScannerCheckpoints();
+		if (checkpoints != null) {
+			// the checkpoints of the parsed region are removed
+			newDocument.setScannerCheckpoints(checkpoints.update(start, oldEnd, delta));
+		}
+		// the nodes which are not parsed again keep their well-formedness errors
+		newDocument.setWellFormednessErrors(xmlDocument.hasWellFormednessErrors() || state.wellFormednessErrors);
+		newDocument.setCancelChecker(monitor);
+		return newDocument;
+	}
+
+	/**
+	 * Parse the given chunk of the content of the given root element in a
+	 * temporary element and returns the parser state and null if the chunk cannot
+	 * be parsed independently.
+	 * 
+	 * <p>
+	 * The last closed end offset of the returned state is
+	 * {@link DOMNode#NULL_VALUE} if no node is closed in the chunk. When the
+	 * document is compact, the descendants of the top-level children of the chunk
+	 * are stored in a compact table of the chunk.
+	 * </p>
+	 */
+	private ParserState parseChunk(int start, int end, DOMElement root, DOMDocument xmlDocument,
+			TextDocument document, CharSequence text, boolean ignoreWhitespaceContent, boolean compact,
+			CancelChecker monitor) {
+		// The temporary element has a temporary parent to process the tokens which
+		// close the element (ex : '</>') like the full parse does and a fake child to
+		// parse whitespaces content like the full parse does. Its start tag is closed
+		// like the start tag of the root element.
+		DOMElement temp = xmlDocument.createElement(root.start, root.end);
+		temp.startTagCloseOffset = root.startTagCloseOffset;
+		xmlDocument.createElement(root.start, root.end).addChild(temp);
+		temp.addChild(xmlDocument.createText(start, start));
+		ParserState state = new ParserState(temp);
+		state.checkpoints = new ScannerCheckpoints();
+		if (compact) {
+			state.table = new DOMNodeTable(xmlDocument, text);
+		}
+		Scanner scanner = XMLScanner.createScanner(text, start);
+		TokenType token = parseTokens(scanner, end, state, xmlDocument, document, text, ignoreWhitespaceContent,
+				monitor);
+		if (token != TokenType.StartTagOpen || scanner.getTokenOffset() != end || state.curr != temp || temp.closed
+				|| state.previousTokenWasEndTagOpen || state.doctypeFound) {
+			return null;
+		}
+		if (state.table != null) {
+			state.table.complete();
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the offsets of the start tags of the top-level children of the root
+	 * element where the content of the root element can be split in chunks of the
+	 * given size and null if the content cannot be split.
+	 * 
+	 * <p>
+	 * The offsets are searched with a quick scan of the text which skips the
+	 * comments, CDATA sections and processing instructions. The chunks are
+	 * checked when they are parsed.
+	 * </p>
+	 */
+	private static int[] findSplitOffsets(CharSequence text, int chunkSize) {
+		int contentStart = findRootContentStart(text, chunkSize);
+		if (contentStart == -1) {
+			return null;
+		}
+		int[] splitOffsets = new int[16];
+		int count = 0;
+		int depth = 0;
+		int length = text.length();
+		int offset = StringUtils.indexOf(text, '<', contentStart);
+		while (offset != -1 && offset + 1 < length) {
+			char c = text.charAt(offset + 1);
+			int end;
+			if (c == '/') {
+				if (depth == 0) {
+					// end tag of the root element
+					break;
+				}
+				depth--;
+				end = StringUtils.indexOf(text, '>', offset);
+			} else if (c == '!') {
+				if (StringUtils.startsWith(text, "<!--", offset)) {
+					end = StringUtils.indexOf(text, "-->", offset + 4);
+				} else if (StringUtils.startsWith(text, "<![CDATA[", offset)) {
+					end = StringUtils.indexOf(text, "]]>", offset + 9);
+				} else {
+					// DOCTYPE or DTD declaration
+					return null;
+				}
+			} else if (c == '?') {
+				end = StringUtils.indexOf(text, "?>", offset + 2);
+			} else {
+				if (depth == 0 && (count == 0 || offset - splitOffsets[count - 1] >= chunkSize)) {
+					if (count == splitOffsets.length) {
+						splitOffsets = Arrays.copyOf(splitOffsets, count * 2);
+					}
+					splitOffsets[count++] = offset;
+				}
+				end = findStartTagEnd(text, offset + 1);
+				if (end != -1 && text.charAt(end - 1) != '/') {
+					depth++;
+				}
+			}
+			if (end == -1) {
+				return null;
+			}
+			offset = StringUtils.indexOf(text, '<', end + 1);
+		}
+		// the first chunk starts with the first split offset and the last split
+		// offset starts the end of the document.
+		return count >= 3 ? Arrays.copyOf(splitOffsets, count) : null;
+	}
+
+	/**
+	 * Returns the offset after the start tag of the root element and -1 if it is
+	 * not found before the given offset.
+	 */
+	private static int findRootContentStart(CharSequence text, int maxOffset) {
+		Scanner scanner = XMLScanner.createScanner(text, 0);
+		boolean inRootStartTag = false;
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS && scanner.getTokenOffset() < maxOffset) {
+			if (token == TokenType.StartTagOpen) {
+				if (inRootStartTag) {
+					return -1;
+				}
+				inRootStartTag = true;
+			} else if (inRootStartTag) {
+				if (token == TokenType.StartTagClose) {
+					return scanner.getTokenEnd();
+				}
+				if (token != TokenType.StartTag && token != TokenType.Whitespace
+						&& token != TokenType.AttributeName && token != TokenType.DelimiterAssign
+						&& token != TokenType.AttributeValue) {
+					return -1;
+				}
+			}
+			token = scanner.scan();
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the offset of the '>' which closes the start tag which starts at the
+	 * given offset and -1 if the start tag is not closed.
+	 */
+	private static int findStartTagEnd(CharSequence text, int offset) {
+		int length = text.length();
+		for (int i = offset; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '>') {
+				return i;
+			}
+			if (c == '<') {
+				return -1;
+			}
+			if (c == '"' || c == '\'') {
+				i = StringUtils.indexOf(text, c, i + 1);
+				if (i == -1) {
+					return -1;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parse the tokens of the given scanner until the end of the text, until a
+	 * token starts after the given end offset or until the root node of the parse
+	 * is closed and returns the last scanned token.
+	 * 
+	 * @param scanner                 the scanner.
+	 * @param endOffset               the offset where the parse must stop.
+	 * @param state                   the parser state to start with and to update
+	 *                                at the end of the parse.
+	 * @param xmlDocument             the DOM document.
+	 * @param document                the text document.
+	 * @param text                    the text of the document.
+	 * @param ignoreWhitespaceContent true if whitespace content must be ignored.
+	 * @param monitor                 the cancel checker.
+	 * @return the last scanned token (which is not parsed).
+	 */
+	private TokenType parseTokens(Scanner scanner, int endOffset, ParserState state, DOMDocument xmlDocument,
+			TextDocument document, CharSequence text, boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		DOMNode curr = state.curr;
+		int lastClosedEnd = state.lastClosedEnd;
+		ScannerCheckpoints checkpoints = state.checkpoints;
+		boolean inDTDInternalSubset = false;
 		DOMAttr attr = null;
 		int endTagOpenOffset = -1;
 		String pendingAttribute = null;
 		DOMNode tempWhitespaceContent = null;
 		boolean isInitialDeclaration = true; // A declaration can have multiple internal declarations
 		boolean previousTokenWasEndTagOpen = false;
+		boolean compactContentParsed = false;
 		TokenType token = scanner.scan();
-		while (token != TokenType.EOS) {
+		while (token != TokenType.EOS && scanner.getTokenOffset() < endOffset
+				&& !(curr.parent == null && curr.isClosed())) {
+			if (state.table != null && !compactContentParsed && isCompactContent(curr)) {
+				// the descendants of the element are stored in the compact table until a token
+				// which updates the element or its ancestors
+				state.curr = curr;
+				state.lastClosedEnd = lastClosedEnd;
+				state.tempWhitespaceContent = tempWhitespaceContent;
+				state.endTagOpenOffset = endTagOpenOffset;
+				state.previousTokenWasEndTagOpen = previousTokenWasEndTagOpen;
+				token = parseCompactTokens(token, scanner, endOffset, state, xmlDocument, document, text,
+						ignoreWhitespaceContent, monitor);
+				curr = state.curr;
+				lastClosedEnd = state.lastClosedEnd;
+				tempWhitespaceContent = state.tempWhitespaceContent;
+				endTagOpenOffset = state.endTagOpenOffset;
+				previousTokenWasEndTagOpen = state.previousTokenWasEndTagOpen;
+				attr = null;
+				pendingAttribute = null;
+				compactContentParsed = true;
+				continue;
+			}
+			compactContentParsed = false;
 			if (monitor != null) {
 				monitor.checkCanceled();
 			}
@@ -105,10 +754,15 @@ public class DOMParser {
 					DOMElement element = xmlDocument.createElement(endTagOpenOffset, endTagOpenOffset + 2);
 					element.endTagOpenOffset = endTagOpenOffset;
 					curr.addChild(element);
+					state.wellFormednessErrors = true;
 				}
 			}
 			switch (token) {
 			case StartTagOpen: {
+				if (isStartTagNotClosed(curr)) {
+					// ex : <a <b>
+					state.wellFormednessErrors = true;
+				}
 				if (!curr.isClosed() && curr.parent != null) {
 					// The next node's parent (curr) is not closed at this point
 					// so the node's parent (curr) will have its end position updated
@@ -132,7 +786,7 @@ public class DOMParser {
 
 			case StartTag: {
 				DOMElement element = (DOMElement) curr;
-				element.tag = scanner.getTokenText();
+				element.tag = nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd());
 				curr.end = scanner.getTokenEnd();
 				break;
 			}
@@ -165,6 +819,10 @@ public class DOMParser {
 					curr.addChild(tempWhitespaceContent);
 					tempWhitespaceContent = null;
 				}
+				if (isStartTagNotClosed(curr)) {
+					// ex : <a </a>
+					state.wellFormednessErrors = true;
+				}
 				endTagOpenOffset = scanner.getTokenOffset();
 				curr.end = scanner.getTokenOffset();
 				previousTokenWasEndTagOpen = true;
@@ -172,7 +830,7 @@ public class DOMParser {
 
 			case EndTag:
 				// end tag (ex: </root>)
-				String closeTag = scanner.getTokenText();
+				String closeTag = nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd());
 				DOMNode current = curr;
 
 				/**
@@ -181,6 +839,7 @@ public class DOMParser {
 				while (!(curr.isElement() && ((DOMElement) curr).isSameTag(closeTag)) && curr.parent != null) {
 					curr.end = endTagOpenOffset;
 					curr = curr.parent;
+					state.wellFormednessErrors = true;
 				}
 				if (curr != xmlDocument) {
 					curr.closed = true;
@@ -198,6 +857,7 @@ public class DOMParser {
 					element.tag = closeTag;
 					current.addChild(element);
 					curr = element;
+					state.wellFormednessErrors = true;
 				}
 				break;
 
@@ -206,7 +866,7 @@ public class DOMParser {
 					curr.closed = true;
 					((DOMElement) curr).selfClosed = true;
 					curr.end = scanner.getTokenEnd();
-					lastClosed = curr;
+					lastClosedEnd = curr.end;
 					curr = curr.parent;
 				}
 				break;
@@ -214,12 +874,13 @@ public class DOMParser {
 			case EndTagClose:
 				if (curr.parent != null) {
 					curr.end = scanner.getTokenEnd();
-					lastClosed = curr;
-					if (lastClosed.isElement()) {
+					lastClosedEnd = curr.end;
+					if (curr.isElement()) {
 						((DOMElement) curr).endTagCloseOffset = scanner.getTokenOffset();
 					}
 					if (curr.isDoctype()) {
 						curr.closed = true;
+						((DOMDocumentType) curr).closedByEndTagClose = true;
 					}
 					curr = curr.parent;
 
@@ -227,7 +888,7 @@ public class DOMParser {
 				break;
 
 			case AttributeName: {
-				pendingAttribute = scanner.getTokenText();
+				pendingAttribute = nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd());
 				attr = new DOMAttr(pendingAttribute, scanner.getTokenOffset(),
 						scanner.getTokenOffset() + pendingAttribute.length(), curr);
 				curr.setAttributeNode(attr);
@@ -287,14 +948,16 @@ public class DOMParser {
 
 			case PIName: {
 				DOMProcessingInstruction processingInstruction = ((DOMProcessingInstruction) curr);
-				processingInstruction.target = scanner.getTokenText();
+				processingInstruction.target = nameTable.getName(text, scanner.getTokenOffset(),
+						scanner.getTokenEnd());
 				processingInstruction.processingInstruction = true;
 				break;
 			}
 
 			case PrologName: {
 				DOMProcessingInstruction processingInstruction = ((DOMProcessingInstruction) curr);
-				processingInstruction.target = scanner.getTokenText();
+				processingInstruction.target = nameTable.getName(text, scanner.getTokenOffset(),
+						scanner.getTokenEnd());
 				processingInstruction.prolog = true;
 				break;
 			}
@@ -327,15 +990,7 @@ public class DOMParser {
 				DOMComment comment = xmlDocument.createComment(scanner.getTokenOffset(), text.length());
 				curr.addChild(comment);
 				curr = comment;
-				try {
-					int endLine = document.positionAt(lastClosed.end).getLine();
-					int startLine = document.positionAt(curr.start).getLine();
-					if (endLine == startLine && lastClosed.end <= curr.start) {
-						comment.commentSameLineEndTag = true;
-					}
-				} catch (BadLocationException e) {
-					LOGGER.log(Level.SEVERE, "XMLParser StartCommentTag bad offset in document", e);
-				}
+				updateCommentSameLineEndTag(comment, lastClosedEnd, document);
 				break;
 			}
 
@@ -390,6 +1045,7 @@ public class DOMParser {
 			// DTD
 
 			case DTDStartDoctypeTag: {
+				state.doctypeFound = true;
 				DOMDocumentType doctype = xmlDocument.createDocumentType(scanner.getTokenOffset(), text.length());
 				curr.addChild(doctype);
 				doctype.parent = curr;
@@ -656,28 +1312,801 @@ public class DOMParser {
 				break;
 			}
 
+			case Unknown:
+				state.wellFormednessErrors = true;
+				break;
+
 			default:
 			}
+			if (checkpoints != null && scanner.getScannerState() == ScannerState.WithinContent) {
+				checkpoints.add(scanner.getTokenEnd());
+			}
 			token = scanner.scan();
 		}
-		if (previousTokenWasEndTagOpen) {
-			previousTokenWasEndTagOpen = false;
-			if (token != TokenType.EndTag) {
+		state.curr = curr;
+		state.lastClosedEnd = lastClosedEnd;
+		state.tempWhitespaceContent = tempWhitespaceContent;
+		state.endTagOpenOffset = endTagOpenOffset;
+		state.previousTokenWasEndTagOpen = previousTokenWasEndTagOpen;
+		return token;
+	}
+
+	private static boolean isEmptyElement(String tag) {
+		return false;
+	}
+
+	/**
+	 * Returns true if the children of the given node are stored in the compact
+	 * table while they are parsed : the node is an element whose start tag is
+	 * closed and which is not closed.
+	 */
+	private static boolean isCompactContent(DOMNode node) {
+		return node.isElement() && !node.isClosed()
+				&& ((DOMElement) node).startTagCloseOffset != DOMNode.NULL_VALUE;
+	}
+
+	/**
+	 * Parse the content of the current element of the given parser state by
+	 * storing its descendants in the compact table of the state, without creating
+	 * {@link DOMNode} instances, and returns the first token which is not parsed.
+	 * 
+	 * <p>
+	 * The tokens are parsed like {@link #parseTokens} does. The parse stops before
+	 * the tokens which must be parsed with the {@link DOMNode} instances : an end
+	 * tag which closes the current element or one of its ancestors, a token which
+	 * updates the current element and a DOCTYPE (which cannot be stored in the
+	 * table). In this last case, the elements which are not closed are
+	 * materialized and the innermost one becomes the current node of the state.
+	 * </p>
+	 */
+	private TokenType parseCompactTokens(TokenType token, Scanner scanner, int endOffset, ParserState state,
+			DOMDocument xmlDocument, TextDocument document, CharSequence text, boolean ignoreWhitespaceContent, CancelChecker monitor) {
+		DOMNodeTable table = state.table;
+		CompactContent content = new CompactContent(table, (DOMElement) state.curr);
+		ScannerCheckpoints checkpoints = state.checkpoints;
+		int lastClosedEnd = state.lastClosedEnd;
+		int endTagOpenOffset = state.endTagOpenOffset;
+		boolean previousTokenWasEndTagOpen = state.previousTokenWasEndTagOpen;
+		int whitespaceContentStart = DOMNode.NULL_VALUE;
+		int whitespaceContentEnd = DOMNode.NULL_VALUE;
+		if (state.tempWhitespaceContent != null) {
+			whitespaceContentStart = state.tempWhitespaceContent.start;
+			whitespaceContentEnd = state.tempWhitespaceContent.end;
+		}
+		int attr = DOMNodeTable.NONE;
+		boolean materialize = false;
+		loop: while (token != TokenType.EOS && scanner.getTokenOffset() < endOffset) {
+			if (monitor != null) {
+				monitor.checkCanceled();
+			}
+			if (whitespaceContentStart != DOMNode.NULL_VALUE && token != TokenType.EndTagOpen) {
+				whitespaceContentStart = DOMNode.NULL_VALUE;
+			}
+			if (previousTokenWasEndTagOpen) {
+				previousTokenWasEndTagOpen = false;
+				if (token != TokenType.EndTag) {
+					// The excepted token is not an EndTag, create a fake end tag element
+					int element = table.addElement(endTagOpenOffset, endTagOpenOffset + 2);
+					table.setEndTagOpenOffset(element, endTagOpenOffset);
+					content.add(element);
+					state.wellFormednessErrors = true;
+				}
+			}
+			int curr = content.curr();
+			if (curr == DOMNodeTable.NONE && updatesElement(token)) {
+				// the token updates the element, it is parsed with the DOM node
+				break;
+			}
+			switch (token) {
+			case StartTagOpen: {
+				if (!content.isStartTagClosed()) {
+					// ex : <a <b>
+					state.wellFormednessErrors = true;
+				}
+				if (!content.isClosed()) {
+					content.setEnd(scanner.getTokenOffset());
+				} else {
+					content.pop();
+				}
+				int element = table.addElement(scanner.getTokenOffset(), scanner.getTokenEnd());
+				table.setStartTagOpenOffset(element, scanner.getTokenOffset());
+				content.add(element);
+				content.push(element);
+				break;
+			}
+
+			case StartTag: {
+				table.setName(curr, nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd()));
+				table.setEnd(curr, scanner.getTokenEnd());
+				break;
+			}
+
+			case StartTagClose:
+				if (table.isElement(curr)) {
+					table.setStartTagCloseOffset(curr, scanner.getTokenOffset());
+				} else if (table.isProcessingInstruction(curr)) {
+					table.setStartTagClose(curr);
+				}
+				table.setEnd(curr, scanner.getTokenEnd());
+				break;
+
+			case EndTagOpen:
+				if (whitespaceContentStart != DOMNode.NULL_VALUE) {
+					content.add(table.addText(whitespaceContentStart, whitespaceContentEnd, false));
+					whitespaceContentStart = DOMNode.NULL_VALUE;
+				}
+				if (!content.isStartTagClosed()) {
+					// ex : <a </a>
+					state.wellFormednessErrors = true;
+				}
+				endTagOpenOffset = scanner.getTokenOffset();
+				content.setEnd(scanner.getTokenOffset());
+				previousTokenWasEndTagOpen = true;
+				break;
+
+			case EndTag: {
+				// end tag (ex: </root>)
+				String closeTag = nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd());
+				int depth = content.findOpenElement(closeTag);
+				if (depth == 0 && closesNodeOrAncestor(closeTag, content.parent)) {
+					// the end tag closes the element or one of its ancestors, it is parsed with the
+					// DOM nodes
+					if (content.depth > 0) {
+						// ex : <root><a></root>
+						state.wellFormednessErrors = true;
+					}
+					content.popAll(endTagOpenOffset);
+					break loop;
+				}
+				if (depth != 0) {
+					/**
+					 * eg: <a><b><c></d> will set a,b,c end position to the start of |</d>
+					 */
+					while (content.depth > depth) {
+						content.setEnd(endTagOpenOffset);
+						content.pop();
+						state.wellFormednessErrors = true;
+					}
+					curr = content.curr();
+					table.setClosed(curr);
+					table.setEndTagOpenOffset(curr, endTagOpenOffset);
+					table.setEnd(curr, scanner.getTokenEnd());
+				} else {
+					// element open tag not found (ex: <root>) add a fake element which only has an
+					// end tag (no start tag).
+					content.setEnds(endTagOpenOffset);
+					for (DOMNode node = content.parent; node.parent != null; node = node.parent) {
+						node.end = endTagOpenOffset;
+					}
+					int element = table.addElement(scanner.getTokenOffset() - 2, scanner.getTokenEnd());
+					table.setEndTagOpenOffset(element, endTagOpenOffset);
+					table.setName(element, closeTag);
+					content.add(element);
+					content.push(element);
+					state.wellFormednessErrors = true;
+				}
+				break;
+			}
+
+			case StartTagSelfClose:
+				table.setClosed(curr);
+				table.setSelfClosed(curr);
+				table.setEnd(curr, scanner.getTokenEnd());
+				lastClosedEnd = scanner.getTokenEnd();
+				content.pop();
+				break;
+
+			case EndTagClose:
+				table.setEnd(curr, scanner.getTokenEnd());
+				lastClosedEnd = scanner.getTokenEnd();
+				if (table.isElement(curr)) {
+					table.setEndTagCloseOffset(curr, scanner.getTokenOffset());
+				}
+				content.pop();
+				break;
+
+			case AttributeName: {
+				String name = nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd());
+				attr = table.addAttribute(curr, name, scanner.getTokenOffset(),
+						scanner.getTokenOffset() + name.length());
+				table.setEnd(curr, scanner.getTokenEnd());
+				break;
+			}
+
+			case DelimiterAssign: {
+				if (attr != DOMNodeTable.NONE) {
+					// Sets the value to the '=' position in case there is no AttributeValue
+					table.setAttributeDelimiter(attr, scanner.getTokenOffset(), scanner.getTokenEnd());
+				}
+				break;
+			}
+
+			case AttributeValue: {
+				if (table.hasAttributes(curr) && attr != DOMNodeTable.NONE) {
+					// the value is read from the text when the attribute is materialized
+					table.setAttributeValue(attr, scanner.getTokenOffset(), scanner.getTokenEnd());
+				}
+				attr = DOMNodeTable.NONE;
+				table.setEnd(curr, scanner.getTokenEnd());
+				break;
+			}
+
+			case CDATATagOpen: {
+				int cdata = table.addCDATASection(scanner.getTokenOffset(), text.length());
+				content.add(cdata);
+				content.push(cdata);
+				break;
+			}
+
+			case CDATAContent:
+			case Comment:
+			case PIContent:
+				table.setContent(curr, scanner.getTokenOffset(), scanner.getTokenEnd());
+				if (token == TokenType.CDATAContent) {
+					table.setEnd(curr, scanner.getTokenEnd());
+				}
+				break;
+
+			case StartPrologOrPI: {
+				int processingInstruction = table.addProcessingInstruction(scanner.getTokenOffset(), text.length());
+				content.add(processingInstruction);
+				content.push(processingInstruction);
+				break;
+			}
+
+			case PIName:
+			case PrologName:
+				table.setTarget(curr, nameTable.getName(text, scanner.getTokenOffset(), scanner.getTokenEnd()),
+						token == TokenType.PrologName);
+				break;
+
+			case StartCommentTag: {
+				if (content.isClosed()) {
+					content.pop();
+				}
+				int comment = table.addComment(scanner.getTokenOffset(), text.length());
+				table.setCommentSameLineEndTag(comment,
+						isCommentSameLineEndTag(scanner.getTokenOffset(), lastClosedEnd, document));
+				content.add(comment);
+				content.push(comment);
+				break;
+			}
+
+			case CDATATagClose:
+			case PIEnd:
+			case PrologEnd:
+			case EndCommentTag:
+				table.setEnd(curr, scanner.getTokenEnd());
+				table.setClosed(curr);
+				content.pop();
+				break;
+
+			case Content: {
+				int start = scanner.getTokenOffset();
+				int end = scanner.getTokenEnd();
+				boolean whitespace = false;
+				if (scanner.isTokenTextBlank()) {
+					if (ignoreWhitespaceContent) {
+						if (!content.hasChildNodes()) {
+							whitespaceContentStart = start;
+							whitespaceContentEnd = end;
+						}
+						break;
+					}
+					whitespace = true;
+				}
+				content.add(table.addText(start, end, whitespace));
+				break;
+			}
+
+			case DTDStartDoctypeTag:
+				// the DOCTYPE is parsed with the DOM nodes
+				materialize = true;
+				break loop;
+
+			case Unknown:
+				state.wellFormednessErrors = true;
+				break;
+
+			default:
+			}
+			if (checkpoints != null && scanner.getScannerState() == ScannerState.WithinContent) {
+				checkpoints.add(scanner.getTokenEnd());
+			}
+			token = scanner.scan();
+		}
+		if (token == TokenType.EOS) {
+			// end the parse (see endParse) of the nodes which are stored in the table
+			if (previousTokenWasEndTagOpen) {
 				// The excepted token is not an EndTag, create a fake end tag element
-				DOMElement element = xmlDocument.createElement(endTagOpenOffset, endTagOpenOffset + 2);
-				element.endTagOpenOffset = endTagOpenOffset;
-				curr.addChild(element);
+				int element = table.addElement(endTagOpenOffset, endTagOpenOffset + 2);
+				table.setEndTagOpenOffset(element, endTagOpenOffset);
+				content.add(element);
+				previousTokenWasEndTagOpen = false;
+				state.wellFormednessErrors = true;
 			}
+			content.popAll(text.length());
+		} else if (content.depth > 0) {
+			materialize = true;
 		}
-		while (curr.parent != null) {
-			curr.end = text.length();
-			curr = curr.parent;
+		state.curr = materialize ? content.materialize() : content.link();
+		state.lastClosedEnd = lastClosedEnd;
+		state.tempWhitespaceContent = null;
+		if (whitespaceContentStart != DOMNode.NULL_VALUE) {
+			DOMText whitespaceContent = xmlDocument.createText(whitespaceContentStart, whitespaceContentEnd);
+			whitespaceContent.closed = true;
+			state.tempWhitespaceContent = whitespaceContent;
 		}
-		return xmlDocument;
+		state.endTagOpenOffset = endTagOpenOffset;
+		state.previousTokenWasEndTagOpen = previousTokenWasEndTagOpen;
+		return token;
 	}
 
-	private static boolean isEmptyElement(String tag) {
+	/**
+	 * Returns true if the given node is an element whose start tag is not closed
+	 * (ex : <a ).
+	 */
+	private static boolean isStartTagNotClosed(DOMNode node) {
+		return node.isElement() && !node.isClosed() && !((DOMElement) node).isStartTagClosed();
+	}
+
+	/**
+	 * Returns true if the given token updates the current element (and not its
+	 * children) or a node which is not an element.
+	 */
+	private static boolean updatesElement(TokenType token) {
+		switch (token) {
+		case StartTag:
+		case StartTagClose:
+		case StartTagSelfClose:
+		case EndTagClose:
+		case AttributeName:
+		case DelimiterAssign:
+		case AttributeValue:
+		case CDATAContent:
+		case CDATATagClose:
+		case Comment:
+		case EndCommentTag:
+		case PIName:
+		case PrologName:
+		case PIContent:
+		case PIEnd:
+		case PrologEnd:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Returns true if the end tag with the given name closes the given node or one
+	 * of its ancestors (see the EndTag token in {@link #parseTokens}).
+	 */
+	private static boolean closesNodeOrAncestor(String tag, DOMNode node) {
+		while (!(node.isElement() && ((DOMElement) node).isSameTag(tag)) && node.parent != null) {
+			node = node.parent;
+		}
+		return !node.isOwnerDocument();
+	}
+
+	private static void updateCommentSameLineEndTag(DOMComment comment, int lastClosedEnd, TextDocument document) {
+		comment.commentSameLineEndTag = isCommentSameLineEndTag(comment.start, lastClosedEnd, document);
+	}
+
+	/**
+	 * Returns true if the comment which starts at the given offset is on the same
+	 * line as the end of the last closed node.
+	 */
+	private static boolean isCommentSameLineEndTag(int commentStart, int lastClosedEnd, TextDocument document) {
+		if (lastClosedEnd == DOMNode.NULL_VALUE || lastClosedEnd > commentStart) {
+			// no closed node ends before the comment
+			return false;
+		}
+		try {
+			int endLine = document.positionAt(lastClosedEnd).getLine();
+			int startLine = document.positionAt(commentStart).getLine();
+			return endLine == startLine;
+		} catch (BadLocationException e) {
+			LOGGER.log(Level.SEVERE, "XMLParser StartCommentTag bad offset in document", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Update the comments of the given node which are parsed before the first
+	 * closed element with the given end offset of the last closed node.
+	 * 
+	 * @return true if a closed element has been found and false otherwise.
+	 */
+	private static boolean updateCommentsSameLineEndTag(DOMNode node, int lastClosedEnd, TextDocument document) {
+		for (DOMNode child : node.getChildren()) {
+			if (child.isComment()) {
+				updateCommentSameLineEndTag((DOMComment) child, lastClosedEnd, document);
+			}
+			if (updateCommentsSameLineEndTag(child, lastClosedEnd, document) || isClosedByToken(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// ------------------- Incremental parse utilities
+
+	/**
+	 * Returns the smallest element which has a start and end tag and which includes
+	 * the given region in its content and null otherwise.
+	 */
+	private static DOMElement findEnclosingElement(DOMDocument xmlDocument, DirtyRegion region) {
+		DOMNode node = xmlDocument.findNodeAt(region.getStart());
+		while (node != null) {
+			if (node.isElement()) {
+				DOMElement element = (DOMElement) node;
+				if (isClosedByEndTag(element) && element.startTagCloseOffset < region.getStart()
+						&& region.getOldEnd() <= element.endTagOpenOffset) {
+					return element;
+				}
+			}
+			node = node.parent;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the index of the first child to parse again : it is the index which
+	 * follows the last closed element which ends before the given offset.
+	 */
+	private static int findFirstChildToParse(List<DOMNode> children, int offset) {
+		int low = 0, high = children.size();
+		// search the first child which starts after the offset
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (children.get(mid).start >= offset) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		for (int i = low - 1; i >= 0; i--) {
+			DOMNode child = children.get(i);
+			if (child.end <= offset && isBoundary(child)) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the index of the first closed element which starts after the given
+	 * offset and the children size otherwise.
+	 */
+	private static int findFirstChildAfterRegion(List<DOMNode> children, int offset) {
+		int low = 0, high = children.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (children.get(mid).start >= offset) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		for (int i = low; i < children.size(); i++) {
+			if (isBoundary(children.get(i))) {
+				return i;
+			}
+		}
+		return children.size();
+	}
+
+	/**
+	 * Returns the end offset of the last node closed before the child at the given
+	 * index of the given node (like the full parse computes it) and
+	 * {@link DOMNode#NULL_VALUE} if there is no closed node.
+	 */
+	private static int findLastClosedEndBefore(DOMNode node, int index) {
+		while (true) {
+			List<DOMNode> children = node.getChildren();
+			for (int i = index - 1; i >= 0; i--) {
+				DOMNode lastClosed = findLastClosed(children.get(i));
+				if (lastClosed != null) {
+					return lastClosed.end;
+				}
+			}
+			if (node.parent == null) {
+				return DOMNode.NULL_VALUE;
+			}
+			index = node.parent.getChildren().indexOf(node);
+			node = node.parent;
+		}
+	}
+
+	private static DOMNode findLastClosed(DOMNode node) {
+		if (isClosedByToken(node)) {
+			return node;
+		}
+		List<DOMNode> children = node.getChildren();
+		for (int i = children.size() - 1; i >= 0; i--) {
+			DOMNode lastClosed = findLastClosed(children.get(i));
+			if (lastClosed != null) {
+				return lastClosed;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true if the given node is an element closed with '/>' or with '>' of
+	 * an end tag, or a doctype closed with '>' of an end tag (the full parse updates
+	 * the end of the last closed node with these tokens).
+	 */
+	private static boolean isClosedByToken(DOMNode node) {
+		if (node.isDoctype()) {
+			return ((DOMDocumentType) node).closedByEndTagClose;
+		}
+		if (!node.isElement()) {
+			return false;
+		}
+		DOMElement element = (DOMElement) node;
+		return element.isSelfClosed() || element.endTagCloseOffset != DOMNode.NULL_VALUE;
+	}
+
+	/**
+	 * Returns true if the given element has a closed start tag and a closed end tag
+	 * (ex : <foo></foo>).
+	 */
+	private static boolean isClosedByEndTag(DOMElement element) {
+		return element.isClosed() && element.hasStartTag() && element.isStartTagClosed() && !element.isSelfClosed()
+				&& element.hasEndTag() && element.isEndTagClosed();
+	}
+
+	/**
+	 * Returns true if the given node is a closed element which can be used as
+	 * boundary of the region to parse (ex : <foo /> or <foo></foo>).
+	 */
+	private static boolean isBoundary(DOMNode node) {
+		if (!node.isElement()) {
+			return false;
+		}
+		DOMElement element = (DOMElement) node;
+		return element.isClosed() && element.hasStartTag() && isClosedByToken(element);
+	}
+
+	/**
+	 * Shift the end offsets of the given node (which includes the region).
+	 */
+	private static void shiftEnd(DOMNode node, OffsetShift shift) {
+		node.end = shift.apply(node.end);
+		if (node.isElement()) {
+			DOMElement element = (DOMElement) node;
+			element.endTagOpenOffset = shift.apply(element.endTagOpenOffset);
+			element.endTagCloseOffset = shift.apply(element.endTagCloseOffset);
+		}
+	}
+
+	/**
+	 * Returns the index of the given child in the given children list.
+	 */
+	private static int indexOfChild(List<DOMNode> children, DOMNode child) {
+		int low = 0, high = children.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (children.get(mid).start >= child.start) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		for (int i = low; i < children.size() && children.get(i).start == child.start; i++) {
+			if (children.get(i) == child) {
+				return i;
+			}
+		}
+		return children.indexOf(child);
+	}
+
+	/**
+	 * Collect the comments of the given node which are parsed before the first
+	 * closed element (see updateCommentsSameLineEndTag).
+	 * 
+	 * @return true if a closed element has been found and false otherwise.
+	 */
+	private static boolean collectCommentsBeforeClosed(DOMNode node, List<DOMComment> comments) {
+		for (DOMNode child : node.getChildren()) {
+			if (child.isComment()) {
+				comments.add((DOMComment) child);
+			}
+			if (collectCommentsBeforeClosed(child, comments) || isClosedByToken(child)) {
+				return true;
+			}
+		}
 		return false;
 	}
 
+	/**
+	 * The nodes stored in a compact table while the content of an element is
+	 * parsed (see parseCompactTokens).
+	 */
+	private static class CompactContent {
+
+		private final DOMNodeTable table;
+
+		// the element whose content is parsed
+		final DOMElement parent;
+
+		// the indexes of the nodes which are not closed, the last one is the current
+		// node
+		private int[] openNodes = new int[16];
+
+		// the indexes of the last child of the element (at 0) and of the nodes which
+		// are not closed
+		private int[] lastChildren = new int[17];
+
+		int depth;
+
+		private int firstChild = DOMNodeTable.NONE;
+
+		CompactContent(DOMNodeTable table, DOMElement parent) {
+			this.table = table;
+			this.parent = parent;
+			lastChildren[0] = DOMNodeTable.NONE;
+		}
+
+		/**
+		 * Returns the index of the current node and {@link DOMNodeTable#NONE} if the
+		 * current node is the element.
+		 */
+		int curr() {
+			return depth == 0 ? DOMNodeTable.NONE : openNodes[depth - 1];
+		}
+
+		void add(int child) {
+			int previousSibling = lastChildren[depth];
+			table.addChild(curr(), previousSibling, child);
+			if (depth == 0 && previousSibling == DOMNodeTable.NONE) {
+				firstChild = child;
+			}
+			lastChildren[depth] = child;
+		}
+
+		void push(int node) {
+			if (depth == openNodes.length) {
+				openNodes = Arrays.copyOf(openNodes, depth * 2);
+				lastChildren = Arrays.copyOf(lastChildren, depth * 2 + 1);
+			}
+			openNodes[depth++] = node;
+			lastChildren[depth] = DOMNodeTable.NONE;
+		}
+
+		void pop() {
+			depth--;
+		}
+
+		/**
+		 * Set the end offset of the nodes which are not closed and pop them.
+		 */
+		void popAll(int end) {
+			setEnds(end);
+			depth = 0;
+		}
+
+		/**
+		 * Set the end offset of the nodes which are not closed.
+		 */
+		void setEnds(int end) {
+			for (int i = 0; i < depth; i++) {
+				table.setEnd(openNodes[i], end);
+			}
+		}
+
+		void setEnd(int end) {
+			if (depth == 0) {
+				parent.end = end;
+			} else {
+				table.setEnd(curr(), end);
+			}
+		}
+
+		boolean isClosed() {
+			return depth == 0 ? parent.isClosed() : table.isClosed(curr());
+		}
+
+		/**
+		 * Returns false if the current node is an element whose start tag is not
+		 * closed.
+		 */
+		boolean isStartTagClosed() {
+			if (depth == 0) {
+				return !isStartTagNotClosed(parent);
+			}
+			int curr = curr();
+			return !table.isElement(curr) || table.isClosed(curr)
+					|| table.getStartTagCloseOffset(curr) != DOMNode.NULL_VALUE;
+		}
+
+		boolean hasChildNodes() {
+			if (depth == 0) {
+				return firstChild != DOMNodeTable.NONE || parent.hasChildNodes();
+			}
+			return lastChildren[depth] != DOMNodeTable.NONE;
+		}
+
+		/**
+		 * Returns the depth of the innermost element which is not closed and has the
+		 * given tag name and 0 if there is no such element in the table.
+		 */
+		int findOpenElement(String tag) {
+			for (int i = depth; i > 0; i--) {
+				if (table.isSameTag(openNodes[i - 1], tag)) {
+					return i;
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * Link the children stored in the table to the element and returns the
+		 * element.
+		 */
+		DOMNode link() {
+			if (firstChild != DOMNodeTable.NONE) {
+				if (parent.getCompactTable() != null) {
+					// the children stored by a previous parse of the content must precede the new
+					// children
+					parent.getChildren();
+				}
+				parent.setCompactChildren(table, firstChild);
+				firstChild = DOMNodeTable.NONE;
+			}
+			return parent;
+		}
+
+		/**
+		 * Link the children stored in the table to the element, materialize the
+		 * nodes which are not closed and returns the innermost one.
+		 */
+		DOMNode materialize() {
+			DOMNode node = link();
+			for (int i = 0; i < depth; i++) {
+				// a node which is not closed is the last child of its parent
+				List<DOMNode> children = node.getChildren();
+				node = children.get(children.size() - 1);
+			}
+			return node;
+		}
+	}
+
+	/**
+	 * The state of the parser which is shared between the parse of the whole text
+	 * and the parse of a modified region.
+	 */
+	private static class ParserState {
+
+		DOMNode curr;
+
+		// the end offset of the last closed node
+		int lastClosedEnd = DOMNode.NULL_VALUE;
+
+		DOMNode tempWhitespaceContent;
+
+		int endTagOpenOffset = -1;
+
+		boolean previousTokenWasEndTagOpen;
+
+		boolean doctypeFound;
+
+		DOMNodeTable table;
+
+		// true if the offset index of the nodes is created at the end of the parse
+		boolean offsetIndex;
+
+		ScannerCheckpoints checkpoints;
+
+		// true if a construct which is not well-formed has been parsed (ex : an
+		// element which is not closed)
+		boolean wellFormednessErrors;
+
+		public ParserState(DOMNode curr) {
+			this.curr = curr;
+		}
+	}
+
 }
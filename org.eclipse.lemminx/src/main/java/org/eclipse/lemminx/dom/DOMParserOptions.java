@@ -0,0 +1,173 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import org.eclipse.lemminx.commons.ServerExecutors;
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
+
+/**
+ * Options used by the {@link DOMParser} to parse a document.
+ *
+ * <p>
+ * The options are given to each parse, so that the parser (which is shared by
+ * the language server and the other users of the DOM) doesn't store them. The
+ * options must not be modified while they are used by a parse.
+ * </p>
+ *
+ */
+public class DOMParserOptions {
+
+	/**
+	 * The default text length from which the nodes are stored in a compact table.
+	 */
+	public static final int DEFAULT_COMPACT_THRESHOLD = 5 * 1024 * 1024;
+
+	/**
+	 * The default text length from which the node at a given offset is found with
+	 * an offset index.
+	 */
+	public static final int DEFAULT_OFFSET_INDEX_THRESHOLD = 64 * 1024;
+
+	/**
+	 * The default text length from which the children of the root element are
+	 * parsed in parallel.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 2 * 1024 * 1024;
+
+	private int compactThreshold = DEFAULT_COMPACT_THRESHOLD;
+
+	private int offsetIndexThreshold = DEFAULT_OFFSET_INDEX_THRESHOLD;
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	private ServerExecutors executors;
+
+	/**
+	 * Returns the text length from which the nodes of a parsed document are stored
+	 * in a compact table.
+	 *
+	 * @return the text length from which the nodes of a parsed document are stored
+	 *         in a compact table.
+	 */
+	public int getCompactThreshold() {
+		return compactThreshold;
+	}
+
+	/**
+	 * Set the text length from which the nodes of a parsed document are stored in
+	 * a compact table.
+	 *
+	 * <p>
+	 * For large documents, the nodes (except the top-level nodes) are stored in
+	 * arrays while they are parsed and they are created as {@link DOMNode} only
+	 * when the children of their parent are accessed, which reduces the memory
+	 * footprint of the DOM document.
+	 * </p>
+	 *
+	 * @param compactThreshold the text length from which the nodes of a parsed
+	 *                         document are stored in a compact table.
+	 */
+	public void setCompactThreshold(int compactThreshold) {
+		this.compactThreshold = compactThreshold;
+	}
+
+	/**
+	 * Returns the text length from which the node at a given offset of a parsed
+	 * document is found with an offset index.
+	 *
+	 * @return the text length from which the node at a given offset of a parsed
+	 *         document is found with an offset index.
+	 */
+	public int getOffsetIndexThreshold() {
+		return offsetIndexThreshold;
+	}
+
+	/**
+	 * Set the text length from which the node at a given offset of a parsed
+	 * document is found with an offset index.
+	 *
+	 * <p>
+	 * The offset index stores the nodes sorted by start offset (see
+	 * {@link DOMDocument#findNodeAt(int)} and
+	 * {@link DOMDocument#findNodeBefore(int)}). It is created at the end of the
+	 * parse and the incremental parse updates the index of the previous version
+	 * with the nodes of the modified region. The nodes which are stored in a
+	 * compact table are indexed without being materialized.
+	 * </p>
+	 *
+	 * @param offsetIndexThreshold the text length from which the node at a given
+	 *                             offset of a parsed document is found with an
+	 *                             offset index.
+	 */
+	public void setOffsetIndexThreshold(int offsetIndexThreshold) {
+		this.offsetIndexThreshold = offsetIndexThreshold;
+	}
+
+	/**
+	 * Returns the text length from which the children of the root element of a
+	 * parsed document are parsed in parallel.
+	 *
+	 * @return the text length from which the children of the root element of a
+	 *         parsed document are parsed in parallel.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Set the text length from which the children of the root element of a parsed
+	 * document are parsed in parallel.
+	 *
+	 * <p>
+	 * The content of the root element is split in chunks between its top-level
+	 * children, each chunk is parsed with the parse executor (see
+	 * {@link #setExecutors(ServerExecutors)}) and the parsed children are added to
+	 * the root element. When a chunk cannot be parsed independently (ex : an
+	 * element is not closed in the chunk), the document is parsed sequentially.
+	 * </p>
+	 *
+	 * @param parallelThreshold the text length from which the children of the root
+	 *                          element of a parsed document are parsed in
+	 *                          parallel.
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Returns the executors whose parse executor is used to parse the chunks of a
+	 * document in parallel and null if the documents are parsed sequentially.
+	 *
+	 * @return the executors whose parse executor is used to parse the chunks of a
+	 *         document in parallel and null if the documents are parsed
+	 *         sequentially.
+	 */
+	public ServerExecutors getExecutors() {
+		return executors;
+	}
+
+	/**
+	 * Set the executors of the language server whose parse executor
+	 * ({@link ExecutorKind#PARSE}) is used to parse the chunks of a document in
+	 * parallel.
+	 *
+	 * <p>
+	 * The documents are parsed sequentially when the executors are not set.
+	 * </p>
+	 *
+	 * @param executors the executors of the language server and null if the
+	 *                  documents must be parsed sequentially.
+	 */
+	public void setExecutors(ServerExecutors executors) {
+		this.executors = executors;
+	}
+}
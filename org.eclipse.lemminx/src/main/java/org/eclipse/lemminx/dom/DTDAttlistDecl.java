@@ -51,6 +51,21 @@ public class DTDAttlistDecl extends DTDDeclNode {
 		setDeclType(start + 2, start + 9);
 	}
 
+	@Override
+	DTDAttlistDecl copy(DOMNode parent) {
+		DTDAttlistDecl copy = (DTDAttlistDecl) super.copy(parent);
+		copy.attributeName = copy.getCopy(this, attributeName);
+		copy.attributeType = copy.getCopy(this, attributeType);
+		copy.attributeValue = copy.getCopy(this, attributeValue);
+		if (internalChildren != null) {
+			copy.internalChildren = new ArrayList<>(internalChildren.size());
+			for (DTDAttlistDecl child : internalChildren) {
+				copy.internalChildren.add(child.copy(copy));
+			}
+		}
+		return copy;
+	}
+
 	@Override
 	public String getNodeName() {
 		return getAttributeName();
@@ -41,6 +41,44 @@ public class DTDDeclNode extends DOMNode {
 		super(start, end);
 	}
 
+	@Override
+	DTDDeclNode copy(DOMNode parent) {
+		DTDDeclNode copy = (DTDDeclNode) super.copy(parent);
+		if (parameters != null) {
+			copy.parameters = new ArrayList<>(parameters.size());
+			for (DTDDeclParameter parameter : parameters) {
+				copy.parameters.add(parameter.copy(copy));
+			}
+		}
+		copy.name = copy.getCopy(this, name);
+		copy.unrecognized = copy.getCopy(this, unrecognized);
+		copy.declType = copy.getCopy(this, declType);
+		return copy;
+	}
+
+	/**
+	 * Returns the parameter of this copy of the given node which is the copy of
+	 * the given parameter of the given node.
+	 * 
+	 * @param node      the copied node.
+	 * @param parameter the parameter of the copied node.
+	 * @return the copy of the given parameter and null if the given parameter is
+	 *         null.
+	 */
+	DTDDeclParameter getCopy(DTDDeclNode node, DTDDeclParameter parameter) {
+		if (parameter == null) {
+			return null;
+		}
+		if (node.parameters != null) {
+			for (int i = 0; i < node.parameters.size(); i++) {
+				if (node.parameters.get(i) == parameter) {
+					return parameters.get(i);
+				}
+			}
+		}
+		return parameter.copy(this);
+	}
+
 	public String getName() {
 		DTDDeclParameter name = getNameParameter();
 		return name != null ? name.getParameter() : null;
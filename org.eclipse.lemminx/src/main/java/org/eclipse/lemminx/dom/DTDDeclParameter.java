@@ -56,6 +56,19 @@ public class DTDDeclParameter implements DOMRange, TargetRange {
 		return ownerNode;
 	}
 
+	/**
+	 * Returns a copy of this parameter for the given owner node in a new version
+	 * of the DOM document.
+	 * 
+	 * @param ownerNode the owner node of the copy.
+	 * @return a copy of this parameter.
+	 */
+	DTDDeclParameter copy(DTDDeclNode ownerNode) {
+		DTDDeclParameter copy = new DTDDeclParameter(ownerNode, start, end);
+		copy.parameter = parameter;
+		return copy;
+	}
+
 	public String getParameter() {
 		if (parameter == null) {
 			parameter = getOwnerDocType().getSubstring(start, end);
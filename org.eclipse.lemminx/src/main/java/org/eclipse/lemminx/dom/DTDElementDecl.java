@@ -43,6 +43,14 @@ public class DTDElementDecl extends DTDDeclNode {
 		setDeclType(start + 2, start + 9);
 	}
 
+	@Override
+	DTDElementDecl copy(DOMNode parent) {
+		DTDElementDecl copy = (DTDElementDecl) super.copy(parent);
+		copy.category = copy.getCopy(this, category);
+		copy.content = copy.getCopy(this, content);
+		return copy;
+	}
+
 	@Override
 	public String getNodeName() {
 		return getName();
@@ -58,6 +58,17 @@ public class DTDEntityDecl extends DTDDeclNode implements Entity {
 		setDeclType(start + 2, start + 8);
 	}
 
+	@Override
+	DTDEntityDecl copy(DOMNode parent) {
+		DTDEntityDecl copy = (DTDEntityDecl) super.copy(parent);
+		copy.percent = copy.getCopy(this, percent);
+		copy.value = copy.getCopy(this, value);
+		copy.kind = copy.getCopy(this, kind);
+		copy.publicId = copy.getCopy(this, publicId);
+		copy.systemId = copy.getCopy(this, systemId);
+		return copy;
+	}
+
 	public String getPercent() {
 		return percent != null ? percent.getParameter() : null;
 	}
@@ -41,6 +41,15 @@ public class DTDNotationDecl extends DTDDeclNode {
 		setDeclType(start + 2, start + 10);
 	}
 
+	@Override
+	DTDNotationDecl copy(DOMNode parent) {
+		DTDNotationDecl copy = (DTDNotationDecl) super.copy(parent);
+		copy.kind = copy.getCopy(this, kind);
+		copy.publicId = copy.getCopy(this, publicId);
+		copy.systemId = copy.getCopy(this, systemId);
+		return copy;
+	}
+
 	void setKind(int start, int end) {
 		kind = addNewParameter(start, end);
 	}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Concurrent table of the element, attribute and processing instruction names
+ * shared by all parsed documents.
+ *
+ * <p>
+ * Like the Xerces <code>SymbolTable</code>, the table returns the same
+ * {@link String} instance for identical names, so the documents of a
+ * workspace (ex : hundreds of Maven POM files) share their names instead of
+ * holding a copy of each name per node, and names can be compared by identity.
+ * The name is searched from the parsed text without creating a substring, the
+ * {@link String} is created only the first time the name is found.
+ * </p>
+ *
+ * <p>
+ * The names are referenced with weak references, a name which is not used
+ * anymore by a document is removed from the table. The table is split in
+ * segments which are locked independently.
+ * </p>
+ *
+ */
+public final class NameTable {
+
+	private static final int SEGMENTS = 16;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	// Too long names (ex : an invalid name of a document which is typing) are not
+	// stored in the table
+	private static final int MAX_NAME_LENGTH = 256;
+
+	private final Segment[] segments;
+
+	private static final class Entry extends WeakReference<String> {
+
+		private final int hash;
+
+		private Entry next;
+
+		Entry(String name, int hash, Entry next, ReferenceQueue<String> queue) {
+			super(name, queue);
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+
+	private static final class Segment {
+
+		private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+
+		private Entry[] entries = new Entry[INITIAL_CAPACITY];
+
+		private int count;
+
+		synchronized String getName(CharSequence text, int start, int end, int hash) {
+			expungeStaleEntries();
+			int index = hash & (entries.length - 1);
+			for (Entry entry = entries[index]; entry != null; entry = entry.next) {
+				if (entry.hash == hash) {
+					String name = entry.get();
+					if (name != null && matches(name, text, start, end)) {
+						return name;
+					}
+				}
+			}
+			String name = text.subSequence(start, end).toString();
+			entries[index] = new Entry(name, hash, entries[index], queue);
+			if (++count > entries.length * 3 / 4) {
+				rehash();
+			}
+			return name;
+		}
+
+		synchronized int size() {
+			expungeStaleEntries();
+			return count;
+		}
+
+		private void expungeStaleEntries() {
+			Entry stale;
+			while ((stale = (Entry) queue.poll()) != null) {
+				int index = stale.hash & (entries.length - 1);
+				Entry previous = null;
+				for (Entry entry = entries[index]; entry != null; entry = entry.next) {
+					if (entry == stale) {
+						if (previous == null) {
+							entries[index] = entry.next;
+						} else {
+							previous.next = entry.next;
+						}
+						count--;
+						break;
+					}
+					previous = entry;
+				}
+			}
+		}
+
+		private void rehash() {
+			Entry[] oldEntries = entries;
+			Entry[] newEntries = new Entry[oldEntries.length * 2];
+			for (Entry head : oldEntries) {
+				Entry entry = head;
+				while (entry != null) {
+					Entry next = entry.next;
+					int index = entry.hash & (newEntries.length - 1);
+					entry.next = newEntries[index];
+					newEntries[index] = entry;
+					entry = next;
+				}
+			}
+			entries = newEntries;
+		}
+
+		private static boolean matches(String name, CharSequence text, int start, int end) {
+			int length = end - start;
+			if (name.length() != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (name.charAt(i) != text.charAt(start + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	public NameTable() {
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * Returns the shared name for the characters of the given text between the
+	 * given start and end offsets.
+	 * 
+	 * @param text  the text.
+	 * @param start the start offset of the name.
+	 * @param end   the end offset of the name.
+	 * @return the shared name for the characters of the given text between the
+	 *         given start and end offsets.
+	 */
+	public String getName(CharSequence text, int start, int end) {
+		if (end - start > MAX_NAME_LENGTH) {
+			return text.subSequence(start, end).toString();
+		}
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+		hash ^= (hash >>> 16);
+		return segments[getSegmentIndex(hash)].getName(text, start, end, hash);
+	}
+
+	/**
+	 * Returns the index of the segment of the given name hash.
+	 * 
+	 * <p>
+	 * The hash of a short name (5 characters or less) is lower than 2^28, its
+	 * high bits are spread with a multiplicative hash to select the segment.
+	 * </p>
+	 * 
+	 * @param hash the name hash.
+	 * @return the index of the segment of the given name hash.
+	 */
+	static int getSegmentIndex(int hash) {
+		return (hash * 0x9E3779B9) >>> 28;
+	}
+
+	/**
+	 * Returns the shared name for the given name.
+	 * 
+	 * @param name the name.
+	 * @return the shared name for the given name.
+	 */
+	public String getName(String name) {
+		if (name == null) {
+			return null;
+		}
+		return getName(name, 0, name.length());
+	}
+
+	/**
+	 * Returns the number of names stored in the table.
+	 * 
+	 * @return the number of names stored in the table.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.eclipse.lemminx.dom.DOMAttr.XMLNS_ATTR;
+import static org.eclipse.lemminx.dom.DOMAttr.XMLNS_NO_DEFAULT_ATTR;
+
+import java.util.List;
+
+import org.eclipse.lemminx.utils.StringUtils;
+
+/**
+ * The namespace declarations (xmlns attributes) in the scope of a DOM element.
+ *
+ * <p>
+ * A scope is created only for the elements which declare xmlns attributes and
+ * is linked to the scope of the nearest ancestor element which declares xmlns
+ * attributes. The other elements share the scope of their parent element. A
+ * prefix is resolved with the declarations of the scopes instead of searching
+ * the xmlns attributes in the attributes of each ancestor element.
+ * </p>
+ * 
+ * <p>
+ * The scope of an element is created the first time it is accessed (see
+ * {@link DOMElement#getNamespaceScope()}) and is reset when a xmlns attribute
+ * is added to the element or to an ancestor element.
+ * </p>
+ *
+ */
+public final class NamespaceScope {
+
+	/**
+	 * The scope of the elements which are not in the scope of a xmlns declaration.
+	 */
+	public static final NamespaceScope EMPTY = new NamespaceScope(null, new DOMAttr[0]);
+
+	private final NamespaceScope parent;
+
+	// the xmlns attributes of the element in the document order
+	private final DOMAttr[] declarations;
+
+	private NamespaceScope(NamespaceScope parent, DOMAttr[] declarations) {
+		this.parent = parent;
+		this.declarations = declarations;
+	}
+
+	/**
+	 * Returns the scope of the given element in the given parent scope.
+	 * 
+	 * @param parent  the scope of the parent element.
+	 * @param element the DOM element.
+	 * @return the given parent scope if the given element doesn't declare xmlns
+	 *         attributes and a new scope otherwise.
+	 */
+	static NamespaceScope create(NamespaceScope parent, DOMElement element) {
+		if (!element.hasAttributes()) {
+			return parent;
+		}
+		List<DOMAttr> attributes = element.getAttributeNodes();
+		int count = 0;
+		for (DOMAttr attr : attributes) {
+			if (attr.isXmlns()) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return parent;
+		}
+		DOMAttr[] declarations = new DOMAttr[count];
+		int index = 0;
+		for (DOMAttr attr : attributes) {
+			if (attr.isXmlns()) {
+				declarations[index++] = attr;
+			}
+		}
+		return new NamespaceScope(parent, declarations);
+	}
+
+	/**
+	 * Returns the parent scope and null if this scope is the empty scope.
+	 * 
+	 * @return the parent scope and null if this scope is the empty scope.
+	 */
+	public NamespaceScope getParent() {
+		return parent;
+	}
+
+	/**
+	 * Returns the namespace URI declared for the given prefix and null otherwise.
+	 * 
+	 * @param prefix the prefix and null or empty for the default namespace.
+	 * @return the namespace URI declared for the given prefix and null otherwise.
+	 */
+	public String getNamespaceURI(String prefix) {
+		boolean hasPrefix = !StringUtils.isEmpty(prefix);
+		for (NamespaceScope scope = this; scope != null; scope = scope.parent) {
+			for (DOMAttr attr : scope.declarations) {
+				if (hasPrefix ? isPrefixDeclaration(attr.getName(), prefix) : XMLNS_ATTR.equals(attr.getName())) {
+					String namespaceURI = DOMNode.getUnquotedValue(attr);
+					if (namespaceURI != null) {
+						return namespaceURI;
+					}
+					// the first attribute with the same name hides the others
+					break;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the prefix declared for the given namespace URI and null otherwise.
+	 * 
+	 * @param namespaceURI the namespace URI.
+	 * @return the prefix declared for the given namespace URI and null otherwise.
+	 */
+	public String getPrefix(String namespaceURI) {
+		if (namespaceURI == null) {
+			return null;
+		}
+		for (NamespaceScope scope = this; scope != null; scope = scope.parent) {
+			for (DOMAttr attr : scope.declarations) {
+				String prefix = attr.getPrefixIfMatchesURI(namespaceURI);
+				if (prefix != null) {
+					return prefix;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean isPrefixDeclaration(String attrName, String prefix) {
+		int prefixStart = XMLNS_NO_DEFAULT_ATTR.length();
+		return attrName.length() == prefixStart + prefix.length() && attrName.startsWith(XMLNS_NO_DEFAULT_ATTR)
+				&& attrName.regionMatches(prefixStart, prefix, 0, prefix.length());
+	}
+}
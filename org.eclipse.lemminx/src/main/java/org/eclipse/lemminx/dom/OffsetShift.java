@@ -0,0 +1,175 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.util.Arrays;
+
+import org.w3c.dom.Node;
+
+/**
+ * Shift of the offsets of the nodes copied from a previous version of a DOM
+ * document by the incremental parser.
+ *
+ * <p>
+ * An incremental parse adds the delta of the length of the modified region to
+ * the offsets which are greater than or equal to the end of the region. The
+ * nodes which are copied or materialized after the update (see
+ * {@link DOMNode#copy(DOMNode, OffsetShift)}) keep the offsets of the version
+ * they come from, so the shifts of the updates since that version are applied
+ * in order when they are created.
+ * </p>
+ *
+ * <p>
+ * A shift is immutable.
+ * </p>
+ *
+ */
+final class OffsetShift {
+
+	private final int[] offsets;
+	private final int[] deltas;
+
+	/**
+	 * Creates the shift of an incremental parse.
+	 *
+	 * @param offset the end offset of the modified region in the previous version.
+	 * @param delta  the delta to add to the offsets which are greater than or equal
+	 *               to the given offset.
+	 */
+	OffsetShift(int offset, int delta) {
+		this(new int[] { offset }, new int[] { delta });
+	}
+
+	private OffsetShift(int[] offsets, int[] deltas) {
+		this.offsets = offsets;
+		this.deltas = deltas;
+	}
+
+	/**
+	 * Returns the shift which applies the given first shift and then the given
+	 * second shift.
+	 *
+	 * @param first  the first shift and null if the offsets are not shifted.
+	 * @param second the second shift and null if the offsets are not shifted.
+	 * @return the shift which applies the given shifts in order and null if the
+	 *         offsets are not shifted.
+	 */
+	static OffsetShift combine(OffsetShift first, OffsetShift second) {
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		int length = first.offsets.length;
+		int[] offsets = Arrays.copyOf(first.offsets, length + second.offsets.length);
+		int[] deltas = Arrays.copyOf(first.deltas, offsets.length);
+		System.arraycopy(second.offsets, 0, offsets, length, second.offsets.length);
+		System.arraycopy(second.deltas, 0, deltas, length, second.deltas.length);
+		return new OffsetShift(offsets, deltas);
+	}
+
+	/**
+	 * Returns the given offset shifted.
+	 *
+	 * @param value the offset and {@link DOMNode#NULL_VALUE}.
+	 * @return the given offset shifted.
+	 */
+	int apply(int value) {
+		for (int i = 0; i < offsets.length; i++) {
+			if (value >= offsets[i]) {
+				value += deltas[i];
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Shift the offsets of the given node and of its attributes which are
+	 * materialized (the attributes which are stored in a compact table are shifted
+	 * when they are materialized).
+	 *
+	 * @param node the copied node.
+	 */
+	void apply(DOMNode node) {
+		node.start = apply(node.start);
+		node.end = apply(node.end);
+		switch (node.getNodeType()) {
+		case Node.ELEMENT_NODE:
+			DOMElement element = (DOMElement) node;
+			element.startTagOpenOffset = apply(element.startTagOpenOffset);
+			element.startTagCloseOffset = apply(element.startTagCloseOffset);
+			element.endTagOpenOffset = apply(element.endTagOpenOffset);
+			element.endTagCloseOffset = apply(element.endTagCloseOffset);
+			break;
+		case Node.COMMENT_NODE:
+			DOMComment comment = (DOMComment) node;
+			comment.startContent = apply(comment.startContent);
+			comment.endContent = apply(comment.endContent);
+			break;
+		case Node.CDATA_SECTION_NODE:
+			DOMCDATASection cdata = (DOMCDATASection) node;
+			cdata.startContent = apply(cdata.startContent);
+			cdata.endContent = apply(cdata.endContent);
+			break;
+		case Node.PROCESSING_INSTRUCTION_NODE:
+			DOMProcessingInstruction processingInstruction = (DOMProcessingInstruction) node;
+			processingInstruction.startContent = apply(processingInstruction.startContent);
+			processingInstruction.endContent = apply(processingInstruction.endContent);
+			processingInstruction.endTagOpenOffset = apply(processingInstruction.endTagOpenOffset);
+			break;
+		default:
+		}
+		if (node instanceof DTDDeclNode) {
+			DTDDeclNode declNode = (DTDDeclNode) node;
+			for (DTDDeclParameter parameter : declNode.getParameters()) {
+				apply(parameter);
+			}
+			if (declNode.declType != null) {
+				apply(declNode.declType);
+			}
+			if (declNode.isDTDAttListDecl() && ((DTDAttlistDecl) declNode).getInternalChildren() != null) {
+				for (DTDAttlistDecl internalChild : ((DTDAttlistDecl) declNode).getInternalChildren()) {
+					apply(internalChild);
+				}
+			}
+		}
+		if (node.getCompactAttributesTable() == null && node.hasAttributes()) {
+			for (DOMAttr attr : node.getAttributeNodes()) {
+				apply(attr);
+			}
+		}
+	}
+
+	/**
+	 * Shift the offsets of the name and the value of the given attribute.
+	 *
+	 * @param attr the attribute.
+	 */
+	void apply(DOMAttr attr) {
+		DOMNode attrName = attr.getNodeAttrName();
+		if (attrName != null) {
+			attrName.start = apply(attrName.start);
+			attrName.end = apply(attrName.end);
+		}
+		DOMNode attrValue = attr.getNodeAttrValue();
+		if (attrValue != null) {
+			attrValue.start = apply(attrValue.start);
+			attrValue.end = apply(attrValue.end);
+		}
+	}
+
+	private void apply(DTDDeclParameter parameter) {
+		parameter.start = apply(parameter.start);
+		parameter.end = apply(parameter.end);
+	}
+}
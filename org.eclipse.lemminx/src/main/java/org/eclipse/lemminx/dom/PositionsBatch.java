@@ -0,0 +1,147 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lsp4j.Position;
+
+/**
+ * Batch of positions of a DOM document which are converted from their offsets
+ * at once.
+ *
+ * <p>
+ * While the batch is opened (see {@link DOMDocument#deferPositions()}), the
+ * positions returned by {@link DOMDocument#positionsAt(int...)} to the thread
+ * which has opened the batch are not computed: their offsets are recorded and
+ * the positions are filled by {@link #resolve()} with one sweep of the lines of
+ * the sorted offsets. It is used to build the ranges of the diagnostics of a
+ * validation.
+ * </p>
+ *
+ * <p>
+ * The positions must not be read before the batch is resolved, the actions
+ * which need them are registered with {@link #onResolved(Runnable)}.
+ * </p>
+ *
+ */
+public class PositionsBatch {
+
+	private static final Logger LOGGER = Logger.getLogger(PositionsBatch.class.getName());
+
+	private final DOMDocument document;
+
+	private final Thread owner;
+
+	private int[] offsets;
+
+	private Position[] positions;
+
+	private int size;
+
+	private final List<Runnable> resolvedActions;
+
+	PositionsBatch(DOMDocument document) {
+		this.document = document;
+		this.owner = Thread.currentThread();
+		this.offsets = new int[16];
+		this.positions = new Position[16];
+		this.resolvedActions = new ArrayList<>();
+	}
+
+	/**
+	 * Returns true if the positions asked by the current thread are deferred and
+	 * false otherwise.
+	 * 
+	 * @return true if the positions asked by the current thread are deferred and
+	 *         false otherwise.
+	 */
+	boolean isOwner() {
+		return owner == Thread.currentThread();
+	}
+
+	/**
+	 * Returns the positions of the given offsets which will be filled when the
+	 * batch is resolved.
+	 * 
+	 * @param offsets the valid offsets.
+	 * @return the positions of the given offsets which will be filled when the
+	 *         batch is resolved.
+	 */
+	Position[] add(int... offsets) {
+		Position[] result = new Position[offsets.length];
+		for (int i = 0; i < offsets.length; i++) {
+			if (size == this.offsets.length) {
+				this.offsets = Arrays.copyOf(this.offsets, size * 2);
+				this.positions = Arrays.copyOf(this.positions, size * 2);
+			}
+			result[i] = new Position();
+			this.offsets[size] = offsets[i];
+			this.positions[size] = result[i];
+			size++;
+		}
+		return result;
+	}
+
+	/**
+	 * Register an action which is executed when the positions are resolved.
+	 * 
+	 * @param action the action which reads the positions of the batch.
+	 */
+	public void onResolved(Runnable action) {
+		resolvedActions.add(action);
+	}
+
+	/**
+	 * Close the batch, fill the deferred positions and execute the registered
+	 * actions in their registration order.
+	 */
+	public void resolve() {
+		document.closePositionsBatch(this);
+		if (size > 0) {
+			// sort the offsets (with their index in the low bits) to compute the
+			// positions with one sweep of the lines
+			long[] sorted = new long[size];
+			for (int i = 0; i < size; i++) {
+				sorted[i] = ((long) offsets[i] << 32) | i;
+			}
+			Arrays.sort(sorted);
+			int[] sortedOffsets = new int[size];
+			for (int i = 0; i < size; i++) {
+				sortedOffsets[i] = (int) (sorted[i] >>> 32);
+			}
+			try {
+				Position[] resolved = document.getTextDocument().positionsAt(sortedOffsets);
+				for (int i = 0; i < size; i++) {
+					Position position = positions[(int) sorted[i]];
+					position.setLine(resolved[i].getLine());
+					position.setCharacter(resolved[i].getCharacter());
+				}
+			} catch (BadLocationException e) {
+				// the offsets have been checked when they have been added
+				LOGGER.log(Level.SEVERE, "While resolving positions the Offset was a BadLocation", e);
+			}
+			offsets = null;
+			positions = null;
+			size = 0;
+		}
+		for (Runnable action : resolvedActions) {
+			action.run();
+		}
+		resolvedActions.clear();
+	}
+}
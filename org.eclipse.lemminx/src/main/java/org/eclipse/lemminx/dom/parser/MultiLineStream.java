@@ -29,7 +29,7 @@ import static org.eclipse.lemminx.dom.parser.Constants._WSP;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,27 +39,35 @@ import java.util.regex.Pattern;
  */
 public class MultiLineStream {
 
-	private static final Predicate<Integer> WHITESPACE_PREDICATE = ch -> {
-		return ch == _WSP || ch == _TAB || ch == _NWL || ch == _LFD || ch == _CAR;
-	};
+	private static final IntPredicate WHITESPACE_PREDICATE = MultiLineStream::isWhitespace;
 
-	private final String source;
+	private final CharSequence source;
 	private final int len;
 	private int position;
-	private final Map<Pattern, Matcher> regexpCache;
+	private Map<Pattern, Matcher> regexpCache;
 
-	public MultiLineStream(String source, int position) {
+	public MultiLineStream(CharSequence source, int position) {
 		this.source = source;
 		this.len = source.length();
 		this.position = position;
-		this.regexpCache = new HashMap<>();
+	}
+
+	/**
+	 * Returns true if the given character is a XML whitespace (space, tab, line
+	 * feed, form feed or carriage return) and false otherwise.
+	 * 
+	 * @param ch the character.
+	 * @return true if the given character is a XML whitespace and false otherwise.
+	 */
+	public static boolean isWhitespace(int ch) {
+		return ch == _WSP || ch == _TAB || ch == _NWL || ch == _LFD || ch == _CAR;
 	}
 
 	public boolean eos() {
 		return this.len <= this.position;
 	}
 
-	public String getSource() {
+	public CharSequence getSource() {
 		return this.source;
 	}
 
@@ -103,7 +111,7 @@ public class MultiLineStream {
 		if (pos >= len) {
 			return -1;
 		}
-		return this.source.codePointAt(pos);
+		return Character.codePointAt(this.source, pos);
 	}
 
 	/**
@@ -115,7 +123,7 @@ public class MultiLineStream {
 		if (offset >= len || offset < 0) {
 			return -1;
 		}
-		return this.source.codePointAt(offset);
+		return Character.codePointAt(this.source, offset);
 	}
 
 	public boolean advanceIfChar(int ch) {
@@ -301,7 +309,7 @@ public class MultiLineStream {
 		return n > 0;
 	}
 
-	public int advanceWhileChar(Predicate<Integer> condition) {
+	public int advanceWhileChar(IntPredicate condition) {
 		int posNow = this.position;
 		while (this.position < this.len && condition.test(peekChar())) {
 			this.position++;
@@ -309,6 +317,26 @@ public class MultiLineStream {
 		return this.position - posNow;
 	}
 
+	/**
+	 * Returns true if all characters between the given start offset (inclusive)
+	 * and the current position (exclusive) match the given condition and false
+	 * otherwise.
+	 * 
+	 * @param start     the start offset.
+	 * @param condition the condition.
+	 * @return true if all characters between the given start offset (inclusive)
+	 *         and the current position (exclusive) match the given condition and
+	 *         false otherwise.
+	 */
+	public boolean regionMatches(int start, IntPredicate condition) {
+		for (int i = start; i < this.position; i++) {
+			if (!condition.test(this.source.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Returns the cached matcher from the given regex.
 	 * 
@@ -316,6 +344,9 @@ public class MultiLineStream {
 	 * @return the cached matcher from the given regex.
 	 */
 	private Matcher getCachedMatcher(Pattern regex) {
+		if (regexpCache == null) {
+			regexpCache = new HashMap<>();
+		}
 		Matcher matcher = regexpCache.get(regex);
 		if (matcher == null) {
 			matcher = regex.matcher(source);
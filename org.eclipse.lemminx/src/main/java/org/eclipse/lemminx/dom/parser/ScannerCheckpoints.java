@@ -0,0 +1,189 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom.parser;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of an XML document where the scanner can restart.
+ *
+ * <p>
+ * The checkpoints are recorded by the DOM parser (at most one checkpoint every
+ * {@link #DEFAULT_INTERVAL} characters) at the token boundaries where the
+ * scanner is in the {@link ScannerState#WithinContent} state, so a scanner
+ * created at a checkpoint scans the same tokens as a scanner created at the
+ * start of the document.
+ * </p>
+ *
+ * <p>
+ * The checkpoints are not modified once they are recorded : the incremental
+ * parser creates new checkpoints with {@link #update(int, int, int)}.
+ * </p>
+ *
+ */
+public final class ScannerCheckpoints {
+
+	/**
+	 * The default minimum number of characters between two checkpoints.
+	 */
+	public static final int DEFAULT_INTERVAL = 4096;
+
+	private final int interval;
+
+	private int[] offsets;
+
+	private int size;
+
+	public ScannerCheckpoints() {
+		this(DEFAULT_INTERVAL);
+	}
+
+	public ScannerCheckpoints(int interval) {
+		this(interval, new int[16], 0);
+	}
+
+	private ScannerCheckpoints(int interval, int[] offsets, int size) {
+		this.interval = interval;
+		this.offsets = offsets;
+		this.size = size;
+	}
+
+	/**
+	 * Record the given offset where the scanner is in the
+	 * {@link ScannerState#WithinContent} state if it is far enough from the last
+	 * checkpoint.
+	 *
+	 * @param offset the offset where the scanner is within content.
+	 */
+	public void add(int offset) {
+		if (offset - (size > 0 ? offsets[size - 1] : 0) < interval) {
+			return;
+		}
+		if (size == offsets.length) {
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		offsets[size++] = offset;
+	}
+
+	/**
+	 * Record the checkpoints of the given checkpoints which follow the last
+	 * checkpoint.
+	 *
+	 * @param checkpoints the checkpoints to add.
+	 */
+	public void addAll(ScannerCheckpoints checkpoints) {
+		for (int i = 0; i < checkpoints.size; i++) {
+			add(checkpoints.offsets[i]);
+		}
+	}
+
+	/**
+	 * Returns the last checkpoint before the given offset and 0 (the start of the
+	 * document) if there is no checkpoint before the given offset.
+	 *
+	 * @param offset the offset.
+	 * @return the last checkpoint before the given offset.
+	 */
+	public int getCheckpointBefore(int offset) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (offsets[mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high >= 0 ? offsets[high] : 0;
+	}
+
+	/**
+	 * Returns the first checkpoint after the given offset and -1 if there is no
+	 * checkpoint after the given offset.
+	 *
+	 * @param offset the offset.
+	 * @return the first checkpoint after the given offset.
+	 */
+	public int getCheckpointAfter(int offset) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (offsets[mid] <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low < size ? offsets[low] : -1;
+	}
+
+	/**
+	 * Returns the checkpoint at the given index.
+	 *
+	 * @param index the index of the checkpoint.
+	 * @return the checkpoint at the given index.
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return offsets[index];
+	}
+
+	/**
+	 * Returns a scanner which starts at the last checkpoint before the given
+	 * offset.
+	 *
+	 * @param input  the text of the document.
+	 * @param offset the offset.
+	 * @return a scanner which starts at the last checkpoint before the given
+	 *         offset.
+	 */
+	public Scanner createScanner(CharSequence input, int offset) {
+		return XMLScanner.createScanner(input, getCheckpointBefore(offset), ScannerState.WithinContent);
+	}
+
+	/**
+	 * Returns the checkpoints updated with the given modified region : the
+	 * checkpoints which follow the region are shifted and the checkpoints of the
+	 * region are removed.
+	 *
+	 * @param start  the start offset of the region.
+	 * @param oldEnd the end offset of the region before the changes.
+	 * @param delta  the delta to add to the offsets which follow the region.
+	 * @return the updated checkpoints.
+	 */
+	public ScannerCheckpoints update(int start, int oldEnd, int delta) {
+		int[] newOffsets = new int[Math.max(size, 16)];
+		int newSize = 0;
+		for (int i = 0; i < size; i++) {
+			int offset = offsets[i];
+			if (offset <= start) {
+				newOffsets[newSize++] = offset;
+			} else if (offset >= oldEnd) {
+				newOffsets[newSize++] = offset + delta;
+			}
+		}
+		return new ScannerCheckpoints(interval, newOffsets, newSize);
+	}
+
+	/**
+	 * Returns the number of checkpoints.
+	 *
+	 * @return the number of checkpoints.
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom.parser;
+
+/**
+ * Handler which receives the tokens of a {@link XMLScanner} as (type, start,
+ * end) without creating the String of the token text.
+ * 
+ * @see XMLScanner#scanTokens(CharSequence, boolean, TokenHandler)
+ */
+@FunctionalInterface
+public interface TokenHandler {
+
+	/**
+	 * Called for each token scanned.
+	 * 
+	 * @param type  the token type.
+	 * @param start the start offset of the token.
+	 * @param end   the end offset of the token.
+	 */
+	void token(TokenType type, int start, int end);
+}
@@ -17,11 +17,8 @@
  */
 package org.eclipse.lemminx.dom.parser;
 
-import static org.eclipse.lemminx.dom.parser.Constants.ATTRIBUTE_NAME_REGEX;
 import static org.eclipse.lemminx.dom.parser.Constants.DOCTYPE_KIND_OPTIONS;
 import static org.eclipse.lemminx.dom.parser.Constants.DTD_ELEMENT_CATEGORY;
-import static org.eclipse.lemminx.dom.parser.Constants.ELEMENT_NAME_REGEX;
-import static org.eclipse.lemminx.dom.parser.Constants.PROLOG_NAME_OPTIONS;
 import static org.eclipse.lemminx.dom.parser.Constants.URL_VALUE_REGEX;
 import static org.eclipse.lemminx.dom.parser.Constants._AST;
 import static org.eclipse.lemminx.dom.parser.Constants._AVL;
@@ -59,7 +56,7 @@ import static org.eclipse.lemminx.dom.parser.Constants._UDS;
 import static org.eclipse.lemminx.dom.parser.Constants._WSP;
 import static org.eclipse.lemminx.dom.parser.Constants._YVL;
 
-import java.util.function.Predicate;
+import java.util.function.IntPredicate;
 
 import org.eclipse.lemminx.dom.DOMDocumentType.DocumentTypeKind;
 import org.eclipse.lemminx.utils.StringUtils;;
@@ -70,22 +67,49 @@ import org.eclipse.lemminx.utils.StringUtils;;
  */
 public class XMLScanner implements Scanner {
 
-	private static final Predicate<Integer> START_ELEMENT_NAME_PREDICATE = ch -> {
+	private static final IntPredicate START_ELEMENT_NAME_PREDICATE = ch -> {
 		// ^[_:\w]
 		return ch == _UDS || ch == _DDT || Character.isLetter(ch);
 	};
 
-	private static final Predicate<Integer> ELEMENT_NAME_PREDICATE = ch -> {
+	private static final IntPredicate ELEMENT_NAME_PREDICATE = ch -> {
 		// [_:\w-.\d]*
 		return ch == _UDS /* '_' */ || ch == _DDT /* ':' */ || ch == _DOT /* '.' */ || ch == _MIN /* '-' */
 				|| Character.isLetterOrDigit(ch);
 	};
 
-	private static final Predicate<Integer> ATTRIBUTE_NAME_PREDICATE = ch -> {
+	private static final IntPredicate ATTRIBUTE_NAME_PREDICATE = ch -> {
 		// ^[^\s\?\"'<>\/=\x00-\x0F\x7F\x80-\x9F]*
 		return !Character.isWhitespace(ch) && ch != _QMA && ch != _DQO && ch != _SIQ && ch != _LAN && ch != _RAN
 				&& ch != _FSL && ch != _EQS && !(ch >= 0x00 && ch <= 0x0F) && ch != 0x7F && !(ch >= 0x80 && ch <= 0x9F);
 	};
+
+	private static final IntPredicate START_NAME_PREDICATE = ch -> {
+		// ^[_:\w] where \w is [a-zA-Z_0-9]
+		return ch == _UDS || ch == _DDT || isASCIILetterOrDigit(ch);
+	};
+
+	private static final IntPredicate NAME_PREDICATE = ch -> {
+		// [_:\w-.\d]* where \w is [a-zA-Z_0-9]
+		return ch == _UDS || ch == _DDT || ch == _DOT || ch == _MIN || isASCIILetterOrDigit(ch);
+	};
+
+	// The char sequences are stored in constants to avoid creating an array for
+	// each call of the varargs methods of MultiLineStream
+
+	private static final int[] COMMENT_START = { _EXL, _MIN, _MIN }; // !--
+
+	private static final int[] COMMENT_END = { _MIN, _MIN, _RAN }; // -->
+
+	private static final int[] CDATA_START = { _EXL, _OSB, _CVL, _DVL, _AVL, _TVL, _AVL, _OSB }; // ![CDATA[
+
+	private static final int[] CDATA_END = { _CSB, _CSB, _RAN }; // ]]>
+
+	private static final int[] DOCTYPE_START = { _EXL, _DVL, _OVL, _CVL, _TVL, _YVL, _PVL, _EVL }; // !DOCTYPE
+
+	private static final int[] PI_END = { _QMA, _RAN }; // ?>
+
+	private static final int[] PI_NAME_END = { _NWL, _CAR, _WSP, _QMA, _RAN }; // \n or \r or ' ' or '?' or '>'
 	
 	MultiLineStream stream;
 	ScannerState state;
@@ -112,7 +136,7 @@ public class XMLScanner implements Scanner {
 	boolean isInitialAttlistDeclCompleted = false; 
 	private int nbBraceOpened;
 
-	public XMLScanner(String input, int initialOffset, ScannerState initialState, boolean isDTDFile) {
+	public XMLScanner(CharSequence input, int initialOffset, ScannerState initialState, boolean isDTDFile) {
 		stream = new MultiLineStream(input, initialOffset);
 		state = initialState;
 		tokenOffset = 0;
@@ -166,8 +190,49 @@ public class XMLScanner implements Scanner {
 		return false;
 	}
 	
-	String doctypeName() {
-		return stream.advanceIfRegExp(ELEMENT_NAME_REGEX);
+	/**
+	 * Returns true if the current token is a DTD name (DOCTYPE, ELEMENT, ATTLIST,
+	 * ENTITY or NOTATION name) and false otherwise.
+	 * 
+	 * @return true if the current token is a DTD name and false otherwise.
+	 */
+	boolean hasNextName() {
+		// Name regexp : ^[_:\w][_:\w-.\d]*
+		if (!START_NAME_PREDICATE.test(stream.peekChar())) {
+			return false;
+		}
+		stream.advance(1);
+		stream.advanceWhileChar(NAME_PREDICATE);
+		return true;
+	}
+
+	/**
+	 * Returns true if the token from the given offset to the current position is
+	 * the 'xml' prolog name and false otherwise.
+	 * 
+	 * @param offset the start offset of the token.
+	 * @return true if the token from the given offset to the current position is
+	 *         the 'xml' prolog name and false otherwise.
+	 */
+	private boolean isPrologName(int offset) {
+		// Prolog name regexp : ^(xml)[\s<>?]?
+		int length = stream.pos() - offset;
+		if (length < 3 || length > 4) {
+			return false;
+		}
+		if (stream.peekCharAtOffset(offset) != 'x' || stream.peekCharAtOffset(offset + 1) != 'm'
+				|| stream.peekCharAtOffset(offset + 2) != 'l') {
+			return false;
+		}
+		if (length == 4) {
+			int last = stream.peekCharAtOffset(offset + 3);
+			return Character.isWhitespace(last) || last == _LAN || last == _RAN || last == _QMA;
+		}
+		return true;
+	}
+
+	private static boolean isASCIILetterOrDigit(int ch) {
+		return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9');
 	}
 
 	/**
@@ -217,21 +282,20 @@ public class XMLScanner implements Scanner {
 
 		switch (state) {
 		case WithinComment:
-			if (stream.advanceIfChars(_MIN, _MIN, _RAN)) { // -->
+			if (stream.advanceIfChars(COMMENT_END)) { // -->
 				state = !isInsideDTDContent ? ScannerState.WithinContent : ScannerState.DTDWithinContent;
 				return finishToken(offset, TokenType.EndCommentTag);
 			}
-			stream.advanceUntilChars(_MIN, _MIN, _RAN); // -->
+			stream.advanceUntilChars(COMMENT_END); // -->
 			return finishToken(offset, TokenType.Comment);
 
 		case PrologOrPI:
-			if (stream.advanceIfChars(_QMA, _RAN)) { // ?>
+			if (stream.advanceIfChars(PI_END)) { // ?>
 				state = getWithinContentState();
 				return finishToken(offset, TokenType.PIEnd);
 			}
-			if (stream.advanceUntilAnyOfChars(_NWL, _CAR, _WSP, _QMA, _RAN) || stream.eos()) { // \n or \r or ' ' or '?'
-				String name = getTokenTextFromOffset(offset);
-				if (PROLOG_NAME_OPTIONS.matcher(name).matches()) { // name eg: xml
+			if (stream.advanceUntilAnyOfChars(PI_NAME_END) || stream.eos()) { // \n or \r or ' ' or '?'
+				if (isPrologName(offset)) { // name eg: xml
 					state = ScannerState.WithinTag;
 					return finishToken(offset, TokenType.PrologName);
 				}
@@ -239,12 +303,12 @@ public class XMLScanner implements Scanner {
 				// 	state = ScannerState.WithinTag;
 				// 	return finishToken(offset, TokenType.PIName);
 				// }
-				if (ATTRIBUTE_NAME_REGEX.matcher(name).matches()) { // {name} eg: m2e
+				if (stream.regionMatches(offset, ATTRIBUTE_NAME_PREDICATE)) { // {name} eg: m2e
 					state = ScannerState.WithinPI;
 					return finishToken(offset, TokenType.PIName);
 				}
 			}
-			stream.advanceUntilCharsOrNewTag(_QMA, _RAN); // ?>
+			stream.advanceUntilCharsOrNewTag(PI_END); // ?>
 			if (stream.peekChar() == _LAN) {
 				state = ScannerState.WithinContent; // TODO: check if EOF causes issues
 			}
@@ -255,15 +319,15 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (stream.advanceIfChars(_QMA, _RAN)) {
+			if (stream.advanceIfChars(PI_END)) {
 				state = getWithinContentState();
 				return finishToken(offset, TokenType.PIEnd);
 			}
-			if (stream.advanceUntilCharsOrNewTag(_QMA, _RAN)) { // ?>
+			if (stream.advanceUntilCharsOrNewTag(PI_END)) { // ?>
 				if (stream.peekChar() == _LAN) {
 					state = getWithinContentState();
 				}
-				if (getTokenTextFromOffset(offset).length() == 0) {
+				if (stream.pos() == offset) {
 					return finishToken(offset, TokenType.PIEnd);
 				}
 			}
@@ -272,16 +336,16 @@ public class XMLScanner implements Scanner {
 		case WithinContent:
 			if (stream.advanceIfChar(_LAN)) { // <
 				if (!stream.eos() && stream.peekChar() == _EXL) { // !
-					if (stream.advanceIfChars(_EXL, _MIN, _MIN)) { // !--
+					if (stream.advanceIfChars(COMMENT_START)) { // !--
 						state = ScannerState.WithinComment;
 						return finishToken(offset, TokenType.StartCommentTag);
 					}
-					if (stream.advanceIfChars(_EXL, _OSB, _CVL, _DVL, _AVL, _TVL, _AVL, _OSB)) { // ![CDATA[
+					if (stream.advanceIfChars(CDATA_START)) { // ![CDATA[
 						state = ScannerState.WithinCDATA;
 						return finishToken(offset, TokenType.CDATATagOpen);
 					}
 
-					if (stream.advanceIfChars(_EXL, _DVL, _OVL, _CVL, _TVL, _YVL, _PVL, _EVL)) { // !DOCTYPE
+					if (stream.advanceIfChars(DOCTYPE_START)) { // !DOCTYPE
 						isDeclCompleted = false;
 						state = ScannerState.DTDWithinDoctype;
 						return finishToken(offset, TokenType.DTDStartDoctypeTag);
@@ -302,11 +366,11 @@ public class XMLScanner implements Scanner {
 			return finishToken(offset, TokenType.Content);
 
 		case WithinCDATA:
-			if (stream.advanceIfChars(_CSB, _CSB, _RAN)) { // ]]>
+			if (stream.advanceIfChars(CDATA_END)) { // ]]>
 				state = ScannerState.WithinContent;
 				return finishToken(offset, TokenType.CDATATagClose);
 			}
-			stream.advanceUntilChars(_CSB, _CSB, _RAN); // ]]>
+			stream.advanceUntilChars(CDATA_END); // ]]>
 			return finishToken(offset, TokenType.CDATAContent);
 
 		case AfterOpeningEndTag:
@@ -363,7 +427,7 @@ public class XMLScanner implements Scanner {
 			if (stream.skipWhitespace()) {
 				return finishToken(offset, TokenType.Whitespace);
 			}
-			if (stream.advanceIfChars(_QMA, _RAN)) { // ?>
+			if (stream.advanceIfChars(PI_END)) { // ?>
 				state = getWithinContentState();
 				return finishToken(offset, TokenType.PrologEnd);
 			}
@@ -456,8 +520,7 @@ public class XMLScanner implements Scanner {
 
 			
 			if (isDeclCompleted == false) {
-				String doctypeName = doctypeName();
-				if(!doctypeName.equals("")) {
+				if (hasNextName()) {
 					state = ScannerState.DTDAfterDoctypeName;
 					return finishToken(offset, TokenType.DTDDoctypeName);
 				}
@@ -550,7 +613,7 @@ public class XMLScanner implements Scanner {
 					} else if (stream.advanceIfChars(_EXL, _NVL, _OVL, _TVL, _AVL, _TVL, _IVL, _OVL, _NVL)) { // !NOTATION
 						state = ScannerState.DTDWithinNotation;
 						return finishToken(offset, TokenType.DTDStartNotation);
-					} else if (stream.advanceIfChars(_EXL, _MIN, _MIN)) { // !-- (for comment)
+					} else if (stream.advanceIfChars(COMMENT_START)) { // !-- (for comment)
 						state = ScannerState.WithinComment;
 						return finishToken(offset, TokenType.StartCommentTag);
 					}
@@ -636,7 +699,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (!stream.advanceIfRegExp(Constants.ELEMENT_NAME_REGEX).equals("")) {
+			if (hasNextName()) {
 				state = ScannerState.DTDElementAfterName;
 				return finishToken(offset, TokenType.DTDElementDeclName);
 			}
@@ -717,7 +780,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (isInitialAttlistDeclCompleted == false && !stream.advanceIfRegExp(Constants.ELEMENT_NAME_REGEX).equals("")) {
+			if (isInitialAttlistDeclCompleted == false && hasNextName()) {
 				state = ScannerState.DTDAfterAttlistElementName;
 				return finishToken(offset, TokenType.DTDAttlistElementName);
 			}
@@ -730,7 +793,7 @@ public class XMLScanner implements Scanner {
 				return finishToken(offset, TokenType.Whitespace);
 			}
 
-			if (!stream.advanceIfRegExp(Constants.ATTRIBUTE_NAME_REGEX).equals("")) {
+			if (hasNextAttributeName()) {
 				state = ScannerState.DTDAfterAttlistAttributeName;
 				return finishToken(offset, TokenType.DTDAttlistAttributeName);
 			}
@@ -796,7 +859,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (!stream.advanceIfRegExp(Constants.ELEMENT_NAME_REGEX).equals("")) {
+			if (hasNextName()) {
 				state = ScannerState.DTDAfterEntityName;
 				return finishToken(offset, TokenType.DTDEntityName);
 			}
@@ -888,7 +951,7 @@ public class XMLScanner implements Scanner {
 				return internalScan();
 			}
 
-			if (!stream.advanceIfRegExp(ELEMENT_NAME_REGEX).equals("")) {
+			if (hasNextName()) {
 				state = ScannerState.DTDAfterNotationName;
 				return finishToken(offset, TokenType.DTDNotationName);
 			}
@@ -1013,7 +1076,7 @@ public class XMLScanner implements Scanner {
 
 	@Override
 	public String getTokenText() {
-		return stream.getSource().substring(tokenOffset, stream.pos());
+		return stream.getSource().subSequence(tokenOffset, stream.pos()).toString();
 	}
 
 	@Override
@@ -1032,31 +1095,49 @@ public class XMLScanner implements Scanner {
 	}
 
 	public String getTokenTextFromOffset(int offset) {
-		return stream.getSource().substring(offset, stream.pos());
+		return stream.getSource().subSequence(offset, stream.pos()).toString();
+	}
+
+	/**
+	 * Scans all tokens of the given input and reports them to the given handler
+	 * as (type, start, end) without creating the String of the token text.
+	 * 
+	 * @param input     the text to scan.
+	 * @param isDTDFile true if the text is a DTD file and false otherwise.
+	 * @param handler   the token handler.
+	 */
+	public static void scanTokens(CharSequence input, boolean isDTDFile, TokenHandler handler) {
+		XMLScanner scanner = new XMLScanner(input, 0,
+				isDTDFile ? ScannerState.DTDWithinContent : ScannerState.WithinContent, isDTDFile);
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS) {
+			handler.token(token, scanner.tokenOffset, scanner.stream.pos());
+			token = scanner.scan();
+		}
 	}
 
-	public static Scanner createScanner(String input) {
+	public static Scanner createScanner(CharSequence input) {
 		return createScanner(input, false);
 	}
 
-	public static Scanner createScanner(String input, boolean isDTD) {
+	public static Scanner createScanner(CharSequence input, boolean isDTD) {
 		return createScanner(input, 0, isDTD);
 	}
 
-	public static Scanner createScanner(String input, int initialOffset) {
+	public static Scanner createScanner(CharSequence input, int initialOffset) {
 		return createScanner(input, initialOffset, false);
 	}
 
-	public static Scanner createScanner(String input, int initialOffset, boolean isDTDFile) {
+	public static Scanner createScanner(CharSequence input, int initialOffset, boolean isDTDFile) {
 		return createScanner(input, initialOffset,
 				isDTDFile ? ScannerState.DTDWithinContent : ScannerState.WithinContent, isDTDFile);
 	}
 
-	public static Scanner createScanner(String input, int initialOffset, ScannerState initialState) {
+	public static Scanner createScanner(CharSequence input, int initialOffset, ScannerState initialState) {
 		return new XMLScanner(input, initialOffset, initialState, false);
 	}
 
-	public static Scanner createScanner(String input, int initialOffset, ScannerState initialState, boolean isDTDFile) {
+	public static Scanner createScanner(CharSequence input, int initialOffset, ScannerState initialState, boolean isDTDFile) {
 		return new XMLScanner(input, initialOffset, initialState, isDTDFile);
 	}
 
@@ -12,14 +12,20 @@
  */
 package org.eclipse.lemminx.extensions.contentmodel;
 
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
+import org.eclipse.lemminx.commons.ServerExecutors;
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.extensions.contentmodel.commands.AssociateGrammarCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.CheckBoundGrammarCommand;
+import org.eclipse.lemminx.extensions.contentmodel.commands.XMLCacheStatisticsCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.XMLValidationAllFilesCommand;
 import org.eclipse.lemminx.extensions.contentmodel.commands.XMLValidationFileCommand;
 import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.extensions.contentmodel.model.GrammarDependencies;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelCodeActionParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelCodeLensParticipant;
 import org.eclipse.lemminx.extensions.contentmodel.participants.ContentModelCompletionParticipant;
@@ -80,6 +86,8 @@ public class ContentModelPlugin implements IXMLExtension {
 
 	private XMLValidationSettings currentValidationSettings;
 
+	private boolean grammarsPreloaded;
+
 	public ContentModelPlugin() {
 		completionParticipant = new ContentModelCompletionParticipant();
 		hoverParticipant = new ContentModelHoverParticipant();
@@ -94,11 +102,18 @@ public class ContentModelPlugin implements IXMLExtension {
 		if (context.getType() == ISaveContext.SaveContextType.DOCUMENT) {
 			// The save is done for a given XML file
 			String documentURI = context.getUri();
+			// the file can be a XML Schema, DTD used by the Xerces grammar pool
+			contentModelManager.fileChanged(documentURI);
 			DOMDocument document = context.getDocument(documentURI);
 			if (document != null && DOMUtils.isCatalog(document)) {
 				// the XML document which has changed is a XML catalog.
 				// 1) refresh catalogs
 				contentModelManager.refreshCatalogs();
+			} else if (DOMUtils.isXSD(documentURI) || DOMUtils.isDTD(documentURI) || DOMUtils.isXSD(document)) {
+				// the XML document which has changed is a grammar, validate only the opened
+				// XML files which use it
+				collectDependentDocumentsToValidate(documentURI, context);
+				return;
 			}
 			// 2) Validate all opened XML files except the catalog which have changed
 			context.collectDocumentToValidate(d -> {
@@ -109,7 +124,29 @@ public class ContentModelPlugin implements IXMLExtension {
 		} else {
 			// Settings
 			updateSettings(context);
+			if (!grammarsPreloaded) {
+				// the settings are available (cache path, use cache), load the grammars of
+				// the previous session.
+				grammarsPreloaded = true;
+				contentModelManager.preloadGrammars();
+			}
+		}
+	}
+
+	private void collectDependentDocumentsToValidate(String grammarURI, ISaveContext context) {
+		GrammarDependencies dependencies = contentModelManager.getGrammarDependencies();
+		Set<String> documentURIs = new HashSet<>(dependencies.getDependentDocuments(grammarURI));
+		// the grammars used by the documents which have not been validated yet are
+		// unknown
+		documentURIs.addAll(dependencies.getUnindexedDocuments());
+		documentURIs.remove(grammarURI);
+		for (String documentURI : documentURIs) {
+			DOMDocument xml = context.getDocument(documentURI);
+			if (xml != null) {
+				xml.resetGrammar();
+			}
 		}
+		context.collectDocumentToValidate(documentURIs);
 	}
 
 	private void updateSettings(ISaveContext saveContext) {
@@ -171,6 +208,12 @@ public class ContentModelPlugin implements IXMLExtension {
 		URIResolverExtensionManager resolverManager = registry.getComponent(URIResolverExtensionManager.class);
 		contentModelManager = new ContentModelManager(resolverManager);
 		registry.registerComponent(contentModelManager);
+		ServerExecutors executors = registry.getComponent(ServerExecutors.class);
+		if (executors != null) {
+			// load the grammars of the previous session and save the grammar index in
+			// background
+			contentModelManager.setExecutor(executors.getExecutor(ExecutorKind.BACKGROUND));
+		}
 		if (params != null) {
 			contentModelManager.setRootURI(params.getRootUri());
 		}
@@ -198,6 +241,8 @@ public class ContentModelPlugin implements IXMLExtension {
 					new AssociateGrammarCommand(documentProvider));
 			commandService.registerCommand(CheckBoundGrammarCommand.COMMAND_ID,
 					new CheckBoundGrammarCommand(documentProvider));
+			commandService.registerCommand(XMLCacheStatisticsCommand.COMMAND_ID,
+					new XMLCacheStatisticsCommand(contentModelManager));
 		}
 	}
 
@@ -219,6 +264,7 @@ public class ContentModelPlugin implements IXMLExtension {
 			commandService.unregisterCommand(XMLValidationAllFilesCommand.COMMAND_ID);
 			commandService.unregisterCommand(AssociateGrammarCommand.COMMAND_ID);
 			commandService.unregisterCommand(CheckBoundGrammarCommand.COMMAND_ID);
+			commandService.unregisterCommand(XMLCacheStatisticsCommand.COMMAND_ID);
 		}
 	}
 
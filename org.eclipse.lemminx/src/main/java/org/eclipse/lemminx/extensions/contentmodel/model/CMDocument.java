@@ -87,6 +87,17 @@ public interface CMDocument {
 	 */
 	boolean isDirty();
 
+	/**
+	 * Returns the tracker of the files (root + included + imported) of the content
+	 * model document and null otherwise.
+	 * 
+	 * @return the tracker of the files of the content model document and null
+	 *         otherwise.
+	 */
+	default FilesChangedTracker getFilesChangedTracker() {
+		return null;
+	}
+
 	/**
 	 * Returns list of declared entities.
 	 * 
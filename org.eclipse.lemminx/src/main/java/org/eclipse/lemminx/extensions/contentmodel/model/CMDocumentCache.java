@@ -0,0 +1,255 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded cache of the content model documents (XML Schema, DTD) loaded by the
+ * {@link ContentModelManager}.
+ *
+ * <p>
+ * Each content model document is weighted by the estimated size of its grammar
+ * (the size in kilobytes of the grammar files : root + included + imported).
+ * The weight is computed once when the document is put in the cache. When the
+ * total weight exceeds the maximum weight, the least recently used documents
+ * are evicted. The documents are softly referenced to be collected
+ * by the garbage collector when the memory is low.
+ * </p>
+ *
+ */
+public class CMDocumentCache {
+
+	/**
+	 * The default maximum weight of the cache (32 MB of grammar files).
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 32 * 1024;
+
+	/**
+	 * Statistics of the cache.
+	 */
+	public static class Statistics {
+
+		private final long size;
+
+		private final long weight;
+
+		private final long maxWeight;
+
+		private final long hitCount;
+
+		private final long missCount;
+
+		private final long evictionCount;
+
+		public Statistics(long size, long weight, long maxWeight, CacheStats stats) {
+			this.size = size;
+			this.weight = weight;
+			this.maxWeight = maxWeight;
+			this.hitCount = stats.hitCount();
+			this.missCount = stats.missCount();
+			this.evictionCount = stats.evictionCount();
+		}
+
+		/**
+		 * Returns the number of content model documents in the cache.
+		 * 
+		 * @return the number of content model documents in the cache.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * Returns the total weight (in kilobytes) of the content model documents in
+		 * the cache.
+		 * 
+		 * @return the total weight (in kilobytes) of the content model documents in
+		 *         the cache.
+		 */
+		public long getWeight() {
+			return weight;
+		}
+
+		/**
+		 * Returns the maximum weight (in kilobytes) of the cache.
+		 * 
+		 * @return the maximum weight (in kilobytes) of the cache.
+		 */
+		public long getMaxWeight() {
+			return maxWeight;
+		}
+
+		/**
+		 * Returns the number of times a content model document was found in the
+		 * cache.
+		 * 
+		 * @return the number of times a content model document was found in the
+		 *         cache.
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * Returns the number of times a content model document was not found in the
+		 * cache.
+		 * 
+		 * @return the number of times a content model document was not found in the
+		 *         cache.
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/**
+		 * Returns the number of content model documents which have been evicted (by
+		 * size or by the garbage collector).
+		 * 
+		 * @return the number of content model documents which have been evicted.
+		 */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+	}
+
+	private final long maxWeight;
+
+	private final Cache<String, Entry> cache;
+
+	public CMDocumentCache() {
+		this(DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * Cache with the given maximum weight.
+	 * 
+	 * @param maxWeight the maximum weight (in kilobytes of grammar files).
+	 */
+	public CMDocumentCache(long maxWeight) {
+		this.maxWeight = maxWeight;
+		this.cache = CacheBuilder.newBuilder() //
+				// Guava splits the maximum weight between the segments of the cache, a
+				// single segment is used to evict the least recently used document of all
+				// documents.
+				.concurrencyLevel(1) //
+				.maximumWeight(maxWeight) //
+				.weigher((String key, Entry entry) -> entry.weight) //
+				.softValues() //
+				.recordStats() //
+				.build();
+	}
+
+	/**
+	 * Returns the content model document of the given key and null if it is not
+	 * in the cache or if it is dirty.
+	 * 
+	 * @param key the resolved URI of the grammar.
+	 * @return the content model document of the given key and null if it is not
+	 *         in the cache or if it is dirty.
+	 */
+	public CMDocument get(String key) {
+		Entry entry = cache.getIfPresent(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.document.isDirty()) {
+			cache.invalidate(key);
+			return null;
+		}
+		return entry.document;
+	}
+
+	/**
+	 * Cache the given content model document.
+	 * 
+	 * @param key        the resolved URI of the grammar.
+	 * @param cmDocument the content model document.
+	 */
+	public void put(String key, CMDocument cmDocument) {
+		cache.put(key, new Entry(cmDocument, getWeight(cmDocument)));
+	}
+
+	/**
+	 * Remove the content model document of the given key.
+	 * 
+	 * @param key the resolved URI of the grammar.
+	 */
+	public void remove(String key) {
+		cache.invalidate(key);
+	}
+
+	/**
+	 * Remove all content model documents.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Returns the statistics of the cache.
+	 * 
+	 * @return the statistics of the cache.
+	 */
+	public Statistics getStatistics() {
+		long weight = 0;
+		for (Entry entry : cache.asMap().values()) {
+			weight += entry.weight;
+		}
+		return new Statistics(cache.size(), weight, maxWeight, cache.stats());
+	}
+
+	/**
+	 * Returns the estimated size in kilobytes of the grammar of the given content
+	 * model document.
+	 * 
+	 * @param cmDocument the content model document.
+	 * @return the estimated size in kilobytes of the grammar of the given content
+	 *         model document.
+	 */
+	private static int getWeight(CMDocument cmDocument) {
+		FilesChangedTracker tracker = cmDocument.getFilesChangedTracker();
+		if (tracker == null) {
+			return 1;
+		}
+		long size = 0;
+		for (Path file : tracker.getFiles()) {
+			try {
+				size += Files.size(file);
+			} catch (IOException e) {
+				// the file has been deleted, the document is dirty
+			}
+		}
+		return (int) Math.min(Integer.MAX_VALUE, 1 + size / 1024);
+	}
+
+	/**
+	 * Cached content model document with its weight.
+	 */
+	private static class Entry {
+
+		private final CMDocument document;
+
+		private final int weight;
+
+		public Entry(CMDocument document, int weight) {
+			this.document = document;
+			this.weight = weight;
+		}
+	}
+}
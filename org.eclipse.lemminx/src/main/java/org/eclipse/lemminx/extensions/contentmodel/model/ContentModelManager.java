@@ -17,12 +17,15 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.eclipse.lemminx.dom.DOMDocument;
@@ -37,17 +40,22 @@ import org.eclipse.lemminx.uriresolver.CacheResourceDownloadingException;
 import org.eclipse.lemminx.uriresolver.CacheResourcesManager;
 import org.eclipse.lemminx.uriresolver.ResolvedURIInfo;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lemminx.utils.DOMUtils;
 import org.eclipse.lemminx.utils.FilesUtils;
 import org.eclipse.lemminx.utils.StringUtils;
 import org.eclipse.lemminx.utils.URIUtils;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Content model manager used to load XML Schema, DTD.
  *
  */
 public class ContentModelManager {
 
-	private final Map<String, CMDocument> cmDocumentCache;
+	private static final Logger LOGGER = Logger.getLogger(ContentModelManager.class.getName());
+
+	private final CMDocumentCache cmDocumentCache;
 
 	private final URIResolverExtensionManager resolverManager;
 	private final List<ContentModelProvider> modelProviders;
@@ -56,11 +64,24 @@ public class ContentModelManager {
 	private final XMLCatalogResolverExtension catalogResolverExtension;
 	private final XMLFileAssociationResolverExtension fileAssociationResolver;
 	private final XMLGrammarPool grammarPool;
+	private final GrammarCacheIndex grammarCacheIndex;
+	private final GrammarDependencies grammarDependencies;
+	private final AtomicInteger grammarGeneration;
+	private final Striped<Lock> loadingLocks;
+	private Executor executor;
 
 	public ContentModelManager(URIResolverExtensionManager resolverManager) {
+		this(resolverManager, new GrammarCacheIndex());
+	}
+
+	public ContentModelManager(URIResolverExtensionManager resolverManager, GrammarCacheIndex grammarCacheIndex) {
 		this.resolverManager = resolverManager;
+		this.grammarCacheIndex = grammarCacheIndex;
+		this.grammarDependencies = new GrammarDependencies();
+		this.grammarGeneration = new AtomicInteger();
+		this.loadingLocks = Striped.lock(16);
 		modelProviders = new ArrayList<>();
-		cmDocumentCache = Collections.synchronizedMap(new HashMap<>());
+		cmDocumentCache = new CMDocumentCache();
 		fileAssociationResolver = new XMLFileAssociationResolverExtension();
 		resolverManager.registerResolver(fileAssociationResolver);
 		catalogResolverExtension = new XMLCatalogResolverExtension();
@@ -194,6 +215,67 @@ public class ContentModelManager {
 		return grammarURI.equals(key);
 	}
 
+	/**
+	 * Update the grammar dependencies index with the grammars (XML Schema, DTD)
+	 * used by the validation of the given DOM document and with their included and
+	 * imported grammars.
+	 *
+	 * @param document    the validated DOM document.
+	 * @param grammarURIs the URIs of the grammars used by the validation.
+	 */
+	public void updateGrammarDependencies(DOMDocument document, Collection<String> grammarURIs) {
+		Set<String> dependencies = new HashSet<>(grammarURIs);
+		if (grammarPool instanceof LSPXMLGrammarPool) {
+			// the files of the grammars which are included and imported
+			for (String grammarURI : grammarURIs) {
+				for (Path file : ((LSPXMLGrammarPool) grammarPool).getGrammarFiles(grammarURI)) {
+					dependencies.add(file.toUri().toString());
+				}
+			}
+		}
+		grammarDependencies.update(document.getDocumentURI(), dependencies);
+	}
+
+	/**
+	 * Update the grammar dependencies index with the files tracked by the given
+	 * tracker for the given validated grammar document (ex : the XML Schemas
+	 * imported by a XML Schema).
+	 *
+	 * @param document the validated grammar document (XML Schema, DTD).
+	 * @param tracker  the tracker of the grammar files and null otherwise.
+	 */
+	public void updateGrammarDependencies(DOMDocument document, FilesChangedTracker tracker) {
+		Set<String> grammarURIs = new HashSet<>();
+		if (tracker != null) {
+			for (Path file : tracker.getFiles()) {
+				grammarURIs.add(file.toUri().toString());
+			}
+			// the grammar document doesn't depend on itself
+			grammarURIs.remove(GrammarDependencies.normalize(document.getDocumentURI()));
+		}
+		grammarDependencies.update(document.getDocumentURI(), grammarURIs);
+	}
+
+	/**
+	 * Returns the reverse index of the grammars used by the validated documents.
+	 *
+	 * @return the reverse index of the grammars used by the validated documents.
+	 */
+	public GrammarDependencies getGrammarDependencies() {
+		return grammarDependencies;
+	}
+
+	/**
+	 * Returns the grammar generation which is incremented when the resolution of
+	 * the grammars changes (ex : XML catalogs, file associations) or when the
+	 * grammar cache is evicted.
+	 *
+	 * @return the grammar generation.
+	 */
+	public int getGrammarGeneration() {
+		return grammarGeneration.get();
+	}
+
 	/**
 	 * Returns informations about all referenced grammar (XSD, DTD) from the given
 	 * DOM document.
@@ -297,11 +379,31 @@ public class ContentModelManager {
 		if (modelProvider == null) {
 			return null;
 		}
+		return findCMDocument(resolvedUri, modelProvider);
+	}
+
+	private CMDocument findCMDocument(String resolvedUri, ContentModelProvider modelProvider) {
 		// Try to get the document from the cache
 		CMDocument cmDocument = getCMDocumentFromCache(resolvedUri);
 		if (cmDocument != null) {
 			return cmDocument;
 		}
+		// Load the document only once when several threads need it at the same time
+		Lock lock = loadingLocks.get(resolvedUri);
+		lock.lock();
+		try {
+			cmDocument = getCMDocumentFromCache(resolvedUri);
+			if (cmDocument != null) {
+				return cmDocument;
+			}
+			return loadCMDocument(resolvedUri, modelProvider);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private CMDocument loadCMDocument(String resolvedUri, ContentModelProvider modelProvider) {
+		CMDocument cmDocument = null;
 		if (cacheResolverExtension.canUseCache(resolvedUri)) {
 			// The DTD/XML Schema comes from http://, ftp:// etc and cache manager is
 			// activated
@@ -324,26 +426,98 @@ public class ContentModelManager {
 		// Cache the document
 		if (cmDocument != null) {
 			cache(resolvedUri, cmDocument);
+			FilesChangedTracker tracker = cmDocument.getFilesChangedTracker();
+			if (tracker != null && cacheResolverExtension.isUseCache()) {
+				// Store the grammar in the persistent index to load it when the server
+				// restarts
+				grammarCacheIndex.put(resolvedUri, tracker);
+			}
 		}
 		return cmDocument;
 	}
 
-	private CMDocument getCMDocumentFromCache(String key) {
-		CMDocument document = null;
-		synchronized (cmDocumentCache) {
-			document = cmDocumentCache.get(key);
-			if (document != null && document.isDirty()) {
-				cmDocumentCache.remove(key);
-				return null;
+	/**
+	 * Set the executor used to load the grammars and to save the persistent index
+	 * of the grammars in background.
+	 *
+	 * @param executor the background executor and null to disable the background
+	 *                 tasks.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+		grammarCacheIndex.setExecutor(executor);
+	}
+
+	/**
+	 * Load in background the grammars (XML Schema) stored in the persistent index
+	 * whose files have not changed since the last time they have been loaded (ex :
+	 * in a previous server session).
+	 *
+	 * <p>
+	 * Both the content model documents (used by completion, hover, etc) and the
+	 * Xerces grammars (used by the validation) are loaded.
+	 * </p>
+	 *
+	 * @return the future which is completed when the grammars are loaded.
+	 */
+	public CompletableFuture<Void> preloadGrammars() {
+		if (executor == null || !cacheResolverExtension.isUseCache()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.runAsync(() -> {
+			for (String resolvedUri : grammarCacheIndex.getUpToDateGrammarURIs()) {
+				ContentModelProvider modelProvider = getModelProviderByURI(resolvedUri);
+				if (modelProvider != null) {
+					try {
+						findCMDocument(resolvedUri, modelProvider);
+						if (grammarPool instanceof LSPXMLGrammarPool && DOMUtils.isXSD(resolvedUri)) {
+							((LSPXMLGrammarPool) grammarPool).preloadSchemaGrammar(resolvedUri, resolverManager);
+						}
+					} catch (Exception e) {
+						LOGGER.log(Level.WARNING, "Error while preloading the grammar '" + resolvedUri + "'", e);
+					}
+				}
 			}
+		}, executor);
+	}
+
+	/**
+	 * Notify that the given file has changed (ex : a XML Schema which is saved or a
+	 * watched file which is modified) to mark as dirty the Xerces grammars which
+	 * use it.
+	 *
+	 * @param fileURI the URI of the file which has changed.
+	 */
+	public void fileChanged(String fileURI) {
+		if (grammarPool instanceof LSPXMLGrammarPool) {
+			((LSPXMLGrammarPool) grammarPool).fileChanged(fileURI);
 		}
-		return document;
+	}
+
+	/**
+	 * Returns the persistent index of the loaded grammars.
+	 *
+	 * @return the persistent index of the loaded grammars.
+	 */
+	public GrammarCacheIndex getGrammarCacheIndex() {
+		return grammarCacheIndex;
+	}
+
+	/**
+	 * Returns the cache of the content model documents.
+	 *
+	 * @return the cache of the content model documents.
+	 */
+	public CMDocumentCache getCMDocumentCache() {
+		return cmDocumentCache;
+	}
+
+	private CMDocument getCMDocumentFromCache(String key) {
+		return cmDocumentCache.get(key);
 	}
 
 	private void cache(String key, CMDocument cmDocument) {
-		synchronized (cmDocumentCache) {
-			cmDocumentCache.put(key, cmDocument);
-		}
+		cmDocumentCache.put(key, cmDocument);
 	}
 
 	/**
@@ -369,7 +543,11 @@ public class ContentModelManager {
 	 * @return true if catalogs changed and false otherwise
 	 */
 	public boolean setCatalogs(String[] catalogs) {
-		return catalogResolverExtension.setCatalogs(catalogs);
+		boolean changed = catalogResolverExtension.setCatalogs(catalogs);
+		if (changed) {
+			grammarGeneration.incrementAndGet();
+		}
+		return changed;
 	}
 
 	/**
@@ -377,6 +555,7 @@ public class ContentModelManager {
 	 */
 	public void refreshCatalogs() {
 		catalogResolverExtension.refreshCatalogs();
+		grammarGeneration.incrementAndGet();
 	}
 
 	/**
@@ -386,16 +565,24 @@ public class ContentModelManager {
 	 * @return true if file associations changed and false otherwise
 	 */
 	public boolean setFileAssociations(XMLFileAssociation[] fileAssociations) {
-		return this.fileAssociationResolver.setFileAssociations(fileAssociations);
+		boolean changed = this.fileAssociationResolver.setFileAssociations(fileAssociations);
+		if (changed) {
+			grammarGeneration.incrementAndGet();
+		}
+		return changed;
 	}
 
 	public void setRootURI(String rootUri) {
 		rootUri = URIUtils.sanitizingUri(rootUri);
 		fileAssociationResolver.setRootUri(rootUri);
 		catalogResolverExtension.setRootUri(rootUri);
+		grammarGeneration.incrementAndGet();
 	}
 
 	public void setUseCache(boolean useCache) {
+		if (useCache != cacheResolverExtension.isUseCache()) {
+			grammarGeneration.incrementAndGet();
+		}
 		cacheResolverExtension.setUseCache(useCache);
 		if (!useCache) {
 			grammarPool.clear();
@@ -427,6 +614,7 @@ public class ContentModelManager {
 					Files.deleteIfExists(FilesUtils.getPath(resolvedURI));
 					// remove the XSD/DTD content model document from the cache.
 					cmDocumentCache.remove(resolvedURI);
+					grammarCacheIndex.remove(referencedGrammarInfo.getResolvedURIInfo().getResolvedURI());
 					nbDeletedFiles++;
 				}
 				// TODO : get XSD, DTD dependencies from the current referenced grammar to
@@ -436,6 +624,7 @@ public class ContentModelManager {
 			if (nbDeletedFiles > 0) {
 				// TODO : clear only the DTD, XSD which has been deleted from the cache.
 				grammarPool.clear();
+				grammarGeneration.incrementAndGet();
 			}
 		}
 	}
@@ -455,6 +644,8 @@ public class ContentModelManager {
 			grammarPool.clear();
 			// clear the XSD/DTD content model documents.
 			cmDocumentCache.clear();
+			grammarCacheIndex.clear();
+			grammarGeneration.incrementAndGet();
 		}
 
 	}
@@ -97,6 +97,34 @@ public class FilesChangedTracker {
 		files.add(new FileChangedTracker(Paths.get(fileURI)));
 	}
 
+	/**
+	 * Returns the tracked files.
+	 * 
+	 * @return the tracked files.
+	 */
+	public List<Path> getFiles() {
+		List<Path> files = new ArrayList<>(this.files.size());
+		for (FileChangedTracker dirtyFile : this.files) {
+			files.add(dirtyFile.file);
+		}
+		return files;
+	}
+
+	/**
+	 * Returns true if the given file is tracked and false otherwise.
+	 * 
+	 * @param file the file.
+	 * @return true if the given file is tracked and false otherwise.
+	 */
+	public boolean containsFile(Path file) {
+		for (FileChangedTracker dirtyFile : files) {
+			if (dirtyFile.file.equals(file)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Returns true if one file has changed and false otherwise.
 	 * 
@@ -0,0 +1,352 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.utils.FilesUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Index of the compiled grammars (XML Schema) which is persisted in the lemminx
+ * cache directory (.lemminx/cache/grammars.json) to be available across server
+ * restarts.
+ *
+ * <p>
+ * Each entry is keyed by the resolved URI of the grammar and stores the files
+ * of the grammar (root + included + imported) with a stamp of their size and
+ * last modification time. When the server starts, the grammars which are up to
+ * date (their files have not changed) are compiled in background before the
+ * first request which needs them.
+ * </p>
+ *
+ * <p>
+ * The index is saved in background with the executor given by
+ * {@link #setExecutor(Executor)} and is kept only in memory when no executor
+ * is set.
+ * </p>
+ *
+ * <p>
+ * Xerces grammars cannot be serialized, that's why the index stores only the
+ * dependencies of the grammars and not the compiled grammars.
+ * </p>
+ *
+ */
+public class GrammarCacheIndex {
+
+	private static final Logger LOGGER = Logger.getLogger(GrammarCacheIndex.class.getName());
+
+	private static final Path INDEX_PATH = Paths.get("cache", "grammars.json");
+
+	public static final int DEFAULT_MAX_ENTRIES = 100;
+
+	/**
+	 * Index entry.
+	 */
+	public static class GrammarCacheEntry {
+
+		private String uri;
+
+		private String stamp;
+
+		private List<String> files;
+
+		public GrammarCacheEntry() {
+		}
+
+		public GrammarCacheEntry(String uri, String stamp, List<String> files) {
+			this.uri = uri;
+			this.stamp = stamp;
+			this.files = files;
+		}
+
+		/**
+		 * Returns the resolved URI of the grammar.
+		 * 
+		 * @return the resolved URI of the grammar.
+		 */
+		public String getUri() {
+			return uri;
+		}
+
+		/**
+		 * Returns the stamp (size and last modification time) of the grammar files.
+		 * 
+		 * @return the stamp (size and last modification time) of the grammar files.
+		 */
+		public String getStamp() {
+			return stamp;
+		}
+
+		/**
+		 * Returns the grammar files (root + included + imported).
+		 * 
+		 * @return the grammar files (root + included + imported).
+		 */
+		public List<String> getFiles() {
+			return files != null ? files : Collections.emptyList();
+		}
+	}
+
+	private final Path indexFile;
+
+	private final int maxEntries;
+
+	private Map<String, GrammarCacheEntry> entries;
+
+	private Executor executor;
+
+	private boolean saveScheduled;
+
+	/**
+	 * Index stored in the lemminx cache directory.
+	 */
+	public GrammarCacheIndex() {
+		this(null, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Index stored in the given file.
+	 * 
+	 * @param indexFile  the index file and null to use the lemminx cache
+	 *                   directory.
+	 * @param maxEntries the maximum number of grammars stored in the index.
+	 */
+	public GrammarCacheIndex(Path indexFile, int maxEntries) {
+		this.indexFile = indexFile;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Set the executor used to save the index in background and null to keep the
+	 * index only in memory.
+	 * 
+	 * @param executor the executor used to save the index.
+	 */
+	public synchronized void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Store the given grammar in the index.
+	 * 
+	 * @param uri     the resolved URI of the grammar.
+	 * @param tracker the tracker of the grammar files.
+	 */
+	public synchronized void put(String uri, FilesChangedTracker tracker) {
+		List<Path> files = tracker.getFiles();
+		String stamp = computeFilesStamp(files);
+		if (stamp == null) {
+			return;
+		}
+		GrammarCacheEntry existing = getEntries().get(uri);
+		if (existing != null && stamp.equals(existing.getStamp())) {
+			return;
+		}
+		List<String> fileURIs = new ArrayList<>(files.size());
+		for (Path file : files) {
+			fileURIs.add(file.toUri().toString());
+		}
+		entries.remove(uri);
+		entries.put(uri, new GrammarCacheEntry(uri, stamp, fileURIs));
+		// the oldest grammars are removed from the index
+		while (entries.size() > maxEntries) {
+			entries.remove(entries.keySet().iterator().next());
+		}
+		scheduleSave();
+	}
+
+	/**
+	 * Remove the given grammar from the index.
+	 * 
+	 * @param uri the resolved URI of the grammar.
+	 */
+	public synchronized void remove(String uri) {
+		if (getEntries().remove(uri) != null) {
+			scheduleSave();
+		}
+	}
+
+	/**
+	 * Returns the entry of the given grammar and null otherwise.
+	 * 
+	 * @param uri the resolved URI of the grammar.
+	 * @return the entry of the given grammar and null otherwise.
+	 */
+	public synchronized GrammarCacheEntry getEntry(String uri) {
+		return getEntries().get(uri);
+	}
+
+	/**
+	 * Returns the resolved URIs of the grammars whose files have not changed since
+	 * they have been stored in the index. The grammars which have changed are
+	 * removed from the index.
+	 * 
+	 * @return the resolved URIs of the grammars whose files have not changed.
+	 */
+	public synchronized List<String> getUpToDateGrammarURIs() {
+		List<String> uris = new ArrayList<>();
+		List<String> changed = new ArrayList<>();
+		for (GrammarCacheEntry entry : getEntries().values()) {
+			if (isUpToDate(entry)) {
+				uris.add(entry.getUri());
+			} else {
+				changed.add(entry.getUri());
+			}
+		}
+		if (!changed.isEmpty()) {
+			for (String uri : changed) {
+				entries.remove(uri);
+			}
+			scheduleSave();
+		}
+		return uris;
+	}
+
+	/**
+	 * Clear the index.
+	 */
+	public synchronized void clear() {
+		entries = new LinkedHashMap<>();
+		try {
+			Files.deleteIfExists(getIndexFile());
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error while deleting the grammar cache index", e);
+		}
+	}
+
+	private static boolean isUpToDate(GrammarCacheEntry entry) {
+		if (entry.getUri() == null || entry.getStamp() == null || entry.getFiles().isEmpty()) {
+			return false;
+		}
+		List<Path> files = new ArrayList<>();
+		try {
+			for (String file : entry.getFiles()) {
+				files.add(Paths.get(new URI(file)));
+			}
+		} catch (Exception e) {
+			return false;
+		}
+		return entry.getStamp().equals(computeFilesStamp(files));
+	}
+
+	private Map<String, GrammarCacheEntry> getEntries() {
+		if (entries == null) {
+			entries = load();
+		}
+		return entries;
+	}
+
+	private Map<String, GrammarCacheEntry> load() {
+		Map<String, GrammarCacheEntry> entries = new LinkedHashMap<>();
+		try {
+			Path file = getIndexFile();
+			if (Files.exists(file)) {
+				try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+					List<GrammarCacheEntry> loaded = new Gson().fromJson(reader,
+							new TypeToken<List<GrammarCacheEntry>>() {
+							}.getType());
+					if (loaded != null) {
+						for (GrammarCacheEntry entry : loaded) {
+							if (entry != null && entry.getUri() != null) {
+								entries.put(entry.getUri(), entry);
+							}
+						}
+					}
+				}
+			}
+		} catch (IOException | JsonParseException e) {
+			// the index is corrupted, it will be overridden with the next grammar
+			LOGGER.log(Level.WARNING, "Error while loading the grammar cache index", e);
+		}
+		return entries;
+	}
+
+	private void scheduleSave() {
+		if (executor == null || saveScheduled) {
+			// the index is kept in memory or a save is already pending, which will
+			// save the last state of the index
+			return;
+		}
+		saveScheduled = true;
+		try {
+			executor.execute(this::save);
+		} catch (RejectedExecutionException e) {
+			saveScheduled = false;
+		}
+	}
+
+	private synchronized void save() {
+		saveScheduled = false;
+		if (entries == null) {
+			return;
+		}
+		try {
+			FilesUtils.saveToFile(new Gson().toJson(new ArrayList<>(entries.values())), getIndexFile());
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error while saving the grammar cache index", e);
+		}
+	}
+
+	private Path getIndexFile() throws IOException {
+		return indexFile != null ? indexFile : FilesUtils.getDeployedPath(INDEX_PATH);
+	}
+
+	/**
+	 * Returns the stamp (size and last modification time) of the given files and
+	 * null if one file doesn't exist or if there are no files.
+	 * 
+	 * @param files the files.
+	 * @return the stamp (size and last modification time) of the given files and
+	 *         null if one file doesn't exist or if there are no files.
+	 */
+	static String computeFilesStamp(List<Path> files) {
+		if (files.isEmpty()) {
+			return null;
+		}
+		// the stamp doesn't depend on the order of the files
+		List<Path> sortedFiles = new ArrayList<>(files);
+		Collections.sort(sortedFiles);
+		StringBuilder stamp = new StringBuilder();
+		try {
+			for (Path file : sortedFiles) {
+				if (stamp.length() > 0) {
+					stamp.append(';');
+				}
+				stamp.append(Files.size(file)) //
+						.append(':') //
+						.append(Files.getLastModifiedTime(file).toMillis());
+			}
+		} catch (IOException e) {
+			return null;
+		}
+		return stamp.toString();
+	}
+}
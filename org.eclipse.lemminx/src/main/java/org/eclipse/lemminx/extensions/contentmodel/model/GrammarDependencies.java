@@ -0,0 +1,217 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index of the grammars (XML Schema, DTD) used by the validated
+ * documents.
+ *
+ * <p>
+ * Each time a document is validated, the URIs of the grammar files which are
+ * used to validate it (root + included + imported grammars) are stored in the
+ * index. When a grammar file is saved or changed, the documents to validate
+ * again are retrieved with {@link #getDependentDocuments(String)} without
+ * resolving the grammars referenced by all the opened documents.
+ * </p>
+ *
+ * <p>
+ * The index also stores the opened documents whose grammars are unknown (the
+ * document has not been validated yet or its grammar cannot be compiled), they
+ * are retrieved with {@link #getUnindexedDocuments()} to be validated again
+ * when any grammar changes.
+ * </p>
+ *
+ * <p>
+ * The grammar URIs are normalized (see {@link #normalize(String)}), the
+ * document URIs are stored as they are given.
+ * </p>
+ *
+ */
+public class GrammarDependencies {
+
+	// document URI -> grammar URIs
+	private final Map<String, Set<String>> grammarsByDocument;
+
+	// grammar URI -> document URIs
+	private final Map<String, Set<String>> documentsByGrammar;
+
+	// the opened documents whose grammars are unknown
+	private final Set<String> unindexedDocuments;
+
+	public GrammarDependencies() {
+		this.grammarsByDocument = new HashMap<>();
+		this.documentsByGrammar = new HashMap<>();
+		this.unindexedDocuments = new HashSet<>();
+	}
+
+	/**
+	 * Add the given opened document to the documents whose grammars are unknown
+	 * until it is validated.
+	 * 
+	 * @param documentURI the document URI.
+	 */
+	public synchronized void open(String documentURI) {
+		if (!grammarsByDocument.containsKey(documentURI)) {
+			unindexedDocuments.add(documentURI);
+		}
+	}
+
+	/**
+	 * Update the grammars used by the given document.
+	 * 
+	 * @param documentURI the document URI.
+	 * @param grammarURIs the URIs of the grammar files used by the document.
+	 */
+	public synchronized void update(String documentURI, Collection<String> grammarURIs) {
+		Set<String> newGrammars = new HashSet<>(grammarURIs.size());
+		for (String grammarURI : grammarURIs) {
+			newGrammars.add(normalize(grammarURI));
+		}
+		Set<String> oldGrammars = grammarsByDocument.put(documentURI, newGrammars);
+		unindexedDocuments.remove(documentURI);
+		if (oldGrammars != null) {
+			for (String grammarURI : oldGrammars) {
+				if (!newGrammars.contains(grammarURI)) {
+					removeDependent(grammarURI, documentURI);
+				}
+			}
+		}
+		for (String grammarURI : newGrammars) {
+			documentsByGrammar.computeIfAbsent(grammarURI, k -> new HashSet<>()).add(documentURI);
+		}
+	}
+
+	/**
+	 * Remove the given document from the index (ex : when the document is
+	 * closed).
+	 * 
+	 * @param documentURI the document URI.
+	 */
+	public synchronized void remove(String documentURI) {
+		removeGrammars(documentURI);
+		unindexedDocuments.remove(documentURI);
+	}
+
+	/**
+	 * Remove the grammars used by the given document from the index, the document
+	 * is validated again when any grammar changes (ex : when the grammar of the
+	 * document cannot be compiled).
+	 * 
+	 * @param documentURI the document URI.
+	 */
+	public synchronized void reset(String documentURI) {
+		removeGrammars(documentURI);
+		unindexedDocuments.add(documentURI);
+	}
+
+	private void removeGrammars(String documentURI) {
+		Set<String> oldGrammars = grammarsByDocument.remove(documentURI);
+		if (oldGrammars != null) {
+			for (String grammarURI : oldGrammars) {
+				removeDependent(grammarURI, documentURI);
+			}
+		}
+	}
+
+	/**
+	 * Returns the URIs of the documents which use the given grammar file.
+	 * 
+	 * @param grammarURI the URI of the grammar file.
+	 * @return the URIs of the documents which use the given grammar file.
+	 */
+	public synchronized Set<String> getDependentDocuments(String grammarURI) {
+		Set<String> documents = documentsByGrammar.get(normalize(grammarURI));
+		return documents != null ? new HashSet<>(documents) : Collections.emptySet();
+	}
+
+	/**
+	 * Returns the URIs of the opened documents whose grammars are unknown (the
+	 * document has not been validated yet or its grammar cannot be compiled).
+	 * 
+	 * @return the URIs of the opened documents whose grammars are unknown.
+	 */
+	public synchronized Set<String> getUnindexedDocuments() {
+		return new HashSet<>(unindexedDocuments);
+	}
+
+	/**
+	 * Returns true if the grammars used by the given document are stored in the
+	 * index and false otherwise (ex : the document has not been validated yet).
+	 * 
+	 * @param documentURI the document URI.
+	 * @return true if the grammars used by the given document are stored in the
+	 *         index and false otherwise.
+	 */
+	public synchronized boolean isIndexed(String documentURI) {
+		return grammarsByDocument.containsKey(documentURI);
+	}
+
+	/**
+	 * Returns the URIs of the grammar files used by the given document and null if
+	 * the document has not been indexed.
+	 * 
+	 * @param documentURI the document URI.
+	 * @return the URIs of the grammar files used by the given document and null if
+	 *         the document has not been indexed.
+	 */
+	public synchronized Set<String> getGrammars(String documentURI) {
+		Set<String> grammars = grammarsByDocument.get(documentURI);
+		return grammars != null ? new HashSet<>(grammars) : null;
+	}
+
+	/**
+	 * Clear the index.
+	 */
+	public synchronized void clear() {
+		grammarsByDocument.clear();
+		documentsByGrammar.clear();
+		unindexedDocuments.clear();
+	}
+
+	private void removeDependent(String grammarURI, String documentURI) {
+		Set<String> documents = documentsByGrammar.get(grammarURI);
+		if (documents != null) {
+			documents.remove(documentURI);
+			if (documents.isEmpty()) {
+				documentsByGrammar.remove(grammarURI);
+			}
+		}
+	}
+
+	/**
+	 * Returns the normalized form of the given URI to compare the URIs which come
+	 * from the client (ex : 'file:///C%3A/xsd/foo.xsd') with the URIs which come
+	 * from the resolvers and the Xerces grammars (ex : 'file:/C:/xsd/foo.xsd').
+	 * 
+	 * @param uri the URI.
+	 * @return the normalized form of the given URI.
+	 */
+	static String normalize(String uri) {
+		if (uri != null && uri.startsWith("file:")) {
+			try {
+				return Paths.get(new URI(uri)).toUri().toString();
+			} catch (Exception e) {
+				// the URI is not a valid file URI, use it as it is
+			}
+		}
+		return uri;
+	}
+}
@@ -12,11 +12,14 @@
  */
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.extensions.contentmodel.ContentModelPlugin;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lemminx.utils.DOMUtils;
@@ -47,8 +50,12 @@ public class ContentModelDiagnosticsParticipant implements IDiagnosticsParticipa
 		// associations settings., ...)
 		XMLEntityResolver entityResolver = xmlDocument.getResolverExtensionManager();
 		// Process validation
-		XMLValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, validationSettings,
-				contentModelPlugin.getContentModelManager(), monitor);
+		ContentModelManager contentModelManager = contentModelPlugin.getContentModelManager();
+		Set<String> grammarURIs = new HashSet<>();
+		XMLValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, validationSettings, contentModelManager,
+				grammarURIs, monitor);
+		// Update the grammars used by the validated XML document
+		contentModelManager.updateGrammarDependencies(xmlDocument, grammarURIs);
 	}
 
 }
@@ -0,0 +1,939 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.impl.dtd.XMLDTDValidatorFilter;
+import org.apache.xerces.util.NamespaceSupport;
+import org.apache.xerces.util.SymbolTable;
+import org.apache.xerces.util.XMLAttributesImpl;
+import org.apache.xerces.util.XMLChar;
+import org.apache.xerces.util.XMLStringBuffer;
+import org.apache.xerces.util.XMLSymbols;
+import org.apache.xerces.xni.NamespaceContext;
+import org.apache.xerces.xni.QName;
+import org.apache.xerces.xni.XMLDocumentHandler;
+import org.apache.xerces.xni.XMLLocator;
+import org.apache.xerces.xni.parser.XMLDocumentSource;
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.dom.DOMAttr;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lemminx.dom.DOMProcessingInstruction;
+import org.eclipse.lemminx.utils.StringUtils;
+import org.eclipse.lsp4j.Position;
+
+/**
+ * Xerces document source which emits the XNI events of a well-formed
+ * {@link DOMDocument} (start element, attributes, characters, etc) in the
+ * validation pipeline instead of scanning the text of the document again.
+ *
+ * <p>
+ * The DOM document is source-oriented and tolerant: it is created even if the
+ * text is not well-formed. That's why the scanner checks the well-formedness
+ * constraints that Xerces checks while scanning (with the text offsets of the
+ * DOM nodes) while it emits the events, in one walk of the DOM nodes. When a
+ * constraint is not satisfied, the walk is stopped and the text of the
+ * document must be parsed by Xerces to report the syntax errors. A document
+ * which declares a DOCTYPE (which requires the Xerces DTD scanner) or which
+ * contains a construct that the DOM parser has already found not well-formed
+ * (ex : an element which is not closed while the user types) is not walked
+ * (see {@link #canScan(DOMDocument)}).
+ * </p>
+ *
+ * <p>
+ * The locations of the events are computed with the DOM offsets: the
+ * character offset of an event is the offset after the markup of the event,
+ * like the Xerces scanner.
+ * </p>
+ *
+ */
+class DOMDocumentScanner implements XMLDocumentSource, XMLLocator {
+
+	private static final String XML_VERSION = "1.0";
+
+	private static final String S = "[ \\t\\r\\n]";
+
+	private static final String EQ = S + "*=" + S + "*";
+
+	private static final Pattern XML_DECL = Pattern.compile("<\\?xml" //
+			+ S + "+version" + EQ + "(?:\"(1\\.0)\"|'(1\\.0)')" //
+			+ "(?:" + S + "+encoding" + EQ
+			+ "(?:\"([A-Za-z][A-Za-z0-9._\\-]*)\"|'([A-Za-z][A-Za-z0-9._\\-]*)'))?" //
+			+ "(?:" + S + "+standalone" + EQ + "(?:\"(yes|no)\"|'(yes|no)'))?" //
+			+ S + "*\\?>");
+
+	private final DOMDocument document;
+
+	private final CharSequence text;
+
+	private final SymbolTable symbolTable;
+
+	private final NamespaceSupport namespaceContext;
+
+	private final XMLAttributesImpl attributes;
+
+	private final XMLStringBuffer buffer;
+
+	private XMLDocumentHandler documentHandler;
+
+	private XMLDTDValidatorFilter dtdValidator;
+
+	private int offset;
+
+	// the position of the last offset asked by the locator
+	private int positionOffset = -1;
+	private Position position;
+
+	private String expandedSystemId;
+
+	DOMDocumentScanner(DOMDocument document, SymbolTable symbolTable) {
+		this.document = document;
+		this.text = document.getTextDocument().getTextSequence();
+		this.symbolTable = symbolTable != null ? symbolTable : new SymbolTable();
+		this.namespaceContext = new NamespaceSupport();
+		this.attributes = new XMLAttributesImpl();
+		this.buffer = new XMLStringBuffer();
+	}
+
+	/**
+	 * Returns true if the given DOM document can be validated with the XNI events
+	 * emitted by this scanner and false if the text of the document must be
+	 * parsed by Xerces (the document declares a DOCTYPE or the parser of the DOM
+	 * document has found a construct which is not well-formed).
+	 *
+	 * <p>
+	 * The other well-formedness constraints are checked by
+	 * {@link #scanDocument(XMLDTDValidatorFilter)}.
+	 * </p>
+	 *
+	 * @param document the DOM document.
+	 * @return true if the given DOM document can be validated with the XNI events
+	 *         emitted by this scanner and false otherwise.
+	 */
+	static boolean canScan(DOMDocument document) {
+		return !document.hasDTD() && document.getDoctype() == null && !document.hasWellFormednessErrors();
+	}
+
+	/**
+	 * Emit the XNI events of the DOM document in the document handler.
+	 *
+	 * <p>
+	 * The events are emitted while the DOM document is walked: when the DOM
+	 * document is not well-formed, the events of the nodes before the first
+	 * syntax error have been emitted and the text of the document must be parsed
+	 * by Xerces.
+	 * </p>
+	 *
+	 * @param dtdValidator the DTD validator of the pipeline which is removed from
+	 *                     the pipeline at the root element if it has no grammar
+	 *                     (like the Xerces namespace scanner does).
+	 * @return true if the events of the whole document have been emitted and
+	 *         false if the DOM document is not well-formed or is not consistent
+	 *         with its text (ex : the DOM document has been updated while
+	 *         scanning).
+	 */
+	boolean scanDocument(XMLDTDValidatorFilter dtdValidator) {
+		this.dtdValidator = dtdValidator;
+		offset = 0;
+		namespaceContext.reset();
+		if (documentHandler != null) {
+			documentHandler.startDocument(this, null, namespaceContext, null);
+		}
+		DOMElement root = null;
+		int contentStart = 0;
+		List<DOMNode> children = document.getChildren();
+		for (DOMNode child : children) {
+			if (child.isText()) {
+				// the text between the nodes is checked with the text of the document
+				continue;
+			}
+			if (!isWhitespace(contentStart, child.getStart())) {
+				return false;
+			}
+			switch (child.getNodeType()) {
+			case DOMNode.ELEMENT_NODE:
+				if (root != null) {
+					// only one root element is allowed
+					return false;
+				}
+				root = (DOMElement) child;
+				reconfigurePipeline();
+				if (!scanElement(root)) {
+					return false;
+				}
+				break;
+			case DOMNode.COMMENT_NODE:
+				if (!scanComment(child)) {
+					return false;
+				}
+				break;
+			case DOMNode.PROCESSING_INSTRUCTION_NODE:
+				DOMProcessingInstruction processingInstruction = (DOMProcessingInstruction) child;
+				if (processingInstruction.isProlog()) {
+					if (child.getStart() != 0 || !scanXMLDecl(processingInstruction)) {
+						return false;
+					}
+				} else if (!scanProcessingInstruction(processingInstruction)) {
+					return false;
+				}
+				break;
+			default:
+				return false;
+			}
+			contentStart = child.getEnd();
+		}
+		if (root == null || !isWhitespace(contentStart, text.length())) {
+			return false;
+		}
+		offset = text.length();
+		if (documentHandler != null) {
+			documentHandler.endDocument(null);
+		}
+		return true;
+	}
+
+	/**
+	 * Remove the DTD validator from the pipeline if it has no grammar, like
+	 * {@link org.apache.xerces.impl.XMLNSDocumentScannerImpl} does at the root
+	 * element.
+	 */
+	private void reconfigurePipeline() {
+		if (dtdValidator == null || documentHandler != dtdValidator || dtdValidator.hasGrammar()) {
+			return;
+		}
+		XMLDocumentHandler handler = dtdValidator.getDocumentHandler();
+		documentHandler = handler;
+		if (handler != null) {
+			handler.setDocumentSource(this);
+		}
+		dtdValidator.setDocumentSource(null);
+		dtdValidator.setDocumentHandler(null);
+	}
+
+	private boolean scanXMLDecl(DOMProcessingInstruction prolog) {
+		int end = prolog.getEnd();
+		if (!prolog.isClosed() || end > text.length()) {
+			return false;
+		}
+		Matcher matcher = XML_DECL.matcher(text).region(0, end);
+		if (!matcher.matches()) {
+			return false;
+		}
+		offset = end;
+		if (documentHandler != null) {
+			String version = getGroup(matcher, 1);
+			String encoding = getGroup(matcher, 3);
+			String standalone = getGroup(matcher, 5);
+			documentHandler.xmlDecl(version, encoding, standalone, null);
+		}
+		return true;
+	}
+
+	private static String getGroup(Matcher matcher, int group) {
+		// the value is declared with double or single quotes
+		String value = matcher.group(group);
+		return value != null ? value : matcher.group(group + 1);
+	}
+
+	/**
+	 * Emit the events of the given root element and its content by walking the
+	 * elements with a stack of the open elements.
+	 *
+	 * @param root the root element.
+	 * @return false if an element is not well-formed and true otherwise.
+	 */
+	private boolean scanElement(DOMElement root) {
+		Deque<ElementContent> openElements = new ArrayDeque<>();
+		if (!scanStartTag(root, openElements)) {
+			return false;
+		}
+		while (!openElements.isEmpty()) {
+			ElementContent content = openElements.peek();
+			if (!content.children.hasNext()) {
+				openElements.pop();
+				if (!scanEndTag(content)) {
+					return false;
+				}
+				continue;
+			}
+			DOMNode child = content.children.next();
+			if (child.isText()) {
+				// the text content is emitted with the text of the document
+				continue;
+			}
+			if (!scanCharacters(content.contentStart, child.getStart())) {
+				return false;
+			}
+			content.contentStart = child.getEnd();
+			switch (child.getNodeType()) {
+			case DOMNode.ELEMENT_NODE:
+				if (!scanStartTag((DOMElement) child, openElements)) {
+					return false;
+				}
+				break;
+			case DOMNode.COMMENT_NODE:
+				if (!scanComment(child)) {
+					return false;
+				}
+				break;
+			case DOMNode.CDATA_SECTION_NODE:
+				if (!scanCDATASection(child)) {
+					return false;
+				}
+				break;
+			case DOMNode.PROCESSING_INSTRUCTION_NODE:
+				DOMProcessingInstruction processingInstruction = (DOMProcessingInstruction) child;
+				if (processingInstruction.isProlog() || !scanProcessingInstruction(processingInstruction)) {
+					return false;
+				}
+				break;
+			default:
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Emit the start tag of the given element (or the empty element if it is self
+	 * closed) and push the content of the element in the given open elements if
+	 * it has an end tag.
+	 *
+	 * @param element      the element.
+	 * @param openElements the content of the open elements.
+	 * @return false if the element is not well-formed and true otherwise.
+	 */
+	private boolean scanStartTag(DOMElement element, Deque<ElementContent> openElements) {
+		String tagName = element.getTagName();
+		int start = element.getStart();
+		if (tagName == null || !element.hasStartTag() || element.getStartTagOpenOffset() != start
+				|| !StringUtils.startsWith(text, tagName, start + 1)) {
+			return false;
+		}
+		boolean selfClosed = element.isSelfClosed();
+		int startTagEnd;
+		if (selfClosed) {
+			startTagEnd = element.getEnd() - 2;
+			if (startTagEnd < start || !StringUtils.startsWith(text, "/>", startTagEnd)) {
+				return false;
+			}
+		} else {
+			startTagEnd = element.getStartTagCloseOffset();
+			if (!element.isStartTagClosed() || startTagEnd >= text.length() || text.charAt(startTagEnd) != '>') {
+				return false;
+			}
+		}
+		QName elementName = createQName(tagName);
+		if (elementName == null) {
+			return false;
+		}
+
+		// Attributes
+		namespaceContext.pushContext();
+		attributes.removeAllAttributes();
+		int attrStart = start + 1 + tagName.length();
+		if (element.hasAttributes()) {
+			for (DOMAttr attr : element.getAttributeNodes()) {
+				attrStart = scanAttribute(attr, attrStart);
+				if (attrStart == -1) {
+					return false;
+				}
+			}
+		}
+		if (!isWhitespace(attrStart, startTagEnd) || !bindNamespaces(elementName)) {
+			return false;
+		}
+
+		if (selfClosed) {
+			offset = startTagEnd + 2;
+			if (documentHandler != null) {
+				documentHandler.emptyElement(elementName, attributes, null);
+			}
+			namespaceContext.popContext();
+			return true;
+		}
+
+		// End tag
+		int endTagOpen = element.getEndTagOpenOffset();
+		int endTagClose = element.getEndTagCloseOffset();
+		if (!element.hasEndTag() || !element.isEndTagClosed() || element.getEnd() != endTagClose + 1
+				|| !StringUtils.startsWith(text, "</", endTagOpen)
+				|| !StringUtils.startsWith(text, tagName, endTagOpen + 2)
+				|| !isWhitespace(endTagOpen + 2 + tagName.length(), endTagClose)
+				|| text.charAt(endTagClose) != '>') {
+			return false;
+		}
+		offset = startTagEnd + 1;
+		if (documentHandler != null) {
+			documentHandler.startElement(elementName, attributes, null);
+		}
+		openElements.push(new ElementContent(elementName, element.getChildren().iterator(), startTagEnd + 1,
+				endTagOpen, endTagClose));
+		return true;
+	}
+
+	/**
+	 * Emit the characters which follow the last child of the given element
+	 * content and the end tag of the element.
+	 *
+	 * @param content the element content.
+	 * @return false if the characters are not well-formed and true otherwise.
+	 */
+	private boolean scanEndTag(ElementContent content) {
+		if (!scanCharacters(content.contentStart, content.endTagOpen)) {
+			return false;
+		}
+		offset = content.endTagClose + 1;
+		if (documentHandler != null) {
+			documentHandler.endElement(content.elementName, null);
+		}
+		namespaceContext.popContext();
+		return true;
+	}
+
+	/**
+	 * Add the given attribute in the attributes of the current element and
+	 * returns the offset after the attribute value and -1 if the attribute is not
+	 * well-formed.
+	 *
+	 * @param attr      the DOM attribute.
+	 * @param attrStart the offset after the previous attribute.
+	 * @return the offset after the attribute value and -1 if the attribute is not
+	 *         well-formed.
+	 */
+	private int scanAttribute(DOMAttr attr, int attrStart) {
+		DOMNode nameNode = attr.getNodeAttrName();
+		DOMNode valueNode = attr.getNodeAttrValue();
+		if (nameNode == null || valueNode == null || !attr.hasDelimiter()) {
+			return -1;
+		}
+		int nameStart = nameNode.getStart();
+		int valueStart = valueNode.getStart();
+		int valueEnd = valueNode.getEnd();
+		// a whitespace is required between the attributes
+		if (nameStart == attrStart || !isWhitespace(attrStart, nameStart)) {
+			return -1;
+		}
+		String name = attr.getName();
+		if (name == null || !StringUtils.startsWith(text, name, nameStart)
+				|| nameStart + name.length() != nameNode.getEnd()) {
+			return -1;
+		}
+		if (!isEq(nameNode.getEnd(), valueStart) || valueEnd - valueStart < 2 || valueEnd > text.length()) {
+			return -1;
+		}
+		char quote = text.charAt(valueStart);
+		if ((quote != '"' && quote != '\'') || text.charAt(valueEnd - 1) != quote) {
+			return -1;
+		}
+		QName attrName = createQName(name);
+		if (attrName == null) {
+			return -1;
+		}
+		buffer.clear();
+		if (!appendCharacterData(valueStart + 1, valueEnd - 1, true)) {
+			return -1;
+		}
+		int length = attributes.getLength();
+		int index = attributes.addAttribute(attrName, XMLSymbols.fCDATASymbol, buffer.toString());
+		if (attributes.getLength() == length) {
+			// the attribute is not unique
+			return -1;
+		}
+		attributes.setNonNormalizedValue(index, text.subSequence(valueStart + 1, valueEnd - 1).toString());
+		attributes.setSpecified(index, true);
+
+		// Namespace declaration
+		String prefix = attrName.prefix != null ? attrName.prefix : XMLSymbols.EMPTY_STRING;
+		String localpart = attrName.localpart;
+		if (prefix == XMLSymbols.PREFIX_XMLNS
+				|| (prefix == XMLSymbols.EMPTY_STRING && localpart == XMLSymbols.PREFIX_XMLNS)) {
+			String uri = symbolTable.addSymbol(attributes.getValue(index));
+			if ((prefix == XMLSymbols.PREFIX_XMLNS && localpart == XMLSymbols.PREFIX_XMLNS)
+					|| uri == NamespaceContext.XMLNS_URI) {
+				// "xmlns" can't be bound to any namespace
+				return -1;
+			}
+			if (localpart == XMLSymbols.PREFIX_XML ? uri != NamespaceContext.XML_URI
+					: uri == NamespaceContext.XML_URI) {
+				// "xml" can't be bound to any other namespace than its own
+				return -1;
+			}
+			if (uri == XMLSymbols.EMPTY_STRING && localpart != XMLSymbols.PREFIX_XMLNS) {
+				// xmlns:prefix=""
+				return -1;
+			}
+			namespaceContext.declarePrefix(localpart != XMLSymbols.PREFIX_XMLNS ? localpart : XMLSymbols.EMPTY_STRING,
+					uri.length() != 0 ? uri : null);
+			attributes.setURI(index, NamespaceContext.XMLNS_URI);
+		}
+		return valueEnd;
+	}
+
+	/**
+	 * Bind the given element and the attributes of the current element to their
+	 * namespaces and returns false if a prefix is not bound or if an attribute is
+	 * not unique.
+	 *
+	 * @param elementName the element name.
+	 * @return false if a prefix is not bound or if an attribute is not unique and
+	 *         true otherwise.
+	 */
+	private boolean bindNamespaces(QName elementName) {
+		if (elementName.prefix == XMLSymbols.PREFIX_XMLNS) {
+			return false;
+		}
+		String prefix = elementName.prefix != null ? elementName.prefix : XMLSymbols.EMPTY_STRING;
+		elementName.uri = namespaceContext.getURI(prefix);
+		if (elementName.prefix == null && elementName.uri != null) {
+			elementName.prefix = XMLSymbols.EMPTY_STRING;
+		}
+		if (elementName.prefix != null && elementName.uri == null) {
+			return false;
+		}
+		int length = attributes.getLength();
+		for (int i = 0; i < length; i++) {
+			String attrPrefix = attributes.getPrefix(i);
+			if (attrPrefix == null || attrPrefix == XMLSymbols.EMPTY_STRING
+					|| attributes.getURI(i) == NamespaceContext.XMLNS_URI) {
+				continue;
+			}
+			String uri = namespaceContext.getURI(attrPrefix);
+			if (uri == null) {
+				return false;
+			}
+			attributes.setURI(i, uri);
+		}
+		return length < 2 || attributes.checkDuplicatesNS() == null;
+	}
+
+	private boolean scanCharacters(int start, int end) {
+		if (start > end) {
+			return false;
+		}
+		if (start == end) {
+			return true;
+		}
+		buffer.clear();
+		if (!appendCharacterData(start, end, false)) {
+			return false;
+		}
+		offset = end;
+		if (documentHandler != null) {
+			documentHandler.characters(buffer, null);
+		}
+		return true;
+	}
+
+	private boolean scanComment(DOMNode comment) {
+		int start = comment.getStart();
+		int end = comment.getEnd();
+		if (!comment.isClosed() || end - start < 7 || end > text.length()
+				|| !StringUtils.startsWith(text, "<!--", start) || !StringUtils.startsWith(text, "-->", end - 3)) {
+			return false;
+		}
+		// '--' is not allowed in the comment (the comment cannot end with '-')
+		if (StringUtils.indexOf(text, "--", start + 4) < end - 3) {
+			return false;
+		}
+		buffer.clear();
+		if (!appendText(start + 4, end - 3)) {
+			return false;
+		}
+		offset = end;
+		if (documentHandler != null) {
+			documentHandler.comment(buffer, null);
+		}
+		return true;
+	}
+
+	private boolean scanCDATASection(DOMNode cdata) {
+		int start = cdata.getStart();
+		int end = cdata.getEnd();
+		if (!cdata.isClosed() || end - start < 12 || end > text.length()
+				|| !StringUtils.startsWith(text, "<![CDATA[", start)
+				|| StringUtils.indexOf(text, "]]>", start + 9) != end - 3) {
+			return false;
+		}
+		buffer.clear();
+		if (!appendText(start + 9, end - 3)) {
+			return false;
+		}
+		if (documentHandler != null) {
+			offset = start + 9;
+			documentHandler.startCDATA(null);
+			offset = end - 3;
+			documentHandler.characters(buffer, null);
+			offset = end;
+			documentHandler.endCDATA(null);
+		}
+		offset = end;
+		return true;
+	}
+
+	private boolean scanProcessingInstruction(DOMProcessingInstruction processingInstruction) {
+		String target = processingInstruction.getTarget();
+		int start = processingInstruction.getStart();
+		int end = processingInstruction.getEnd();
+		if (target == null || !processingInstruction.isClosed() || end > text.length()
+				|| !StringUtils.startsWith(text, "<?", start) || !StringUtils.startsWith(text, target, start + 2)
+				|| !StringUtils.startsWith(text, "?>", end - 2)) {
+			return false;
+		}
+		// the target cannot be 'xml' and cannot contain ':' when namespaces are
+		// enabled
+		if (!XMLChar.isValidNCName(target) || target.equalsIgnoreCase("xml")) {
+			return false;
+		}
+		int dataStart = start + 2 + target.length();
+		int dataEnd = end - 2;
+		if (dataStart > dataEnd) {
+			return false;
+		}
+		if (dataStart < dataEnd) {
+			// a whitespace is required between the target and the data
+			if (!isWhitespace(text.charAt(dataStart))) {
+				return false;
+			}
+			while (dataStart < dataEnd && isWhitespace(text.charAt(dataStart))) {
+				dataStart++;
+			}
+		}
+		buffer.clear();
+		if (!appendText(dataStart, dataEnd)) {
+			return false;
+		}
+		offset = end;
+		if (documentHandler != null) {
+			documentHandler.processingInstruction(symbolTable.addSymbol(target), buffer, null);
+		}
+		return true;
+	}
+
+	/**
+	 * Create the QName of the given element or attribute name and null if the
+	 * name is not a valid qualified name.
+	 *
+	 * @param rawname the element or attribute name.
+	 * @return the QName of the given element or attribute name and null if the
+	 *         name is not a valid qualified name.
+	 */
+	private QName createQName(String rawname) {
+		int colon = rawname.indexOf(':');
+		String prefix = null;
+		String localpart = rawname;
+		if (colon != -1) {
+			prefix = rawname.substring(0, colon);
+			localpart = rawname.substring(colon + 1);
+			if (!XMLChar.isValidNCName(prefix)) {
+				return null;
+			}
+		}
+		if (!XMLChar.isValidNCName(localpart)) {
+			return null;
+		}
+		return new QName(prefix != null ? symbolTable.addSymbol(prefix) : null, symbolTable.addSymbol(localpart),
+				symbolTable.addSymbol(rawname), null);
+	}
+
+	/**
+	 * Append the character data (text content or attribute value) of the given
+	 * range in the buffer by normalizing the line endings, by replacing the
+	 * references and by normalizing the whitespaces of the attribute value.
+	 *
+	 * @param start     the start offset.
+	 * @param end       the end offset.
+	 * @param attribute true if the character data is an attribute value.
+	 * @return false if the character data is not well-formed and true otherwise.
+	 */
+	private boolean appendCharacterData(int start, int end, boolean attribute) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '<':
+				return false;
+			case '&':
+				int semicolon = StringUtils.indexOf(text, ';', i + 1);
+				if (semicolon == -1 || semicolon >= end || !appendReference(i + 1, semicolon)) {
+					return false;
+				}
+				i = semicolon;
+				continue;
+			case ']':
+				if (!attribute && i + 3 <= end && StringUtils.startsWith(text, "]]>", i)) {
+					return false;
+				}
+				break;
+			case '\r':
+				if (i + 1 < end && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				c = '\n';
+				break;
+			}
+			if (attribute && isWhitespace(c)) {
+				c = ' ';
+			}
+			i = appendChar(c, i, end);
+			if (i == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Append the text (comment, CDATA section and processing instruction data) of
+	 * the given range in the buffer by normalizing the line endings.
+	 *
+	 * @param start the start offset.
+	 * @param end   the end offset.
+	 * @return false if the text contains an invalid character and true otherwise.
+	 */
+	private boolean appendText(int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == '\r') {
+				if (i + 1 < end && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				c = '\n';
+			}
+			i = appendChar(c, i, end);
+			if (i == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Append the given character (and the low surrogate which follows it) in the
+	 * buffer and returns the offset of the last appended character and -1 if the
+	 * character is not a valid XML character.
+	 */
+	private int appendChar(char c, int i, int end) {
+		if (XMLChar.isHighSurrogate(c)) {
+			if (i + 1 >= end || !XMLChar.isLowSurrogate(text.charAt(i + 1))) {
+				return -1;
+			}
+			buffer.append(c);
+			buffer.append(text.charAt(++i));
+			return i;
+		}
+		if (!XMLChar.isValid(c)) {
+			return -1;
+		}
+		buffer.append(c);
+		return i;
+	}
+
+	/**
+	 * Append the character of the reference declared in the given range (between
+	 * '&amp;' and ';') in the buffer.
+	 *
+	 * @param start the start offset of the reference name.
+	 * @param end   the offset of ';'.
+	 * @return false if the reference is not a character reference or a predefined
+	 *         entity and true otherwise.
+	 */
+	private boolean appendReference(int start, int end) {
+		if (start < end && text.charAt(start) == '#') {
+			int radix = 10;
+			int digitsStart = start + 1;
+			if (digitsStart < end && text.charAt(digitsStart) == 'x') {
+				radix = 16;
+				digitsStart++;
+			}
+			if (digitsStart == end || end - digitsStart > 8) {
+				return false;
+			}
+			int value = 0;
+			for (int i = digitsStart; i < end; i++) {
+				int digit = Character.digit(text.charAt(i), radix);
+				if (digit == -1) {
+					return false;
+				}
+				value = value * radix + digit;
+			}
+			if (!XMLChar.isValid(value)) {
+				return false;
+			}
+			if (XMLChar.isSupplemental(value)) {
+				buffer.append(XMLChar.highSurrogate(value));
+				buffer.append(XMLChar.lowSurrogate(value));
+			} else {
+				buffer.append((char) value);
+			}
+			return true;
+		}
+		switch (text.subSequence(start, end).toString()) {
+		case "lt":
+			buffer.append('<');
+			return true;
+		case "gt":
+			buffer.append('>');
+			return true;
+		case "amp":
+			buffer.append('&');
+			return true;
+		case "apos":
+			buffer.append('\'');
+			return true;
+		case "quot":
+			buffer.append('"');
+			return true;
+		default:
+			// the entity is not declared (the document has no DOCTYPE)
+			return false;
+		}
+	}
+
+	private boolean isEq(int start, int end) {
+		int i = start;
+		while (i < end && isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		return i < end && text.charAt(i) == '=' && isWhitespace(i + 1, end);
+	}
+
+	private boolean isWhitespace(int start, int end) {
+		if (start > end || end > text.length()) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (!isWhitespace(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	/**
+	 * The content of an open element : the children which are not walked yet and
+	 * the offsets of its end tag.
+	 */
+	private static class ElementContent {
+
+		final QName elementName;
+		final Iterator<DOMNode> children;
+		final int endTagOpen;
+		final int endTagClose;
+		// the offset after the last walked child
+		int contentStart;
+
+		ElementContent(QName elementName, Iterator<DOMNode> children, int contentStart, int endTagOpen,
+				int endTagClose) {
+			this.elementName = elementName;
+			this.children = children;
+			this.contentStart = contentStart;
+			this.endTagOpen = endTagOpen;
+			this.endTagClose = endTagClose;
+		}
+	}
+
+	// ------------------ XMLDocumentSource
+
+	@Override
+	public void setDocumentHandler(XMLDocumentHandler documentHandler) {
+		this.documentHandler = documentHandler;
+	}
+
+	@Override
+	public XMLDocumentHandler getDocumentHandler() {
+		return documentHandler;
+	}
+
+	// ------------------ XMLLocator
+
+	@Override
+	public String getPublicId() {
+		return null;
+	}
+
+	@Override
+	public String getLiteralSystemId() {
+		return document.getDocumentURI();
+	}
+
+	@Override
+	public String getBaseSystemId() {
+		// the base system ID of the document entity is its expanded system ID
+		return getExpandedSystemId();
+	}
+
+	@Override
+	public String getExpandedSystemId() {
+		if (expandedSystemId == null) {
+			String uri = document.getDocumentURI();
+			try {
+				expandedSystemId = XMLEntityManager.expandSystemId(uri, null, false);
+			} catch (Exception e) {
+				expandedSystemId = uri;
+			}
+		}
+		return expandedSystemId;
+	}
+
+	@Override
+	public int getLineNumber() {
+		Position position = getPosition();
+		return position != null ? position.getLine() + 1 : -1;
+	}
+
+	@Override
+	public int getColumnNumber() {
+		Position position = getPosition();
+		return position != null ? position.getCharacter() + 1 : -1;
+	}
+
+	@Override
+	public int getCharacterOffset() {
+		return offset;
+	}
+
+	@Override
+	public String getEncoding() {
+		return null;
+	}
+
+	@Override
+	public String getXMLVersion() {
+		return XML_VERSION;
+	}
+
+	private Position getPosition() {
+		// Xerces asks the line and the column of the same offset
+		if (positionOffset != offset) {
+			try {
+				position = document.positionAt(offset);
+			} catch (BadLocationException e) {
+				position = null;
+			}
+			positionOffset = offset;
+		}
+		return position;
+	}
+}
@@ -11,6 +11,7 @@
 *******************************************************************************/
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -35,9 +36,12 @@ import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMDocumentType;
 import org.eclipse.lemminx.extensions.contentmodel.participants.DTDErrorCode;
+import org.eclipse.lemminx.uriresolver.IExternalGrammarLocationProvider;
 import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
 import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
+import org.xml.sax.SAXException;
 import org.xml.sax.SAXNotRecognizedException;
 import org.xml.sax.SAXNotSupportedException;
 
@@ -64,11 +68,11 @@ public class LSPSAXParser extends SAXParser {
 
 	protected static final String ENTITY_MANAGER = Constants.XERCES_PROPERTY_PREFIX + Constants.ENTITY_MANAGER_PROPERTY;
 
-	private final DOMDocument document;
+	private DOMDocument document;
 
-	private final LSPErrorReporterForXML reporter;
+	private LSPErrorReporterForXML reporter;
 
-	private final XMLGrammarPool grammarPool;
+	private XMLGrammarPool grammarPool;
 
 	public LSPSAXParser(DOMDocument document, LSPErrorReporterForXML reporter, XMLParserConfiguration config,
 			XMLGrammarPool grammarPool) {
@@ -79,6 +83,47 @@ public class LSPSAXParser extends SAXParser {
 		init(reporter);
 	}
 
+	/**
+	 * Reuse the parser to validate the given DOM document.
+	 *
+	 * @param document    the DOM document to validate.
+	 * @param reporter    the reporter for the DOM document.
+	 * @param grammarPool the grammar pool.
+	 */
+	void reuse(DOMDocument document, LSPErrorReporterForXML reporter, XMLGrammarPool grammarPool) {
+		this.document = document;
+		this.reporter = reporter;
+		this.grammarPool = grammarPool;
+		init(reporter);
+	}
+
+	/**
+	 * Release the state of the last validated DOM document to not retain it while
+	 * the parser is not used.
+	 */
+	void release() {
+		this.document = null;
+		this.reporter = null;
+		this.locator = null;
+		setContentHandler(null);
+		try {
+			super.setProperty(IExternalGrammarLocationProvider.NO_NAMESPACE_SCHEMA_LOCATION, null);
+			super.setProperty(IExternalGrammarLocationProvider.SCHEMA_LOCATION, null);
+			super.setProperty(IExternalGrammarLocationProvider.DOCTYPE, null);
+		} catch (SAXNotRecognizedException | SAXNotSupportedException e) {
+			// Should never occur.
+		}
+	}
+
+	/**
+	 * Returns the parser configuration.
+	 *
+	 * @return the parser configuration.
+	 */
+	XMLParserConfiguration getConfiguration() {
+		return fConfiguration;
+	}
+
 	private void init(LSPErrorReporterForXML reporter) {
 		try {
 			// Add LSP error reporter to fill LSP diagnostics from Xerces errors
@@ -92,6 +137,38 @@ public class LSPSAXParser extends SAXParser {
 		}
 	}
 
+	/**
+	 * Parse the given DOM document by emitting the XNI events of the DOM nodes
+	 * instead of scanning the text of the document.
+	 *
+	 * @param document the DOM document.
+	 * @return true if the DOM document has been parsed and false if the DOM
+	 *         document is not well-formed (or has been updated while parsing)
+	 *         and its text must be parsed.
+	 * @throws SAXException
+	 * @throws IOException
+	 * @see DOMDocumentScanner#canScan(DOMDocument)
+	 */
+	public boolean parse(DOMDocument document) throws SAXException, IOException {
+		if (!(fConfiguration instanceof LSPXMLParserConfiguration)) {
+			throw new SAXNotSupportedException("The parser configuration cannot parse a DOM document.");
+		}
+		try {
+			reset();
+			return ((LSPXMLParserConfiguration) fConfiguration).parse(document);
+		} catch (XNIException e) {
+			// Unwrap the exception like AbstractSAXParser#parse does
+			Exception ex = e.getException();
+			if (ex instanceof SAXException) {
+				throw (SAXException) ex;
+			}
+			if (ex instanceof IOException) {
+				throw (IOException) ex;
+			}
+			throw ex != null ? new SAXException(ex) : new SAXException(e.getMessage());
+		}
+	}
+
 	private XMLLocator locator;
 
 	@Override
@@ -119,8 +196,9 @@ public class LSPSAXParser extends SAXParser {
 				try {
 					// Report the error
 					DOMDocumentType docType = document.getDoctype();
-					Range range = new Range(document.positionAt(docType.getSystemIdNode().getStart()),
-							document.positionAt(docType.getSystemIdNode().getEnd()));
+					Position[] positions = document.positionsAt(docType.getSystemIdNode().getStart(),
+							docType.getSystemIdNode().getEnd());
+					Range range = new Range(positions[0], positions[1]);
 					reporter.addDiagnostic(range, MessageFormat.format(DTD_NOT_FOUND, expandedSystemId),
 							DiagnosticSeverity.Error, DTDErrorCode.dtd_not_found.getCode(), null);
 				} catch (BadLocationException e) {
@@ -0,0 +1,102 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.apache.xerces.xni.parser.XMLEntityResolver;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+
+/**
+ * Bounded pool of {@link LSPSAXParser} used to validate the XML documents.
+ *
+ * <p>
+ * Creating a Xerces parser configuration is expensive (symbol table, entity
+ * manager, scanners, validators, etc). The parsers are reused between the
+ * validations: only the state of the validated document (DOM document, LSP
+ * reporters, grammar pool, entity resolver) is set before the validation,
+ * the Xerces components are reset at the start of the parse. The parsers are
+ * pooled by the validation settings which are applied when the configuration
+ * is created (see {@link LSPXMLParserConfiguration#getSettingsKey()}).
+ * </p>
+ *
+ */
+class LSPSAXParserPool {
+
+	private static final int MAX_IDLE_PARSERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private final Map<Integer, Deque<LSPSAXParser>> idleParsers;
+
+	public LSPSAXParserPool() {
+		this.idleParsers = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns a parser (an idle parser of the pool or a new parser) to validate the
+	 * given DOM document. The parser must be released with
+	 * {@link #release(LSPSAXParser)} after the validation.
+	 *
+	 * @param document             the DOM document to validate.
+	 * @param reporterForXML       the reporter for the XML document.
+	 * @param reporterForGrammar   the reporter for the grammars.
+	 * @param grammarPool          the grammar pool.
+	 * @param entityResolver       the entity resolver and null otherwise.
+	 * @param disableDTDValidation true if only DTD validation must be disabled.
+	 * @param validationSettings   the validation settings.
+	 * @return a parser to validate the given DOM document.
+	 */
+	public LSPSAXParser acquire(DOMDocument document, LSPErrorReporterForXML reporterForXML,
+			LSPErrorReporterForXML reporterForGrammar, XMLGrammarPool grammarPool, XMLEntityResolver entityResolver,
+			boolean disableDTDValidation, XMLValidationSettings validationSettings) {
+		int settingsKey = LSPXMLParserConfiguration.getSettingsKey(validationSettings);
+		Deque<LSPSAXParser> parsers = idleParsers.get(settingsKey);
+		LSPSAXParser parser = parsers != null ? parsers.pollFirst() : null;
+		if (parser == null) {
+			LSPXMLParserConfiguration configuration = new LSPXMLParserConfiguration(grammarPool, disableDTDValidation,
+					reporterForXML, reporterForGrammar, validationSettings);
+			if (entityResolver != null) {
+				configuration.setProperty("http://apache.org/xml/properties/internal/entity-resolver", entityResolver); //$NON-NLS-1$
+			}
+			return new LSPSAXParser(document, reporterForXML, configuration, grammarPool);
+		}
+		LSPXMLParserConfiguration configuration = (LSPXMLParserConfiguration) parser.getConfiguration();
+		if (!configuration.reuse(grammarPool, disableDTDValidation, reporterForXML, reporterForGrammar,
+				entityResolver)) {
+			// the parser cannot be reused, drop it
+			return acquire(document, reporterForXML, reporterForGrammar, grammarPool, entityResolver,
+					disableDTDValidation, validationSettings);
+		}
+		parser.reuse(document, reporterForXML, grammarPool);
+		return parser;
+	}
+
+	/**
+	 * Release the given parser after a validation to reuse it for the next
+	 * validations.
+	 *
+	 * @param parser the parser to release.
+	 */
+	public void release(LSPSAXParser parser) {
+		parser.release();
+		LSPXMLParserConfiguration configuration = (LSPXMLParserConfiguration) parser.getConfiguration();
+		Deque<LSPSAXParser> parsers = idleParsers.computeIfAbsent(configuration.getSettingsKey(),
+				k -> new ConcurrentLinkedDeque<>());
+		if (parsers.size() < MAX_IDLE_PARSERS) {
+			parsers.offerFirst(parser);
+		}
+	}
+}
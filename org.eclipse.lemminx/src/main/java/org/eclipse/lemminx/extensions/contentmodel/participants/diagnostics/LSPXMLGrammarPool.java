@@ -16,26 +16,57 @@
  */
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import org.apache.xerces.impl.dtd.DTDGrammar;
 import org.apache.xerces.impl.xs.SchemaGrammar;
+import org.apache.xerces.parsers.XMLGrammarPreparser;
+import org.apache.xerces.util.XMLGrammarPoolImpl;
+import org.apache.xerces.util.XMLResourceIdentifierImpl;
+import org.apache.xerces.xni.XNIException;
 import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.grammars.XMLGrammarDescription;
 import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.apache.xerces.xni.parser.XMLEntityResolver;
+import org.apache.xerces.xni.parser.XMLErrorHandler;
+import org.apache.xerces.xni.parser.XMLInputSource;
+import org.apache.xerces.xni.parser.XMLParseException;
 import org.eclipse.lemminx.extensions.contentmodel.model.FilesChangedTracker;
 import org.eclipse.lemminx.extensions.dtd.utils.DTDUtils;
 import org.eclipse.lemminx.extensions.xsd.utils.XSDUtils;
 
-import com.google.common.base.Objects;
-
 /**
  * LSP XML grammar pool.
  * 
  * <p>
- * This class is a copy/paste of
+ * This class is based on
  * {@link org.apache.xerces.util.XMLGrammarPoolImpl.XMLGrammarPoolImpl} from
  * Xerces adapated to use .lemminx cache.
  * </p>
  * 
+ * <p>
+ * The grammars are stored in a concurrent map keyed by the expanded system id
+ * of the grammar description, so the grammars are retrieved without lock by the
+ * parallel validations. The files of a grammar (root + included + imported) are
+ * not checked on each retrieval:
+ * <ul>
+ * <li>a grammar is dirty when one of its files is notified as changed (see
+ * {@link #fileChanged(String)}).</li>
+ * <li>the last modification time of the files is checked at most once per
+ * {@link #FILES_CHECK_INTERVAL} to track the files which are changed outside
+ * of the editor.</li>
+ * </ul>
+ * </p>
+ * 
  * @author Jeffrey Rodriguez, IBM
  * @author Andy Clark, IBM
  * @author Neil Graham, IBM
@@ -47,17 +78,25 @@ import com.google.common.base.Objects;
  */
 public class LSPXMLGrammarPool implements XMLGrammarPool {
 
-	private static final int TABLE_SIZE = 11;
+	private static final Logger LOGGER = Logger.getLogger(LSPXMLGrammarPool.class.getName());
+
+	/**
+	 * The minimum delay in milliseconds between two checks of the last
+	 * modification time of the grammar files.
+	 */
+	public static final long FILES_CHECK_INTERVAL = 1000;
+
+	private static final int INITIAL_CAPACITY = 16;
 
 	/** Grammars. */
-	private final Entry[] fGrammars;
+	private final Map<String, PoolEntry> fGrammars;
 
 	public LSPXMLGrammarPool() {
-		this(TABLE_SIZE);
+		this(INITIAL_CAPACITY);
 	}
 
 	public LSPXMLGrammarPool(int initialCapacity) {
-		fGrammars = new Entry[initialCapacity];
+		fGrammars = new ConcurrentHashMap<>(initialCapacity);
 	}
 
 	@Override
@@ -82,86 +121,149 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	}
 
 	private void putGrammar(Grammar grammar) {
-		synchronized (fGrammars) {
-			XMLGrammarDescription desc = grammar.getGrammarDescription();
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index]; entry != null; entry = entry.next) {
-				if (entry.hash == hash && equals(entry.desc, desc)) {
-					entry.grammar = grammar;
-					return;
-				}
-			}
-			// create a new entry
-			Entry entry = new Entry(hash, desc, grammar, fGrammars[index]);
-			fGrammars[index] = entry;
+		XMLGrammarDescription desc = grammar.getGrammarDescription();
+		String systemId = desc.getExpandedSystemId();
+		if (systemId == null) {
+			// the grammar cannot be retrieved without expanded system id
+			return;
 		}
+		fGrammars.put(systemId, new PoolEntry(grammar));
 	}
 
 	/**
-	 * Returns the grammar associated to the specified grammar description.
-	 * Currently, the root element name is used as the key for DTD grammars and the
-	 * target namespace is used as the key for Schema grammars.
+	 * Returns the grammar associated to the specified grammar description. The
+	 * expanded system id is used as the key for DTD and Schema grammars.
 	 *
 	 * @param desc The Grammar Description.
 	 */
 	private Grammar getGrammar(XMLGrammarDescription desc) {
-		synchronized (fGrammars) {
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index]; entry != null; entry = entry.next) {
-				if ((entry.hash == hash) && equals(entry.desc, desc)) {
-					if (entry.isDirty()) {
-						removeGrammar(entry.desc);
-						return null;
-					}
-					return entry.grammar;
-				}
-			}
+		return retrieveGrammar(desc.getExpandedSystemId());
+	}
+
+	/**
+	 * Returns the grammar associated to the given expanded system id and null
+	 * otherwise.
+	 * 
+	 * @param systemId the expanded system id of the grammar.
+	 * @return the grammar associated to the given expanded system id and null
+	 *         otherwise.
+	 */
+	public Grammar retrieveGrammar(String systemId) {
+		if (systemId == null) {
+			return null;
+		}
+		PoolEntry entry = fGrammars.get(systemId);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isDirty()) {
+			fGrammars.remove(systemId, entry);
 			return null;
 		}
+		return entry.grammar;
 	}
 
 	/**
-	 * Removes the grammar associated to the specified grammar description from the
-	 * grammar pool and returns the removed grammar. Currently, the root element
-	 * name is used as the key for DTD grammars and the target namespace is used as
-	 * the key for Schema grammars.
-	 *
-	 * @param desc The Grammar Description.
-	 * @return The removed grammar.
+	 * Compile the XML Schema of the given expanded system id and store its
+	 * grammars (root + included + imported) in the pool to avoid compiling it on
+	 * the first validation which uses it. The grammars are not stored when the
+	 * XML Schema has errors, to report them with the validation.
+	 * 
+	 * @param systemId       the expanded system id of the XML Schema.
+	 * @param entityResolver the entity resolver used to load the XML Schema and
+	 *                       its included and imported XML Schemas.
+	 * @return true if the grammar is in the pool and false otherwise.
 	 */
-	private Grammar removeGrammar(XMLGrammarDescription desc) {
-		synchronized (fGrammars) {
-			int hash = hashCode(desc);
-			int index = (hash & 0x7FFFFFFF) % fGrammars.length;
-			for (Entry entry = fGrammars[index], prev = null; entry != null; prev = entry, entry = entry.next) {
-				if ((entry.hash == hash) && equals(entry.desc, desc)) {
-					if (prev != null) {
-						prev.next = entry.next;
-					} else {
-						fGrammars[index] = entry.next;
-					}
-					Grammar tempGrammar = entry.grammar;
-					entry.grammar = null;
-					return tempGrammar;
-				}
-			}
-			return null;
+	public boolean preloadSchemaGrammar(String systemId, XMLEntityResolver entityResolver) {
+		if (retrieveGrammar(systemId) != null) {
+			return true;
+		}
+		// the XML Schema is compiled with a temporary pool to store the grammars only
+		// if they have no error
+		XMLGrammarPoolImpl loadedGrammars = new XMLGrammarPoolImpl();
+		GrammarErrorHandler errorHandler = new GrammarErrorHandler();
+		XMLGrammarPreparser preparser = new XMLGrammarPreparser();
+		preparser.registerPreparser(XMLGrammarDescription.XML_SCHEMA, null);
+		preparser.setGrammarPool(loadedGrammars);
+		preparser.setEntityResolver(entityResolver);
+		preparser.setErrorHandler(errorHandler);
+		Grammar grammar = null;
+		try {
+			grammar = preparser.preparseGrammar(XMLGrammarDescription.XML_SCHEMA,
+					new XMLInputSource(null, systemId, null));
+		} catch (IOException | XNIException e) {
+			return false;
+		}
+		if (grammar == null || errorHandler.hasError) {
+			return false;
+		}
+		// the expanded system id of the preparsed XML Schema is not set by Xerces (only
+		// the imported XML Schemas have one)
+		XMLGrammarDescription desc = grammar.getGrammarDescription();
+		if (desc.getExpandedSystemId() == null && desc instanceof XMLResourceIdentifierImpl) {
+			((XMLResourceIdentifierImpl) desc).setExpandedSystemId(systemId);
 		}
+		cacheGrammars(XMLGrammarDescription.XML_SCHEMA,
+				loadedGrammars.retrieveInitialGrammarSet(XMLGrammarDescription.XML_SCHEMA));
+		return retrieveGrammar(systemId) != null;
 	}
 
+	/**
+	 * Returns the files (root + included + imported) of the grammar associated to
+	 * the given expanded system id and an empty list otherwise.
+	 * 
+	 * @param systemId the expanded system id of the grammar.
+	 * @return the files (root + included + imported) of the grammar associated to
+	 *         the given expanded system id and an empty list otherwise.
+	 */
+	public List<Path> getGrammarFiles(String systemId) {
+		PoolEntry entry = systemId != null ? fGrammars.get(systemId) : null;
+		if (entry == null || entry.tracker == null) {
+			return Collections.emptyList();
+		}
+		return entry.tracker.getFiles();
+	}
+
+	/**
+	 * Removes the grammar associated to the given grammar URI (expanded system
+	 * id).
+	 * 
+	 * @param grammarURI the grammar URI.
+	 */
 	public void removeGrammar(String grammarURI) {
-		for (Entry entry : fGrammars) {
-			if (entry != null) {
-				if (grammarURI.equals(entry.desc.getExpandedSystemId())) {
-					removeGrammar(entry.desc);
-					return;
-				}
+		fGrammars.remove(grammarURI);
+	}
+
+	/**
+	 * Mark as dirty the grammars which use the given file (as root, included or
+	 * imported grammar).
+	 * 
+	 * @param fileURI the URI of the file which has changed.
+	 */
+	public void fileChanged(String fileURI) {
+		Path file = null;
+		try {
+			file = Paths.get(new URI(fileURI));
+		} catch (Exception e) {
+			LOGGER.log(Level.FINE, "Cannot get the path of '" + fileURI + "'", e);
+			return;
+		}
+		for (PoolEntry entry : fGrammars.values()) {
+			if (entry.tracker != null && entry.tracker.containsFile(file)) {
+				entry.dirty = true;
 			}
 		}
 	}
 
+	/**
+	 * Returns the number of grammars in the pool.
+	 * 
+	 * @return the number of grammars in the pool.
+	 */
+	public int size() {
+		return fGrammars.size();
+	}
+
 	@Override
 	public void lockPool() {
 		// Do nothing
@@ -174,30 +276,27 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 
 	@Override
 	public void clear() {
-		for (int i = 0; i < fGrammars.length; i++) {
-			if (fGrammars[i] != null) {
-				fGrammars[i].clear();
-				fGrammars[i] = null;
-			}
-		}
+		fGrammars.clear();
 	}
 
 	/**
-	 * This method checks whether two grammars are the same. Currently, we compare
-	 * the root element names for DTD grammars and the target namespaces for Schema
-	 * grammars. The application can override this behaviour and add its own logic.
+	 * This method checks whether two grammars are the same. The expanded system
+	 * ids of the grammar descriptions are compared.
 	 *
 	 * @param desc1 The grammar description
 	 * @param desc2 The grammar description of the grammar to be compared to
 	 * @return True if the grammars are equal, otherwise false
+	 * @deprecated the grammars are now stored by expanded system id, this method
+	 *             is no longer used by the pool.
 	 */
+	@Deprecated
 	public boolean equals(XMLGrammarDescription desc1, XMLGrammarDescription desc2) {
 		String systemId1 = desc1.getExpandedSystemId();
 		String systemId2 = desc2.getExpandedSystemId();
 		if (systemId1 != null && systemId2 != null) {
-			return Objects.equal(systemId1, systemId2);
+			return systemId1.equals(systemId2);
 		}
-		return false; // desc1.equals(desc2);
+		return false;
 	}
 
 	/**
@@ -205,7 +304,10 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	 *
 	 * @param desc The grammar description
 	 * @return The hash code value
+	 * @deprecated the grammars are now stored by expanded system id, this method
+	 *             is no longer used by the pool.
 	 */
+	@Deprecated
 	public int hashCode(XMLGrammarDescription desc) {
 		return desc.hashCode();
 	}
@@ -213,20 +315,77 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 	/**
 	 * This class is a grammar pool entry. Each entry acts as a node in a linked
 	 * list.
+	 * 
+	 * @deprecated the pool no longer stores its grammars in a linked list of
+	 *             entries, this class is no longer used.
 	 */
+	@Deprecated
 	protected static final class Entry {
 		public int hash;
 		public XMLGrammarDescription desc;
 		public Grammar grammar;
 		public Entry next;
-		private final FilesChangedTracker tracker;
 
 		protected Entry(int hash, XMLGrammarDescription desc, Grammar grammar, Entry next) {
 			this.hash = hash;
 			this.desc = desc;
 			this.grammar = grammar;
 			this.next = next;
+		}
+
+		// clear this entry; useful to promote garbage collection
+		// since reduces reference count of objects to be destroyed
+		protected void clear() {
+			desc = null;
+			grammar = null;
+			if (next != null) {
+				next.clear();
+				next = null;
+			}
+		}
+	}
+
+	/**
+	 * Error handler which records if a grammar has errors.
+	 */
+	private static class GrammarErrorHandler implements XMLErrorHandler {
+
+		private boolean hasError;
+
+		@Override
+		public void warning(String domain, String key, XMLParseException exception) throws XNIException {
+			// Do nothing
+		}
+
+		@Override
+		public void error(String domain, String key, XMLParseException exception) throws XNIException {
+			hasError = true;
+		}
+
+		@Override
+		public void fatalError(String domain, String key, XMLParseException exception) throws XNIException {
+			hasError = true;
+		}
+	}
+
+	/**
+	 * This class is a grammar pool entry.
+	 */
+	private static final class PoolEntry {
+
+		private final Grammar grammar;
+		private final FilesChangedTracker tracker;
+
+		// true when one file of the grammar has changed
+		private volatile boolean dirty;
+
+		// the last time the files of the grammar have been checked
+		private volatile long lastCheck;
+
+		private PoolEntry(Grammar grammar) {
+			this.grammar = grammar;
 			this.tracker = create(grammar);
+			this.lastCheck = System.currentTimeMillis();
 		}
 
 		private static FilesChangedTracker create(Grammar grammar) {
@@ -240,18 +399,19 @@ public class LSPXMLGrammarPool implements XMLGrammarPool {
 		}
 
 		public boolean isDirty() {
-			return tracker != null ? tracker.isDirty() : true;
-		}
-
-		// clear this entry; useful to promote garbage collection
-		// since reduces reference count of objects to be destroyed
-		protected void clear() {
-			desc = null;
-			grammar = null;
-			if (next != null) {
-				next.clear();
-				next = null;
+			if (tracker == null || dirty) {
+				return true;
+			}
+			long now = System.currentTimeMillis();
+			if (now - lastCheck >= FILES_CHECK_INTERVAL) {
+				lastCheck = now;
+				synchronized (tracker) {
+					if (tracker.isDirty()) {
+						dirty = true;
+					}
+				}
 			}
+			return dirty;
 		}
 	}
 
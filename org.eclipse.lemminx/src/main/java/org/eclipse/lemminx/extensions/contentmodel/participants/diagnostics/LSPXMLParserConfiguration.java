@@ -11,11 +11,14 @@
 *******************************************************************************/
 package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.xerces.impl.Constants;
 import org.apache.xerces.impl.dtd.XMLDTDValidator;
+import org.apache.xerces.impl.xs.XSDDescription;
 import org.apache.xerces.util.SecurityManager;
 import org.apache.xerces.xni.XMLDocumentHandler;
 import org.apache.xerces.xni.XNIException;
@@ -23,9 +26,13 @@ import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.apache.xerces.xni.parser.XMLComponentManager;
 import org.apache.xerces.xni.parser.XMLConfigurationException;
 import org.apache.xerces.xni.parser.XMLDocumentSource;
+import org.apache.xerces.xni.parser.XMLEntityResolver;
+import org.apache.xerces.xni.parser.XMLInputSource;
+import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.extensions.xerces.AbstractLSPErrorReporter;
 import org.eclipse.lemminx.extensions.xerces.ExternalXMLDTDValidator;
+import org.eclipse.lemminx.extensions.xerces.ReflectionUtils;
 import org.eclipse.lemminx.extensions.xerces.xmlmodel.XMLModelAwareParserConfiguration;
 
 /**
@@ -52,7 +59,11 @@ class LSPXMLParserConfiguration extends XMLModelAwareParserConfiguration {
 	private static final int ENTITY_EXPANSION_LIMIT_DEFAULT_VALUE = 64000;
 	private static final int MAX_OCCUR_LIMIT_DEFAULT_VALUE = 5000;
 
-	private final boolean disableDTDValidation;
+	private static final int DISALLOW_DOCTYPE_DECL = 1;
+	private static final int RESOLVE_EXTERNAL_ENTITIES = 2;
+
+	private final int settingsKey;
+	private boolean disableDTDValidation;
 	private ExternalXMLDTDValidator externalDTDValidator;
 
 	public LSPXMLParserConfiguration(XMLGrammarPool grammarPool, boolean disableDTDValidation,
@@ -60,14 +71,19 @@ class LSPXMLParserConfiguration extends XMLModelAwareParserConfiguration {
 			XMLValidationSettings validationSettings) {
 		super(null, grammarPool, reporterForGrammar);
 		this.disableDTDValidation = disableDTDValidation;
+		this.settingsKey = getSettingsKey(validationSettings);
 		// Disable DOCTYPE declaration if settings is set to true.
-		boolean disallowDocTypeDecl = validationSettings != null ? validationSettings.isDisallowDocTypeDecl() : false;
+		boolean disallowDocTypeDecl = (settingsKey & DISALLOW_DOCTYPE_DECL) != 0;
 		super.setFeature("http://apache.org/xml/features/disallow-doctype-decl", disallowDocTypeDecl);
 		// Resolve external entities if settings is set to true.
-		boolean resolveExternalEntities = validationSettings != null ? validationSettings.isResolveExternalEntities()
-				: false;
+		boolean resolveExternalEntities = (settingsKey & RESOLVE_EXTERNAL_ENTITIES) != 0;
 		super.setFeature("http://xml.org/sax/features/external-general-entities", resolveExternalEntities);
 		super.setFeature("http://xml.org/sax/features/external-parameter-entities", resolveExternalEntities);
+		updateSecurityManager();
+		fErrorReporter = reporterForXML;
+	}
+
+	private void updateSecurityManager() {
 		// Security manager
 		SecurityManager securityManager = new SecurityManager();
 		securityManager.setEntityExpansionLimit(
@@ -75,7 +91,125 @@ class LSPXMLParserConfiguration extends XMLModelAwareParserConfiguration {
 		securityManager
 				.setMaxOccurNodeLimit(getPropertyValue(MAX_OCCUR_LIMIT_PROPERTY_NAME, MAX_OCCUR_LIMIT_DEFAULT_VALUE));
 		super.setProperty(SECURITY_MANAGER, securityManager);
+	}
+
+	/**
+	 * Returns the key of the validation settings which are applied when the
+	 * configuration is created.
+	 *
+	 * @param validationSettings the validation settings.
+	 * @return the key of the validation settings which are applied when the
+	 *         configuration is created.
+	 */
+	static int getSettingsKey(XMLValidationSettings validationSettings) {
+		int key = 0;
+		if (validationSettings != null) {
+			if (validationSettings.isDisallowDocTypeDecl()) {
+				key |= DISALLOW_DOCTYPE_DECL;
+			}
+			if (validationSettings.isResolveExternalEntities()) {
+				key |= RESOLVE_EXTERNAL_ENTITIES;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the key of the validation settings which have been applied when the
+	 * configuration has been created.
+	 *
+	 * @return the key of the validation settings which have been applied when the
+	 *         configuration has been created.
+	 */
+	int getSettingsKey() {
+		return settingsKey;
+	}
+
+	/**
+	 * Reuse the configuration to validate an other document. The components are
+	 * reset with the new state at the start of the parse.
+	 *
+	 * @param grammarPool          the grammar pool.
+	 * @param disableDTDValidation true if only DTD validation must be disabled.
+	 * @param reporterForXML       the reporter for the XML document.
+	 * @param reporterForGrammar   the reporter for the grammars.
+	 * @param entityResolver       the entity resolver and null otherwise.
+	 * @return true if the configuration can be reused and false otherwise.
+	 */
+	boolean reuse(XMLGrammarPool grammarPool, boolean disableDTDValidation, LSPErrorReporterForXML reporterForXML,
+			LSPErrorReporterForXML reporterForGrammar, XMLEntityResolver entityResolver) {
+		if (fSchemaValidator != null && !resetGrammarDescription()) {
+			return false;
+		}
+		this.disableDTDValidation = disableDTDValidation;
+		fGrammarPool = grammarPool;
+		setProperty(XMLGRAMMAR_POOL, grammarPool);
+		setProperty(ENTITY_RESOLVER, entityResolver);
+		setReporterForGrammar(reporterForGrammar);
 		fErrorReporter = reporterForXML;
+		// the limits are system properties which can be updated between two validations
+		updateSecurityManager();
+		return true;
+	}
+
+	private boolean resetGrammarDescription() {
+		try {
+			// The XML Schema validator retrieves the grammar of a namespace from the
+			// grammar pool with the description of the last retrieved grammar, which is
+			// never reset. As the grammar pool retrieves the grammars with the expanded
+			// system id, the description must be reset otherwise the grammar of the
+			// previous validated document would be used.
+			XSDDescription description = ReflectionUtils.getFieldValue(fSchemaValidator, "fXSDDescription");
+			description.reset();
+			return true;
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Error while resetting XML Schema grammar description", e);
+		}
+		return false;
+	}
+
+	/**
+	 * Parse the given DOM document by emitting the XNI events of the DOM nodes in
+	 * the pipeline instead of scanning the text of the document.
+	 *
+	 * @param document the DOM document which must be validated.
+	 * @return true if the DOM document has been parsed and false if the DOM
+	 *         document is not well-formed (or has been updated while parsing)
+	 *         and its text must be parsed.
+	 * @throws XNIException
+	 * @throws IOException
+	 * @see DOMDocumentScanner#canScan(DOMDocument)
+	 */
+	public boolean parse(DOMDocument document) throws XNIException, IOException {
+		if (fParseInProgress) {
+			throw new XNIException("FWK005 parse may not be called while parsing.");
+		}
+		fParseInProgress = true;
+		try {
+			// Reset the components like Xerces does before scanning an XML 1.0 document
+			fValidationManager.reset();
+			fConfigUpdated = true;
+			resetCommon();
+			configurePipeline();
+			reset();
+			fConfigUpdated = false;
+
+			// The document entity is the base of the relative URIs which are resolved by
+			// the entity manager (ex : href of xml-model). It's not scanned, the scanner
+			// is not notified.
+			fEntityManager.setEntityHandler(null);
+			fEntityManager.startDocumentEntity(
+					new XMLInputSource(null, document.getDocumentURI(), null, new StringReader(""), null));
+
+			// The DOM scanner replaces the namespace scanner at the start of the pipeline
+			DOMDocumentScanner scanner = new DOMDocumentScanner(document, fSymbolTable);
+			scanner.setDocumentHandler(fNamespaceScanner.getDocumentHandler());
+			fErrorReporter.setDocumentLocator(scanner);
+			return scanner.scanDocument(fDTDValidator);
+		} finally {
+			fParseInProgress = false;
+			cleanup();
+		}
 	}
 
 	@Override
@@ -77,6 +77,15 @@ class ReferencedGrammarDiagnosticsInfo {
 		diagnostic.getRelatedInformation().add(relatedInformation);
 	}
 
+	/**
+	 * Returns the root diagnostic of the referenced grammar.
+	 * 
+	 * @return the root diagnostic of the referenced grammar.
+	 */
+	public Diagnostic getDiagnostic() {
+		return diagnostic;
+	}
+
 	/**
 	 * Returns the DOM document of the referenced grammar.
 	 * 
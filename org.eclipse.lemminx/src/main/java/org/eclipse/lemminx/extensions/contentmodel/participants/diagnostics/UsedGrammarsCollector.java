@@ -0,0 +1,128 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.xerces.xni.XMLResourceIdentifier;
+import org.apache.xerces.xni.XNIException;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.apache.xerces.xni.parser.XMLEntityResolver;
+import org.apache.xerces.xni.parser.XMLInputSource;
+
+/**
+ * Collects the URIs of the grammars (XML Schema, DTD) and of the external
+ * entities which are used by a validation:
+ * 
+ * <ul>
+ * <li>the resources which are loaded with the entity resolver (root, included
+ * and imported grammars, external entities).</li>
+ * <li>the grammars which are retrieved from the grammar pool without calling
+ * the entity resolver.</li>
+ * </ul>
+ *
+ */
+class UsedGrammarsCollector {
+
+	private final Collection<String> grammarURIs;
+
+	public UsedGrammarsCollector(Collection<String> grammarURIs) {
+		this.grammarURIs = grammarURIs;
+	}
+
+	/**
+	 * Returns an entity resolver which collects the resolved resources and
+	 * delegates to the given entity resolver.
+	 * 
+	 * @param entityResolver the entity resolver and null otherwise.
+	 * @return an entity resolver which collects the resolved resources.
+	 */
+	public XMLEntityResolver wrap(XMLEntityResolver entityResolver) {
+		return new XMLEntityResolver() {
+
+			@Override
+			public XMLInputSource resolveEntity(XMLResourceIdentifier resourceIdentifier)
+					throws XNIException, IOException {
+				add(resourceIdentifier.getExpandedSystemId());
+				XMLInputSource source = entityResolver != null ? entityResolver.resolveEntity(resourceIdentifier)
+						: null;
+				if (source != null) {
+					// ex : the XML Schema of a XML catalog or the cached file of a remote grammar
+					add(source.getSystemId());
+				}
+				return source;
+			}
+		};
+	}
+
+	/**
+	 * Returns a grammar pool which collects the retrieved and cached grammars and
+	 * delegates to the given grammar pool.
+	 * 
+	 * @param grammarPool the grammar pool and null otherwise.
+	 * @return a grammar pool which collects the retrieved and cached grammars and
+	 *         null if the given grammar pool is null.
+	 */
+	public XMLGrammarPool wrap(XMLGrammarPool grammarPool) {
+		if (grammarPool == null) {
+			return null;
+		}
+		return new XMLGrammarPool() {
+
+			@Override
+			public Grammar[] retrieveInitialGrammarSet(String grammarType) {
+				return grammarPool.retrieveInitialGrammarSet(grammarType);
+			}
+
+			@Override
+			public void cacheGrammars(String grammarType, Grammar[] grammars) {
+				for (Grammar grammar : grammars) {
+					add(grammar.getGrammarDescription().getExpandedSystemId());
+				}
+				grammarPool.cacheGrammars(grammarType, grammars);
+			}
+
+			@Override
+			public Grammar retrieveGrammar(XMLGrammarDescription desc) {
+				Grammar grammar = grammarPool.retrieveGrammar(desc);
+				if (grammar != null) {
+					add(desc.getExpandedSystemId());
+				}
+				return grammar;
+			}
+
+			@Override
+			public void lockPool() {
+				grammarPool.lockPool();
+			}
+
+			@Override
+			public void unlockPool() {
+				grammarPool.unlockPool();
+			}
+
+			@Override
+			public void clear() {
+				grammarPool.clear();
+			}
+		};
+	}
+
+	private void add(String uri) {
+		if (uri != null) {
+			grammarURIs.add(uri);
+		}
+	}
+}
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.net.URL;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMDocumentType;
 import org.eclipse.lemminx.dom.DOMElement;
 import org.eclipse.lemminx.dom.NoNamespaceSchemaLocation;
+import org.eclipse.lemminx.dom.PositionsBatch;
 import org.eclipse.lemminx.dom.SchemaLocationHint;
 import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lemminx.extensions.contentmodel.participants.XMLSyntaxErrorCode;
@@ -64,10 +66,37 @@ public class XMLValidator {
 
 	private static final Logger LOGGER = Logger.getLogger(XMLValidator.class.getName());
 
+	private static final LSPSAXParserPool PARSER_POOL = new LSPSAXParserPool();
+
 	public static void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
 			List<Diagnostic> diagnostics, XMLValidationSettings validationSettings,
 			ContentModelManager contentModelManager, CancelChecker monitor) {
+		doDiagnostics(document, entityResolver, diagnostics, validationSettings, contentModelManager, null, monitor);
+	}
+
+	/**
+	 * Validate the given DOM document and collect the URIs of the grammars (XML
+	 * Schema, DTD) used by the validation in the given collection.
+	 * 
+	 * @param document            the DOM document to validate.
+	 * @param entityResolver      the entity resolver.
+	 * @param diagnostics         the diagnostics to update.
+	 * @param validationSettings  the validation settings.
+	 * @param contentModelManager the content model manager.
+	 * @param grammarURIs         the collection to fill with the URIs of the
+	 *                            grammars used by the validation and null
+	 *                            otherwise.
+	 * @param monitor             the cancel checker.
+	 */
+	public static void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
+			List<Diagnostic> diagnostics, XMLValidationSettings validationSettings,
+			ContentModelManager contentModelManager, Collection<String> grammarURIs, CancelChecker monitor) {
 		XMLGrammarPool grammarPool = contentModelManager.getGrammarPool();
+		if (grammarURIs != null) {
+			UsedGrammarsCollector collector = new UsedGrammarsCollector(grammarURIs);
+			entityResolver = collector.wrap(entityResolver);
+			grammarPool = collector.wrap(grammarPool);
+		}
 		Map<String, ReferencedGrammarDiagnosticsInfo> referencedGrammarDiagnosticsInfoCache = new HashMap<>();
 		final LSPErrorReporterForXML reporterForXML = new LSPErrorReporterForXML(document, diagnostics,
 				contentModelManager, validationSettings != null ? validationSettings.isRelatedInformation() : false,
@@ -79,15 +108,15 @@ public class XMLValidator {
 		final LSPErrorReporterForXML reporterForGrammar = new LSPErrorReporterForXML(document, diagnostics,
 				contentModelManager, validationSettings != null ? validationSettings.isRelatedInformation() : false,
 				referencedGrammarDiagnosticsInfoCache);
+		// The positions of the diagnostics ranges are computed at the end of the
+		// validation with one sweep of the lines
+		PositionsBatch positionsBatch = document.deferPositions();
+		LSPSAXParser parser = null;
 		try {
-			LSPXMLParserConfiguration configuration = new LSPXMLParserConfiguration(grammarPool,
-					isDisableOnlyDTDValidation(document), reporterForXML, reporterForGrammar, validationSettings);
-
-			if (entityResolver != null) {
-				configuration.setProperty("http://apache.org/xml/properties/internal/entity-resolver", entityResolver); //$NON-NLS-1$
-			}
-
-			SAXParser parser = new LSPSAXParser(document, reporterForXML, configuration, grammarPool);
+			// Reuse a parser of the pool, only the state of the document is created for
+			// the validation.
+			parser = PARSER_POOL.acquire(document, reporterForXML, reporterForGrammar, grammarPool, entityResolver,
+					isDisableOnlyDTDValidation(document), validationSettings);
 
 			// Add LSP content handler to stop XML parsing if monitor is canceled.
 			parser.setContentHandler(new LSPContentHandler(monitor));
@@ -118,18 +147,39 @@ public class XMLValidator {
 			parser.setFeature("http://xml.org/sax/features/namespaces", namespacesValidationEnabled); //$NON-NLS-1$
 
 			// Parse XML
-			String content = document.getText();
-			String uri = document.getDocumentURI();
-			parseXML(content, uri, parser);
+			boolean parsed = false;
+			if (namespacesValidationEnabled && DOMDocumentScanner.canScan(document)) {
+				// Validate the DOM document without scanning its text again
+				int nbDiagnostics = diagnostics.size();
+				parsed = parser.parse(document);
+				if (!parsed) {
+					// The DOM document is not well-formed (or has been updated while walking it),
+					// the diagnostics of the walk are reported again by the parse of the text.
+					removeDiagnostics(diagnostics, nbDiagnostics, referencedGrammarDiagnosticsInfoCache);
+				}
+			}
+			if (!parsed) {
+				String content = document.getText();
+				String uri = document.getDocumentURI();
+				parseXML(content, uri, parser);
+			}
 		} catch (IOException | SAXException | CancellationException exception) {
 			// ignore error
 		} catch (CacheResourceDownloadingException e) {
 			throw e;
 		} catch (Exception e) {
 			LOGGER.log(Level.SEVERE, "Unexpected XMLValidator error", e);
+			// the state of the parser is unknown, don't reuse it
+			parser = null;
 		} finally {
+			if (parser != null) {
+				PARSER_POOL.release(parser);
+			}
 			reporterForXML.endReport();
 			reporterForGrammar.endReport();
+			if (positionsBatch != null) {
+				positionsBatch.resolve();
+			}
 		}
 	}
 
@@ -286,6 +336,37 @@ public class XMLValidator {
 				|| externalGrammarLocation.containsKey(IExternalGrammarLocationProvider.SCHEMA_LOCATION);
 	}
 
+	/**
+	 * Remove the diagnostics which have been added after the given index, except
+	 * the root diagnostics of the referenced grammars (the grammars are not
+	 * loaded again).
+	 * 
+	 * @param diagnostics                           the diagnostics.
+	 * @param fromIndex                             the index of the first
+	 *                                              diagnostic to remove.
+	 * @param referencedGrammarDiagnosticsInfoCache the referenced grammar
+	 *                                              diagnostics.
+	 */
+	private static void removeDiagnostics(List<Diagnostic> diagnostics, int fromIndex,
+			Map<String, ReferencedGrammarDiagnosticsInfo> referencedGrammarDiagnosticsInfoCache) {
+		for (int i = diagnostics.size() - 1; i >= fromIndex; i--) {
+			Diagnostic diagnostic = diagnostics.get(i);
+			if (!isReferencedGrammarDiagnostic(diagnostic, referencedGrammarDiagnosticsInfoCache)) {
+				diagnostics.remove(i);
+			}
+		}
+	}
+
+	private static boolean isReferencedGrammarDiagnostic(Diagnostic diagnostic,
+			Map<String, ReferencedGrammarDiagnosticsInfo> referencedGrammarDiagnosticsInfoCache) {
+		for (ReferencedGrammarDiagnosticsInfo info : referencedGrammarDiagnosticsInfoCache.values()) {
+			if (info.getDiagnostic() == diagnostic) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private static void parseXML(String content, String uri, SAXParser parser) throws SAXException, IOException {
 		InputSource inputSource = new InputSource();
 		inputSource.setCharacterStream(new StringReader(content));
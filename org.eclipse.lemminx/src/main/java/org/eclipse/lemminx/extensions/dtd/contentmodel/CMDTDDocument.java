@@ -458,6 +458,11 @@ public class CMDTDDocument extends XMLDTDLoader implements CMDocument {
 		return tracker != null ? tracker.isDirty() : null;
 	}
 
+	@Override
+	public FilesChangedTracker getFilesChangedTracker() {
+		return tracker;
+	}
+
 	@Override
 	public List<Entity> getEntities() {
 		return entities;
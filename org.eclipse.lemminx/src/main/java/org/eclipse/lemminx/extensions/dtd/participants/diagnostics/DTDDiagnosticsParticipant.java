@@ -14,10 +14,13 @@ package org.eclipse.lemminx.extensions.dtd.participants.diagnostics;
 
 import java.util.List;
 
+import org.apache.xerces.impl.dtd.DTDGrammar;
+import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.extensions.dtd.utils.DTDUtils;
 import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
@@ -45,7 +48,17 @@ public class DTDDiagnosticsParticipant implements IDiagnosticsParticipant {
 		// associations settings., ...)
 		XMLEntityResolver entityResolver = xmlDocument.getResolverExtensionManager();
 		// Process validation
-		DTDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, contentModelManager, cancelChecker);
+		Grammar grammar = DTDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, contentModelManager,
+				cancelChecker);
+		// Update the DTD files (ex : .ent, .mod) referenced by the validated DTD
+		if (grammar instanceof DTDGrammar) {
+			contentModelManager.updateGrammarDependencies(xmlDocument,
+					DTDUtils.createFilesChangedTracker((DTDGrammar) grammar));
+		} else {
+			// the DTD cannot be compiled, it will be validated again when any grammar is
+			// saved.
+			contentModelManager.getGrammarDependencies().reset(xmlDocument.getDocumentURI());
+		}
 	}
 
 }
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 
 import org.apache.xerces.impl.dtd.XMLDTDLoader;
+import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.apache.xerces.xni.parser.XMLInputSource;
 import org.eclipse.lemminx.dom.DOMDocument;
@@ -33,7 +34,17 @@ import org.eclipse.lsp4j.jsonrpc.CancelChecker;
  */
 public class DTDValidator {
 
-	public static void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
+	/**
+	 * Validate the given DTD document.
+	 * 
+	 * @param document            the DTD document to validate.
+	 * @param entityResolver      the entity resolver.
+	 * @param diagnostics         the diagnostics to fill.
+	 * @param contentModelManager the content model manager.
+	 * @param monitor             the cancel checker.
+	 * @return the compiled DTD and null if the DTD cannot be compiled.
+	 */
+	public static Grammar doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
 			List<Diagnostic> diagnostics, ContentModelManager contentModelManager, CancelChecker monitor) {
 		try {
 			XMLDTDLoader loader = new XMLDTDLoader();
@@ -48,9 +59,10 @@ public class DTDValidator {
 			String uri = document.getDocumentURI();
 			InputStream inputStream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
 			XMLInputSource source = new XMLInputSource(null, uri, uri, inputStream, null);
-			loader.loadGrammar(source);
+			return loader.loadGrammar(source);
 		} catch (Exception e) {
 
 		}
+		return null;
 	}
 }
@@ -30,6 +30,7 @@ import org.apache.xerces.xni.parser.XMLParseException;
 import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.PositionsBatch;
 import org.eclipse.lemminx.extensions.contentmodel.participants.AggregateRelatedInfoFinder;
 import org.eclipse.lemminx.extensions.xerces.xmlmodel.msg.XMLModelMessageFormatter;
 import org.eclipse.lsp4j.Diagnostic;
@@ -102,16 +103,23 @@ public abstract class AbstractLSPErrorReporter extends XMLErrorReporter {
 		if (adjustedRange == null || NO_RANGE.equals(adjustedRange)) {
 			return null;
 		}
-		if (hasRelatedInfo) {
-			try {
-				relatedInformations = AggregateRelatedInfoFinder.getInstance().findRelatedInformation(xmlDocument.offsetAt(adjustedRange.getStart()), key, xmlDocument);
-			} catch (BadLocationException e) {
-				LOGGER.severe("Passed bad Range: " + e);
-			}
+		PositionsBatch positionsBatch = xmlDocument.getPositionsBatch();
+		if (hasRelatedInfo && positionsBatch == null) {
+			relatedInformations = findRelatedInformation(adjustedRange, key);
 		}
-		if (addDiagnostic(adjustedRange, message, diagnosticSeverity, key, relatedInformations) == null) {
+		Diagnostic diagnostic = addDiagnostic(adjustedRange, message, diagnosticSeverity, key, relatedInformations);
+		if (diagnostic == null) {
 			return null;
 		}
+		if (hasRelatedInfo && positionsBatch != null) {
+			// the start position of the range is known when the batch is resolved
+			positionsBatch.onResolved(() -> {
+				List<DiagnosticRelatedInformation> relatedInformation = findRelatedInformation(adjustedRange, key);
+				if (relatedInformation != null && relatedInformation.size() > 0) {
+					diagnostic.setRelatedInformation(relatedInformation);
+				}
+			});
+		}
 		if (fatalError && !fContinueAfterFatalError) {
 			XMLParseException parseException = (exception != null) ? new XMLParseException(location, message, exception)
 					: new XMLParseException(location, message);
@@ -124,11 +132,28 @@ public abstract class AbstractLSPErrorReporter extends XMLErrorReporter {
 		return false;
 	}
 
+	private List<DiagnosticRelatedInformation> findRelatedInformation(Range adjustedRange, String key) {
+		try {
+			return AggregateRelatedInfoFinder.getInstance().findRelatedInformation(xmlDocument.offsetAt(adjustedRange.getStart()), key, xmlDocument);
+		} catch (BadLocationException e) {
+			LOGGER.severe("Passed bad Range: " + e);
+		}
+		return null;
+	}
+
 	public Diagnostic addDiagnostic(Range adjustedRange, String message, DiagnosticSeverity severity, String key, List<DiagnosticRelatedInformation> relatedInformation) {
 		Diagnostic d = new Diagnostic(adjustedRange, message, severity, source, key);
 		if (hasRelatedInfo && relatedInformation != null && relatedInformation.size() > 0){
 			d.setRelatedInformation(relatedInformation);
 		}
+		PositionsBatch positionsBatch = xmlDocument.getPositionsBatch();
+		if (positionsBatch != null) {
+			// The positions of the range are filled when the batch is resolved, the
+			// duplicate diagnostic is removed at this moment
+			diagnostics.add(d);
+			positionsBatch.onResolved(() -> removeIfDuplicate(d));
+			return d;
+		}
 		if (diagnostics.contains(d)) {
 			return null;
 		}
@@ -137,6 +162,17 @@ public abstract class AbstractLSPErrorReporter extends XMLErrorReporter {
 		return d;
 	}
 
+	private void removeIfDuplicate(Diagnostic diagnostic) {
+		for (int i = 0; i < diagnostics.size(); i++) {
+			if (diagnostics.get(i) == diagnostic) {
+				if (diagnostics.subList(0, i).contains(diagnostic)) {
+					diagnostics.remove(i);
+				}
+				return;
+			}
+		}
+	}
+
 	/**
 	 * Returns the LSP diagnostic severity according the SAX severity.
 	 *
@@ -168,9 +204,7 @@ public abstract class AbstractLSPErrorReporter extends XMLErrorReporter {
 	private Range internalToLSPRange(XMLLocator location, String key, Object[] arguments, String message,
 			DiagnosticSeverity diagnosticSeverity, boolean fatalError, DOMDocument document) {
 		if (location == null) {
-			Position start = toLSPPosition(0, location, document.getTextDocument());
-			Position end = toLSPPosition(0, location, document.getTextDocument());
-			return new Range(start, end);
+			return createEmptyRange(toLSPPosition(0, location, document.getTextDocument()));
 		}
 
 		Range range = toLSPRange(location, key, arguments, message, diagnosticSeverity, fatalError, document);
@@ -181,17 +215,22 @@ public abstract class AbstractLSPErrorReporter extends XMLErrorReporter {
 	}
 
 	protected Range createDefaultRange(XMLLocator location, DOMDocument document) {
-		int startOffset = location.getCharacterOffset() - 1;
-		int endOffset = location.getCharacterOffset() - 1;
+		int offset = location.getCharacterOffset() - 1;
 
-		if (startOffset < 0 || endOffset < 0) {
+		if (offset < 0) {
 			return null;
 		}
 
-		// Create LSP range
-		Position start = toLSPPosition(startOffset, location, document.getTextDocument());
-		Position end = toLSPPosition(endOffset, location, document.getTextDocument());
-		return new Range(start, end);
+		// Create LSP range, the start and end offsets are the same, the position is
+		// computed only once
+		return createEmptyRange(toLSPPosition(offset, location, document.getTextDocument()));
+	}
+
+	private static Range createEmptyRange(Position position) {
+		if (position == null) {
+			return new Range(null, null);
+		}
+		return new Range(position, new Position(position.getLine(), position.getCharacter()));
 	}
 
 	/**
@@ -165,6 +165,7 @@ public class ExternalXMLDTDValidator extends XMLDTDValidator {
 			setExternalDoctype(null);
 		}
 		super.reset(componentManager);
+		rootElement = true;
 		reporterForGrammar = (XMLErrorReporter) componentManager.getProperty(ERROR_REPORTER_FOR_GRAMMAR);
 		fValidation = false;
 		fDTDValidation = false;
@@ -145,4 +145,8 @@ public class XMLModelAwareParserConfiguration extends XIncludeAwareParserConfigu
 	public XMLErrorReporter getReporterForGrammar() {
 		return reporterForGrammar;
 	}
+
+	protected void setReporterForGrammar(XMLErrorReporter reporterForGrammar) {
+		this.reporterForGrammar = reporterForGrammar;
+	}
 }
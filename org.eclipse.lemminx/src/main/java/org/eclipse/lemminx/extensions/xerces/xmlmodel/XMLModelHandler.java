@@ -65,6 +65,9 @@ public class XMLModelHandler implements XMLComponent, XMLDocumentFilter {
 
 	@Override
 	public void reset(XMLComponentManager componentManager) throws XMLConfigurationException {
+		// the xml-model validators of the previous parse must not be used (when the
+		// parser is reused)
+		xmlModelValidators = null;
 		// XML model validators uses Xerces XMLDTDValidator (for DTD) and
 		// XMLSchemaValidator (for XML Schema).
 		// Those validators are created when a xml-model processing instruction is
@@ -33,7 +33,6 @@ import org.eclipse.lemminx.services.extensions.IRenameParticipant;
 import org.eclipse.lemminx.services.extensions.IXMLExtension;
 import org.eclipse.lemminx.services.extensions.XMLExtensionsRegistry;
 import org.eclipse.lemminx.services.extensions.codelens.ICodeLensParticipant;
-import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lemminx.services.extensions.save.ISaveContext;
 import org.eclipse.lemminx.utils.DOMUtils;
 import org.eclipse.lsp4j.InitializeParams;
@@ -47,7 +46,7 @@ public class XSDPlugin implements IXMLExtension {
 
 	private final IDefinitionParticipant definitionParticipant;
 
-	private final IDiagnosticsParticipant diagnosticsParticipant;
+	private XSDDiagnosticsParticipant diagnosticsParticipant;
 
 	private final IReferenceParticipant referenceParticipant;
 	private final ICodeLensParticipant codeLensParticipant;
@@ -61,7 +60,6 @@ public class XSDPlugin implements IXMLExtension {
 	public XSDPlugin() {
 		completionParticipant = new XSDCompletionParticipant();
 		definitionParticipant = new XSDDefinitionParticipant();
-		diagnosticsParticipant = new XSDDiagnosticsParticipant();
 		referenceParticipant = new XSDReferenceParticipant();
 		codeLensParticipant = new XSDCodeLensParticipant();
 		highlightingParticipant = new XSDHighlightingParticipant();
@@ -73,11 +71,11 @@ public class XSDPlugin implements IXMLExtension {
 	public void doSave(ISaveContext context) {
 		String documentURI = context.getUri();
 		DOMDocument document = context.getDocument(documentURI);
-		if (DOMUtils.isXSD(document)) {
-			context.collectDocumentToValidate(d -> {
-				DOMDocument xml = context.getDocument(d.getDocumentURI());
-				return modelManager.dependsOnGrammar(xml, context.getUri());
-			});
+		if (DOMUtils.isXSD(documentURI) || DOMUtils.isXSD(document)) {
+			// the XML Schema can be imported by the validated XML Schemas
+			diagnosticsParticipant.fileChanged(documentURI);
+			// the documents which use the XML Schema are collected by the content model
+			// plugin with the grammar dependencies index.
 		}
 	}
 
@@ -90,6 +88,7 @@ public class XSDPlugin implements IXMLExtension {
 		ContentModelProvider modelProvider = new CMXSDContentModelProvider(registry.getResolverExtensionManager());
 		modelManager = registry.getComponent(ContentModelManager.class);
 		modelManager.registerModelProvider(modelProvider);
+		diagnosticsParticipant = new XSDDiagnosticsParticipant(modelManager);
 		// register completion, diagnostic participant
 		registry.registerCompletionParticipant(completionParticipant);
 		registry.registerDefinitionParticipant(definitionParticipant);
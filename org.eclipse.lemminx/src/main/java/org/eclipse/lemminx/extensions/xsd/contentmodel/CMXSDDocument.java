@@ -744,4 +744,9 @@ public class CMXSDDocument implements CMDocument, XSElementDeclHelper {
 	public boolean isDirty() {
 		return tracker.isDirty();
 	}
+
+	@Override
+	public FilesChangedTracker getFilesChangedTracker() {
+		return tracker;
+	}
 }
@@ -15,6 +15,7 @@ package org.eclipse.lemminx.extensions.xsd.participants.diagnostics;
 import java.util.List;
 
 import org.apache.xerces.xni.XMLLocator;
+import org.apache.xerces.xni.XNIException;
 import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.extensions.contentmodel.participants.XMLSyntaxErrorCode;
 import org.eclipse.lemminx.extensions.xerces.AbstractLSPErrorReporter;
@@ -35,10 +36,47 @@ public class LSPErrorReporterForXSD extends AbstractLSPErrorReporter {
 
 	private static final String XSD_DIAGNOSTIC_SOURCE = "xsd";
 
+	private String documentSystemId;
+
+	// true when an error is reported for a referenced XML Schema
+	private boolean hasReferencedGrammarError;
+
 	public LSPErrorReporterForXSD(DOMDocument xmlDocument, List<Diagnostic> diagnostics, boolean hasRelatedInfo) {
 		super(XSD_DIAGNOSTIC_SOURCE, xmlDocument, diagnostics, hasRelatedInfo);
 	}
 
+	@Override
+	public String reportError(XMLLocator location, String domain, String key, Object[] arguments, short severity,
+			Exception exception) throws XNIException {
+		if (location != null && !hasReferencedGrammarError) {
+			String systemId = location.getExpandedSystemId();
+			if (systemId != null && !systemId.equals(getDocumentSystemId())) {
+				hasReferencedGrammarError = true;
+			}
+		}
+		return super.reportError(location, domain, key, arguments, severity, exception);
+	}
+
+	private String getDocumentSystemId() {
+		if (documentSystemId == null) {
+			String uri = getDOMDocument().getDocumentURI();
+			documentSystemId = LSPXSDGrammarPool.expandSystemId(uri, uri);
+		}
+		return documentSystemId;
+	}
+
+	/**
+	 * Returns true if an error has been reported for a XML Schema which is
+	 * included or imported by the validated XML Schema and false otherwise.
+	 * 
+	 * @return true if an error has been reported for a XML Schema which is
+	 *         included or imported by the validated XML Schema and false
+	 *         otherwise.
+	 */
+	public boolean hasReferencedGrammarError() {
+		return hasReferencedGrammarError;
+	}
+
 	/**
 	 * Create the LSP range from the SAX error.
 	 *
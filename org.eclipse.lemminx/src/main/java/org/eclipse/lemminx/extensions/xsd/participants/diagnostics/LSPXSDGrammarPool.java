@@ -0,0 +1,218 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.xsd.participants.diagnostics;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Vector;
+
+import org.apache.xerces.impl.XMLEntityManager;
+import org.apache.xerces.impl.xs.SchemaGrammar;
+import org.apache.xerces.impl.xs.XSDDescription;
+import org.apache.xerces.impl.xs.XSGrammarBucket;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
+
+/**
+ * XML grammar pool used to validate a XML Schema which reuses the compiled
+ * grammars of the imported XML Schemas.
+ * 
+ * <p>
+ * This pool is created for one validation. The compiled grammars of the
+ * imported XML Schemas are shared between the validations in a
+ * {@link LSPXMLGrammarPool} which removes the grammars when one of their files
+ * (root + included + imported) has changed. The validated XML Schema is always
+ * compiled:
+ * <ul>
+ * <li>its grammar is never retrieved and never cached.</li>
+ * <li>a grammar which imports the validated XML Schema is never cached.</li>
+ * <li>a grammar is not retrieved when one of its imported grammars conflicts
+ * with a grammar which is already loaded by the validation, in this case the
+ * XML Schema is compiled like without this pool.</li>
+ * </ul>
+ * </p>
+ *
+ */
+class LSPXSDGrammarPool implements XMLGrammarPool {
+
+	private final LSPXMLGrammarPool importedGrammarPool;
+
+	private final String rootSystemId;
+
+	private final XSGrammarBucket grammarBucket;
+
+	private Grammar[] loadedGrammars;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param importedGrammarPool the pool of the imported grammars shared between
+	 *                            the validations.
+	 * @param uri                 the URI of the validated XML Schema.
+	 * @param grammarBucket       the grammar bucket of the XML Schema loader.
+	 */
+	public LSPXSDGrammarPool(LSPXMLGrammarPool importedGrammarPool, String uri, XSGrammarBucket grammarBucket) {
+		this.importedGrammarPool = importedGrammarPool;
+		this.rootSystemId = expandSystemId(uri, uri);
+		this.grammarBucket = grammarBucket;
+	}
+
+	@Override
+	public Grammar[] retrieveInitialGrammarSet(String grammarType) {
+		// The grammars are retrieved only when they are imported
+		return null;
+	}
+
+	@Override
+	public Grammar retrieveGrammar(XMLGrammarDescription desc) {
+		if (!(desc instanceof XSDDescription)) {
+			return null;
+		}
+		String systemId = getExpandedSystemId((XSDDescription) desc);
+		if (systemId == null || systemId.equals(rootSystemId)) {
+			return null;
+		}
+		Grammar grammar = importedGrammarPool.retrieveGrammar(systemId);
+		if (!(grammar instanceof SchemaGrammar) || isConflicting((SchemaGrammar) grammar)) {
+			return null;
+		}
+		return grammar;
+	}
+
+	@Override
+	public void cacheGrammars(String grammarType, Grammar[] grammars) {
+		if (XMLGrammarDescription.XML_SCHEMA.equals(grammarType)) {
+			// The grammars are cached in the shared pool only if the validation has no
+			// error in the imported XML Schemas (see cacheImportedGrammars)
+			this.loadedGrammars = grammars;
+		}
+	}
+
+	/**
+	 * Cache in the shared pool the imported grammars which have been loaded by the
+	 * validation of the given XML Schema grammar.
+	 * 
+	 * @param rootGrammar the grammar of the validated XML Schema.
+	 */
+	public void cacheImportedGrammars(Grammar rootGrammar) {
+		if (loadedGrammars == null) {
+			return;
+		}
+		for (Grammar grammar : loadedGrammars) {
+			if (grammar == rootGrammar || !(grammar instanceof SchemaGrammar)) {
+				continue;
+			}
+			String systemId = grammar.getGrammarDescription().getExpandedSystemId();
+			if (systemId == null || systemId.equals(rootSystemId)
+					|| importedGrammarPool.retrieveGrammar(systemId) == grammar) {
+				// the grammar cannot be retrieved or it is already cached
+				continue;
+			}
+			if (getImportedGrammars((SchemaGrammar) grammar).contains(rootGrammar)) {
+				// the grammar uses the validated XML Schema which is perhaps not saved
+				continue;
+			}
+			importedGrammarPool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+		}
+		loadedGrammars = null;
+	}
+
+	/**
+	 * Returns true if the given grammar or one of its imported grammars has the
+	 * same target namespace than a grammar which is already loaded by the
+	 * validation and false otherwise.
+	 * 
+	 * @param grammar the grammar to retrieve.
+	 * @return true if the given grammar or one of its imported grammars has the
+	 *         same target namespace than a grammar which is already loaded by the
+	 *         validation and false otherwise.
+	 */
+	private boolean isConflicting(SchemaGrammar grammar) {
+		for (SchemaGrammar importedGrammar : getImportedGrammars(grammar)) {
+			SchemaGrammar loadedGrammar = grammarBucket.getGrammar(importedGrammar.getTargetNamespace());
+			if (loadedGrammar != null && loadedGrammar != importedGrammar) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the given grammar and its imported grammars (directly or
+	 * indirectly).
+	 * 
+	 * @param grammar the grammar.
+	 * @return the given grammar and its imported grammars (directly or
+	 *         indirectly).
+	 */
+	private static Set<SchemaGrammar> getImportedGrammars(SchemaGrammar grammar) {
+		Set<SchemaGrammar> grammars = new HashSet<>();
+		collectImportedGrammars(grammar, grammars);
+		return grammars;
+	}
+
+	private static void collectImportedGrammars(SchemaGrammar grammar, Set<SchemaGrammar> grammars) {
+		if (!grammars.add(grammar)) {
+			return;
+		}
+		Vector<?> importedGrammars = grammar.getImportedGrammars();
+		if (importedGrammars != null) {
+			for (Object importedGrammar : importedGrammars) {
+				collectImportedGrammars((SchemaGrammar) importedGrammar, grammars);
+			}
+		}
+	}
+
+	/**
+	 * Returns the expanded system id of the XML Schema of the given description
+	 * like Xerces XMLSchemaLoader#resolveDocument does.
+	 * 
+	 * @param desc the XML Schema description.
+	 * @return the expanded system id of the XML Schema of the given description.
+	 */
+	private static String getExpandedSystemId(XSDDescription desc) {
+		String expandedSystemId = desc.getExpandedSystemId();
+		if (expandedSystemId != null) {
+			return expandedSystemId;
+		}
+		String[] hints = desc.getLocationHints();
+		if (hints == null || hints.length == 0) {
+			return null;
+		}
+		return expandSystemId(hints[0], desc.getBaseSystemId());
+	}
+
+	static String expandSystemId(String systemId, String baseSystemId) {
+		try {
+			return XMLEntityManager.expandSystemId(systemId, baseSystemId, false);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void lockPool() {
+		// Do nothing
+	}
+
+	@Override
+	public void unlockPool() {
+		// Do nothing
+	}
+
+	@Override
+	public void clear() {
+		loadedGrammars = null;
+	}
+}
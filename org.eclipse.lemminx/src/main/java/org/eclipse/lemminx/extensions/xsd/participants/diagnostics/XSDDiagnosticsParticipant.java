@@ -14,9 +14,14 @@ package org.eclipse.lemminx.extensions.xsd.participants.diagnostics;
 
 import java.util.List;
 
+import org.apache.xerces.impl.xs.SchemaGrammar;
+import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.extensions.xsd.utils.XSDUtils;
 import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
 import org.eclipse.lemminx.utils.DOMUtils;
 import org.eclipse.lsp4j.Diagnostic;
@@ -28,6 +33,16 @@ import org.eclipse.lsp4j.jsonrpc.CancelChecker;
  */
 public class XSDDiagnosticsParticipant implements IDiagnosticsParticipant {
 
+	// The compiled imported XML Schemas shared between the validations
+	private final LSPXMLGrammarPool importedGrammarPool;
+
+	private final ContentModelManager contentModelManager;
+
+	public XSDDiagnosticsParticipant(ContentModelManager contentModelManager) {
+		this.importedGrammarPool = new LSPXMLGrammarPool();
+		this.contentModelManager = contentModelManager;
+	}
+
 	@Override
 	public void doDiagnostics(DOMDocument xmlDocument, List<Diagnostic> diagnostics,
 			XMLValidationSettings validationSettings, CancelChecker cancelChecker) {
@@ -39,7 +54,26 @@ public class XSDDiagnosticsParticipant implements IDiagnosticsParticipant {
 		// associations settings., ...)
 		XMLEntityResolver entityResolver = xmlDocument.getResolverExtensionManager();
 		// Process validation
-		XSDValidator.doDiagnostics(xmlDocument, entityResolver, diagnostics, validationSettings.isRelatedInformation(), cancelChecker);
+		Grammar grammar = XSDValidator.doDiagnostics(xmlDocument, entityResolver, importedGrammarPool, diagnostics,
+				validationSettings.isRelatedInformation(), cancelChecker);
+		// Update the XML Schemas included and imported by the validated XML Schema
+		if (grammar instanceof SchemaGrammar) {
+			contentModelManager.updateGrammarDependencies(xmlDocument,
+					XSDUtils.createFilesChangedTracker((SchemaGrammar) grammar));
+		} else {
+			// the XML Schema cannot be compiled, it will be validated again when any
+			// grammar is saved.
+			contentModelManager.getGrammarDependencies().reset(xmlDocument.getDocumentURI());
+		}
+	}
+
+	/**
+	 * Mark as dirty the compiled imported XML Schemas which use the given file.
+	 * 
+	 * @param fileURI the URI of the file which has changed.
+	 */
+	public void fileChanged(String fileURI) {
+		importedGrammarPool.fileChanged(fileURI);
 	}
 
 }
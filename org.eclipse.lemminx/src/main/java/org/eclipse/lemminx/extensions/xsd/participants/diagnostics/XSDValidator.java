@@ -24,14 +24,18 @@ import java.util.logging.Logger;
 import org.apache.xerces.impl.Constants;
 import org.apache.xerces.impl.XMLErrorReporter;
 import org.apache.xerces.impl.xs.XMLSchemaLoader;
+import org.apache.xerces.impl.xs.XSGrammarBucket;
 import org.apache.xerces.parsers.XMLGrammarPreparser;
 import org.apache.xerces.util.XMLGrammarPoolImpl;
+import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.grammars.XMLGrammarDescription;
 import org.apache.xerces.xni.parser.XMLEntityResolver;
 import org.apache.xerces.xni.parser.XMLInputSource;
 import org.apache.xerces.xni.parser.XMLParseException;
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
 import org.eclipse.lemminx.extensions.xerces.AbstractLSPErrorReporter;
+import org.eclipse.lemminx.extensions.xerces.ReflectionUtils;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 
@@ -47,17 +51,41 @@ public class XSDValidator {
 
 	public static void doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
 			List<Diagnostic> diagnostics, boolean isRelatedInformation, CancelChecker monitor) {
+		doDiagnostics(document, entityResolver, null, diagnostics, isRelatedInformation, monitor);
+	}
+
+	/**
+	 * Validate the given XML Schema document.
+	 * 
+	 * @param document             the XML Schema document to validate.
+	 * @param entityResolver       the entity resolver.
+	 * @param importedGrammarPool  the pool of the compiled imported XML Schemas
+	 *                             shared between the validations and null
+	 *                             otherwise.
+	 * @param diagnostics          the diagnostics to fill.
+	 * @param isRelatedInformation true if related information is supported.
+	 * @param monitor              the cancel checker.
+	 * @return the compiled XML Schema and null if the XML Schema cannot be
+	 *         compiled.
+	 */
+	public static Grammar doDiagnostics(DOMDocument document, XMLEntityResolver entityResolver,
+			LSPXMLGrammarPool importedGrammarPool, List<Diagnostic> diagnostics, boolean isRelatedInformation,
+			CancelChecker monitor) {
 
 		try {
-			XMLErrorReporter reporter = new LSPErrorReporterForXSD(document, diagnostics, isRelatedInformation);
+			LSPErrorReporterForXSD reporter = new LSPErrorReporterForXSD(document, diagnostics, isRelatedInformation);
 
 			XMLGrammarPreparser grammarPreparser = new LSPXMLGrammarPreparser();
 			XMLSchemaLoader schemaLoader = createSchemaLoader(reporter);
 
 			grammarPreparser.registerPreparser(XMLGrammarDescription.XML_SCHEMA, schemaLoader);
 
+			// The grammar pool of the validation must start empty, the compiled
+			// imported XML Schemas are retrieved from the shared pool when they are
+			// imported.
+			LSPXSDGrammarPool grammarPool = createGrammarPool(schemaLoader, importedGrammarPool, document);
 			grammarPreparser.setProperty(Constants.XERCES_PROPERTY_PREFIX + Constants.XMLGRAMMAR_POOL_PROPERTY,
-					new XMLGrammarPoolImpl());
+					grammarPool != null ? grammarPool : new XMLGrammarPoolImpl());
 			grammarPreparser.setFeature(Constants.XERCES_FEATURE_PREFIX + Constants.CONTINUE_AFTER_FATAL_ERROR_FEATURE,
 					false);
 			grammarPreparser.setFeature(Constants.XERCES_FEATURE_PREFIX + Constants.NAMESPACES_FEATURE, true);
@@ -87,12 +115,46 @@ public class XSDValidator {
 			InputStream inputStream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
 			XMLInputSource is = new XMLInputSource(null, uri, uri, inputStream, null);
 			grammarPreparser.getLoader(XMLGrammarDescription.XML_SCHEMA);
-			grammarPreparser.preparseGrammar(XMLGrammarDescription.XML_SCHEMA, is);
+			Grammar grammar = grammarPreparser.preparseGrammar(XMLGrammarDescription.XML_SCHEMA, is);
+			if (grammarPool != null && grammar != null && !reporter.hasReferencedGrammarError()) {
+				// Share the compiled imported XML Schemas with the next validations. When an
+				// imported XML Schema has an error, the grammars are not shared to report the
+				// error again on the next validations.
+				grammarPool.cacheImportedGrammars(grammar);
+			}
+			return grammar;
 		} catch (IOException | CancellationException | XMLParseException exception) {
 			// ignore error
 		} catch (Exception e) {
 			LOGGER.log(Level.SEVERE, "Unexpected XSDValidator error", e);
 		}
+		return null;
+	}
+
+	/**
+	 * Create the grammar pool of the validation which retrieves the compiled
+	 * imported XML Schemas from the given shared pool.
+	 *
+	 * @param schemaLoader        the XML Schema loader.
+	 * @param importedGrammarPool the shared pool and null otherwise.
+	 * @param document            the XML Schema document to validate.
+	 * @return the grammar pool of the validation and null if the compiled imported
+	 *         XML Schemas cannot be shared.
+	 */
+	private static LSPXSDGrammarPool createGrammarPool(XMLSchemaLoader schemaLoader,
+			LSPXMLGrammarPool importedGrammarPool, DOMDocument document) {
+		if (importedGrammarPool == null) {
+			return null;
+		}
+		try {
+			// The grammar bucket stores the grammars which are loaded by the validation,
+			// it's used to check that a shared grammar doesn't conflict with them.
+			XSGrammarBucket grammarBucket = ReflectionUtils.getFieldValue(schemaLoader, "fGrammarBucket");
+			return new LSPXSDGrammarPool(importedGrammarPool, document.getDocumentURI(), grammarBucket);
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Error while getting XML Schema grammar bucket", e);
+		}
+		return null;
 	}
 
 	/**
@@ -68,6 +68,29 @@ public class LimitList<T> extends ArrayList<T> {
 		}
 	}
 
+	/**
+	 * Decrements <code>limit</code> by the given number of items which are added
+	 * in a sub list (ex : the cached symbols of a subtree).
+	 * 
+	 * @param count the number of items.
+	 * @return true if the limit allows the given number of items and false
+	 *         otherwise (the limit is not changed).
+	 */
+	boolean reserve(int count) {
+		if (limit == null) {
+			return true;
+		}
+		while (true) {
+			long current = limit.get();
+			if (current < count) {
+				return false;
+			}
+			if (limit.compareAndSet(current, current - count)) {
+				return true;
+			}
+		}
+	}
+
 	protected AtomicLong getLimit() {
 		return limit;
 	}
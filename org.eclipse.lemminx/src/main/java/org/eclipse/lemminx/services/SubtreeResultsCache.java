@@ -0,0 +1,230 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.services;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMNode;
+import org.eclipse.lsp4j.Position;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache of the results computed for the subtrees of the DOM documents.
+ * 
+ * <p>
+ * The results are stored by document URI and by structural hash, length and
+ * node name of the subtree (see {@link DOMNode#getSubtreeHash()}) with the
+ * position of the subtree, so
+ * the result of a subtree which is not changed by an update of the document can
+ * be reused for the new version of the document by shifting its positions (see
+ * {@link #shift(Position, Position, Position)}). The results which are not
+ * reused during several versions of the document are removed.
+ * </p>
+ *
+ * @param <T> the result type.
+ */
+class SubtreeResultsCache<T> {
+
+	private static final int MAX_DOCUMENTS = 16;
+
+	// The number of versions after which a result which is not reused is removed
+	private static final int MAX_AGE = 32;
+
+	private static final int MIN_PRUNE_SIZE = 256;
+
+	/**
+	 * The key of a subtree : its structural hash, its length and its node name,
+	 * so the result of a subtree is not reused for a subtree of another node or
+	 * with another length when their hashes collide.
+	 */
+	private static final class SubtreeKey {
+
+		private final long hash;
+		private final int length;
+		private final String nodeName;
+
+		SubtreeKey(DOMNode node) {
+			this.hash = node.getSubtreeHash();
+			this.length = node.getEnd() - node.getStart();
+			this.nodeName = node.getNodeName();
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(hash) * 31 + length;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof SubtreeKey)) {
+				return false;
+			}
+			SubtreeKey other = (SubtreeKey) obj;
+			return hash == other.hash && length == other.length && Objects.equals(nodeName, other.nodeName);
+		}
+	}
+
+	/**
+	 * The result computed for a subtree.
+	 */
+	static class SubtreeResult<T> {
+
+		private final Position start;
+		private final T result;
+		private final int count;
+		private volatile int version;
+
+		SubtreeResult(Position start, T result, int count, int version) {
+			this.start = start;
+			this.result = result;
+			this.count = count;
+			this.version = version;
+		}
+
+		/**
+		 * Returns the position of the subtree when the result has been computed.
+		 * 
+		 * @return the position of the subtree when the result has been computed.
+		 */
+		public Position getStart() {
+			return start;
+		}
+
+		/**
+		 * Returns the result computed for the subtree.
+		 * 
+		 * @return the result computed for the subtree.
+		 */
+		public T getResult() {
+			return result;
+		}
+
+		/**
+		 * Returns the number of items of the result (ex : the number of symbols of
+		 * the subtree).
+		 * 
+		 * @return the number of items of the result.
+		 */
+		public int getCount() {
+			return count;
+		}
+	}
+
+	/**
+	 * The results computed for the subtrees of a document.
+	 */
+	static class DocumentResults<T> {
+
+		private final Map<SubtreeKey, SubtreeResult<T>> results = new ConcurrentHashMap<>();
+
+		private volatile int version;
+
+		private int pruneSize = MIN_PRUNE_SIZE;
+
+		/**
+		 * Returns the result computed for a subtree which has the same structural
+		 * hash, length and node name than the given node and null otherwise.
+		 * 
+		 * @param node the DOM node.
+		 * @return the result computed for a subtree which has the same structural
+		 *         hash, length and node name than the given node and null otherwise.
+		 */
+		public SubtreeResult<T> get(DOMNode node) {
+			SubtreeResult<T> result = results.get(new SubtreeKey(node));
+			if (result == null) {
+				return null;
+			}
+			result.version = version;
+			return result;
+		}
+
+		/**
+		 * Store the result computed for the subtree of the given node.
+		 * 
+		 * @param node   the DOM node.
+		 * @param start  the position of the node.
+		 * @param result the result computed for the subtree.
+		 * @param count  the number of items of the result.
+		 */
+		public void put(DOMNode node, Position start, T result, int count) {
+			results.put(new SubtreeKey(node), new SubtreeResult<>(start, result, count, version));
+		}
+
+		private synchronized void prune() {
+			if (results.size() <= pruneSize) {
+				return;
+			}
+			int minVersion = version - MAX_AGE;
+			results.values().removeIf(result -> result.version < minVersion);
+			pruneSize = Math.max(MIN_PRUNE_SIZE, results.size() * 2);
+		}
+	}
+
+	private final Cache<String, DocumentResults<T>> documents = CacheBuilder.newBuilder() //
+			.maximumSize(MAX_DOCUMENTS) //
+			.build();
+
+	/**
+	 * Returns the results of the given document for a new computation.
+	 * 
+	 * @param document the DOM document.
+	 * @return the results of the given document for a new computation.
+	 */
+	public DocumentResults<T> open(DOMDocument document) {
+		String uri = document.getDocumentURI();
+		DocumentResults<T> results;
+		try {
+			results = uri != null ? documents.get(uri, () -> new DocumentResults<>()) : new DocumentResults<>();
+		} catch (ExecutionException e) {
+			results = new DocumentResults<>();
+		}
+		results.version++;
+		return results;
+	}
+
+	/**
+	 * Remove the results which are not reused since several versions of the
+	 * document when the computation is done.
+	 * 
+	 * @param results the results of the document.
+	 */
+	public void close(DocumentResults<T> results) {
+		results.prune();
+	}
+
+	/**
+	 * Returns the given position of a subtree which was at <code>oldStart</code>
+	 * shifted to the subtree which is now at <code>newStart</code>.
+	 * 
+	 * @param position the position in the subtree.
+	 * @param oldStart the old position of the subtree.
+	 * @param newStart the new position of the subtree.
+	 * @return the shifted position.
+	 */
+	public static Position shift(Position position, Position oldStart, Position newStart) {
+		if (position.getLine() == oldStart.getLine()) {
+			// the position is in the first line of the subtree
+			return new Position(newStart.getLine(),
+					position.getCharacter() - oldStart.getCharacter() + newStart.getCharacter());
+		}
+		return new Position(position.getLine() - oldStart.getLine() + newStart.getLine(), position.getCharacter());
+	}
+}
@@ -0,0 +1,388 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.uriresolver.CacheResourcesManager;
+import org.eclipse.lemminx.utils.HashUtils;
+import org.eclipse.lemminx.utils.URIUtils;
+import org.eclipse.lsp4j.Diagnostic;
+
+import com.google.gson.Gson;
+
+/**
+ * Cache of the diagnostics computed by {@link XMLDiagnostics} keyed by the
+ * content of the document, the validation settings and the grammar generation
+ * (see
+ * {@link org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager#getGrammarGeneration()}).
+ *
+ * <p>
+ * When a document comes back to a text which has already been validated (ex :
+ * undo/redo, document which is closed and opened again), the diagnostics are
+ * returned without validating the document again. Each entry stores the
+ * grammar files (root + included + imported XML Schemas, DTDs) used by the
+ * validation, the entry is returned only if their content has not changed.
+ * A grammar file is hashed only when its modification time changes, so that a
+ * file which is written again with the same content (ex : a generated XML
+ * Schema) doesn't invalidate the entry the next time.
+ * </p>
+ * 
+ * <p>
+ * The diagnostics of a validation which uses a remote grammar which is not
+ * available in the cache (ex : download problem) are not cached.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded, the least recently used entries are removed.
+ * </p>
+ *
+ */
+class ValidationResultCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 100;
+
+	private static final Gson GSON = new Gson();
+
+	/**
+	 * Cache key.
+	 */
+	static final class Key {
+
+		private final String uri;
+
+		private final String contentHash;
+
+		private final String settings;
+
+		private final int grammarGeneration;
+
+		private Key(String uri, String contentHash, String settings, int grammarGeneration) {
+			this.uri = uri;
+			this.contentHash = contentHash;
+			this.settings = settings;
+			this.grammarGeneration = grammarGeneration;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(uri, contentHash, settings, grammarGeneration);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return grammarGeneration == other.grammarGeneration && Objects.equals(uri, other.uri)
+					&& Objects.equals(contentHash, other.contentHash) && Objects.equals(settings, other.settings);
+		}
+	}
+
+	/**
+	 * Content hash of a grammar file for a given modification time.
+	 */
+	private static final class FileHash {
+
+		private final FileTime lastModified;
+
+		private final String hash;
+
+		private FileHash(FileTime lastModified, String hash) {
+			this.lastModified = lastModified;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Cache entry.
+	 */
+	static final class Entry {
+
+		private final List<Diagnostic> diagnostics;
+
+		private final Set<String> grammarURIs;
+
+		private final List<Path> files;
+
+		// the last modification time of the grammar files, null when the file doesn't
+		// exist
+		private final FileTime[] lastModified;
+
+		// the content hash of the grammar files for their last modification time, null
+		// when it has not been computed
+		private final String[] hashes;
+
+		private Entry(List<Diagnostic> diagnostics, Set<String> grammarURIs, List<Path> files,
+				Map<Path, FileHash> fileHashes) {
+			this.diagnostics = diagnostics;
+			this.grammarURIs = grammarURIs;
+			this.files = files;
+			this.lastModified = new FileTime[files.size()];
+			this.hashes = new String[files.size()];
+			for (int i = 0; i < lastModified.length; i++) {
+				lastModified[i] = getLastModified(files.get(i));
+				// reuse the hash which has been computed by a previous check
+				FileHash fileHash = fileHashes.get(files.get(i));
+				if (fileHash != null && fileHash.lastModified.equals(lastModified[i])) {
+					hashes[i] = fileHash.hash;
+				}
+			}
+		}
+
+		/**
+		 * Returns a copy of the cached diagnostics.
+		 * 
+		 * @return a copy of the cached diagnostics.
+		 */
+		List<Diagnostic> getDiagnostics() {
+			return new ArrayList<>(diagnostics);
+		}
+
+		/**
+		 * Returns the URIs of the grammar files used by the validation.
+		 * 
+		 * @return the URIs of the grammar files used by the validation.
+		 */
+		Set<String> getGrammarURIs() {
+			return grammarURIs;
+		}
+
+		/**
+		 * Returns true if the grammar files have not changed since the validation and
+		 * false otherwise.
+		 * 
+		 * @param fileHashes the content hashes of the grammar files.
+		 * @return true if the grammar files have not changed since the validation and
+		 *         false otherwise.
+		 */
+		private boolean isUpToDate(Map<Path, FileHash> fileHashes) {
+			for (int i = 0; i < lastModified.length; i++) {
+				Path file = files.get(i);
+				FileTime currentLastModified = getLastModified(file);
+				if (Objects.equals(lastModified[i], currentLastModified)) {
+					continue;
+				}
+				if (currentLastModified == null) {
+					// the file has been deleted
+					return false;
+				}
+				// The file has been written (ex : a git checkout), check its content
+				String currentHash = getHash(file, currentLastModified, fileHashes);
+				if (hashes[i] == null || !hashes[i].equals(currentHash)) {
+					return false;
+				}
+				lastModified[i] = currentLastModified;
+			}
+			return true;
+		}
+
+		private static String getHash(Path file, FileTime lastModified, Map<Path, FileHash> fileHashes) {
+			FileHash fileHash = fileHashes.get(file);
+			if (fileHash != null && fileHash.lastModified.equals(lastModified)) {
+				return fileHash.hash;
+			}
+			String hash = HashUtils.computeHash(file);
+			if (hash != null) {
+				fileHashes.put(file, new FileHash(lastModified, hash));
+			}
+			return hash;
+		}
+
+		private static FileTime getLastModified(Path file) {
+			try {
+				return Files.getLastModifiedTime(file);
+			} catch (IOException e) {
+				// the file doesn't exist
+				return null;
+			}
+		}
+	}
+
+	private final Map<Key, Entry> entries;
+
+	private final Map<Path, FileHash> fileHashes;
+
+	// the snapshot of the last validation settings, computed once until the
+	// settings are updated (see clear())
+	private XMLValidationSettings settings;
+
+	private String settingsSnapshot;
+
+	ValidationResultCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	ValidationResultCache(int maxEntries) {
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		this.fileHashes = new HashMap<>();
+	}
+
+	/**
+	 * Returns the cache key for the given document and null if the key cannot be
+	 * computed.
+	 * 
+	 * @param document           the DOM document to validate.
+	 * @param validationSettings the validation settings.
+	 * @param grammarGeneration  the grammar generation.
+	 * @return the cache key for the given document and null if the key cannot be
+	 *         computed.
+	 */
+	Key createKey(DOMDocument document, XMLValidationSettings validationSettings, int grammarGeneration) {
+		String contentHash = HashUtils.computeHash(document.getTextDocument().getTextSequence());
+		if (contentHash == null) {
+			return null;
+		}
+		return new Key(document.getDocumentURI(), contentHash, getSettingsSnapshot(validationSettings),
+				grammarGeneration);
+	}
+
+	/**
+	 * Returns the snapshot of the given validation settings.
+	 * 
+	 * <p>
+	 * The validation settings are mutable, the key stores a snapshot of them. The
+	 * snapshot is computed again only when other settings are given or when the
+	 * settings have been updated (see {@link #clear()}).
+	 * </p>
+	 * 
+	 * @param validationSettings the validation settings.
+	 * @return the snapshot of the given validation settings.
+	 */
+	private synchronized String getSettingsSnapshot(XMLValidationSettings validationSettings) {
+		if (settingsSnapshot == null || settings != validationSettings) {
+			settings = validationSettings;
+			settingsSnapshot = GSON.toJson(validationSettings);
+		}
+		return settingsSnapshot;
+	}
+
+	/**
+	 * Returns the cached entry for the given key and null if the diagnostics are
+	 * not cached or if a grammar file used by the validation has changed.
+	 * 
+	 * @param key the cache key.
+	 * @return the cached entry for the given key and null otherwise.
+	 */
+	synchronized Entry get(Key key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (!entry.isUpToDate(fileHashes)) {
+			entries.remove(key);
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Cache the given diagnostics.
+	 * 
+	 * @param key         the cache key.
+	 * @param diagnostics the diagnostics of the validation.
+	 * @param grammarURIs the URIs of the grammar files used by the validation.
+	 */
+	synchronized void put(Key key, List<Diagnostic> diagnostics, Set<String> grammarURIs) {
+		List<Path> files = getFiles(grammarURIs);
+		if (files == null) {
+			// a remote grammar is not available (ex : download problem), the diagnostics
+			// will change when it is downloaded
+			entries.remove(key);
+			return;
+		}
+		entries.put(key, new Entry(new ArrayList<>(diagnostics), grammarURIs, files, fileHashes));
+	}
+
+	/**
+	 * Remove the cached diagnostics (ex : when the settings are updated).
+	 */
+	synchronized void clear() {
+		entries.clear();
+		fileHashes.clear();
+		settings = null;
+		settingsSnapshot = null;
+	}
+
+	/**
+	 * Returns the number of cached diagnostics.
+	 * 
+	 * @return the number of cached diagnostics.
+	 */
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the grammar files used by the validation and null if a remote
+	 * grammar is not available in the cache.
+	 * 
+	 * @param grammarURIs the URIs of the grammars used by the validation.
+	 * @return the grammar files used by the validation and null if a remote
+	 *         grammar is not available in the cache.
+	 */
+	private static List<Path> getFiles(Set<String> grammarURIs) {
+		Set<Path> files = new LinkedHashSet<>(grammarURIs.size());
+		for (String grammarURI : grammarURIs) {
+			if (URIUtils.isFileResource(grammarURI)) {
+				try {
+					files.add(Paths.get(new URI(grammarURI)));
+				} catch (Exception e) {
+					// the URI is not a valid file URI
+				}
+			} else if (isRemote(grammarURI)) {
+				// the validation uses the cached file of the remote grammar
+				try {
+					Path file = CacheResourcesManager.getResourceCachePath(grammarURI);
+					if (!Files.exists(file)) {
+						return null;
+					}
+					files.add(file);
+				} catch (Exception e) {
+					return null;
+				}
+			}
+		}
+		return new ArrayList<>(files);
+	}
+
+	private static boolean isRemote(String uri) {
+		return uri.startsWith("http:") || uri.startsWith("https:") || uri.startsWith("ftp:");
+	}
+}
@@ -35,6 +35,7 @@ import org.eclipse.lemminx.dom.DOMNode;
 import org.eclipse.lemminx.dom.DOMText;
 import org.eclipse.lemminx.dom.DTDDeclParameter;
 import org.eclipse.lemminx.dom.parser.Scanner;
+import org.eclipse.lemminx.dom.parser.ScannerCheckpoints;
 import org.eclipse.lemminx.dom.parser.ScannerState;
 import org.eclipse.lemminx.dom.parser.TokenType;
 import org.eclipse.lemminx.dom.parser.XMLScanner;
@@ -97,8 +98,17 @@ public class XMLCompletions {
 				return completionResponse;
 			}
 
-			Scanner scanner = XMLScanner.createScanner(text, node.getStart(), isInsideDTDContent(node, xmlDocument));
+			Scanner scanner;
 			String currentTag = "";
+			int checkpoint = getScannerCheckpoint(node, offset, xmlDocument);
+			if (checkpoint != -1) {
+				// scan from the last checkpoint after the start tag of the node instead of
+				// scanning the content of the node before the offset
+				scanner = XMLScanner.createScanner(text, checkpoint, ScannerState.WithinContent);
+				currentTag = ((DOMElement) node).getTagName();
+			} else {
+				scanner = XMLScanner.createScanner(text, node.getStart(), isInsideDTDContent(node, xmlDocument));
+			}
 			TokenType token = scanner.scan();
 			while (token != TokenType.EOS && scanner.getTokenOffset() <= offset) {
 				cancelChecker.checkCanceled();
@@ -454,6 +464,29 @@ public class XMLCompletions {
 		return (node.getParentNode() != null && node.getParentNode().isDoctype());
 	}
 
+	/**
+	 * Returns the last scanner checkpoint before the given offset which follows the
+	 * start tag of the given node and -1 otherwise.
+	 *
+	 * @param node        the node where completion was triggered.
+	 * @param offset      the completion offset.
+	 * @param xmlDocument the DOM document.
+	 * @return the last scanner checkpoint before the given offset which follows
+	 *         the start tag of the given node and -1 otherwise.
+	 */
+	private static int getScannerCheckpoint(DOMNode node, int offset, DOMDocument xmlDocument) {
+		ScannerCheckpoints checkpoints = xmlDocument.getScannerCheckpoints();
+		if (checkpoints == null || !node.isElement()) {
+			return -1;
+		}
+		DOMElement element = (DOMElement) node;
+		if (!element.hasTagName() || !element.isStartTagClosed()) {
+			return -1;
+		}
+		int checkpoint = checkpoints.getCheckpointBefore(offset);
+		return checkpoint > element.getStartTagCloseOffset() ? checkpoint : -1;
+	}
+
 	private boolean isBalanced(DOMNode node) {
 		if (node.isClosed() == false) {
 			return false;
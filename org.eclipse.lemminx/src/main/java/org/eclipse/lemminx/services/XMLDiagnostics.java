@@ -14,11 +14,13 @@ package org.eclipse.lemminx.services;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.services.extensions.XMLExtensionsRegistry;
 import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
@@ -35,19 +37,51 @@ class XMLDiagnostics {
 	private final XMLExtensionsRegistry extensionsRegistry;
 	private static final Logger LOGGER = Logger.getLogger(XMLDiagnostics.class.getName());
 
+	private final ValidationResultCache resultCache;
+
 	public XMLDiagnostics(XMLExtensionsRegistry extensionsRegistry) {
 		this.extensionsRegistry = extensionsRegistry;
+		this.resultCache = new ValidationResultCache();
 	}
 
 	public List<Diagnostic> doDiagnostics(DOMDocument xmlDocument, XMLValidationSettings validationSettings,
 			CancelChecker cancelChecker) {
 		List<Diagnostic> diagnostics = new ArrayList<>();
 		if (validationSettings == null || validationSettings.isEnabled()) {
+			ContentModelManager contentModelManager = extensionsRegistry.getComponent(ContentModelManager.class);
+			ValidationResultCache.Key key = contentModelManager != null
+					? resultCache.createKey(xmlDocument, validationSettings,
+							contentModelManager.getGrammarGeneration())
+					: null;
+			ValidationResultCache.Entry entry = key != null ? resultCache.get(key) : null;
+			if (entry != null) {
+				// the same content has already been validated, restore the grammars used by
+				// this content
+				contentModelManager.getGrammarDependencies().update(xmlDocument.getDocumentURI(),
+						entry.getGrammarURIs());
+				return entry.getDiagnostics();
+			}
 			doExtensionsDiagnostics(xmlDocument, diagnostics, validationSettings, cancelChecker);
+			if (key != null) {
+				// the diagnostics of a canceled validation are not complete
+				cancelChecker.checkCanceled();
+				Set<String> grammarURIs = contentModelManager.getGrammarDependencies()
+						.getGrammars(xmlDocument.getDocumentURI());
+				if (grammarURIs != null) {
+					resultCache.put(key, diagnostics, grammarURIs);
+				}
+			}
 		}
 		return diagnostics;
 	}
 
+	/**
+	 * Remove the cached diagnostics (ex : when the settings change).
+	 */
+	public void clearResultCache() {
+		resultCache.clear();
+	}
+
 	/**
 	 * Do validation with extension (XML Schema, etc)
 	 *
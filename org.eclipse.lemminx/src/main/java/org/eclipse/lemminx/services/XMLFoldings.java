@@ -27,6 +27,8 @@ import java.util.regex.Pattern;
 import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lemminx.commons.TextDocument;
 import org.eclipse.lemminx.dom.parser.Scanner;
+import org.eclipse.lemminx.dom.parser.ScannerCheckpoints;
+import org.eclipse.lemminx.dom.parser.ScannerState;
 import org.eclipse.lemminx.dom.parser.TokenType;
 import org.eclipse.lemminx.dom.parser.XMLScanner;
 import org.eclipse.lemminx.services.extensions.XMLExtensionsRegistry;
@@ -45,8 +47,21 @@ class XMLFoldings {
 
 	private static final Pattern REGION_PATTERN = Pattern.compile("\\s*#(region\\b)|(endregion\\b)");
 
+	private static final int MAX_CACHED_DOCUMENTS = 16;
+
+	private final Map<String, FoldingResult> foldingResults;
+
 	public XMLFoldings(XMLExtensionsRegistry extensionsRegistry) {
 		this.extensionsRegistry = extensionsRegistry;
+		this.foldingResults = Collections.synchronizedMap(new LinkedHashMap<String, FoldingResult>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, FoldingResult> eldest) {
+				return size() > MAX_CACHED_DOCUMENTS;
+			}
+		});
 	}
 
 	class TagInfo {
@@ -61,19 +76,154 @@ class XMLFoldings {
 		}
 	}
 
+	/**
+	 * The folding state at a scanner checkpoint.
+	 */
+	private static class FoldingCheckpoint {
+
+		public final int offset;
+
+		public final List<TagInfo> stack;
+
+		public final String lastTagName;
+
+		public final int prevStart;
+
+		public final int rangesCount;
+
+		public FoldingCheckpoint(int offset, List<TagInfo> stack, String lastTagName, int prevStart,
+				int rangesCount) {
+			this.offset = offset;
+			this.stack = stack;
+			this.lastTagName = lastTagName;
+			this.prevStart = prevStart;
+			this.rangesCount = rangesCount;
+		}
+	}
+
+	/**
+	 * The folding ranges computed for a text with the folding states at the
+	 * scanner checkpoints of the text.
+	 */
+	private static class FoldingResult {
+
+		public final String text;
+
+		public final List<FoldingRange> ranges;
+
+		public final List<FoldingCheckpoint> checkpoints;
+
+		public FoldingResult(String text, List<FoldingRange> ranges, List<FoldingCheckpoint> checkpoints) {
+			this.text = text;
+			this.ranges = ranges;
+			this.checkpoints = checkpoints;
+		}
+
+		/**
+		 * Returns the last folding checkpoint before the given offset and null
+		 * otherwise.
+		 *
+		 * @param offset the offset.
+		 * @return the last folding checkpoint before the given offset and null
+		 *         otherwise.
+		 */
+		public FoldingCheckpoint getCheckpointBefore(int offset) {
+			for (int i = checkpoints.size() - 1; i >= 0; i--) {
+				FoldingCheckpoint checkpoint = checkpoints.get(i);
+				if (checkpoint.offset < offset) {
+					return checkpoint;
+				}
+			}
+			return null;
+		}
+	}
+
 	public List<FoldingRange> getFoldingRanges(TextDocument document, XMLFoldingSettings context,
 			CancelChecker cancelChecker) {
-		Scanner scanner = XMLScanner.createScanner(document.getText());
-		TokenType token = scanner.scan();
-		List<FoldingRange> ranges = new ArrayList<>();
+		return getFoldingRanges(document, null, context, cancelChecker);
+	}
 
-		List<TagInfo> stack = new ArrayList<>();
-		String lastTagName = null;
-		int prevStart = -1;
+	/**
+	 * Returns the folding ranges of the given document.
+	 *
+	 * <p>
+	 * When the scanner checkpoints of the document are given, the folding state is
+	 * recorded at each checkpoint and the next computation for the same document
+	 * URI restarts from the last checkpoint before the first changed character.
+	 * </p>
+	 *
+	 * @param document      the text document.
+	 * @param checkpoints   the scanner checkpoints of the text of the document and
+	 *                      null otherwise.
+	 * @param context       the folding settings.
+	 * @param cancelChecker the cancel checker.
+	 * @return the folding ranges of the given document.
+	 */
+	public List<FoldingRange> getFoldingRanges(TextDocument document, ScannerCheckpoints checkpoints,
+			XMLFoldingSettings context, CancelChecker cancelChecker) {
+		String text = document.getText();
+		FoldingResult previous = checkpoints != null ? foldingResults.get(document.getUri()) : null;
+		List<FoldingRange> ranges = previous != null && previous.text.equals(text) ? previous.ranges
+				: scan(document, text, checkpoints, previous, cancelChecker);
 
+		int rangeLimit = context != null && context.getRangeLimit() != null ? context.getRangeLimit()
+				: Integer.MAX_VALUE;
+		if (ranges.size() > rangeLimit) {
+			return limitRanges(new ArrayList<>(ranges), rangeLimit);
+		}
+		return new ArrayList<>(ranges);
+	}
+
+	private List<FoldingRange> scan(TextDocument document, String text, ScannerCheckpoints checkpoints,
+			FoldingResult previous, CancelChecker cancelChecker) {
+		FoldingCheckpoint start = previous != null
+				? previous.getCheckpointBefore(getCommonPrefixLength(previous.text, text))
+				: null;
+		List<FoldingRange> ranges;
+		List<TagInfo> stack;
+		String lastTagName;
+		int prevStart;
+		List<FoldingCheckpoint> foldingCheckpoints = new ArrayList<>();
+		Scanner scanner;
+		if (start != null) {
+			// the text before the checkpoint is unchanged, restart from its folding state
+			ranges = new ArrayList<>(previous.ranges.subList(0, start.rangesCount));
+			stack = new ArrayList<>(start.stack);
+			lastTagName = start.lastTagName;
+			prevStart = start.prevStart;
+			for (FoldingCheckpoint checkpoint : previous.checkpoints) {
+				if (checkpoint.offset >= start.offset) {
+					break;
+				}
+				foldingCheckpoints.add(checkpoint);
+			}
+			scanner = XMLScanner.createScanner(text, start.offset, ScannerState.WithinContent);
+		} else {
+			ranges = new ArrayList<>();
+			stack = new ArrayList<>();
+			lastTagName = null;
+			prevStart = -1;
+			scanner = XMLScanner.createScanner(text);
+		}
+		int nextCheckpoint = 0;
+		ScannerState state = ScannerState.WithinContent;
 		try {
+			TokenType token = scanner.scan();
 			while (token != TokenType.EOS) {
 				cancelChecker.checkCanceled();
+				if (checkpoints != null) {
+					int tokenOffset = scanner.getTokenOffset();
+					while (nextCheckpoint < checkpoints.size() && checkpoints.get(nextCheckpoint) < tokenOffset) {
+						nextCheckpoint++;
+					}
+					if (nextCheckpoint < checkpoints.size() && checkpoints.get(nextCheckpoint) == tokenOffset
+							&& state == ScannerState.WithinContent) {
+						// the scanner can restart at the checkpoint
+						foldingCheckpoints.add(new FoldingCheckpoint(tokenOffset, new ArrayList<>(stack), lastTagName,
+								prevStart, ranges.size()));
+						nextCheckpoint++;
+					}
+				}
 				switch (token) {
 				case StartTag: {
 					String tagName = scanner.getTokenText();
@@ -115,8 +265,8 @@ class XMLFoldings {
 				}
 				case Comment: {
 					int startLine = document.positionAt(scanner.getTokenOffset()).getLine();
-					String text = scanner.getTokenText();
-					Matcher m = REGION_PATTERN.matcher(text);
+					String commentText = scanner.getTokenText();
+					Matcher m = REGION_PATTERN.matcher(commentText);
 					if (m.find()) {
 						if ("#region".equals(m.group().trim())) { // start pattern match
 							stack.add(new TagInfo(startLine, "")); // empty tagName marks region
@@ -154,24 +304,33 @@ class XMLFoldings {
 				}
 				default:
 				}
+				state = scanner.getScannerState();
 				token = scanner.scan();
 			}
-
-			int rangeLimit = context != null && context.getRangeLimit() != null ? context.getRangeLimit()
-					: Integer.MAX_VALUE;
-			if (ranges.size() > rangeLimit) {
-				ranges = limitRanges(ranges, rangeLimit);
-			}
 		} catch (BadLocationException e) {
 			LOGGER.log(Level.SEVERE, "Foldings received a BadLocation while scanning the document", e);
+			return ranges;
 		} catch (StackOverflowError e) {
 			// This exception occurs with large file, why?
 			// For the moment we catch it.
 			LOGGER.log(Level.SEVERE, "Foldings received a StackOverflowError while scanning the document", e);
+			return ranges;
+		}
+		if (checkpoints != null && checkpoints.size() > 0) {
+			foldingResults.put(document.getUri(), new FoldingResult(text, ranges, foldingCheckpoints));
 		}
 		return ranges;
 	}
 
+	private static int getCommonPrefixLength(String text1, String text2) {
+		int length = Math.min(text1.length(), text2.length());
+		int i = 0;
+		while (i < length && text1.charAt(i) == text2.charAt(i)) {
+			i++;
+		}
+		return i;
+	}
+
 	private static int addRange(FoldingRange range, List<FoldingRange> ranges) {
 		ranges.add(range);
 		return range.getStartLine();
@@ -33,6 +33,7 @@ import org.eclipse.lemminx.dom.DOMText;
 import org.eclipse.lemminx.dom.DTDAttlistDecl;
 import org.eclipse.lemminx.dom.DTDDeclNode;
 import org.eclipse.lemminx.dom.DTDDeclParameter;
+import org.eclipse.lemminx.dom.parser.ScannerCheckpoints;
 import org.eclipse.lemminx.services.extensions.XMLExtensionsRegistry;
 import org.eclipse.lemminx.services.extensions.format.IFormatterParticipant;
 import org.eclipse.lemminx.settings.SharedSettings;
@@ -52,6 +53,7 @@ class XMLFormatter {
 	private static class XMLFormatterDocument {
 		private final TextDocument textDocument;
 		private final Range range;
+		private final ScannerCheckpoints checkpoints;
 		private final SharedSettings sharedSettings;
 		private final Collection<IFormatterParticipant> formatterParticipants;
 		private final EmptyElements emptyElements;
@@ -68,10 +70,11 @@ class XMLFormatter {
 		/**
 		 * XML formatter document.
 		 */
-		public XMLFormatterDocument(TextDocument textDocument, Range range, SharedSettings sharedSettings,
-				Collection<IFormatterParticipant> formatterParticipants) {
+		public XMLFormatterDocument(TextDocument textDocument, Range range, ScannerCheckpoints checkpoints,
+				SharedSettings sharedSettings, Collection<IFormatterParticipant> formatterParticipants) {
 			this.textDocument = textDocument;
 			this.range = range;
+			this.checkpoints = checkpoints;
 			this.sharedSettings = sharedSettings;
 			this.formatterParticipants = formatterParticipants;
 			this.emptyElements = sharedSettings.getFormattingSettings().getEmptyElements();
@@ -86,11 +89,13 @@ class XMLFormatter {
 		 * @throws BadLocationException
 		 */
 		public List<? extends TextEdit> format() throws BadLocationException {
-			this.fullDomDocument = DOMParser.getInstance().parse(textDocument.getText(), textDocument.getUri(), null,
-					false);
+			if (isRangeFormatting()) {
+				setupRangeOffsets(range);
+			}
+			this.fullDomDocument = parseFullDocument();
 
 			if (isRangeFormatting()) {
-				setupRangeFormatting(range);
+				setupRangeFormatting();
 			} else {
 				setupFullFormatting(range);
 			}
@@ -106,7 +111,7 @@ class XMLFormatter {
 			return this.range != null;
 		}
 
-		private void setupRangeFormatting(Range range) throws BadLocationException {
+		private void setupRangeOffsets(Range range) throws BadLocationException {
 			int startOffset = this.textDocument.offsetAt(range.getStart());
 			int endOffset = this.textDocument.offsetAt(range.getEnd());
 
@@ -116,11 +121,40 @@ class XMLFormatter {
 
 			this.startOffset = this.textDocument.offsetAt(startPosition);
 			this.endOffset = this.textDocument.offsetAt(endPosition);
+		}
+
+		/**
+		 * Returns the DOM document of the text used to find the nodes of the formatted
+		 * range.
+		 *
+		 * <p>
+		 * For range formatting, the nodes are searched before the end of the range, so
+		 * when the scanner checkpoints are available the text is parsed only up to the
+		 * first checkpoint after the range : a checkpoint is outside of any tag, so the
+		 * nodes which start before it are parsed in the same way than in the full
+		 * text.
+		 * </p>
+		 *
+		 * @return the DOM document of the text used to find the nodes of the formatted
+		 *         range.
+		 */
+		private DOMDocument parseFullDocument() {
+			String text = textDocument.getText();
+			if (isRangeFormatting() && checkpoints != null) {
+				int end = checkpoints.getCheckpointAfter(this.endOffset);
+				if (end != -1 && end < text.length() && (text.charAt(end - 1) == '>' || text.charAt(end) == '<')) {
+					text = text.substring(0, end);
+				}
+			}
+			return DOMParser.getInstance().parse(text, textDocument.getUri(), null, false);
+		}
 
+		private void setupRangeFormatting() throws BadLocationException {
+			Position startPosition = this.textDocument.positionAt(this.startOffset);
 			String fullText = this.textDocument.getText();
 			String rangeText = fullText.substring(this.startOffset, this.endOffset);
 
-			withinDTDContent = this.fullDomDocument.isWithinInternalDTD(startOffset);
+			withinDTDContent = this.fullDomDocument.isWithinInternalDTD(this.textDocument.offsetAt(range.getStart()));
 			String uri = this.textDocument.getUri();
 			if (withinDTDContent) {
 				uri += ".dtd";
@@ -821,9 +855,25 @@ class XMLFormatter {
 	 * @return List containing a TextEdit with formatting changes
 	 */
 	public List<? extends TextEdit> format(TextDocument textDocument, Range range, SharedSettings sharedSettings) {
+		return format(textDocument, range, null, sharedSettings);
+	}
+
+	/**
+	 * Returns a List containing a single TextEdit, containing the newly formatted
+	 * changes of the document.
+	 *
+	 * @param textDocument   document to perform formatting on
+	 * @param range          specified range in which formatting will be done
+	 * @param checkpoints    the scanner checkpoints of the document and null
+	 *                       otherwise
+	 * @param sharedSettings settings containing formatting preferences
+	 * @return List containing a TextEdit with formatting changes
+	 */
+	public List<? extends TextEdit> format(TextDocument textDocument, Range range, ScannerCheckpoints checkpoints,
+			SharedSettings sharedSettings) {
 		try {
-			XMLFormatterDocument formatterDocument = new XMLFormatterDocument(textDocument, range, sharedSettings,
-					getFormatterParticipants());
+			XMLFormatterDocument formatterDocument = new XMLFormatterDocument(textDocument, range, checkpoints,
+					sharedSettings, getFormatterParticipants());
 			return formatterDocument.format();
 		} catch (BadLocationException e) {
 			LOGGER.log(Level.SEVERE, "Formatting failed due to BadLocation", e);
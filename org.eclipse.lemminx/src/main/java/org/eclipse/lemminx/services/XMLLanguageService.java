@@ -25,6 +25,8 @@ import org.eclipse.lemminx.dom.DOMDocument;
 import org.eclipse.lemminx.dom.DOMElement;
 import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
 import org.eclipse.lemminx.services.extensions.XMLExtensionsRegistry;
+import org.eclipse.lemminx.services.extensions.save.ISaveContext;
+import org.eclipse.lemminx.services.extensions.save.ISaveContext.SaveContextType;
 import org.eclipse.lemminx.settings.SharedSettings;
 import org.eclipse.lemminx.settings.XMLCodeLensSettings;
 import org.eclipse.lemminx.settings.XMLCompletionSettings;
@@ -118,6 +120,11 @@ public class XMLLanguageService extends XMLExtensionsRegistry implements IXMLFul
 		return formatter.format(document, range, sharedSettings);
 	}
 
+	public List<? extends TextEdit> format(DOMDocument xmlDocument, Range range, SharedSettings sharedSettings) {
+		return formatter.format(xmlDocument.getTextDocument(), range, xmlDocument.getScannerCheckpoints(),
+				sharedSettings);
+	}
+
 	public List<DocumentHighlight> findDocumentHighlights(DOMDocument xmlDocument, Position position) {
 		return findDocumentHighlights(xmlDocument, position, NULL_CHECKER);
 	}
@@ -168,6 +175,15 @@ public class XMLLanguageService extends XMLExtensionsRegistry implements IXMLFul
 		return diagnostics.doDiagnostics(xmlDocument, validationSettings, cancelChecker);
 	}
 
+	@Override
+	public void doSave(ISaveContext saveContext) {
+		if (saveContext != null && saveContext.getType() == SaveContextType.SETTINGS) {
+			// the settings can change the diagnostics of the documents
+			diagnostics.clearResultCache();
+		}
+		super.doSave(saveContext);
+	}
+
 	public CompletableFuture<Path> publishDiagnostics(DOMDocument xmlDocument,
 			Consumer<PublishDiagnosticsParams> publishDiagnostics, Consumer<TextDocument> triggerValidation,
 			XMLValidationSettings validationSettings, CancelChecker cancelChecker) {
@@ -228,7 +244,8 @@ public class XMLLanguageService extends XMLExtensionsRegistry implements IXMLFul
 
 	public List<FoldingRange> getFoldingRanges(DOMDocument xmlDocument, XMLFoldingSettings context,
 			CancelChecker cancelChecker) {
-		return foldings.getFoldingRanges(xmlDocument.getTextDocument(), context, cancelChecker);
+		return foldings.getFoldingRanges(xmlDocument.getTextDocument(), xmlDocument.getScannerCheckpoints(), context,
+				cancelChecker);
 	}
 
 	public List<SelectionRange> getSelectionRanges(DOMDocument xmlDocument, List<Position> positions,
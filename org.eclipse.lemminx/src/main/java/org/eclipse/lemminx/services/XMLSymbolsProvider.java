@@ -31,9 +31,12 @@ import org.eclipse.lemminx.dom.DTDDeclParameter;
 import org.eclipse.lemminx.dom.DTDElementDecl;
 import org.eclipse.lemminx.dom.DTDNotationDecl;
 import org.eclipse.lemminx.services.LimitList.ResultLimitExceededException;
+import org.eclipse.lemminx.services.SubtreeResultsCache.DocumentResults;
+import org.eclipse.lemminx.services.SubtreeResultsCache.SubtreeResult;
 import org.eclipse.lemminx.services.extensions.ISymbolsProviderParticipant;
 import org.eclipse.lemminx.services.extensions.ISymbolsProviderParticipant.SymbolStrategy;
 import org.eclipse.lemminx.services.extensions.XMLExtensionsRegistry;
+import org.eclipse.lemminx.settings.XMLSymbolExpressionFilter;
 import org.eclipse.lemminx.settings.XMLSymbolFilter;
 import org.eclipse.lemminx.settings.XMLSymbolSettings;
 import org.eclipse.lemminx.xpath.matcher.IXPathNodeMatcher.MatcherType;
@@ -76,8 +79,13 @@ class XMLSymbolsProvider {
 	private static final Logger LOGGER = Logger.getLogger(XMLSymbolsProvider.class.getName());
 	private final XMLExtensionsRegistry extensionsRegistry;
 
+	// The document symbols of the subtrees of the previous versions of the
+	// documents
+	private final SubtreeResultsCache<DocumentSymbol> documentSymbolsCache;
+
 	public XMLSymbolsProvider(XMLExtensionsRegistry extensionsRegistry) {
 		this.extensionsRegistry = extensionsRegistry;
+		this.documentSymbolsCache = new SubtreeResultsCache<>();
 	}
 
 	// -------------- Symbol informations
@@ -171,31 +179,59 @@ class XMLSymbolsProvider {
 			boolean isDTD = xmlDocument.isDTD();
 			boolean hasFilterForAttr = filter.hasFilterFor(MatcherType.ATTRIBUTE);
 			List<DOMNode> nodesToIgnore = new ArrayList<>();
-			xmlDocument.getRoots().forEach(node -> {
-				try {
-					if ((node.isDoctype() && isDTD)) {
-						nodesToIgnore.add(node);
+			// The symbols of the subtrees can be reused only if they depend only on the
+			// subtree (the XPath expressions of the filter can match the ancestors)
+			DocumentResults<DocumentSymbol> cachedSymbols = isDTD || hasExpressions(filter) ? null
+					: documentSymbolsCache.open(xmlDocument);
+			try {
+				for (DOMNode node : xmlDocument.getRoots()) {
+					try {
+						if ((node.isDoctype() && isDTD)) {
+							nodesToIgnore.add(node);
+						}
+						findDocumentSymbols(node, symbols, nodesToIgnore, filter, hasFilterForAttr, cachedSymbols,
+								cancelChecker);
+					} catch (BadLocationException e) {
+						LOGGER.log(Level.SEVERE,
+								"XMLSymbolsProvider#findDocumentSymbols was given a BadLocation by a 'node' variable",
+								e);
 					}
-					findDocumentSymbols(node, symbols, nodesToIgnore, filter, hasFilterForAttr, cancelChecker);
-				} catch (BadLocationException e) {
-					LOGGER.log(Level.SEVERE,
-							"XMLSymbolsProvider#findDocumentSymbols was given a BadLocation by a 'node' variable", e);
 				}
-			});
+			} finally {
+				if (cachedSymbols != null) {
+					documentSymbolsCache.close(cachedSymbols);
+				}
+			}
 		} catch (ResultLimitExceededException e) {
 			symbols.setResultLimitExceeded(true);
 		}
 		return symbols;
 	}
 
-	private void findDocumentSymbols(DOMNode node, DocumentSymbolsResult symbols, List<DOMNode> nodesToIgnore,
-			XMLSymbolFilter filter, boolean hasFilterForAttr, CancelChecker cancelChecker) throws BadLocationException {
+	/**
+	 * Add the document symbols of the given node and returns the number of added
+	 * symbols.
+	 */
+	private int findDocumentSymbols(DOMNode node, DocumentSymbolsResult symbols, List<DOMNode> nodesToIgnore,
+			XMLSymbolFilter filter, boolean hasFilterForAttr, DocumentResults<DocumentSymbol> cachedSymbols,
+			CancelChecker cancelChecker) throws BadLocationException {
 		if (!isNodeSymbol(node, filter)) {
-			return;
+			return 0;
 		}
 		cancelChecker.checkCanceled();
 
 		boolean hasChildNodes = node.hasChildNodes();
+		boolean cacheable = cachedSymbols != null && hasChildNodes && node.isElement();
+		if (cacheable) {
+			// Reuse the symbols of the same subtree of the previous version of the
+			// document
+			int count = addCachedSymbol(node, symbols, cachedSymbols);
+			if (count > 0) {
+				return count;
+			}
+		}
+		int count = 0;
+		DocumentSymbol symbol = null;
 		DocumentSymbolsResult childrenSymbols = symbols;
 		if (nodesToIgnore == null || !nodesToIgnore.contains(node)) {
 			String name;
@@ -214,15 +250,16 @@ class XMLSymbolsProvider {
 			childrenSymbols = hasChildNodes || node.isDTDElementDecl() || node.isDTDAttListDecl() || collectAttributes
 					? symbols.createList()
 					: DocumentSymbolsResult.EMPTY_LIMITLESS_LIST;
-			DocumentSymbol symbol = new DocumentSymbol(name, getSymbolKind(node), range, selectionRange, null,
-					childrenSymbols);
+			symbol = new DocumentSymbol(name, getSymbolKind(node), range, selectionRange, null, childrenSymbols);
 			symbols.add(symbol);
+			count++;
 
 			if (node.isElement()) {
 				if (collectAttributes) {
 					// Collect attributes from the DOM element
 					for (DOMAttr attr : node.getAttributeNodes()) {
-						findDocumentSymbols(attr, childrenSymbols, null, filter, hasFilterForAttr, cancelChecker);
+						count += findDocumentSymbols(attr, childrenSymbols, null, filter, hasFilterForAttr, null,
+								cancelChecker);
 					}
 				}
 			} else {
@@ -239,14 +276,15 @@ class XMLSymbolsProvider {
 					}
 
 					for (DOMNode attrDecl : attlistDecls) {
-						findDocumentSymbols(attrDecl, childrenSymbols, null, filter, hasFilterForAttr, cancelChecker);
+						count += findDocumentSymbols(attrDecl, childrenSymbols, null, filter, hasFilterForAttr, null,
+								cancelChecker);
 						if (attrDecl instanceof DTDAttlistDecl) {
 							DTDAttlistDecl decl = (DTDAttlistDecl) attrDecl;
 							List<DTDAttlistDecl> otherAttributeDecls = decl.getInternalChildren();
 							if (otherAttributeDecls != null) {
 								for (DTDAttlistDecl internalDecl : otherAttributeDecls) {
-									findDocumentSymbols(internalDecl, childrenSymbols, null, filter, hasFilterForAttr,
-											cancelChecker);
+									count += findDocumentSymbols(internalDecl, childrenSymbols, null, filter,
+											hasFilterForAttr, null, cancelChecker);
 								}
 							}
 						}
@@ -256,17 +294,68 @@ class XMLSymbolsProvider {
 			}
 		}
 		if (!hasChildNodes) {
-			return;
+			return count;
 		}
-		final DocumentSymbolsResult childrenOfChild = childrenSymbols;
-		node.getChildren().forEach(child -> {
+		for (DOMNode child : node.getChildren()) {
 			try {
-				findDocumentSymbols(child, childrenOfChild, nodesToIgnore, filter, hasFilterForAttr, cancelChecker);
+				count += findDocumentSymbols(child, childrenSymbols, nodesToIgnore, filter, hasFilterForAttr,
+						cachedSymbols, cancelChecker);
 			} catch (BadLocationException e) {
 				LOGGER.log(Level.SEVERE, "XMLSymbolsProvider was given a BadLocation by the provided 'node' variable",
 						e);
 			}
-		});
+		}
+		if (cacheable && symbol != null) {
+			cachedSymbols.put(node, symbol.getRange().getStart(), symbol, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Add the cached symbol of the given node and returns the number of added
+	 * symbols, or 0 if the symbols of the subtree are not cached.
+	 */
+	private static int addCachedSymbol(DOMNode node, DocumentSymbolsResult symbols,
+			DocumentResults<DocumentSymbol> cachedSymbols) throws BadLocationException {
+		SubtreeResult<DocumentSymbol> cached = cachedSymbols.get(node);
+		if (cached == null || !symbols.reserve(cached.getCount() - 1)) {
+			return 0;
+		}
+		Position start = node.getOwnerDocument().positionAt(node.getStart());
+		DocumentSymbol symbol = cached.getResult();
+		if (!start.equals(cached.getStart())) {
+			// the subtree has moved, shift the positions of the symbols
+			symbol = shift(symbol, cached.getStart(), start);
+			cachedSymbols.put(node, start, symbol, cached.getCount());
+		}
+		symbols.add(symbol);
+		return cached.getCount();
+	}
+
+	private static DocumentSymbol shift(DocumentSymbol symbol, Position oldStart, Position newStart) {
+		List<DocumentSymbol> children = symbol.getChildren();
+		if (children != null && !children.isEmpty()) {
+			List<DocumentSymbol> shiftedChildren = new ArrayList<>(children.size());
+			for (DocumentSymbol child : children) {
+				shiftedChildren.add(shift(child, oldStart, newStart));
+			}
+			children = shiftedChildren;
+		}
+		DocumentSymbol shifted = new DocumentSymbol(symbol.getName(), symbol.getKind(),
+				shift(symbol.getRange(), oldStart, newStart), shift(symbol.getSelectionRange(), oldStart, newStart),
+				symbol.getDetail(), children);
+		shifted.setTags(symbol.getTags());
+		return shifted;
+	}
+
+	private static Range shift(Range range, Position oldStart, Position newStart) {
+		return new Range(SubtreeResultsCache.shift(range.getStart(), oldStart, newStart),
+				SubtreeResultsCache.shift(range.getEnd(), oldStart, newStart));
+	}
+
+	private static boolean hasExpressions(XMLSymbolFilter filter) {
+		XMLSymbolExpressionFilter[] expressions = filter.getExpressions();
+		return expressions != null && expressions.length > 0;
 	}
 
 	private boolean isNodeSymbol(DOMNode node, XMLSymbolFilter filter) {
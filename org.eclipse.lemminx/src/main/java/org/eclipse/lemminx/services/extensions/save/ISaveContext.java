@@ -12,6 +12,7 @@
  */
 package org.eclipse.lemminx.services.extensions.save;
 
+import java.util.Collection;
 import java.util.function.Predicate;
 
 import org.eclipse.lemminx.dom.DOMDocument;
@@ -42,6 +43,15 @@ public interface ISaveContext extends IXMLDocumentProvider {
 	 */
 	void collectDocumentToValidate(Predicate<DOMDocument> validateDocumentPredicate);
 
+	/**
+	 * This method is called to collect the documents with the given URIs to
+	 * validate after the save. The URIs of the documents which are not opened are
+	 * ignored.
+	 * 
+	 * @param documentURIs the URIs of the documents to validate.
+	 */
+	void collectDocumentToValidate(Collection<String> documentURIs);
+
 	/**
 	 * Returns the save context type.
 	 * 
@@ -22,6 +22,18 @@ public class ServerSettings {
 
 	private String workDir;
 
+	private Integer validationWorkers;
+
+	private Integer interactiveThreads;
+
+	private Integer requestThreads;
+
+	private Integer parseThreads;
+
+	private Integer backgroundThreads;
+
+	private Boolean virtualThreads;
+
 	/**
 	 * @return the workDir
 	 */
@@ -49,4 +61,117 @@ public class ServerSettings {
 		return FilesUtils.normalizePath(workDir);
 	}
 
+	/**
+	 * Returns the maximum number of documents which can be validated at the same
+	 * time and null if it is not defined.
+	 * 
+	 * @return the maximum number of documents which can be validated at the same
+	 *         time and null if it is not defined.
+	 */
+	public Integer getValidationWorkers() {
+		return validationWorkers;
+	}
+
+	/**
+	 * @param validationWorkers the maximum number of documents which can be
+	 *                          validated at the same time.
+	 */
+	public void setValidationWorkers(Integer validationWorkers) {
+		this.validationWorkers = validationWorkers;
+	}
+
+	/**
+	 * Returns the number of threads reserved for the interactive requests
+	 * (completion, hover, etc) and null if it is not defined.
+	 * 
+	 * @return the number of threads reserved for the interactive requests and
+	 *         null if it is not defined.
+	 */
+	public Integer getInteractiveThreads() {
+		return interactiveThreads;
+	}
+
+	/**
+	 * @param interactiveThreads the number of threads reserved for the
+	 *                           interactive requests.
+	 */
+	public void setInteractiveThreads(Integer interactiveThreads) {
+		this.interactiveThreads = interactiveThreads;
+	}
+
+	/**
+	 * Returns the number of threads which process the other requests and null if
+	 * it is not defined.
+	 * 
+	 * @return the number of threads which process the other requests and null if
+	 *         it is not defined.
+	 */
+	public Integer getRequestThreads() {
+		return requestThreads;
+	}
+
+	/**
+	 * @param requestThreads the number of threads which process the other
+	 *                       requests.
+	 */
+	public void setRequestThreads(Integer requestThreads) {
+		this.requestThreads = requestThreads;
+	}
+
+	/**
+	 * Returns the number of threads which parse the documents and null if it is
+	 * not defined.
+	 * 
+	 * @return the number of threads which parse the documents and null if it is
+	 *         not defined.
+	 */
+	public Integer getParseThreads() {
+		return parseThreads;
+	}
+
+	/**
+	 * @param parseThreads the number of threads which parse the documents.
+	 */
+	public void setParseThreads(Integer parseThreads) {
+		this.parseThreads = parseThreads;
+	}
+
+	/**
+	 * Returns the number of threads which execute the background tasks and null
+	 * if it is not defined.
+	 * 
+	 * @return the number of threads which execute the background tasks and null
+	 *         if it is not defined.
+	 */
+	public Integer getBackgroundThreads() {
+		return backgroundThreads;
+	}
+
+	/**
+	 * @param backgroundThreads the number of threads which execute the background
+	 *                          tasks.
+	 */
+	public void setBackgroundThreads(Integer backgroundThreads) {
+		this.backgroundThreads = backgroundThreads;
+	}
+
+	/**
+	 * Returns true if the requests and the background tasks must be executed with
+	 * virtual threads (JDK 21+) and null if it is not defined.
+	 * 
+	 * @return true if the requests and the background tasks must be executed with
+	 *         virtual threads and null if it is not defined.
+	 */
+	public Boolean getVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * @param virtualThreads true if the requests and the background tasks must be
+	 *                       executed with virtual threads (JDK 21+).
+	 */
+	public void setVirtualThreads(Boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
 }
\ No newline at end of file
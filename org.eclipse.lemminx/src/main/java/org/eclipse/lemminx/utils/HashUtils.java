@@ -0,0 +1,142 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.lemminx.commons.Rope;
+
+/**
+ * Hash utilities.
+ *
+ */
+public class HashUtils {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final int CHUNK_SIZE = 4096;
+
+	private HashUtils() {
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the given text and null if the hash cannot be
+	 * computed.
+	 * 
+	 * @param text the text.
+	 * @return the SHA-256 hash of the given text and null if the hash cannot be
+	 *         computed.
+	 */
+	public static String computeHash(String text) {
+		return computeHash(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the given text and null if the hash cannot be
+	 * computed.
+	 * 
+	 * <p>
+	 * The text is encoded by chunks, so that a large text (ex : the rope of an
+	 * edited document) is hashed without being copied in a String. The hash is
+	 * the same as {@link #computeHash(String)} for the same text.
+	 * </p>
+	 * 
+	 * @param text the text.
+	 * @return the SHA-256 hash of the given text and null if the hash cannot be
+	 *         computed.
+	 */
+	public static String computeHash(CharSequence text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder() //
+					.onMalformedInput(CodingErrorAction.REPLACE) //
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			int length = text.length();
+			char[] chars = new char[Math.min(length, CHUNK_SIZE)];
+			ByteBuffer bytes = ByteBuffer.allocate((int) (chars.length * encoder.maxBytesPerChar()));
+			int start = 0;
+			while (start < length) {
+				int end = Math.min(start + chars.length, length);
+				if (end < length && Character.isHighSurrogate(text.charAt(end - 1))) {
+					// don't split a surrogate pair
+					end--;
+				}
+				getChars(text, start, end, chars);
+				encoder.reset();
+				bytes.clear();
+				encoder.encode(CharBuffer.wrap(chars, 0, end - start), bytes, true);
+				encoder.flush(bytes);
+				bytes.flip();
+				digest.update(bytes);
+				start = end;
+			}
+			return toHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the content of the given file and null if the
+	 * file cannot be read.
+	 * 
+	 * @param file the file.
+	 * @return the SHA-256 hash of the content of the given file and null if the
+	 *         file cannot be read.
+	 */
+	public static String computeHash(Path file) {
+		try {
+			return computeHash(Files.readAllBytes(file));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static String computeHash(byte[] content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return toHex(digest.digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	private static void getChars(CharSequence text, int start, int end, char[] dst) {
+		if (text instanceof String) {
+			((String) text).getChars(start, end, dst, 0);
+		} else if (text instanceof Rope) {
+			((Rope) text).getChars(start, end, dst, 0);
+		} else {
+			for (int i = start; i < end; i++) {
+				dst[i - start] = text.charAt(i);
+			}
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(hex);
+	}
+}
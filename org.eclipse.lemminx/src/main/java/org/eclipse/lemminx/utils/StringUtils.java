@@ -44,7 +44,7 @@ public class StringUtils {
 		return isWhitespace(value, index, value.length());
 	}
 
-	public static boolean isWhitespace(String value, int index, int end) {
+	public static boolean isWhitespace(CharSequence value, int index, int end) {
 		if (value == null) {
 			return false;
 		}
@@ -59,6 +59,77 @@ public class StringUtils {
 		return true;
 	}
 
+	/**
+	 * Returns the index of the first occurrence of the given character in the
+	 * given text from the given index and -1 otherwise.
+	 * 
+	 * @param text      the text.
+	 * @param ch        the character to search.
+	 * @param fromIndex the index to start the search from.
+	 * @return the index of the first occurrence of the given character in the
+	 *         given text from the given index and -1 otherwise.
+	 */
+	public static int indexOf(CharSequence text, char ch, int fromIndex) {
+		if (text instanceof String) {
+			return ((String) text).indexOf(ch, fromIndex);
+		}
+		int length = text.length();
+		for (int i = Math.max(fromIndex, 0); i < length; i++) {
+			if (text.charAt(i) == ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of the given string in the given
+	 * text from the given index and -1 otherwise.
+	 * 
+	 * @param text      the text.
+	 * @param str       the string to search.
+	 * @param fromIndex the index to start the search from.
+	 * @return the index of the first occurrence of the given string in the given
+	 *         text from the given index and -1 otherwise.
+	 */
+	public static int indexOf(CharSequence text, String str, int fromIndex) {
+		if (text instanceof String) {
+			return ((String) text).indexOf(str, fromIndex);
+		}
+		int last = text.length() - str.length();
+		for (int i = Math.max(fromIndex, 0); i <= last; i++) {
+			if (startsWith(text, str, i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns true if the given text contains the given prefix at the given offset
+	 * and false otherwise.
+	 * 
+	 * @param text   the text.
+	 * @param prefix the prefix.
+	 * @param offset the offset.
+	 * @return true if the given text contains the given prefix at the given offset
+	 *         and false otherwise.
+	 */
+	public static boolean startsWith(CharSequence text, String prefix, int offset) {
+		if (text instanceof String) {
+			return ((String) text).startsWith(prefix, offset);
+		}
+		if (offset < 0 || offset > text.length() - prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if (text.charAt(offset + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public static boolean isWhitespace(String value) {
 		return isWhitespace(value, 0);
 	}
@@ -735,9 +735,8 @@ public class XMLPositionUtility {
 			}
 
 			try {
-				Position startPosition = document.positionAt(startOffset);
-				Position endPosition = document.positionAt(endOffset);
-				return new Range(startPosition, endPosition);
+				Position[] positions = document.positionsAt(startOffset, endOffset);
+				return new Range(positions[0], positions[1]);
 			} catch (BadLocationException e) {
 				return null;
 			}
@@ -886,7 +885,8 @@ public class XMLPositionUtility {
 
 	public static Range createRange(int startOffset, int endOffset, DOMDocument document) {
 		try {
-			return new Range(document.positionAt(startOffset), document.positionAt(endOffset));
+			Position[] positions = document.positionsAt(startOffset, endOffset);
+			return new Range(positions[0], positions[1]);
 		} catch (BadLocationException e) {
 			LOGGER.log(Level.SEVERE, "While creating Range the Offset was a BadLocation", e);
 			return null;
@@ -970,9 +970,9 @@ public class XMLPositionUtility {
 	public static DocumentLink createDocumentLink(DOMRange target, String location, boolean adjust)
 			throws BadLocationException {
 		DOMDocument document = target.getOwnerDocument();
-		Position start = document.positionAt(target.getStart() + (adjust ? 1 : 0));
-		Position end = document.positionAt(target.getEnd() - (adjust ? 1 : 0));
-		return new DocumentLink(new Range(start, end), location);
+		Position[] positions = document.positionsAt(target.getStart() + (adjust ? 1 : 0),
+				target.getEnd() - (adjust ? 1 : 0));
+		return new DocumentLink(new Range(positions[0], positions[1]), location);
 	}
 
 	/**
@@ -1002,9 +1002,8 @@ public class XMLPositionUtility {
 		int endOffset = child.getEnd();
 
 		try {
-			Position startPosition = document.positionAt(startOffset);
-			Position endPosition = document.positionAt(endOffset);
-			return new Range(startPosition, endPosition);
+			Position[] positions = document.positionsAt(startOffset, endOffset);
+			return new Range(positions[0], positions[1]);
 		} catch (BadLocationException e) {
 			return null;
 		}
@@ -1042,8 +1041,8 @@ public class XMLPositionUtility {
 		}
 		if (token != TokenType.EOS) {
 			try {
-				return new Range(xmlDocument.positionAt(scanner.getTokenOffset()),
-						xmlDocument.positionAt(scanner.getTokenEnd()));
+				Position[] positions = xmlDocument.positionsAt(scanner.getTokenOffset(), scanner.getTokenEnd());
+				return new Range(positions[0], positions[1]);
 			} catch (BadLocationException e) {
 				LOGGER.log(Level.SEVERE,
 						"While creating Range in XMLHighlighting the Scanner's Offset was a BadLocation", e);
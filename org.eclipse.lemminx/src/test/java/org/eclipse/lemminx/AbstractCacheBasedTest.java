@@ -30,10 +30,14 @@ public abstract class AbstractCacheBasedTest {
 
 	protected static Path TEST_WORK_DIRECTORY = ProjectUtils.getProjectDirectory().resolve("target/test-cache");
 
+	private String previousWorkDirectory;
+
 	@BeforeEach
 	public final void setupCache() throws Exception {
+		previousWorkDirectory = System.getProperty(FilesUtils.LEMMINX_WORKDIR_KEY);
 		clearCache();
 		System.setProperty(FilesUtils.LEMMINX_WORKDIR_KEY, TEST_WORK_DIRECTORY.toAbsolutePath().toString());
+		FilesUtils.resetDeployPath();
 	}
 
 	@AfterEach
@@ -41,7 +45,11 @@ public abstract class AbstractCacheBasedTest {
 		if (Files.exists(TEST_WORK_DIRECTORY)) {
 			MoreFiles.deleteDirectoryContents(TEST_WORK_DIRECTORY,RecursiveDeleteOption.ALLOW_INSECURE);
 		}
-		System.clearProperty(FilesUtils.LEMMINX_WORKDIR_KEY);
+		if (previousWorkDirectory != null) {
+			System.setProperty(FilesUtils.LEMMINX_WORKDIR_KEY, previousWorkDirectory);
+		} else {
+			System.clearProperty(FilesUtils.LEMMINX_WORKDIR_KEY);
+		}
 		FilesUtils.resetDeployPath();
 	}
 }
\ No newline at end of file
@@ -24,6 +24,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -141,6 +142,11 @@ public class XMLAssert {
 
 		}
 
+		@Override
+		public void collectDocumentToValidate(Collection<String> documentURIs) {
+
+		}
+
 	}
 
 	public static void testCompletionFor(String value, CompletionItem... expectedItems) throws BadLocationException {
@@ -0,0 +1,59 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.eclipse.lemminx.commons.ModelResultCache;
+import org.eclipse.lsp4j.DocumentHighlightParams;
+import org.eclipse.lsp4j.FoldingRangeRequestParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the results cached by {@link XMLTextDocumentService}.
+ *
+ */
+public class XMLTextDocumentServiceTest {
+
+	@Test
+	public void resultsKeptOnUnrelatedSave() throws Exception {
+		MockXMLLanguageServer languageServer = new MockXMLLanguageServer();
+		XMLTextDocumentService service = (XMLTextDocumentService) languageServer.getTextDocumentService();
+		ModelResultCache.Statistics statistics = service.getResultCacheStatistics();
+		TextDocumentIdentifier document = languageServer.didOpen("file:///a.xml", "<a>\n<b />\n</a>");
+		// wait for the validation which records the grammars used by the document
+		long timeout = System.currentTimeMillis() + 5000;
+		while (languageServer.getPublishDiagnostics().isEmpty() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, languageServer.getPublishDiagnostics().size());
+
+		FoldingRangeRequestParams foldingParams = new FoldingRangeRequestParams(document);
+		service.foldingRange(foldingParams).get();
+		service.foldingRange(foldingParams).get();
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(1, statistics.getHitCount());
+
+		// the highlights are not cached by position
+		service.documentHighlight(new DocumentHighlightParams(document, new Position(0, 1))).get();
+		service.documentHighlight(new DocumentHighlightParams(document, new Position(1, 1))).get();
+		assertEquals(1, statistics.getMissCount());
+
+		// the saved XML Schema is not used by the document, the results are kept
+		service.doSave("file:///other.xsd");
+		service.foldingRange(foldingParams).get();
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(2, statistics.getHitCount());
+	}
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ArrayLineTracker}.
+ *
+ */
+public class ArrayLineTrackerTest {
+
+	@Test
+	public void lines() throws BadLocationException {
+		ArrayLineTracker tracker = new ArrayLineTracker();
+		tracker.set("a\nbc\r\n\rd");
+		assertEquals(4, tracker.getNumberOfLines());
+		assertEquals(new Position(1, 1), tracker.getPositionAt(3));
+		assertEquals(new Position(3, 0), tracker.getPositionAt(7));
+		assertEquals(new Position(3, 1), tracker.getPositionAt(8));
+		assertEquals(6, tracker.getOffsetAt(new Position(2, 0)));
+		assertEquals("\r\n", tracker.getLineDelimiter(1));
+		assertEquals("\r", tracker.getLineDelimiter(2));
+		assertEquals(null, tracker.getLineDelimiter(3));
+		assertEquals(4, tracker.getLineLength(1));
+		assertEquals(2, tracker.getLineInformation(1).length);
+		assertThrows(BadLocationException.class, () -> tracker.getPositionAt(9));
+		assertThrows(BadLocationException.class, () -> tracker.getOffsetAt(new Position(1, 3)));
+	}
+
+	@Test
+	public void replaceCRLF() throws BadLocationException {
+		// split '\r\n'
+		assertReplace("a\r\nb", 2, 0, "c");
+		assertReplace("a\r\nb", 2, 0, "\r");
+		// merge '\r' and '\n'
+		assertReplace("a\rc\nb", 2, 1, "");
+		assertReplace("a\rb", 2, 0, "\n");
+		assertReplace("a\nb", 1, 0, "\r");
+		// replace a part of '\r\n'
+		assertReplace("a\r\n\r\nb", 2, 2, "x");
+		assertReplace("a\r\n\r\nb", 1, 1, "\n");
+		assertReplace("\r\n", 0, 2, "");
+		assertReplace("", 0, 0, "\r\n\n\r");
+	}
+
+	@Test
+	public void randomReplace() throws BadLocationException {
+		Random random = new Random(0);
+		String[] fragments = { "a", "bc", "\r", "\n", "\r\n", "\n\r", "<foo>\r\n", "" };
+		StringBuilder text = new StringBuilder();
+		ArrayLineTracker tracker = new ArrayLineTracker();
+		tracker.set("");
+		for (int i = 0; i < 2000; i++) {
+			int offset = random.nextInt(text.length() + 1);
+			int length = random.nextInt(Math.min(5, text.length() - offset) + 1);
+			String inserted = fragments[random.nextInt(fragments.length)];
+			text.replace(offset, offset + length, inserted);
+			tracker.replace(offset, length, inserted);
+			assertTracker(text.toString(), tracker);
+		}
+	}
+
+	@Test
+	public void positionsAt() throws BadLocationException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			text.append("line").append(i).append(i % 2 == 0 ? "\n" : "\r\n");
+		}
+		ArrayLineTracker tracker = new ArrayLineTracker();
+		tracker.set(text.toString());
+		int[] offsets = { 0, 3, 5, 6, 7, 200, 201, 540, text.length(), 10, 0 };
+		Position[] positions = tracker.getPositionsAt(offsets);
+		for (int i = 0; i < offsets.length; i++) {
+			assertEquals(tracker.getPositionAt(offsets[i]), positions[i], "Position of offset " + offsets[i]);
+		}
+		assertThrows(BadLocationException.class, () -> tracker.getPositionsAt(0, text.length() + 1));
+		assertThrows(BadLocationException.class, () -> tracker.getPositionsAt(-1));
+	}
+
+	private static void assertReplace(String text, int offset, int length, String inserted)
+			throws BadLocationException {
+		ArrayLineTracker tracker = new ArrayLineTracker();
+		tracker.set(text);
+		tracker.replace(offset, length, inserted);
+		assertTracker(new StringBuilder(text).replace(offset, offset + length, inserted).toString(), tracker);
+	}
+
+	private static void assertTracker(String text, ArrayLineTracker actual) throws BadLocationException {
+		ArrayLineTracker expected = new ArrayLineTracker();
+		expected.set(text);
+		assertEquals(expected.getNumberOfLines(), actual.getNumberOfLines(), text);
+		for (int line = 0; line < expected.getNumberOfLines(); line++) {
+			assertEquals(expected.getLineOffset(line), actual.getLineOffset(line), text);
+			assertEquals(expected.getLineDelimiter(line), actual.getLineDelimiter(line), text);
+		}
+		int[] offsets = new int[text.length() + 1];
+		for (int offset = 0; offset <= text.length(); offset++) {
+			offsets[offset] = offset;
+			assertEquals(expected.getPositionAt(offset), actual.getPositionAt(offset), text);
+		}
+		assertArrayEquals(expected.getPositionsAt(offsets), actual.getPositionsAt(offsets), text);
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the results cached by {@link ModelTextDocument}.
+ *
+ */
+public class ModelTextDocumentTest {
+
+	@Test
+	public void modelIfLoaded() throws Exception {
+		AtomicInteger parseCount = new AtomicInteger();
+		ModelTextDocuments<String> documents = new ModelTextDocuments<>((document, cancelChecker) -> {
+			parseCount.incrementAndGet();
+			return document.getText();
+		});
+		ModelTextDocument<String> document = documents
+				.onDidOpenTextDocument(new DidOpenTextDocumentParams(new TextDocumentItem("a.xml", "xml", 1, "<a/>")));
+		// the model is not loaded
+		assertNull(document.getModelIfLoaded());
+		assertEquals(0, parseCount.get());
+
+		assertEquals("<a/>", document.getModel().get());
+		assertEquals("<a/>", document.getModelIfLoaded());
+		assertEquals(1, parseCount.get());
+
+		// the model of the old text is not returned
+		documents.onDidChangeTextDocument(new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier("a.xml", 2),
+				Collections.singletonList(new TextDocumentContentChangeEvent("<b/>"))));
+		assertNull(document.getModelIfLoaded());
+		assertEquals(1, parseCount.get());
+	}
+
+	@Test
+	public void cacheResultsOfCurrentVersion() throws Exception {
+		ModelTextDocuments<String> documents = new ModelTextDocuments<>(
+				(document, cancelChecker) -> document.getText());
+		ModelTextDocument<String> document = documents
+				.onDidOpenTextDocument(new DidOpenTextDocumentParams(new TextDocumentItem("a.xml", "xml", 1, "<a/>")));
+		AtomicInteger computeCount = new AtomicInteger();
+
+		String model = document.getModel().get();
+		assertEquals("<a/>", document.computeResult(model, "kind", () -> compute(model, computeCount)));
+		assertEquals("<a/>", document.computeResult(model, "kind", () -> compute(model, computeCount)));
+		assertEquals(1, computeCount.get());
+		// the results are cached by key
+		assertNull(document.computeResult(model, "other", () -> null));
+		assertNull(document.computeResult(model, "other", () -> "not null"));
+
+		// the text changes
+		documents.onDidChangeTextDocument(new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier("a.xml", 2),
+				Collections.singletonList(new TextDocumentContentChangeEvent("<b/>"))));
+		// the result computed with the old model is not cached
+		document.computeResult(model, "kind", () -> compute(model, computeCount));
+		assertEquals(2, computeCount.get());
+		String newModel = document.getModel().get();
+		assertEquals("<b/>", document.computeResult(newModel, "kind", () -> compute(newModel, computeCount)));
+		assertEquals("<b/>", document.computeResult(newModel, "kind", () -> compute(newModel, computeCount)));
+		assertEquals(3, computeCount.get());
+
+		// the results are invalidated when the settings change
+		document.invalidateResults();
+		document.computeResult(newModel, "kind", () -> compute(newModel, computeCount));
+		document.computeResult(newModel, "kind", () -> compute(newModel, computeCount));
+		assertEquals(4, computeCount.get());
+
+		ModelResultCache.Statistics statistics = documents.getResultCacheStatistics();
+		assertEquals(4, statistics.getHitCount());
+		assertEquals(4, statistics.getMissCount());
+		assertEquals(0.5, statistics.getHitRate(), 0.001);
+	}
+
+	@Test
+	public void textChangedDuringUpdate() throws Exception {
+		List<String> updates = new ArrayList<>();
+		ModelTextDocument<String> document = new ModelTextDocument<>("<a/>", "a.xml",
+				(textDocument, cancelChecker) -> textDocument.getText(),
+				(textDocument, model, region, cancelChecker) -> {
+					updates.add(model + " " + region);
+					if (updates.size() == 1) {
+						// the text changes while the model is updated
+						textDocument.update(Arrays.asList(insert(3, "c")));
+					}
+					return textDocument.getText();
+				});
+		document.setIncremental(true);
+		assertEquals("<a/>", document.getModel().get());
+
+		document.update(Arrays.asList(insert(2, "b")));
+		assertThrows(CancellationException.class, () -> document.getModel().get());
+		// the updated model is not kept, the last loaded model is updated with the
+		// region which includes the two changes
+		assertEquals("<abc/>", document.getModel().get());
+		assertEquals(Arrays.asList("<a/> [start=2, oldEnd=2, newEnd=3]", "<a/> [start=2, oldEnd=2, newEnd=4]"),
+				updates);
+	}
+
+	private static TextDocumentContentChangeEvent insert(int offset, String text) {
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(text);
+		change.setRange(new Range(new Position(0, offset), new Position(0, offset)));
+		change.setRangeLength(0);
+		return change;
+	}
+
+	private static String compute(String model, AtomicInteger computeCount) {
+		computeCount.incrementAndGet();
+		return model;
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Rope tests
+ *
+ */
+public class RopeTest {
+
+	@Test
+	public void replace() {
+		Rope rope = Rope.of("<foo></foo>");
+		Rope updated = rope.replace(5, 5, "bar");
+		assertEquals("<foo>bar</foo>", updated.toString());
+		assertEquals("<foo></foo>", rope.toString());
+
+		updated = updated.replace(0, 5, "");
+		assertEquals("bar</foo>", updated.toString());
+		assertEquals('b', updated.charAt(0));
+		assertEquals("ar</", updated.subSequence(1, 5).toString());
+	}
+
+	@Test
+	public void stringIsNotCopied() {
+		String text = "<foo></foo>";
+		assertSame(text, Rope.of(text).toString());
+		Rope updated = Rope.of(text).replace(5, 5, "bar");
+		assertSame(updated.toString(), updated.toString());
+	}
+
+	@Test
+	public void randomReplace() {
+		Random random = new Random(0);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			expected.append("<item id=\"").append(i).append("\">text</item>\n");
+		}
+		Rope rope = Rope.of(expected.toString());
+		for (int i = 0; i < 5000; i++) {
+			int start = random.nextInt(expected.length() + 1);
+			int end = Math.min(expected.length(), start + random.nextInt(10));
+			String text = i % 3 == 0 ? "" : "abc".substring(random.nextInt(3));
+			expected.replace(start, end, text);
+			rope = rope.replace(start, end, text);
+			assertEquals(expected.length(), rope.length());
+			int index = random.nextInt(expected.length());
+			assertEquals(expected.charAt(index), rope.charAt(index));
+		}
+		assertEquals(expected.toString(), rope.toString());
+		assertEquals(expected.substring(100, 2000), rope.subSequence(100, 2000).toString());
+		// the rope is balanced
+		assertTrue(rope.depth() <= 32 - Integer.numberOfLeadingZeros(rope.leafCount()) + 16);
+	}
+
+	@Test
+	public void textDocumentUpdate() throws BadLocationException {
+		TextDocument document = new TextDocument("<foo>\n</foo>", "");
+		document.setIncremental(true);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(
+				new Range(new Position(1, 0), new Position(1, 0)), 0, "  <bar />\n");
+		document.update(Arrays.asList(change));
+		assertTrue(document.getTextSequence() instanceof Rope);
+		assertEquals("<foo>\n  <bar />\n</foo>", document.getText());
+		assertEquals("  <bar />", document.lineText(1));
+	}
+
+	@Test
+	public void sequentialCharAt() {
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			expected.append("<item id=\"").append(i).append("\">text</item>\n");
+		}
+		Rope rope = Rope.of(expected.toString());
+		for (int i = 0; i < 100; i++) {
+			int offset = i * 250;
+			expected.insert(offset, "<new />");
+			rope = rope.replace(offset, offset, "<new />");
+		}
+		for (int i = 0; i < expected.length(); i++) {
+			assertEquals(expected.charAt(i), rope.charAt(i));
+		}
+		for (int i = expected.length() - 1; i >= 0; i--) {
+			assertEquals(expected.charAt(i), rope.charAt(i));
+		}
+		// the String of the whole text is not created
+		assertNull(rope.getCachedText());
+	}
+
+	@Test
+	public void parseTextSequence() {
+		TextDocument document = new TextDocument("<foo>\n</foo>", "test.xml");
+		document.setIncremental(true);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(
+				new Range(new Position(1, 0), new Position(1, 0)), 0, "  <bar a=\"b\" />\n");
+		document.update(Arrays.asList(change));
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document, null);
+		// the parser scans the rope without creating the String of the whole text
+		assertNull(((Rope) document.getTextSequence()).getCachedText());
+		assertEquals("bar", xmlDocument.getDocumentElement().getFirstChild().getNodeName());
+	}
+
+	@Test
+	public void parseLargeTextSequence() {
+		StringBuilder text = new StringBuilder("<foo>\n");
+		for (int i = 0; i < 1000; i++) {
+			text.append("  <item id=\"").append(i).append("\">text</item>\n");
+		}
+		text.append("</foo>");
+		TextDocument document = new TextDocument(text.toString(), "test.xml");
+		document.setIncremental(true);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(
+				new Range(new Position(1, 0), new Position(1, 0)), 0, "  <bar a=\"b\" />\n");
+		document.update(Arrays.asList(change));
+		Rope rope = (Rope) document.getTextSequence();
+		assertTrue(rope.depth() > 0);
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document, null);
+		// the parser and the DOM document don't create the String of the whole text
+		assertNull(rope.getCachedText());
+		assertEquals(rope.length(), xmlDocument.getEnd());
+		assertEquals("bar", xmlDocument.getDocumentElement().getFirstChild().getNodeName());
+		// the subtree hash (used by the document symbols) is computed from the text
+		// sequence
+		xmlDocument.getSubtreeHash();
+		assertNull(rope.getCachedText());
+	}
+
+	@Test
+	public void textDocumentItemText() {
+		TextDocument document = new TextDocument("<foo>\n</foo>", "test.xml");
+		document.setIncremental(true);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(
+				new Range(new Position(1, 0), new Position(1, 0)), 0, "  <bar />\n");
+		document.update(Arrays.asList(change));
+		TextDocument expected = new TextDocument("<foo>\n  <bar />\n</foo>", "test.xml");
+		assertEquals(expected, document);
+		assertEquals(expected.hashCode(), document.hashCode());
+		assertEquals(expected.toString(), document.toString());
+	}
+}
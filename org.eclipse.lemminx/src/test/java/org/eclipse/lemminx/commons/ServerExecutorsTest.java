@@ -0,0 +1,178 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ServerExecutors}.
+ *
+ */
+public class ServerExecutorsTest {
+
+	private final ServerExecutors executors = new ServerExecutors();
+
+	@AfterEach
+	public void tearDown() {
+		executors.shutdown();
+	}
+
+	@Test
+	public void interactiveRequestsWhenRequestsAreBusy() throws InterruptedException {
+		executors.setThreads(ExecutorKind.REQUEST, 1);
+		executors.setThreads(ExecutorKind.PARSE, 1);
+		executors.setThreads(ExecutorKind.VALIDATION, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		Runnable longTask = () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		executors.getExecutor(ExecutorKind.REQUEST).execute(longTask);
+		executors.getExecutor(ExecutorKind.PARSE).execute(longTask);
+		executors.getExecutor(ExecutorKind.VALIDATION).execute(longTask);
+
+		CountDownLatch interactive = new CountDownLatch(1);
+		executors.getExecutor(ExecutorKind.INTERACTIVE).execute(interactive::countDown);
+		try {
+			assertTrue(interactive.await(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void interactiveRequestsWhenInteractiveIsBusy() throws InterruptedException {
+		int reservedThreads = executors.getThreads(ExecutorKind.INTERACTIVE);
+		int maximumThreads = executors.getMaximumThreads(ExecutorKind.INTERACTIVE);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(maximumThreads);
+		Runnable longTask = () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		ExecutorService executor = executors.getExecutor(ExecutorKind.INTERACTIVE);
+		try {
+			// the reserved threads are busy, the executor creates new threads
+			for (int i = 0; i < maximumThreads; i++) {
+				executor.execute(longTask);
+			}
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			assertTrue(maximumThreads > reservedThreads);
+
+			// all the threads are busy, the request is executed by the caller thread
+			Thread caller = Thread.currentThread();
+			AtomicBoolean callerRuns = new AtomicBoolean();
+			executor.execute(() -> callerRuns.set(Thread.currentThread() == caller));
+			assertTrue(callerRuns.get());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void setThreads() {
+		executors.setThreads(ExecutorKind.REQUEST, 5);
+		assertEquals(5, executors.getThreads(ExecutorKind.REQUEST));
+		executors.setThreads(ExecutorKind.REQUEST, 1);
+		assertEquals(1, executors.getThreads(ExecutorKind.REQUEST));
+		// invalid value is ignored
+		executors.setThreads(ExecutorKind.REQUEST, 0);
+		assertEquals(1, executors.getThreads(ExecutorKind.REQUEST));
+
+		// the interactive executor keeps its elastic threads
+		executors.setThreads(ExecutorKind.INTERACTIVE, 1);
+		assertEquals(1, executors.getThreads(ExecutorKind.INTERACTIVE));
+		assertEquals(ServerExecutors.ELASTIC_MAX_THREADS, executors.getMaximumThreads(ExecutorKind.INTERACTIVE));
+		executors.setThreads(ExecutorKind.INTERACTIVE, ServerExecutors.ELASTIC_MAX_THREADS + 1);
+		assertEquals(ServerExecutors.ELASTIC_MAX_THREADS + 1, executors.getThreads(ExecutorKind.INTERACTIVE));
+		assertEquals(ServerExecutors.ELASTIC_MAX_THREADS + 1,
+				executors.getMaximumThreads(ExecutorKind.INTERACTIVE));
+	}
+
+	@Test
+	public void virtualThreads() throws InterruptedException {
+		executors.setVirtualThreads(true);
+		// virtual threads are used only if the JVM supports them
+		CountDownLatch done = new CountDownLatch(1);
+		executors.getExecutor(ExecutorKind.INTERACTIVE).execute(done::countDown);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		// the parse executor never uses virtual threads
+		assertNotNull(executors.getExecutor(ExecutorKind.PARSE));
+		executors.setVirtualThreads(false);
+		assertFalse(executors.isVirtualThreads());
+	}
+
+	@Test
+	public void disableVirtualThreadsWhileTasksAreRunning() throws InterruptedException {
+		// a cached thread pool replaces the virtual threads executor which is not
+		// available on all JVMs
+		ExecutorService virtualThreadsExecutor = Executors.newCachedThreadPool();
+		ServerExecutors executors = new ServerExecutors(() -> virtualThreadsExecutor);
+		try {
+			executors.setVirtualThreads(true);
+			assertTrue(executors.isVirtualThreads());
+			ExecutorService executor = executors.getExecutor(ExecutorKind.REQUEST);
+
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CountDownLatch finished = new CountDownLatch(1);
+			AtomicBoolean interrupted = new AtomicBoolean();
+			executor.execute(() -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+				finished.countDown();
+			});
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			executors.setVirtualThreads(false);
+			assertFalse(executors.isVirtualThreads());
+
+			// the executor is still usable by the callers which keep a reference to it
+			CountDownLatch done = new CountDownLatch(1);
+			executor.execute(done::countDown);
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			// the running task is not stopped
+			assertFalse(virtualThreadsExecutor.isShutdown());
+			release.countDown();
+			assertTrue(finished.await(5, TimeUnit.SECONDS));
+			assertFalse(interrupted.get());
+			// the virtual threads executor is shut down when its tasks are finished
+			assertTrue(virtualThreadsExecutor.awaitTermination(5, TimeUnit.SECONDS));
+		} finally {
+			executors.shutdown();
+			virtualThreadsExecutor.shutdownNow();
+		}
+	}
+}
@@ -24,7 +24,7 @@ import org.junit.jupiter.api.Test;
  */
 public class TextDocumentTest {
 
-	// Test with non incremental (with ListLineTracker)
+	// Test with non incremental (with ArrayLineTracker)
 
 	@Test
 	public void testEmptyDocument() throws BadLocationException {
@@ -138,7 +138,7 @@ public class TextDocumentTest {
 		assertNotNull(ex);
 	}
 
-	// Test with incremental (with TreeLineTracker)
+	// Test with incremental (with ArrayLineTracker)
 
 	@Test
 	public void testEmptyDocumentInc() throws BadLocationException {
@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DidCloseTextDocumentParams;
+import org.eclipse.lsp4j.DidOpenTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentItem;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link TextDocuments}.
+ *
+ */
+public class TextDocumentsTest {
+
+	@Test
+	public void openChangeClose() {
+		TextDocuments<TextDocument> documents = new TextDocuments<>();
+		documents.onDidOpenTextDocument(open("a.xml", "<a></a>"));
+		documents.onDidChangeTextDocument(change("a.xml", 2, 3, "b"));
+		TextDocument document = documents.get("a.xml");
+		assertEquals("<a>b</a>", document.getText());
+		assertEquals(2, document.getVersion());
+		assertEquals(1, documents.all().size());
+
+		documents.onDidCloseTextDocument(new DidCloseTextDocumentParams(new TextDocumentIdentifier("a.xml")));
+		assertNull(documents.get("a.xml"));
+		assertNull(documents.onDidChangeTextDocument(change("a.xml", 3, 3, "c")));
+	}
+
+	@Test
+	public void updateDoesNotBlockOtherDocuments() throws InterruptedException {
+		TextDocuments<TextDocument> documents = new TextDocuments<>();
+		TextDocument a = documents.onDidOpenTextDocument(open("a.xml", "<a></a>"));
+		documents.onDidOpenTextDocument(open("b.xml", "<b></b>"));
+
+		CountDownLatch done = new CountDownLatch(1);
+		// the update of a.xml is blocked
+		synchronized (a) {
+			Thread thread = new Thread(() -> {
+				documents.onDidChangeTextDocument(change("b.xml", 2, 2, "c"));
+				documents.onDidOpenTextDocument(open("c.xml", "<c></c>"));
+				documents.get("a.xml");
+				done.countDown();
+			});
+			thread.start();
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+		}
+		assertEquals("<bc></b>", documents.get("b.xml").getText());
+	}
+
+	private static DidOpenTextDocumentParams open(String uri, String text) {
+		return new DidOpenTextDocumentParams(new TextDocumentItem(uri, "xml", 1, text));
+	}
+
+	private static DidChangeTextDocumentParams change(String uri, int version, int character, String text) {
+		Position position = new Position(0, character);
+		return new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(uri, version),
+				Collections.singletonList(new TextDocumentContentChangeEvent(new Range(position, position), 0, text)));
+	}
+}
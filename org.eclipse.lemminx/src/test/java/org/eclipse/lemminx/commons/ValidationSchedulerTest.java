@@ -0,0 +1,176 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.commons;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ValidationScheduler}.
+ *
+ */
+public class ValidationSchedulerTest {
+
+	private final ServerExecutors executors = new ServerExecutors();
+
+	private ValidationScheduler scheduler;
+
+	@AfterEach
+	public void tearDown() {
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+		executors.shutdown();
+	}
+
+	@Test
+	public void coalesceRequests() throws InterruptedException {
+		scheduler = createScheduler(2);
+		List<Integer> validated = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(1);
+		for (int i = 0; i < 10; i++) {
+			int request = i;
+			scheduler.schedule("test.xml", cancelChecker -> {
+				validated.add(request);
+				done.countDown();
+			}, 200);
+		}
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		Thread.sleep(300);
+		assertEquals(1, validated.size());
+		assertEquals(9, validated.get(0));
+	}
+
+	@Test
+	public void cancelSupersededValidation() throws InterruptedException {
+		scheduler = createScheduler(2);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		scheduler.schedule("test.xml", cancelChecker -> {
+			started.countDown();
+			try {
+				while (true) {
+					cancelChecker.checkCanceled();
+					Thread.sleep(10);
+				}
+			} catch (CancellationException e) {
+				cancelled.countDown();
+				throw e;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		scheduler.schedule("test.xml", cancelChecker -> {
+			done.countDown();
+		});
+		assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void boundedWorkers() throws InterruptedException {
+		scheduler = createScheduler(1);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(4);
+		for (int i = 0; i < 4; i++) {
+			scheduler.schedule("test" + i + ".xml", cancelChecker -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				done.countDown();
+			});
+		}
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(1, maxRunning.get());
+	}
+
+	@Test
+	public void validationWaitsForInput() throws InterruptedException {
+		scheduler = createScheduler(1);
+		CompletableFuture<String> model = new CompletableFuture<>();
+		List<String> validated = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(2);
+		scheduler.schedule("test1.xml", () -> model, (input, cancelChecker) -> {
+			validated.add(input);
+			done.countDown();
+		}, 0);
+		// the input of test1.xml is not available, the worker validates test2.xml
+		scheduler.schedule("test2.xml", () -> CompletableFuture.completedFuture("test2"), (input, cancelChecker) -> {
+			validated.add(input);
+			done.countDown();
+		}, 0);
+		model.complete("test1");
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(2, validated.size());
+		assertEquals("test2", validated.get(0));
+		assertEquals("test1", validated.get(1));
+	}
+
+	@Test
+	public void inputCanceled() throws InterruptedException {
+		scheduler = createScheduler(1);
+		CompletableFuture<String> model = new CompletableFuture<>();
+		AtomicInteger validated = new AtomicInteger();
+		scheduler.schedule("test.xml", () -> model, (input, cancelChecker) -> validated.incrementAndGet(), 0);
+		// the document has changed
+		model.cancel(true);
+		CountDownLatch done = new CountDownLatch(1);
+		scheduler.schedule("test.xml", cancelChecker -> done.countDown());
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(0, validated.get());
+	}
+
+	@Test
+	public void executorShutdown() throws InterruptedException {
+		scheduler = createScheduler(1);
+		executors.shutdown();
+		AtomicInteger validated = new AtomicInteger();
+		// the rejected validation is ignored
+		scheduler.schedule("test.xml", cancelChecker -> validated.incrementAndGet());
+		Thread.sleep(100);
+		assertEquals(0, validated.get());
+	}
+
+	@Test
+	public void cancel() throws InterruptedException {
+		scheduler = createScheduler(1);
+		AtomicInteger validated = new AtomicInteger();
+		scheduler.schedule("test.xml", cancelChecker -> validated.incrementAndGet(), 200);
+		scheduler.cancel("test.xml");
+		Thread.sleep(400);
+		assertEquals(0, validated.get());
+	}
+
+	private ValidationScheduler createScheduler(int workers) {
+		executors.setThreads(ExecutorKind.VALIDATION, workers);
+		return new ValidationScheduler(executors.getExecutor(ExecutorKind.VALIDATION));
+	}
+}
@@ -0,0 +1,295 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the offset index used to find the node at a given offset.
+ *
+ */
+public class DOMOffsetIndexTest {
+
+	private DOMParserOptions options;
+
+	@BeforeEach
+	public void setUp() {
+		options = new DOMParserOptions();
+		options.setOffsetIndexThreshold(0);
+	}
+
+	@Test
+	public void elements() {
+		assertFindNodeAt("<root>\n  <a>abcd</a>\n  <b />\n  <c><d><e>text</e></d></c>\n</root>");
+	}
+
+	@Test
+	public void attributes() {
+		assertFindNodeAt(
+				"<root xmlns=\"http://foo\">\n  <a name=\"foo\" b='bar' c= d>abcd</a>\n  <b name=\"bar\" e= />\n</root>");
+	}
+
+	@Test
+	public void manyAttributes() {
+		String text = "<root a1=\"1\" a2=\"2\" a3='3' a4=\"4\" a5 a6=\"6\" a7= a8=\"8\" a9=\"9\"a10=\"10\" />";
+		DOMDocument document = assertFindNodeAt(text);
+		for (int offset = 0; offset <= text.length(); offset++) {
+			DOMAttr expected = null;
+			for (DOMAttr attr : document.getDocumentElement().getAttributeNodes()) {
+				if (attr.isIncluded(offset)) {
+					expected = attr;
+					break;
+				}
+			}
+			assertSame(expected, document.findAttrAt(offset), "offset " + offset);
+		}
+	}
+
+	@Test
+	public void commentsCDATAAndProcessingInstructions() {
+		assertFindNodeAt("<?xml version=\"1.0\"?>\n<root>\n  <a><!-- comment --></a><!-- same line -->\n"
+				+ "  <b><![CDATA[ <data> ]]><?pi content?></b>\n  <c>   </c>\n</root>\n<!-- end -->");
+	}
+
+	@Test
+	public void unclosedElements() {
+		assertFindNodeAt("<root>\n  <a>\n    <b>\n      <c attr=\"");
+		assertFindNodeAt("<root>\n  <a>\n    <b></a>\n  <c></>\n</root>");
+		assertFindNodeAt("<root>\n  <a></b>\n  </");
+	}
+
+	@Test
+	public void doctype() {
+		assertFindNodeAt("<!DOCTYPE root [\n  <!ELEMENT root (a)*>\n  <!ATTLIST root attr CDATA #IMPLIED>\n]>\n"
+				+ "<root>\n  <a>abcd</a>\n</root>");
+	}
+
+	@Test
+	public void disabled() {
+		options.setOffsetIndexThreshold(DOMParserOptions.DEFAULT_OFFSET_INDEX_THRESHOLD);
+		DOMDocument document = parse("<root><a /></root>");
+		assertEquals("a", document.findNodeAt(7).getNodeName());
+		assertNull(document.getOffsetIndex());
+	}
+
+	@Test
+	public void createdByParser() {
+		DOMDocument document = parse("<root><a /></root>");
+		// the index is created before a node is searched
+		assertNotNull(document.getOffsetIndex());
+	}
+
+	@Test
+	public void compact() {
+		options.setCompactThreshold(0);
+		String text = "<root>\n  <a name=\"foo\"><b>abcd</b><!-- comment --></a>\n  <c><d><e>text</e></d></c>\n  <f>\n</root>";
+		DOMDocument document = parse(text);
+		DOMElement root = document.getDocumentElement();
+		// the nodes stored in the compact table are indexed without being materialized
+		assertNotNull(document.getOffsetIndex());
+		assertNotNull(root.getCompactTable());
+
+		DOMNode e = document.findNodeAt(text.indexOf("text"));
+		assertEquals("e", e.getNodeName());
+		// only the children lists of the ancestors are materialized
+		DOMElement a = (DOMElement) root.getFirstChild();
+		assertNotNull(a.getCompactTable());
+		assertSame(e, document.findNodeBefore(text.indexOf("text") + 1).getParentNode());
+
+		assertFindNodeAt(text, document);
+	}
+
+	@Test
+	public void compactUpdateIncremental() throws Exception {
+		options.setCompactThreshold(0);
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a name=\"foo\">abcd</a>\n  <b name=\"bar\" />\n  <c><d>text</d></c>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldText = document.getText();
+
+		// abcd|
+		DOMDocument updatedDocument = change(document, oldText.indexOf("abcd") + 4, 0, "<e>new</e>");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertNotNull(updatedDocument.getOffsetIndex());
+		assertFindNodeAt(document.getText(), updatedDocument);
+		assertFindNodeAt(oldText, xmlDocument);
+	}
+
+	@Test
+	public void updateIncremental() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a name=\"foo\">abcd</a>\n  <b name=\"bar\" />\n  <c><d>text</d></c>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		assertNotNull(xmlDocument.getOffsetIndex());
+		String oldText = document.getText();
+
+		// <d>text|</d>
+		DOMDocument updatedDocument = change(document, document.getText().indexOf("text") + 4, 0, "<e>new</e>");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertNotNull(updatedDocument.getOffsetIndex());
+		assertFindNodeAt(document.getText(), updatedDocument);
+		// the index of the previous version is not modified
+		assertFindNodeAt(oldText, xmlDocument);
+
+		// abcd|
+		DOMDocument previousDocument = updatedDocument;
+		updatedDocument = change(document, document.getText().indexOf("abcd") + 4, 0, "<f /><g>text</g>");
+		assertNotSame(previousDocument, updatedDocument);
+		assertFindNodeAt(document.getText(), updatedDocument);
+
+		// remove <b name="bar" />
+		int start = document.getText().indexOf("<b");
+		updatedDocument = change(document, start, document.getText().indexOf("/>", start) + 2 - start, "");
+		assertFindNodeAt(document.getText(), updatedDocument);
+	}
+
+	@Test
+	public void updateIncrementalSmallChunks() throws Exception {
+		StringBuilder text = new StringBuilder("<root>");
+		for (int i = 0; i < 20; i++) {
+			text.append("\n  <a").append(i).append(" name=\"foo\"><b>abcd</b><!-- c --></a").append(i).append(">");
+		}
+		text.append("\n</root>");
+		ModelTextDocument<DOMDocument> document = createDocument(text.toString());
+		DOMDocument xmlDocument = document.getModel().get();
+		// chunks of 8 entries : the index is split in segments at each change and its
+		// entries are copied in new chunks when it has too many segments
+		xmlDocument.setOffsetIndex(DOMOffsetIndex.create(xmlDocument, 3));
+
+		// <a3 name="foo"><b>ab|cd</b>
+		DOMDocument updatedDocument = change(document, document.getText().indexOf("<a3") + 20, 0, "xy");
+		assertNotSame(xmlDocument, updatedDocument);
+		DOMOffsetIndex index = updatedDocument.getOffsetIndex();
+		assertNotEquals(DOMOffsetIndex.create(updatedDocument, 3).getSegmentCount(), index.getSegmentCount());
+		assertFindNodeAt(document.getText(), updatedDocument);
+
+		for (int i = 0; i < 40; i++) {
+			String tag = "<a" + (i * 7 % 20) + " name=\"foo\">";
+			// <aN name="foo">|
+			int offset = document.getText().indexOf(tag) + tag.length();
+			if (i % 3 == 0) {
+				updatedDocument = change(document, offset, 0, "<e><f /></e>");
+			} else if (i % 3 == 1) {
+				updatedDocument = change(document, offset, 0, "x");
+			} else {
+				// remove the first child
+				DOMNode child = updatedDocument.findNodeAt(offset + 1);
+				updatedDocument = change(document, child.getStart(), child.getEnd() - child.getStart(), "");
+			}
+			assertFindNodeAt(document.getText(), updatedDocument);
+		}
+	}
+
+	private DOMDocument parse(String text) {
+		return DOMParser.getInstance().parse(new TextDocument(text, "test.xml"), null, true, options, null);
+	}
+
+	private DOMDocument assertFindNodeAt(String text) {
+		DOMDocument document = parse(text);
+		assertFindNodeAt(text, document);
+		return document;
+	}
+
+	private static void assertFindNodeAt(String text, DOMDocument document) {
+		for (int offset = 0; offset <= text.length(); offset++) {
+			DOMNode actual = document.findNodeAt(offset);
+			assertSame(findNodeAt(document, offset), actual, "offset " + offset);
+			actual = document.findNodeBefore(offset);
+			assertSame(findNodeBefore(document, offset), actual, "offset " + offset);
+		}
+		assertNotNull(document.getOffsetIndex());
+		// the offset index of an updated document must be the same as a new offset
+		// index
+		DOMOffsetIndex index = document.getOffsetIndex();
+		DOMOffsetIndex newIndex = DOMOffsetIndex.create(document);
+		assertEquals(newIndex.size(), index.size());
+	}
+
+	/**
+	 * Returns the node at the given offset without the offset index.
+	 */
+	private static DOMNode findNodeAt(DOMDocument document, int offset) {
+		DOMNode node = document;
+		while (true) {
+			DOMNode last = null;
+			for (DOMNode child : node.getChildren()) {
+				if (offset <= child.getStart()) {
+					break;
+				}
+				last = child;
+			}
+			if (last == null || !DOMNode.isIncluded(last, offset)) {
+				return node;
+			}
+			node = last;
+		}
+	}
+
+	/**
+	 * Returns the node before the given offset without the offset index.
+	 */
+	private static DOMNode findNodeBefore(DOMDocument document, int offset) {
+		DOMNode node = document;
+		while (true) {
+			DOMNode last = null;
+			for (DOMNode child : node.getChildren()) {
+				if (offset <= child.getStart()) {
+					break;
+				}
+				last = child;
+			}
+			if (last == null) {
+				return node;
+			}
+			DOMNode lastChild = last.getLastChild();
+			if (offset >= last.getEnd() && (lastChild == null || lastChild.getEnd() != last.getEnd())) {
+				return last;
+			}
+			node = last;
+		}
+	}
+
+	private ModelTextDocument<DOMDocument> createDocument(String text) {
+		ModelTextDocument<DOMDocument> document = new ModelTextDocument<DOMDocument>(text, "test.xml",
+				(textDocument, cancelChecker) -> {
+					return DOMParser.getInstance().parse(textDocument, null, true, options, cancelChecker);
+				}, (textDocument, xmlDocument, region, cancelChecker) -> {
+					return DOMParser.getInstance().parseIncremental(textDocument, xmlDocument, region, true, options,
+							cancelChecker);
+				});
+		document.setIncremental(true);
+		return document;
+	}
+
+	private static DOMDocument change(ModelTextDocument<DOMDocument> document, int offset, int length, String text)
+			throws Exception {
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(text);
+		change.setRange(new Range(document.positionAt(offset), document.positionAt(offset + length)));
+		change.setRangeLength(length);
+		document.update(Arrays.asList(change));
+		return document.getModel().get();
+	}
+}
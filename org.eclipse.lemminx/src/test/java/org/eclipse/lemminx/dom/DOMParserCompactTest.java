@@ -0,0 +1,308 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the DOM document which stores its nodes in a compact table.
+ *
+ */
+public class DOMParserCompactTest {
+
+	private static final DOMParserOptions COMPACT_OPTIONS = createCompactOptions();
+
+	@Test
+	public void elements() {
+		assertCompact("<root>\n  <a>abcd</a>\n  <b />\n  <c><d><e>text</e></d></c>\n</root>");
+	}
+
+	@Test
+	public void attributes() {
+		assertCompact(
+				"<root xmlns=\"http://foo\">\n  <a name=\"foo\" b='bar' c= d>abcd</a>\n  <b name=\"bar\" e= />\n</root>");
+	}
+
+	@Test
+	public void commentsCDATAAndProcessingInstructions() {
+		assertCompact("<?xml version=\"1.0\"?>\n<root>\n  <a><!-- comment --></a><!-- same line -->\n"
+				+ "  <b><![CDATA[ <data> ]]><?pi content?></b>\n  <c>   </c>\n</root>\n<!-- end -->");
+	}
+
+	@Test
+	public void unclosedElements() {
+		assertCompact("<root>\n  <a>\n    <b>\n      <c attr=\"");
+		assertCompact("<root>\n  <a>\n    <b></a>\n  <c></>\n</root>");
+		assertCompact("<root>\n  <a></b>\n  </");
+		assertCompact("<root>\n  <a <b></b></a>\n</root>");
+		assertCompact("<root>\n  <a </a>\n</root>");
+		assertCompact("<root>\n  <a>text<b x=\"1\">\n</root>");
+	}
+
+	@Test
+	public void doctype() {
+		assertCompact("<!DOCTYPE root [\n  <!ELEMENT root (a)*>\n  <!ATTLIST root attr CDATA #IMPLIED>\n]>\n"
+				+ "<root>\n  <a>abcd</a>\n</root>");
+	}
+
+	@Test
+	public void doctypeInContent() {
+		assertCompact("<root>\n  <a><b>text</b><!DOCTYPE a>\n  <c /></a>\n</root>");
+		assertCompact("<root>\n  <a><b>text</b></a><!DOCTYPE a [<!ELEMENT a ANY>]>\n  <c><d /></c>\n</root>");
+	}
+
+	@Test
+	public void materializeOnDemand() {
+		DOMDocument document = parseCompact("<root>\n  <a><b>text</b></a>\n</root>");
+		DOMElement root = document.getDocumentElement();
+		assertNotNull(root.getCompactTable());
+		assertTrue(root.hasChildNodes());
+
+		DOMElement a = (DOMElement) root.getFirstChild();
+		assertNull(root.getCompactTable());
+		assertSame(a, root.getChild(0));
+		assertSame(root, a.getParentNode());
+		assertNotNull(a.getCompactTable());
+		assertEquals("text", a.getFirstChild().getFirstChild().getTextContent());
+	}
+
+	@Test
+	public void materializeAttributesOnDemand() {
+		DOMDocument document = parseCompact("<root>\n  <a name=\"foo\" b='bar'><b c=\"d\" /></a>\n</root>");
+		DOMElement a = (DOMElement) document.getDocumentElement().getFirstChild();
+		assertNotNull(a.getCompactAttributesTable());
+		assertTrue(a.hasAttributes());
+		assertNotNull(a.getCompactAttributesTable());
+
+		assertEquals("bar", a.getAttribute("b"));
+		assertNull(a.getCompactAttributesTable());
+		assertEquals(2, a.getAttributeNodes().size());
+		assertSame(a, a.getAttributeNode("name").getOwnerElement());
+		DOMElement b = (DOMElement) a.getFirstChild();
+		assertNotNull(b.getCompactAttributesTable());
+		assertEquals("d", b.getAttributeAtIndex(0).getValue());
+	}
+
+	@Test
+	public void releaseMaterializedTable() {
+		DOMDocument document = parseCompact("<root>\n  <a name=\"foo\"><b c=\"d\">text</b></a>\n  <e f=\"g\" />\n</root>");
+		DOMElement root = document.getDocumentElement();
+		DOMNodeTable table = root.getCompactTable();
+		assertNotNull(table);
+		DOMElement a = (DOMElement) root.getFirstChild();
+		assertSame(table, a.getCompactTable());
+		assertEquals("text", a.getFirstChild().getFirstChild().getTextContent());
+		assertFalse(table.isReleased());
+
+		// the attributes of a, b and e are stored in the table
+		assertEquals("foo", a.getAttribute("name"));
+		assertEquals("d", ((DOMElement) a.getFirstChild()).getAttribute("c"));
+		assertFalse(table.isReleased());
+		assertEquals("g", ((DOMElement) root.getLastChild()).getAttribute("f"));
+		assertTrue(table.isReleased());
+	}
+
+	@Test
+	public void findNodeAt() {
+		String text = "<root>\n  <a name=\"foo\">abcd</a>\n  <b />\n</root>";
+		DOMDocument document = parseCompact(text);
+		DOMNode node = document.findNodeAt(text.indexOf("abcd"));
+		assertEquals("a", node.getNodeName());
+		assertEquals("foo", ((DOMElement) node).getAttribute("name"));
+	}
+
+	@Test
+	public void updateIncremental() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a name=\"foo\">abcd</a>\n  <b name=\"bar\" />\n  <c><d>text</d></c>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+
+		// name="foo|"
+		DOMDocument updatedDocument = change(document, 21, 0, "foo");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertDOMDocument(document, updatedDocument);
+		assertEquals("foo", xmlDocument.getDocumentElement().getChild(0).getAttribute("name"));
+		assertEquals("foofoo", updatedDocument.getDocumentElement().getChild(0).getAttribute("name"));
+	}
+
+	@Test
+	public void updateIncrementalWithoutMaterializedAttributes() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a name=\"foo\">abcd</a>\n  <b name=\"bar\" />\n  <c><d>text</d></c>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		DOMElement b = (DOMElement) xmlDocument.getDocumentElement().getChild(1);
+		assertNotNull(b.getCompactAttributesTable());
+
+		// abcd|
+		int nameStart = document.getText().indexOf("name=\"bar\"");
+		DOMDocument updatedDocument = change(document, 27, 0, "<e />");
+		assertNotSame(xmlDocument, updatedDocument);
+		// the compact table is shared by the two versions, the attribute offsets of the
+		// copy of <b> are shifted when its attributes are materialized
+		DOMElement updatedB = (DOMElement) updatedDocument.getDocumentElement().getChild(1);
+		assertNotNull(b.getCompactAttributesTable());
+		assertNotNull(updatedB.getCompactAttributesTable());
+		assertSame(b.getCompactAttributesTable(), updatedB.getCompactAttributesTable());
+		assertDOMDocument(document, updatedDocument);
+		// the attribute offsets of <b> are not modified
+		assertEquals(nameStart, b.getAttributeNode("name").getStart());
+		// the values are read from the parsed text when the attributes are materialized
+		assertEquals("bar", b.getAttribute("name"));
+		assertEquals("bar", updatedB.getAttribute("name"));
+		assertEquals(nameStart + "<e />name=".length(), updatedB.getAttributeNode("name").getNodeAttrValue().getStart());
+	}
+
+	@Test
+	public void updateIncrementalWithMaterializedAndCompactChildren() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a><b>text</b><!DOCTYPE a>\n  <c /></a>\n  <d>abcd</d>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldText = document.getText();
+
+		// abcd|
+		DOMDocument updatedDocument = change(document, oldText.indexOf("abcd") + 4, 0, "efgh");
+		assertNotSame(xmlDocument, updatedDocument);
+		// the nodes of the previous version are all materialized before the nodes of
+		// the new version
+		assertDOMDocument(new TextDocument(oldText, "test.xml"), xmlDocument);
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	private static DOMParserOptions createCompactOptions() {
+		DOMParserOptions options = new DOMParserOptions();
+		options.setCompactThreshold(0);
+		return options;
+	}
+
+	private static DOMDocument parseCompact(String text) {
+		return DOMParser.getInstance().parse(new TextDocument(text, "test.xml"), null, true, COMPACT_OPTIONS, null);
+	}
+
+	private static void assertCompact(String text) {
+		DOMDocument actual = parseCompact(text);
+		DOMDocument expected = DOMParser.getInstance().parse(text, "test.xml", null);
+		assertNode(expected, actual);
+	}
+
+	private static ModelTextDocument<DOMDocument> createDocument(String text) {
+		ModelTextDocument<DOMDocument> document = new ModelTextDocument<DOMDocument>(text, "test.xml",
+				(textDocument, cancelChecker) -> {
+					return DOMParser.getInstance().parse(textDocument, null, true, COMPACT_OPTIONS, cancelChecker);
+				}, (textDocument, xmlDocument, region, cancelChecker) -> {
+					return DOMParser.getInstance().parseIncremental(textDocument, xmlDocument, region, true,
+							COMPACT_OPTIONS, cancelChecker);
+				});
+		document.setIncremental(true);
+		return document;
+	}
+
+	private static DOMDocument change(ModelTextDocument<DOMDocument> document, int offset, int length, String text)
+			throws Exception {
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(text);
+		change.setRange(new Range(document.positionAt(offset), document.positionAt(offset + length)));
+		change.setRangeLength(length);
+		document.update(Arrays.asList(change));
+		return document.getModel().get();
+	}
+
+	private static void assertDOMDocument(TextDocument document, DOMDocument actual) {
+		DOMDocument expected = DOMParser.getInstance().parse(new TextDocument(document.getText(), "test.xml"), null,
+				true, null);
+		assertNode(expected, actual);
+	}
+
+	static void assertNode(DOMNode expected, DOMNode actual) {
+		String message = expected.toString();
+		assertSame(expected.getClass(), actual.getClass(), message);
+		assertEquals(expected.getNodeName(), actual.getNodeName(), message);
+		assertEquals(expected.start, actual.start, message);
+		assertEquals(expected.end, actual.end, message);
+		assertEquals(expected.closed, actual.closed, message);
+		if (expected instanceof DOMDocument) {
+			assertEquals(((DOMDocument) expected).hasWellFormednessErrors(),
+					((DOMDocument) actual).hasWellFormednessErrors(), message);
+		}
+		if (expected.isElement()) {
+			DOMElement expectedElement = (DOMElement) expected;
+			DOMElement actualElement = (DOMElement) actual;
+			assertEquals(expectedElement.startTagOpenOffset, actualElement.startTagOpenOffset, message);
+			assertEquals(expectedElement.startTagCloseOffset, actualElement.startTagCloseOffset, message);
+			assertEquals(expectedElement.endTagOpenOffset, actualElement.endTagOpenOffset, message);
+			assertEquals(expectedElement.endTagCloseOffset, actualElement.endTagCloseOffset, message);
+			assertEquals(expectedElement.selfClosed, actualElement.selfClosed, message);
+		} else if (expected.isComment()) {
+			DOMComment expectedComment = (DOMComment) expected;
+			DOMComment actualComment = (DOMComment) actual;
+			assertEquals(expectedComment.startContent, actualComment.startContent, message);
+			assertEquals(expectedComment.endContent, actualComment.endContent, message);
+			assertEquals(expectedComment.isCommentSameLineEndTag(), actualComment.isCommentSameLineEndTag(), message);
+		} else if (expected.isProcessingInstruction() || expected.isProlog()) {
+			DOMProcessingInstruction expectedPI = (DOMProcessingInstruction) expected;
+			DOMProcessingInstruction actualPI = (DOMProcessingInstruction) actual;
+			assertEquals(expectedPI.getTarget(), actualPI.getTarget(), message);
+			assertEquals(expectedPI.isProlog(), actualPI.isProlog(), message);
+			assertEquals(expectedPI.isProcessingInstruction(), actualPI.isProcessingInstruction(), message);
+			assertEquals(expectedPI.startTagClose, actualPI.startTagClose, message);
+			assertEquals(expectedPI.getEndTagStart(), actualPI.getEndTagStart(), message);
+		}
+		if (expected.isCharacterData()) {
+			DOMCharacterData expectedData = (DOMCharacterData) expected;
+			DOMCharacterData actualData = (DOMCharacterData) actual;
+			assertEquals(expectedData.getData(), actualData.getData(), message);
+			assertEquals(expectedData.isWhitespace(), actualData.isWhitespace(), message);
+		}
+		List<DOMAttr> expectedAttributes = expected.getAttributeNodes();
+		List<DOMAttr> actualAttributes = actual.getAttributeNodes();
+		assertEquals(expectedAttributes == null, actualAttributes == null, message);
+		if (expectedAttributes != null) {
+			assertEquals(expectedAttributes.size(), actualAttributes.size(), message);
+			for (int i = 0; i < expectedAttributes.size(); i++) {
+				DOMAttr expectedAttr = expectedAttributes.get(i);
+				DOMAttr actualAttr = actualAttributes.get(i);
+				assertEquals(expectedAttr.getName(), actualAttr.getName(), message);
+				assertEquals(expectedAttr.getOriginalValue(), actualAttr.getOriginalValue(), message);
+				assertEquals(expectedAttr.hasDelimiter(), actualAttr.hasDelimiter(), message);
+				assertEquals(expectedAttr.getStart(), actualAttr.getStart(), message);
+				assertEquals(expectedAttr.getEnd(), actualAttr.getEnd(), message);
+				assertEquals(expectedAttr.getNodeAttrValue() == null, actualAttr.getNodeAttrValue() == null, message);
+				if (expectedAttr.getNodeAttrValue() != null) {
+					assertEquals(expectedAttr.getNodeAttrValue().getStart(), actualAttr.getNodeAttrValue().getStart(),
+							message);
+					assertEquals(expectedAttr.getNodeAttrValue().getEnd(), actualAttr.getNodeAttrValue().getEnd(),
+							message);
+				}
+			}
+		}
+		List<DOMNode> expectedChildren = expected.getChildren();
+		List<DOMNode> actualChildren = actual.getChildren();
+		assertEquals(expectedChildren.size(), actualChildren.size(), message);
+		for (int i = 0; i < expectedChildren.size(); i++) {
+			assertSame(actual, actualChildren.get(i).getParentNode(), message);
+			assertNode(expectedChildren.get(i), actualChildren.get(i));
+		}
+	}
+}
@@ -0,0 +1,455 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Incremental DOM parser tests.
+ *
+ */
+public class DOMParserIncrementalTest {
+
+	@Test
+	public void updateText() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// <a>ab|cd</a>
+		DOMDocument updatedDocument = change(document, 14, 0, "XYZ");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+		assertEquals("abXYZcd", updatedDocument.getDocumentElement().getChild(0).getFirstChild().getTextContent());
+	}
+
+	@Test
+	public void insertElement() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// <a>abcd</a>|
+		DOMDocument updatedDocument = change(document, 20, 0, "\n  <c attr=\"value\"><!-- comment --></c>");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+		assertEquals(3, updatedDocument.getDocumentElement().getChildren().size());
+	}
+
+	@Test
+	public void removeElement() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// remove <b />
+		DOMDocument updatedDocument = change(document, 23, 5, "");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+		assertEquals(1, updatedDocument.getDocumentElement().getChildren().size());
+	}
+
+	@Test
+	public void updateAttribute() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a name=\"foo\">abcd</a>\n  <b name=\"bar\" />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// name="foo|"
+		DOMDocument updatedDocument = change(document, 21, 0, "foo");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+		assertEquals("foofoo", updatedDocument.getDocumentElement().getChild(0).getAttribute("name"));
+	}
+
+	@Test
+	public void updateNestedElement() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<?xml version=\"1.0\"?>\n<root>\n  <a>\n    <b>text</b>\n  </a>\n  <c />\n</root>\n<!-- end -->");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// <b>te|xt</b>
+		DOMDocument updatedDocument = change(document, 44, 2, "");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void copyChildrenWhenAccessed() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a>\n    <b>text</b>\n  </a>\n  <c><d>abcd</d></c>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+		DOMElement c = (DOMElement) xmlDocument.getDocumentElement().getLastChild();
+
+		// <b>te|xt</b>
+		DOMDocument updatedDocument = change(document, document.getText().indexOf("text") + 2, 0, "xy");
+		assertNotSame(xmlDocument, updatedDocument);
+		// only the ancestors of the region are copied, the children of <c> are copied
+		// the first time they are accessed
+		DOMElement updatedC = (DOMElement) updatedDocument.getDocumentElement().getLastChild();
+		assertNotSame(c, updatedC);
+		assertTrue(updatedC.hasCopiedChildren());
+		assertDOMDocument(document, updatedDocument);
+		assertFalse(updatedC.hasCopiedChildren());
+		assertNotSame(c.getFirstChild(), updatedC.getFirstChild());
+		assertSame(updatedC, updatedC.getFirstChild().getParentNode());
+		assertEquals(oldTree, dump(xmlDocument));
+	}
+
+	@Test
+	public void updateCommentOnSameLine() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a></a>\n  <b><!-- comment --></b>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// remove the line break between <a></a> and <b></b>
+		DOMDocument updatedDocument = change(document, 16, 3, "");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void updateCommentAfterDoctype() throws Exception {
+		// the doctype closed with '>' is the last closed node before the comment
+		ModelTextDocument<DOMDocument> document = createDocument("<!DOCTYPE r><r>text<!--x--></r>");
+		DOMDocument xmlDocument = document.getModel().get();
+		assertTrue(((DOMComment) xmlDocument.getDocumentElement().getChild(1)).isCommentSameLineEndTag());
+
+		// <!--x|-->
+		DOMDocument updatedDocument = change(document, 23, 1, "yy");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertTrue(((DOMComment) updatedDocument.getDocumentElement().getChild(1)).isCommentSameLineEndTag());
+		assertDOMDocument(document, updatedDocument);
+
+		// the doctype closed with ']>' is not
+		document = createDocument("<!DOCTYPE r [<!ELEMENT r ANY>]><r>text<!--x--></r>");
+		xmlDocument = document.getModel().get();
+		updatedDocument = change(document, document.getText().indexOf('x'), 1, "yy");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertFalse(((DOMComment) updatedDocument.getDocumentElement().getChild(1)).isCommentSameLineEndTag());
+		assertDOMDocument(document, updatedDocument);
+
+		// the last closed node is a child of the previous sibling
+		document = createDocument("<r><a>\n<b /></a>\n<c>text<!--x--></r>");
+		xmlDocument = document.getModel().get();
+		updatedDocument = change(document, document.getText().indexOf('x'), 1, "yy");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void keepWellFormednessErrors() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>text</a>\n  <b>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		assertTrue(xmlDocument.hasWellFormednessErrors());
+
+		// the unclosed element <b> is not parsed again
+		DOMDocument updatedDocument = change(document, 12, 4, "data");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertTrue(updatedDocument.hasWellFormednessErrors());
+		assertDOMDocument(document, updatedDocument);
+
+		// the parsed region is not well-formed
+		document = createDocument("<root>\n  <a>text</a>\n</root>");
+		xmlDocument = document.getModel().get();
+		assertFalse(xmlDocument.hasWellFormednessErrors());
+		updatedDocument = change(document, 12, 4, "<c </c>");
+		assertTrue(updatedDocument.hasWellFormednessErrors());
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void severalChanges() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b>efgh</b>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		change(document, 28, 0, "XYZ", false);
+		change(document, 12, 1, "", false);
+		DOMDocument updatedDocument = change(document, 13, 0, "<c/>");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void insertUnclosedElement() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+
+		// <a>abcd</a>|
+		DOMDocument updatedDocument = change(document, 20, 0, "<c>");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void updateEndTag() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+
+		// </ro|ot>
+		DOMDocument updatedDocument = change(document, 33, 0, "X");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void insertEndTagWithoutName() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		document.getModel().get();
+
+		// <a>abcd</a>|
+		DOMDocument updatedDocument = change(document, 20, 0, "</>");
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void updateAfterFullParse() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument("<root>\n  <a>abcd</a>\n  <b />\n</root>");
+		document.getModel().get();
+
+		DOMDocument xmlDocument = change(document, 20, 0, "<c>");
+		String oldTree = dump(xmlDocument);
+		DOMDocument updatedDocument = change(document, 20, 3, "");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+	}
+
+	@Test
+	public void subtreeHash() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root>\n  <a>abcd</a>\n  <b><c /></b>\n  <b><c /></b>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		DOMElement root = xmlDocument.getDocumentElement();
+		long rootHash = xmlDocument.getSubtreeHash();
+		long aHash = root.getChild(0).getSubtreeHash();
+		DOMNode b = root.getChild(1);
+		long bHash = b.getSubtreeHash();
+		// the hash doesn't depend on the offset
+		assertEquals(bHash, root.getChild(2).getSubtreeHash());
+		assertNotEquals(aHash, bHash);
+
+		// <a>ab|cd</a>
+		DOMDocument updatedDocument = change(document, 14, 0, "XYZ");
+		DOMElement updatedRoot = updatedDocument.getDocumentElement();
+		// the hash of the copy of an unchanged subtree is not computed again
+		DOMNode updatedB = updatedRoot.getChild(1);
+		assertNotSame(b, updatedB);
+		assertEquals(bHash, updatedB.getSubtreeHash());
+		assertNotEquals(aHash, updatedRoot.getChild(0).getSubtreeHash());
+		assertNotEquals(rootHash, updatedDocument.getSubtreeHash());
+		assertEquals(parse(document).getSubtreeHash(), updatedDocument.getSubtreeHash());
+		// the previous version is not modified
+		assertSame(b, root.getChild(1));
+		assertEquals(rootHash, xmlDocument.getSubtreeHash());
+
+		// remove 'XYZ'
+		updatedDocument = change(document, 14, 3, "");
+		assertEquals(aHash, updatedDocument.getDocumentElement().getChild(0).getSubtreeHash());
+		assertEquals(rootHash, updatedDocument.getSubtreeHash());
+	}
+
+	@Test
+	public void namespaceScope() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<root xmlns=\"urn:a\" xmlns:x=\"urn:x\">\n  <a>abcd</a>\n  <b />\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		DOMElement root = xmlDocument.getDocumentElement();
+		DOMElement a = (DOMElement) root.getChild(0);
+		assertEquals("urn:a", a.getNamespaceURI());
+
+		// <a>abcd</a>|
+		DOMDocument updatedDocument = change(document, 50, 0, "<x:c><d xmlns:x=\"urn:x2\"><x:e /></d></x:c>");
+		assertDOMDocument(document, updatedDocument);
+		root = updatedDocument.getDocumentElement();
+		DOMElement c = (DOMElement) root.getChild(1);
+		DOMElement e = (DOMElement) c.getChild(0).getChild(0);
+		// the elements parsed by the incremental parse are in the scope of the root
+		// element
+		assertEquals("urn:x", c.getNamespaceURI("x"));
+		assertEquals("urn:a", c.getNamespaceURI(""));
+		assertEquals("urn:x2", e.getNamespaceURI("x"));
+		assertEquals("urn:a", e.getNamespaceURI(""));
+		assertEquals("urn:a", root.getChild(0).getNamespaceURI());
+	}
+
+	@Test
+	public void copyDoctype() throws Exception {
+		ModelTextDocument<DOMDocument> document = createDocument(
+				"<!DOCTYPE root [\n  <!ELEMENT root (a)*>\n  <!ATTLIST a name CDATA #IMPLIED>\n]>\n<root>\n  <a>abcd</a>\n</root>");
+		DOMDocument xmlDocument = document.getModel().get();
+		String oldTree = dump(xmlDocument);
+
+		// <a>ab|cd</a>
+		DOMDocument updatedDocument = change(document, document.getText().indexOf("abcd") + 2, 0, "XYZ");
+		assertNotSame(xmlDocument, updatedDocument);
+		assertEquals(oldTree, dump(xmlDocument));
+		assertDOMDocument(document, updatedDocument);
+		DOMDocumentType doctype = updatedDocument.getDoctype();
+		assertNotSame(xmlDocument.getDoctype(), doctype);
+		assertEquals("root", ((DTDDeclNode) doctype.getChild(0)).getName());
+		for (DOMNode decl : doctype.getChildren()) {
+			for (DTDDeclParameter parameter : ((DTDDeclNode) decl).getParameters()) {
+				assertSame(updatedDocument, parameter.getOwnerDocument());
+			}
+		}
+	}
+
+	private static ModelTextDocument<DOMDocument> createDocument(String text) {
+		ModelTextDocument<DOMDocument> document = new ModelTextDocument<DOMDocument>(text, "test.xml",
+				(textDocument, cancelChecker) -> {
+					return DOMParser.getInstance().parse(textDocument, null, true, cancelChecker);
+				}, (textDocument, xmlDocument, region, cancelChecker) -> {
+					return DOMParser.getInstance().parseIncremental(textDocument, xmlDocument, region, true,
+							cancelChecker);
+				});
+		document.setIncremental(true);
+		return document;
+	}
+
+	private static DOMDocument change(ModelTextDocument<DOMDocument> document, int offset, int length,
+			String text) throws Exception {
+		return change(document, offset, length, text, true);
+	}
+
+	private static DOMDocument change(ModelTextDocument<DOMDocument> document, int offset, int length, String text,
+			boolean getModel) throws Exception {
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent(text);
+		change.setRange(createRange(document, offset, length));
+		change.setRangeLength(length);
+		document.update(Arrays.asList(change));
+		return getModel ? document.getModel().get() : null;
+	}
+
+	private static Range createRange(TextDocument document, int offset, int length) throws BadLocationException {
+		return new Range(document.positionAt(offset), document.positionAt(offset + length));
+	}
+
+	private static void assertDOMDocument(TextDocument document, DOMDocument actual) {
+		assertNode(parse(document), actual);
+	}
+
+	private static DOMDocument parse(TextDocument document) {
+		return DOMParser.getInstance().parse(new TextDocument(document.getText(), "test.xml"), null, true, null);
+	}
+
+	/**
+	 * Returns the structure and the offsets of the given node and its subtree,
+	 * without the text which is shared by the versions of the DOM document.
+	 */
+	private static String dump(DOMNode node) {
+		StringBuilder result = new StringBuilder();
+		dump(node, result);
+		return result.toString();
+	}
+
+	private static void dump(DOMNode node, StringBuilder result) {
+		result.append('[').append(node.getNodeType()).append(' ').append(node.getNodeName()).append(' ')
+				.append(node.start).append(' ').append(node.end).append(' ').append(node.closed);
+		if (node.isElement()) {
+			DOMElement element = (DOMElement) node;
+			result.append(' ').append(element.startTagOpenOffset).append(' ').append(element.startTagCloseOffset)
+					.append(' ').append(element.endTagOpenOffset).append(' ').append(element.endTagCloseOffset);
+		}
+		if (node.hasAttributes()) {
+			for (DOMAttr attr : node.getAttributeNodes()) {
+				result.append(' ').append(attr.getName()).append('=').append(attr.getOriginalValue()).append(' ')
+						.append(attr.getStart()).append(' ').append(attr.getEnd());
+			}
+		}
+		for (DOMNode child : node.getChildren()) {
+			assertSame(node, child.getParentNode());
+			dump(child, result);
+		}
+		result.append(']');
+	}
+
+	private static void assertNode(DOMNode expected, DOMNode actual) {
+		String message = expected.toString();
+		assertEquals(expected.getNodeType(), actual.getNodeType(), message);
+		assertEquals(expected.getNodeName(), actual.getNodeName(), message);
+		assertEquals(expected.start, actual.start, message);
+		assertEquals(expected.end, actual.end, message);
+		assertEquals(expected.closed, actual.closed, message);
+		if (expected.isElement()) {
+			DOMElement expectedElement = (DOMElement) expected;
+			DOMElement actualElement = (DOMElement) actual;
+			assertEquals(expectedElement.startTagOpenOffset, actualElement.startTagOpenOffset, message);
+			assertEquals(expectedElement.startTagCloseOffset, actualElement.startTagCloseOffset, message);
+			assertEquals(expectedElement.endTagOpenOffset, actualElement.endTagOpenOffset, message);
+			assertEquals(expectedElement.endTagCloseOffset, actualElement.endTagCloseOffset, message);
+			assertEquals(expectedElement.selfClosed, actualElement.selfClosed, message);
+		} else if (expected.isComment()) {
+			DOMComment expectedComment = (DOMComment) expected;
+			DOMComment actualComment = (DOMComment) actual;
+			assertEquals(expectedComment.startContent, actualComment.startContent, message);
+			assertEquals(expectedComment.endContent, actualComment.endContent, message);
+			assertEquals(expectedComment.isCommentSameLineEndTag(), actualComment.isCommentSameLineEndTag(), message);
+		}
+		if (expected.isCharacterData()) {
+			assertEquals(((DOMCharacterData) expected).getData(), ((DOMCharacterData) actual).getData(), message);
+		}
+		List<DOMAttr> expectedAttributes = expected.getAttributeNodes();
+		List<DOMAttr> actualAttributes = actual.getAttributeNodes();
+		assertEquals(expectedAttributes == null, actualAttributes == null, message);
+		if (expectedAttributes != null) {
+			assertEquals(expectedAttributes.size(), actualAttributes.size(), message);
+			for (int i = 0; i < expectedAttributes.size(); i++) {
+				DOMAttr expectedAttr = expectedAttributes.get(i);
+				DOMAttr actualAttr = actualAttributes.get(i);
+				assertEquals(expectedAttr.getName(), actualAttr.getName(), message);
+				assertEquals(expectedAttr.getValue(), actualAttr.getValue(), message);
+				assertEquals(expectedAttr.getStart(), actualAttr.getStart(), message);
+				assertEquals(expectedAttr.getEnd(), actualAttr.getEnd(), message);
+				if (expectedAttr.getNodeAttrValue() != null) {
+					assertEquals(expectedAttr.getNodeAttrValue().getStart(), actualAttr.getNodeAttrValue().getStart(),
+							message);
+					assertEquals(expectedAttr.getNodeAttrValue().getEnd(), actualAttr.getNodeAttrValue().getEnd(),
+							message);
+				}
+			}
+		}
+		List<DOMNode> expectedChildren = expected.getChildren();
+		List<DOMNode> actualChildren = actual.getChildren();
+		assertEquals(expectedChildren.size(), actualChildren.size(), message);
+		for (int i = 0; i < expectedChildren.size(); i++) {
+			assertSame(actual, actualChildren.get(i).getParentNode(), message);
+			assertNode(expectedChildren.get(i), actualChildren.get(i));
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.eclipse.lemminx.dom.DOMParserCompactTest.assertNode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.lemminx.commons.ServerExecutors;
+import org.eclipse.lemminx.commons.ServerExecutors.ExecutorKind;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the parallel parse of the children of the root element.
+ *
+ */
+public class DOMParserParallelTest {
+
+	private ServerExecutors executors;
+
+	private DOMParserOptions options;
+
+	@BeforeEach
+	public void setUp() {
+		executors = new ServerExecutors();
+		executors.setThreads(ExecutorKind.PARSE, 3);
+		options = new DOMParserOptions();
+		options.setExecutors(executors);
+		options.setParallelThreshold(0);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executors.shutdown();
+	}
+
+	@Test
+	public void records() {
+		assertParallel(createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n    <value a='1' b=\"2\"/>\n  </record>"),
+				true);
+	}
+
+	@Test
+	public void commentsCDATAAndProcessingInstructions() {
+		assertParallel(createDocument(
+				"<record id=\"%d\"><![CDATA[ <data> %d ]]></record> <!-- same line -->\n  <!-- <fake> -->\n  <?pi content?>"),
+				true);
+	}
+
+	@Test
+	public void textContent() {
+		assertParallel(createDocument("text %d <a>%d</a> text"), true);
+	}
+
+	@Test
+	public void unclosedElement() {
+		// the content after the unclosed element is parsed sequentially
+		StringBuilder xml = createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n  </record>");
+		xml.insert(xml.indexOf("<record", xml.length() / 2), "<unclosed>");
+		assertParallel(xml, true);
+	}
+
+	@Test
+	public void endTagOfRootElement() {
+		// the content after the end tag of the root element is parsed sequentially
+		StringBuilder xml = createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n  </record>");
+		xml.insert(xml.indexOf("<record", xml.length() / 2), "</root>");
+		assertParallel(xml, true);
+	}
+
+	@Test
+	public void endTagWithoutStartTag() {
+		// the end tag which doesn't match an open element of the chunk cannot be
+		// parsed in the chunk
+		StringBuilder xml = createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n  </record>");
+		xml.insert(xml.indexOf("<name>", xml.length() / 2), "<a></b>");
+		assertParallel(xml, false);
+	}
+
+	@Test
+	public void doctypeInContent() {
+		StringBuilder xml = createDocument("<record id=\"%d\">%d</record>");
+		xml.insert(xml.indexOf("<record", xml.length() / 2), "<!DOCTYPE root>");
+		assertParallel(xml, false);
+	}
+
+	@Test
+	public void compact() {
+		options.setCompactThreshold(0);
+		assertParallel(createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n  </record>"), true);
+	}
+
+	@Test
+	public void busyExecutor() throws Exception {
+		// the threads of the parse executor are busy, the chunks are parsed by the
+		// calling thread
+		CountDownLatch latch = new CountDownLatch(1);
+		for (int i = 0; i < executors.getThreads(ExecutorKind.PARSE); i++) {
+			executors.getExecutor(ExecutorKind.PARSE).execute(() -> {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		try {
+			assertParallel(createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n  </record>"), true);
+		} finally {
+			latch.countDown();
+		}
+	}
+
+	@Test
+	public void shutdownExecutor() {
+		executors.shutdown();
+		assertParallel(createDocument("<record id=\"%d\">\n    <name>Name %d</name>\n  </record>"), true);
+	}
+
+	@Test
+	public void withoutExecutors() {
+		options.setExecutors(null);
+		assertParallel(createDocument("<record id=\"%d\">%d</record>"), false);
+	}
+
+	@Test
+	public void namespaceScope() {
+		StringBuilder xml = createDocument("<record id=\"%d\" xmlns:x=\"urn:x%d\">\n    <x:name>Name</x:name>\n  </record>");
+		DOMDocument document = DOMParser.getInstance().parseParallel(new TextDocument(xml.toString(), "test.xml"),
+				null, true, options, null);
+		assertNotNull(document);
+		// the elements parsed in the chunks are in the scope of the root element
+		for (DOMNode record : document.getDocumentElement().getChildren()) {
+			if (record.isElement()) {
+				DOMElement name = (DOMElement) record.getChild(0);
+				assertEquals("http://foo", name.getNamespaceURI(""));
+				assertEquals("urn:x" + record.getAttribute("id"), name.getNamespaceURI("x"));
+			}
+		}
+	}
+
+	private static StringBuilder createDocument(String record) {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<!-- prolog -->\n<root xmlns=\"http://foo\">\n");
+		for (int i = 0; xml.length() < 1024 * 1024; i++) {
+			xml.append("  ").append(String.format(record, i, i)).append('\n');
+		}
+		xml.append("</root>\n<!-- end -->");
+		return xml;
+	}
+
+	private void assertParallel(CharSequence xml, boolean parallel) {
+		TextDocument document = new TextDocument(xml.toString(), "test.xml");
+		DOMDocument actual = DOMParser.getInstance().parse(document, null, true, options, null);
+		DOMDocument parallelDocument = DOMParser.getInstance().parseParallel(document, null, true, options, null);
+		if (parallel) {
+			assertNotNull(parallelDocument);
+		} else {
+			assertNull(parallelDocument);
+		}
+
+		// the default options parse the document sequentially
+		DOMDocument expected = DOMParser.getInstance().parse(document, null);
+		assertNode(expected, actual);
+	}
+}
@@ -15,6 +15,8 @@ package org.eclipse.lemminx.dom;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -459,6 +461,57 @@ public class DOMParserTest {
 		assertFalse(a.isInStartTag(3)); // <a>|</a>
 	}
 
+	@Test
+	public void setXmlnsAttribute() {
+		DOMDocument document = DOMParser.getInstance().parse("<a><b><c xmlns:x=\"urn:x\"><d /></c></b></a>", "", null);
+		DOMElement a = document.getDocumentElement();
+		DOMElement b = (DOMElement) a.getFirstChild();
+		DOMElement d = (DOMElement) b.getFirstChild().getFirstChild();
+		assertNull(d.getNamespaceURI("y"));
+		assertNull(b.getNamespaceURI());
+
+		// the scopes of the descendants of 'a' are reset
+		a.setAttribute("xmlns:y", "urn:y");
+		a.setAttribute("xmlns", "urn:a");
+		assertEquals("urn:y", d.getNamespaceURI("y"));
+		assertEquals("urn:x", d.getNamespaceURI("x"));
+		assertEquals("urn:a", b.getNamespaceURI());
+		assertEquals("y", d.getPrefix("urn:y"));
+	}
+
+	@Test
+	public void namespaceScope() {
+		DOMDocument document = DOMParser.getInstance().parse(
+				"<a xmlns=\"urn:a\" xmlns:x=\"urn:x\"><b><x:c xmlns:x=\"urn:x2\" xmlns:y='urn:y'><d xmlns:z /></x:c></b><e",
+				"", null);
+		DOMElement a = document.getDocumentElement();
+		DOMElement b = (DOMElement) a.getFirstChild();
+		DOMElement c = (DOMElement) b.getFirstChild();
+		DOMElement d = (DOMElement) c.getFirstChild();
+		DOMElement e = (DOMElement) a.getLastChild();
+
+		// only the elements which declare xmlns attributes have their own scope
+		assertSame(a.getNamespaceScope(), b.getNamespaceScope());
+		assertSame(a.getNamespaceScope(), c.getNamespaceScope().getParent());
+		assertSame(c.getNamespaceScope(), d.getNamespaceScope().getParent());
+		assertSame(NamespaceScope.EMPTY, a.getNamespaceScope().getParent());
+
+		assertEquals("urn:a", a.getNamespaceURI());
+		assertEquals("urn:a", b.getNamespaceURI());
+		assertEquals("urn:x2", c.getNamespaceURI());
+		assertEquals("urn:x", b.getNamespaceURI("x"));
+		assertEquals("urn:y", d.getNamespaceURI("y"));
+		assertNull(d.getNamespaceURI("z"));
+		assertNull(b.getNamespaceURI("y"));
+		// the start tag of 'e' is not closed
+		assertEquals("urn:x", e.getNamespaceURI("x"));
+
+		assertEquals("x", d.getPrefix("urn:x2"));
+		assertEquals("x", b.getPrefix("urn:x"));
+		assertNull(d.getPrefix("urn:a"));
+		assertNull(b.getPrefix("urn:y"));
+	}
+
 	@Test
 	public void startTag() {
 		// '<'
@@ -857,6 +910,24 @@ public class DOMParserTest {
 
 		DOMDocument document = DOMParser.getInstance().parse(dtd, "name.dtd", null);
 		compareTrees(doctype, document.getChild(0));
+		assertFalse(document.hasWellFormednessErrors());
+	}
+
+	@Test
+	public void wellFormednessErrors() {
+		assertFalse(getXMLDocument("<?xml version=\"1.0\"?>\n<root a=\"b\"><a /><b></b><!-- c --></root>")
+				.hasWellFormednessErrors());
+		assertFalse(getXMLDocument("<!DOCTYPE root [<!ELEMENT root EMPTY>]><root />").hasWellFormednessErrors());
+		// unclosed elements
+		assertTrue(getXMLDocument("<root>").hasWellFormednessErrors());
+		assertTrue(getXMLDocument("<root><a></root>").hasWellFormednessErrors());
+		assertTrue(getXMLDocument("<root><!-- c").hasWellFormednessErrors());
+		// unclosed start tags
+		assertTrue(getXMLDocument("<root><a <b /></a></root>").hasWellFormednessErrors());
+		assertTrue(getXMLDocument("<root><a </a></root>").hasWellFormednessErrors());
+		// end tags without start tag
+		assertTrue(getXMLDocument("<root></a></root>").hasWellFormednessErrors());
+		assertTrue(getXMLDocument("<root></></root>").hasWellFormednessErrors());
 	}
 
 	// --------------------------------------------------------------------------------
@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link NameTable}.
+ *
+ */
+public class NameTableTest {
+
+	@Test
+	public void sameNames() {
+		NameTable table = new NameTable();
+		String text = "<project><artifactId>";
+		String project = table.getName(text, 1, 8);
+		assertEquals("project", project);
+		assertSame(project, table.getName(new String("project")));
+		assertSame(project, table.getName("<project>", 1, 8));
+		assertNotSame(project, table.getName(text, 10, 20));
+		assertEquals("artifactId", table.getName(text, 10, 20));
+	}
+
+	@Test
+	public void manyNames() {
+		NameTable table = new NameTable();
+		String[] names = new String[10000];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = table.getName("name" + i);
+		}
+		assertEquals(names.length, table.size());
+		for (int i = 0; i < names.length; i++) {
+			assertSame(names[i], table.getName("<name" + i + ">", 1, 1 + names[i].length()));
+		}
+	}
+
+	@Test
+	public void shortNamesSpreadOverSegments() {
+		Set<Integer> segments = new HashSet<>();
+		for (String name : new String[] { "a", "b", "id", "name", "value", "entry", "item", "key", "ref", "type" }) {
+			int hash = name.hashCode();
+			hash ^= (hash >>> 16);
+			int segment = NameTable.getSegmentIndex(hash);
+			assertTrue(segment >= 0 && segment < 16, name);
+			segments.add(segment);
+		}
+		assertTrue(segments.size() > 4, segments.toString());
+	}
+
+	@Test
+	public void namesSharedByDocuments() {
+		DOMDocument document1 = DOMParser.getInstance().parse("<project><modelVersion a='1' /><?pi ?></project>",
+				"test1.xml", null);
+		DOMDocument document2 = DOMParser.getInstance().parse("<project><modelVersion a='2' /><?pi ?></project>",
+				"test2.xml", null);
+		DOMElement project1 = document1.getDocumentElement();
+		DOMElement project2 = document2.getDocumentElement();
+		assertSame(project1.getTagName(), project2.getTagName());
+		DOMElement modelVersion1 = (DOMElement) project1.getFirstChild();
+		DOMElement modelVersion2 = (DOMElement) project2.getFirstChild();
+		assertSame(modelVersion1.getTagName(), modelVersion2.getTagName());
+		assertSame(modelVersion1.getAttributeNode("a").getName(), modelVersion2.getAttributeNode("a").getName());
+		assertSame(((DOMProcessingInstruction) project1.getLastChild()).getTarget(),
+				((DOMProcessingInstruction) project2.getLastChild()).getTarget());
+	}
+}
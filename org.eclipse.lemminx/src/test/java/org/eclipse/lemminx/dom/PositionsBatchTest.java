@@ -0,0 +1,71 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lsp4j.Position;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PositionsBatch}.
+ *
+ */
+public class PositionsBatchTest {
+
+	@Test
+	public void deferredPositions() throws Exception {
+		DOMDocument document = DOMParser.getInstance().parse("<a>\r\n  <b />\n</a>", "test.xml", null);
+		PositionsBatch batch = document.deferPositions();
+		assertNotNull(batch);
+		// only one batch at a time
+		assertNull(document.deferPositions());
+
+		Position[] end = document.positionsAt(13, 17);
+		Position[] start = document.positionsAt(0, 7);
+		List<String> resolved = new ArrayList<>();
+		batch.onResolved(() -> resolved.add(start[1].getLine() + ":" + start[1].getCharacter()));
+
+		// the positions of the other threads are not deferred
+		Position other = CompletableFuture.supplyAsync(() -> {
+			try {
+				return document.positionsAt(7)[0];
+			} catch (BadLocationException e) {
+				return null;
+			}
+		}).get();
+		assertEquals(new Position(1, 2), other);
+
+		// the bad offsets are not deferred
+		assertThrows(BadLocationException.class, () -> document.positionsAt(0, 100));
+
+		batch.resolve();
+		assertEquals(new Position(0, 0), start[0]);
+		assertEquals(new Position(1, 2), start[1]);
+		assertEquals(new Position(2, 0), end[0]);
+		assertEquals(new Position(2, 4), end[1]);
+		assertEquals(1, resolved.size());
+		assertEquals("1:2", resolved.get(0));
+
+		// the batch is closed
+		assertNull(document.getPositionsBatch());
+		assertEquals(new Position(1, 2), document.positionsAt(7)[0]);
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.dom.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lemminx.commons.ModelTextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ScannerCheckpoints}.
+ *
+ */
+public class ScannerCheckpointsTest {
+
+	@Test
+	public void getCheckpointBefore() {
+		ScannerCheckpoints checkpoints = new ScannerCheckpoints(10);
+		checkpoints.add(5);
+		checkpoints.add(10);
+		checkpoints.add(15);
+		checkpoints.add(30);
+		assertEquals(2, checkpoints.size());
+		assertEquals(0, checkpoints.getCheckpointBefore(0));
+		assertEquals(0, checkpoints.getCheckpointBefore(10));
+		assertEquals(10, checkpoints.getCheckpointBefore(11));
+		assertEquals(10, checkpoints.getCheckpointBefore(30));
+		assertEquals(30, checkpoints.getCheckpointBefore(100));
+	}
+
+	@Test
+	public void getCheckpointAfter() {
+		ScannerCheckpoints checkpoints = new ScannerCheckpoints(10);
+		checkpoints.add(10);
+		checkpoints.add(30);
+		assertEquals(10, checkpoints.getCheckpointAfter(0));
+		assertEquals(30, checkpoints.getCheckpointAfter(10));
+		assertEquals(30, checkpoints.getCheckpointAfter(29));
+		assertEquals(-1, checkpoints.getCheckpointAfter(30));
+		assertEquals(10, checkpoints.get(0));
+		assertEquals(30, checkpoints.get(1));
+	}
+
+	@Test
+	public void update() {
+		ScannerCheckpoints checkpoints = new ScannerCheckpoints(10);
+		checkpoints.add(10);
+		checkpoints.add(20);
+		checkpoints.add(30);
+		checkpoints.add(40);
+		// replace [20, 35[ with 5 characters
+		ScannerCheckpoints updated = checkpoints.update(20, 35, -10);
+		assertEquals(3, updated.size());
+		assertEquals(20, updated.getCheckpointBefore(21));
+		assertEquals(30, updated.getCheckpointBefore(31));
+		// the checkpoints are not modified
+		assertEquals(40, checkpoints.getCheckpointBefore(41));
+	}
+
+	@Test
+	public void parsedCheckpoints() {
+		String text = createDocument();
+		DOMDocument document = DOMParser.getInstance().parse(text, "test.xml", null);
+		assertCheckpoints(text, document.getScannerCheckpoints());
+	}
+
+	@Test
+	public void dtd() {
+		DOMDocument document = DOMParser.getInstance().parse("<!ELEMENT root (a)*>", "test.dtd", null);
+		assertNull(document.getScannerCheckpoints());
+	}
+
+	@Test
+	public void updateIncremental() throws Exception {
+		ModelTextDocument<DOMDocument> document = new ModelTextDocument<DOMDocument>(createDocument(), "test.xml",
+				(textDocument, cancelChecker) -> {
+					return DOMParser.getInstance().parse(textDocument, null, true, cancelChecker);
+				}, (textDocument, xmlDocument, region, cancelChecker) -> {
+					return DOMParser.getInstance().parseIncremental(textDocument, xmlDocument, region, true,
+							cancelChecker);
+				});
+		document.setIncremental(true);
+		DOMDocument xmlDocument = document.getModel().get();
+		ScannerCheckpoints checkpoints = xmlDocument.getScannerCheckpoints();
+
+		// insert an element in the middle of the document
+		int offset = document.getText().indexOf("</record>", document.getText().length() / 2);
+		TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent("<new a=\"b\">text</new>");
+		change.setRange(new Range(document.positionAt(offset), document.positionAt(offset)));
+		change.setRangeLength(0);
+		document.update(Arrays.asList(change));
+		DOMDocument updatedDocument = document.getModel().get();
+
+		assertNotSame(xmlDocument, updatedDocument);
+		assertNotEquals(checkpoints, updatedDocument.getScannerCheckpoints());
+		// the checkpoints of the previous version are not modified
+		assertSame(checkpoints, xmlDocument.getScannerCheckpoints());
+		assertCheckpoints(document.getText(), updatedDocument.getScannerCheckpoints());
+	}
+
+	private static String createDocument() {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<!DOCTYPE root [\n<!ELEMENT root ANY>\n]>\n<root>\n");
+		for (int i = 0; i < 2000; i++) {
+			xml.append("  <record id=\"").append(i).append("\" expr='a > b'>\n");
+			xml.append("    <!-- <fake> --><![CDATA[ <data> ]]><?pi content?>text ").append(i).append('\n');
+			xml.append("  </record>\n");
+		}
+		xml.append("</root>");
+		return xml.toString();
+	}
+
+	/**
+	 * Assert that a scanner created at each checkpoint scans the same tokens than
+	 * a scanner created at the start of the document.
+	 */
+	private static void assertCheckpoints(String text, ScannerCheckpoints checkpoints) {
+		assertTrue(checkpoints.size() > 10);
+		List<String> tokens = scan(XMLScanner.createScanner(text));
+		for (int i = 1; i < text.length(); i += text.length() / 20) {
+			int checkpoint = checkpoints.getCheckpointBefore(i);
+			List<String> expected = new ArrayList<>();
+			for (String token : tokens) {
+				if (Integer.parseInt(token.substring(0, token.indexOf(':'))) >= checkpoint) {
+					expected.add(token);
+				}
+			}
+			assertEquals(expected, scan(checkpoints.createScanner(text, i)), "checkpoint " + checkpoint);
+		}
+	}
+
+	private static List<String> scan(Scanner scanner) {
+		List<String> tokens = new ArrayList<>();
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS) {
+			tokens.add(scanner.getTokenOffset() + ":" + token);
+			token = scanner.scan();
+		}
+		return tokens;
+	}
+}
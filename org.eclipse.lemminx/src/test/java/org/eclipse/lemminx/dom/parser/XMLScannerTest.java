@@ -14,6 +14,9 @@ package org.eclipse.lemminx.dom.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -841,6 +844,34 @@ public class XMLScannerTest {
 		assertOffsetAndToken(20, TokenType.EndTagClose);
 	}
 
+	@Test
+	public void testScanTokens() {
+		String xml = "<?xml version=\"1.0\"?>\n" + //
+				"<!DOCTYPE root [<!ELEMENT root (#PCDATA)><!ATTLIST root a CDATA #IMPLIED>]>\n" + //
+				"<?m2e execute?>\n" + //
+				"<root a='b' c=\"d\">\n" + //
+				"  <!-- comment -->\n" + //
+				"  <a:b_c.d-e/><![CDATA[<>]]>text</root>";
+		List<String> expected = new ArrayList<>();
+		scanner = XMLScanner.createScanner(xml);
+		TokenType token = scanner.scan();
+		while (token != TokenType.EOS) {
+			expected.add(token + " " + scanner.getTokenOffset() + " " + scanner.getTokenEnd());
+			token = scanner.scan();
+		}
+		List<String> actual = new ArrayList<>();
+		XMLScanner.scanTokens(xml, false, (type, start, end) -> actual.add(type + " " + start + " " + end));
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDTDNameStartingWithDigit() {
+		scanner = XMLScanner.createScanner("<!DOCTYPE 1a.b-c:d_e>");
+		assertOffsetAndToken(0, TokenType.DTDStartDoctypeTag);
+		assertOffsetAndToken(9, TokenType.Whitespace);
+		assertOffsetAndToken(10, TokenType.DTDDoctypeName, "1a.b-c:d_e");
+	}
+
   //----------Tools-------------------------------------------------------
 
 
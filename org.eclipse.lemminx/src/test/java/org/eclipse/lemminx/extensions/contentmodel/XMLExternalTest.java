@@ -149,6 +149,101 @@ public class XMLExternalTest extends BaseFileTempTest  {
 		assertEquals("cvc-complex-type.2.4.f", actualDiagnostics.get(1).getDiagnostics().get(0).getCode().getLeft());
 	}
 
+	@Test
+	public void externalIncludedXSDTest() throws InterruptedException, IOException {
+		String xsdPath = tempDirUri.getPath() + "/main.xsd";
+		String includedXsdPath = tempDirUri.getPath() + "/main-included.xsd";
+
+		//@formatter:off
+		String xsdContents =
+		"<?xml version=\"1.0\" encoding=\"utf-8\" ?>\n" +
+		"<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n" +
+		"  <xs:include schemaLocation=\"main-included.xsd\" />\n" +
+		"  <xs:element name=\"root\" type=\"rootType\" />\n" +
+		"</xs:schema>";
+
+		String includedXsdContents =
+		"<?xml version=\"1.0\" encoding=\"utf-8\" ?>\n" +
+		"<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n" +
+		"  <xs:complexType name=\"rootType\">\n" +
+		"    <xs:attribute name=\"a\" />\n" +
+		"  </xs:complexType>\n" +
+		"</xs:schema>";
+
+		String xmlContents =
+		"<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n" +
+		"<root xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"main.xsd\" a=\"\" />";
+		//@formatter:on
+
+		TextDocumentItem xmlTextDocument = getXMLTextDocumentItem("main.xml", xmlContents);
+		createFile(xsdPath, xsdContents);
+		createFile(includedXsdPath, includedXsdContents);
+		File includedXsd = new File(includedXsdPath);
+
+		clientOpenFile(languageServer, xmlTextDocument);
+
+		Thread.sleep(threadSleepMs);
+
+		List<PublishDiagnosticsParams> actualDiagnostics = languageServer.getPublishDiagnostics();
+		assertEquals(1, actualDiagnostics.size());
+		assertEquals(0, actualDiagnostics.get(0).getDiagnostics().size());
+
+		// the XML file depends on the included XML Schema
+		editFile(includedXsd, 4, "    <xs:attribute name=\"b\" />");
+		didChangedWatchedFiles(languageServer, includedXsd);
+
+		waitForPublishDiagnostics(actualDiagnostics, 2);
+
+		assertEquals(2, actualDiagnostics.size());
+		assertEquals("cvc-complex-type.3.2.2", actualDiagnostics.get(1).getDiagnostics().get(0).getCode().getLeft());
+	}
+
+	@Test
+	public void externalUnrelatedXSDTest() throws InterruptedException, IOException {
+		String xsdPath = tempDirUri.getPath() + "/unrelated.xsd";
+
+		//@formatter:off
+		String xsdContents =
+		"<?xml version=\"1.0\" encoding=\"utf-8\" ?>\n" +
+		"<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n" +
+		"  <xs:element name=\"root\" />\n" +
+		"</xs:schema>";
+
+		String xmlContents =
+		"<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n" +
+		"<root />";
+		//@formatter:on
+
+		TextDocumentItem xmlTextDocument = getXMLTextDocumentItem("unrelated.xml", xmlContents);
+		createFile(xsdPath, xsdContents);
+		File unrelatedXsd = new File(xsdPath);
+
+		clientOpenFile(languageServer, xmlTextDocument);
+
+		Thread.sleep(threadSleepMs);
+
+		List<PublishDiagnosticsParams> actualDiagnostics = languageServer.getPublishDiagnostics();
+		assertEquals(1, actualDiagnostics.size());
+
+		// the XML file doesn't depend on the XML Schema, it's not validated again
+		editFile(unrelatedXsd, 3, "  <xs:element name=\"other\" />");
+		didChangedWatchedFiles(languageServer, unrelatedXsd);
+
+		Thread.sleep(threadSleepMs);
+
+		assertEquals(1, actualDiagnostics.size());
+	}
+
+	private void waitForPublishDiagnostics(List<PublishDiagnosticsParams> actualDiagnostics, int expectedSize)
+			throws InterruptedException {
+		// the validation of the documents collected by the save is delayed and the
+		// grammars are compiled again
+		long timeout = System.currentTimeMillis() + 5000;
+		while (actualDiagnostics.size() < expectedSize && System.currentTimeMillis() < timeout) {
+			Thread.sleep(50);
+		}
+	}
+
 	private TextDocumentItem getXMLTextDocumentItem(String filename, String xmlContents) {
 		String languageId = "xml";
 		int version = 1;
@@ -0,0 +1,116 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URI;
+
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.eclipse.lemminx.extensions.contentmodel.model.CMDocumentCache.Statistics;
+import org.eclipse.lemminx.extensions.xsd.contentmodel.CMXSDContentModelProvider;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link CMDocumentCache}
+ *
+ */
+public class CMDocumentCacheTest extends BaseFileTempTest {
+
+	private final CMXSDContentModelProvider provider = new CMXSDContentModelProvider(
+			new URIResolverExtensionManager());
+
+	@Test
+	public void statistics() throws Exception {
+		CMDocumentCache cache = new CMDocumentCache();
+		String uri = createXSD("stats.xsd", 1);
+		CMDocument cmDocument = provider.createCMDocument(uri);
+
+		assertNull(cache.get(uri));
+		cache.put(uri, cmDocument);
+		assertSame(cmDocument, cache.get(uri));
+		assertSame(cmDocument, cache.get(uri));
+
+		Statistics statistics = cache.getStatistics();
+		assertEquals(1, statistics.getSize());
+		assertEquals(2, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(0, statistics.getEvictionCount());
+		assertEquals(1, statistics.getWeight());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws Exception {
+		// each XML Schema weights 4 KB
+		CMDocumentCache cache = new CMDocumentCache(10);
+		String uri1 = createXSD("lru1.xsd", 60);
+		String uri2 = createXSD("lru2.xsd", 60);
+		String uri3 = createXSD("lru3.xsd", 60);
+		cache.put(uri1, provider.createCMDocument(uri1));
+		cache.put(uri2, provider.createCMDocument(uri2));
+		// uri1 is used, uri2 is the least recently used
+		assertNotNull(cache.get(uri1));
+		cache.put(uri3, provider.createCMDocument(uri3));
+
+		assertNotNull(cache.get(uri1));
+		assertNull(cache.get(uri2));
+		assertNotNull(cache.get(uri3));
+		assertEquals(1, cache.getStatistics().getEvictionCount());
+	}
+
+	@Test
+	public void evictWithDefaultMaxWeight() throws Exception {
+		CMDocumentCache cache = new CMDocumentCache();
+		String uri = createXSD("default.xsd", 1);
+		CMDocument cmDocument = provider.createCMDocument(uri);
+		// a lot of small grammars fill the cache with the default maximum weight
+		// before the first one is evicted
+		int count = (int) CMDocumentCache.DEFAULT_MAX_WEIGHT - 1;
+		for (int i = 0; i < count; i++) {
+			cache.put(uri + "#" + i, cmDocument);
+		}
+		assertEquals(count, cache.getStatistics().getSize());
+		assertEquals(0, cache.getStatistics().getEvictionCount());
+		cache.put(uri + "#" + count, cmDocument);
+		cache.put(uri + "#" + (count + 1), cmDocument);
+		assertEquals(1, cache.getStatistics().getEvictionCount());
+		assertNull(cache.get(uri + "#0"));
+		assertSame(cmDocument, cache.get(uri + "#" + (count + 1)));
+	}
+
+	@Test
+	public void dirty() throws Exception {
+		CMDocumentCache cache = new CMDocumentCache();
+		String uri = createXSD("dirty.xsd", 1);
+		cache.put(uri, provider.createCMDocument(uri));
+		assertNotNull(cache.get(uri));
+
+		updateFile(new URI(uri), "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" />");
+		assertNull(cache.get(uri));
+		assertEquals(0, cache.getStatistics().getSize());
+	}
+
+	private static String createXSD(String fileName, int nbElements) throws Exception {
+		StringBuilder xsd = new StringBuilder("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n");
+		for (int i = 0; i < nbElements; i++) {
+			xsd.append("  <xs:element name=\"element").append(i).append("\" type=\"xs:string\" />\r\n");
+		}
+		xsd.append("</xs:schema>");
+		URI uri = tempDirUri.resolve(fileName);
+		createFile(uri, xsd.toString());
+		return uri.toString();
+	}
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
+import org.eclipse.lemminx.extensions.xsd.contentmodel.CMXSDContentModelProvider;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lemminx.utils.FilesUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GrammarCacheIndex}
+ *
+ */
+public class GrammarCacheIndexTest extends BaseFileTempTest {
+
+	private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:include schemaLocation=\"included.xsd\" />\r\n" + //
+			"  <xs:element name=\"root\" />\r\n" + //
+			"</xs:schema>";
+
+	private static final String INCLUDED_XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:element name=\"tag\" />\r\n" + //
+			"</xs:schema>";
+
+	@Test
+	public void persistAcrossInstances() throws Exception {
+		URI xsdURI = tempDirUri.resolve("index.xsd");
+		URI includedURI = tempDirUri.resolve("included.xsd");
+		createFile(xsdURI, XSD);
+		createFile(includedURI, INCLUDED_XSD);
+		Path indexFile = getTempDirPath().resolve("grammars.json");
+
+		FilesChangedTracker tracker = new FilesChangedTracker();
+		tracker.addFileURI(xsdURI);
+		tracker.addFileURI(includedURI);
+		GrammarCacheIndex savedIndex = new GrammarCacheIndex(indexFile, 10);
+		savedIndex.setExecutor(Runnable::run);
+		savedIndex.put(xsdURI.toString(), tracker);
+
+		// "restart" the server
+		GrammarCacheIndex index = new GrammarCacheIndex(indexFile, 10);
+		assertEquals(Collections.singletonList(xsdURI.toString()), index.getUpToDateGrammarURIs());
+		assertEquals(2, index.getEntry(xsdURI.toString()).getFiles().size());
+
+		// the included XML Schema changes
+		createFile(includedURI, INCLUDED_XSD.replace("tag", "label"));
+		index = new GrammarCacheIndex(indexFile, 10);
+		assertTrue(index.getUpToDateGrammarURIs().isEmpty());
+		assertNull(index.getEntry(xsdURI.toString()));
+	}
+
+	@Test
+	public void maxEntries() throws Exception {
+		Path indexFile = getTempDirPath().resolve("grammars-max.json");
+		GrammarCacheIndex index = new GrammarCacheIndex(indexFile, 2);
+		index.setExecutor(Runnable::run);
+		for (int i = 0; i < 3; i++) {
+			URI xsdURI = tempDirUri.resolve("max" + i + ".xsd");
+			createFile(xsdURI, INCLUDED_XSD);
+			FilesChangedTracker tracker = new FilesChangedTracker();
+			tracker.addFileURI(xsdURI);
+			index.put(xsdURI.toString(), tracker);
+		}
+		index = new GrammarCacheIndex(indexFile, 2);
+		assertNull(index.getEntry(tempDirUri.resolve("max0.xsd").toString()));
+		assertNotNull(index.getEntry(tempDirUri.resolve("max1.xsd").toString()));
+		assertNotNull(index.getEntry(tempDirUri.resolve("max2.xsd").toString()));
+	}
+
+	@Test
+	public void notSavedWithoutExecutor() throws Exception {
+		URI xsdURI = tempDirUri.resolve("memory.xsd");
+		createFile(xsdURI, INCLUDED_XSD);
+		Path indexFile = getTempDirPath().resolve("grammars-memory.json");
+		FilesChangedTracker tracker = new FilesChangedTracker();
+		tracker.addFileURI(xsdURI);
+		GrammarCacheIndex index = new GrammarCacheIndex(indexFile, 10);
+		index.put(xsdURI.toString(), tracker);
+		assertNotNull(index.getEntry(xsdURI.toString()));
+		assertFalse(Files.exists(indexFile));
+	}
+
+	@Test
+	public void grammarWithoutFilesIsNotIndexed() throws Exception {
+		Path indexFile = getTempDirPath().resolve("grammars-empty.json");
+		GrammarCacheIndex index = new GrammarCacheIndex(indexFile, 10);
+		index.setExecutor(Runnable::run);
+		index.put("http://example.com/empty.xsd", new FilesChangedTracker());
+		assertNull(index.getEntry("http://example.com/empty.xsd"));
+
+		// an index entry without files (ex : written by hand) is not up to date
+		FilesUtils.saveToFile("[{\"uri\":\"http://example.com/empty.xsd\",\"stamp\":\"\",\"files\":[]}]",
+				indexFile);
+		index = new GrammarCacheIndex(indexFile, 10);
+		assertNotNull(index.getEntry("http://example.com/empty.xsd"));
+		assertTrue(index.getUpToDateGrammarURIs().isEmpty());
+	}
+
+	@Test
+	public void preloadGrammars() throws Exception {
+		URI xsdURI = tempDirUri.resolve("index.xsd");
+		URI includedURI = tempDirUri.resolve("included.xsd");
+		createFile(xsdURI, XSD);
+		createFile(includedURI, INCLUDED_XSD);
+		Path indexFile = getTempDirPath().resolve("grammars-preload.json");
+
+		// first session: the XML Schema is loaded and stored in the index
+		URIResolverExtensionManager resolverManager = new URIResolverExtensionManager();
+		ContentModelManager manager = new ContentModelManager(resolverManager,
+				new GrammarCacheIndex(indexFile, 10));
+		manager.setExecutor(Runnable::run);
+		CMXSDContentModelProvider provider = new CMXSDContentModelProvider(resolverManager);
+		manager.registerModelProvider(provider);
+		CMDocument cmDocument = provider.createCMDocument(xsdURI.toString());
+		manager.getGrammarCacheIndex().put(xsdURI.toString(), cmDocument.getFilesChangedTracker());
+		assertEquals(2, manager.getGrammarCacheIndex().getEntry(xsdURI.toString()).getFiles().size());
+
+		// second session: the XML Schema is loaded in background
+		List<String> loaded = new ArrayList<>();
+		resolverManager = new URIResolverExtensionManager();
+		manager = new ContentModelManager(resolverManager, new GrammarCacheIndex(indexFile, 10));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		manager.setExecutor(executor);
+		CMXSDContentModelProvider xsdProvider = new CMXSDContentModelProvider(resolverManager);
+		manager.registerModelProvider(new ContentModelProvider() {
+
+			@Override
+			public boolean adaptFor(DOMDocument document, boolean internal) {
+				return xsdProvider.adaptFor(document, internal);
+			}
+
+			@Override
+			public boolean adaptFor(String uri) {
+				return xsdProvider.adaptFor(uri);
+			}
+
+			@Override
+			public Collection<Identifier> getIdentifiers(DOMDocument xmlDocument,
+					String namespaceURI) {
+				return xsdProvider.getIdentifiers(xmlDocument, namespaceURI);
+			}
+
+			@Override
+			public CMDocument createCMDocument(String key) {
+				loaded.add(key);
+				return xsdProvider.createCMDocument(key);
+			}
+
+			@Override
+			public CMDocument createInternalCMDocument(DOMDocument xmlDocument) {
+				return null;
+			}
+		});
+		try {
+			manager.preloadGrammars().get();
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(Collections.singletonList(xsdURI.toString()), loaded);
+		// the Xerces grammars used by the validation are loaded too
+		LSPXMLGrammarPool grammarPool = (LSPXMLGrammarPool) manager.getGrammarPool();
+		assertNotNull(grammarPool.retrieveGrammar(xsdURI.toString()));
+	}
+
+	@Test
+	public void noPreloadWithoutExecutor() throws Exception {
+		Path indexFile = getTempDirPath().resolve("grammars-no-preload.json");
+		URIResolverExtensionManager resolverManager = new URIResolverExtensionManager();
+		ContentModelManager manager = new ContentModelManager(resolverManager, new GrammarCacheIndex(indexFile, 10));
+		manager.registerModelProvider(new CMXSDContentModelProvider(resolverManager));
+		assertTrue(manager.preloadGrammars().isDone());
+		assertFalse(Files.exists(indexFile));
+	}
+}
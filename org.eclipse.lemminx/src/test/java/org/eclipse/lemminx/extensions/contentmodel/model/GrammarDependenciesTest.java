@@ -0,0 +1,147 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.services.XMLLanguageService;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link GrammarDependencies}
+ *
+ */
+public class GrammarDependenciesTest extends BaseFileTempTest {
+
+	private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:include schemaLocation=\"dependencies-included.xsd\" />\r\n" + //
+			"  <xs:element name=\"root\" type=\"rootType\" />\r\n" + //
+			"</xs:schema>";
+
+	private static final String INCLUDED_XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:complexType name=\"rootType\" />\r\n" + //
+			"</xs:schema>";
+
+	@Test
+	public void updateAndRemove() {
+		GrammarDependencies dependencies = new GrammarDependencies();
+		dependencies.update("file:///home/a.xml", Arrays.asList("file:/home/a.xsd", "file:///home/b.xsd"));
+		dependencies.update("file:///home/b.xml", Collections.singletonList("file:///home/b.xsd"));
+
+		// the grammar URIs are normalized
+		assertEquals(Collections.singleton("file:///home/a.xml"),
+				dependencies.getDependentDocuments("file:///home/a.xsd"));
+		assertEquals(2, dependencies.getDependentDocuments("file:/home/b.xsd").size());
+		assertTrue(dependencies.isIndexed("file:///home/a.xml"));
+
+		// a.xml doesn't use b.xsd anymore
+		dependencies.update("file:///home/a.xml", Collections.singletonList("file:///home/a.xsd"));
+		assertEquals(Collections.singleton("file:///home/b.xml"),
+				dependencies.getDependentDocuments("file:///home/b.xsd"));
+
+		dependencies.remove("file:///home/a.xml");
+		assertTrue(dependencies.getDependentDocuments("file:///home/a.xsd").isEmpty());
+		assertFalse(dependencies.isIndexed("file:///home/a.xml"));
+	}
+
+	@Test
+	public void unindexedDocuments() {
+		GrammarDependencies dependencies = new GrammarDependencies();
+		dependencies.open("file:///home/a.xml");
+		dependencies.open("file:///home/b.xml");
+		assertEquals(2, dependencies.getUnindexedDocuments().size());
+
+		// a.xml is validated
+		dependencies.update("file:///home/a.xml", Collections.singletonList("file:///home/a.xsd"));
+		assertEquals(Collections.singleton("file:///home/b.xml"), dependencies.getUnindexedDocuments());
+
+		// the grammar of a.xml cannot be compiled anymore
+		dependencies.reset("file:///home/a.xml");
+		assertTrue(dependencies.getDependentDocuments("file:///home/a.xsd").isEmpty());
+		assertEquals(2, dependencies.getUnindexedDocuments().size());
+
+		// the documents are closed
+		dependencies.remove("file:///home/a.xml");
+		dependencies.remove("file:///home/b.xml");
+		assertTrue(dependencies.getUnindexedDocuments().isEmpty());
+	}
+
+	@Test
+	public void includedGrammar() throws Exception {
+		URI xsdURI = tempDirUri.resolve("dependencies.xsd");
+		URI includedURI = tempDirUri.resolve("dependencies-included.xsd");
+		createFile(xsdURI, XSD);
+		createFile(includedURI, INCLUDED_XSD);
+
+		XMLLanguageService xmlLanguageService = new XMLLanguageService();
+		String xml = "<root xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"dependencies.xsd\" />";
+		String xmlURI = tempDirUri.resolve("dependencies.xml").toString();
+		validate(xmlLanguageService, xml, xmlURI);
+		// validate the XML Schema which includes the other XML Schema
+		validate(xmlLanguageService, XSD, xsdURI.toString());
+
+		GrammarDependencies dependencies = xmlLanguageService.<ContentModelManager>getComponent(ContentModelManager.class)
+				.getGrammarDependencies();
+		assertEquals(Collections.singleton(xmlURI), dependencies.getDependentDocuments(xsdURI.toString()));
+		Set<String> documents = dependencies.getDependentDocuments(includedURI.toString());
+		assertEquals(2, documents.size());
+		assertTrue(documents.contains(xmlURI));
+		assertTrue(documents.contains(xsdURI.toString()));
+		assertTrue(dependencies.getDependentDocuments(tempDirUri.resolve("other.xsd").toString()).isEmpty());
+	}
+
+	@Test
+	public void grammarsUsedByValidation() throws Exception {
+		URI xsdURI = tempDirUri.resolve("dependencies.xsd");
+		URI includedURI = tempDirUri.resolve("dependencies-included.xsd");
+		createFile(xsdURI, XSD);
+		createFile(includedURI, INCLUDED_XSD);
+
+		XMLLanguageService xmlLanguageService = new XMLLanguageService();
+		String xml = "<root xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"dependencies.xsd\" />";
+		String xmlURI = tempDirUri.resolve("dependencies.xml").toString();
+		validate(xmlLanguageService, xml, xmlURI);
+		// the second validation retrieves the XML Schema from the grammar pool
+		validate(xmlLanguageService, xml + " ", xmlURI);
+
+		GrammarDependencies dependencies = xmlLanguageService.<ContentModelManager>getComponent(ContentModelManager.class)
+				.getGrammarDependencies();
+		assertEquals(Collections.singleton(xmlURI), dependencies.getDependentDocuments(xsdURI.toString()));
+		assertEquals(Collections.singleton(xmlURI), dependencies.getDependentDocuments(includedURI.toString()));
+
+		// the XML document is not bound to the XML Schema anymore
+		validate(xmlLanguageService, "<root />", xmlURI);
+		assertTrue(dependencies.getDependentDocuments(xsdURI.toString()).isEmpty());
+		assertTrue(dependencies.getDependentDocuments(includedURI.toString()).isEmpty());
+		assertTrue(dependencies.isIndexed(xmlURI));
+	}
+
+	private static void validate(XMLLanguageService xmlLanguageService, String text, String uri) {
+		DOMDocument document = DOMParser.getInstance().parse(text, uri,
+				xmlLanguageService.getResolverExtensionManager());
+		xmlLanguageService.setDocumentProvider((documentURI) -> document);
+		xmlLanguageService.initializeIfNeeded();
+		xmlLanguageService.doDiagnostics(document, new XMLValidationSettings(), () -> {
+		});
+	}
+}
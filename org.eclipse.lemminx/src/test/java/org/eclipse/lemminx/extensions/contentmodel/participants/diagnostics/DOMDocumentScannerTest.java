@@ -0,0 +1,174 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lsp4j.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Test for {@link DOMDocumentScanner}
+ *
+ */
+public class DOMDocumentScannerTest {
+
+	@Test
+	public void canScan() {
+		assertTrue(canScan("<root />"));
+		assertTrue(canScan("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\r\n" + //
+				"<!-- comment -->\r\n" + //
+				"<?xml-model href=\"root.xsd\"?>\r\n" + //
+				"<root xmlns=\"urn:root\" xmlns:a=\"urn:a\" a:b='&lt;&#x41;&#66;' c = \"d\">\r\n" + //
+				"  <![CDATA[<]]> text &amp; <?pi data?>\r\n" + //
+				"  <a:child></a:child >\r\n" + //
+				"</root>\r\n"));
+	}
+
+	@Test
+	public void cannotScan() {
+		// DOCTYPE
+		assertFalse(canScan("<!DOCTYPE root []>\r\n<root />"));
+		// XML 1.1
+		assertFalse(canScan("<?xml version=\"1.1\"?><root />"));
+		// not closed elements
+		assertFalse(canScan("<root>"));
+		assertFalse(canScan("<root><a></root>"));
+		assertFalse(canScan("<root></a>"));
+		assertFalse(canScan("<root"));
+		// several root elements and text outside the root element
+		assertFalse(canScan("<root /><root />"));
+		assertFalse(canScan("<root />text"));
+		assertFalse(canScan(""));
+		// attributes
+		assertFalse(canScan("<root a=b />"));
+		assertFalse(canScan("<root a />"));
+		assertFalse(canScan("<root a='b'c='d' />"));
+		assertFalse(canScan("<root a='b' a='c' />"));
+		assertFalse(canScan("<root a='<' />"));
+		assertFalse(canScan("<root a:b='c' />"));
+		assertFalse(canScan("<root xmlns:a='' />"));
+		// references
+		assertFalse(canScan("<root>&foo;</root>"));
+		assertFalse(canScan("<root>&#0;</root>"));
+		assertFalse(canScan("<root>&amp</root>"));
+		// namespaces
+		assertFalse(canScan("<a:root />"));
+		assertFalse(canScan("<a:b:root xmlns:a='urn:a' />"));
+		// comments, CDATA and processing instructions
+		assertFalse(canScan("<root><!-- a -- b --></root>"));
+		assertFalse(canScan("<root><!-- a ---></root>"));
+		assertFalse(canScan("<root>]]></root>"));
+		assertFalse(canScan("<root><?xml version='1.0'?></root>"));
+		assertFalse(canScan("<root><?a:b?></root>"));
+	}
+
+	@Test
+	public void sameDiagnosticsAsTextParse() throws Exception {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" + //
+				"<invoice xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n" + //
+				"  xsi:noNamespaceSchemaLocation=\"src/test/resources/xsd/invoice.xsd\">\r\n" + //
+				"  <date>2017-11-30</date>\r\n" + //
+				"  <number>abcd</number>\r\n" + //
+				"  <products>\r\n" + //
+				"    <product price=\"xx\" />\r\n" + //
+				"    <product description=\"&quot;Computer&quot;\"></product>\r\n" + //
+				"    text\r\n" + //
+				"  </products>\r\n" + //
+				"  <payments>\r\n" + //
+				"    <payment amount=\"200\" method=\"credit card\"/>\r\n" + //
+				"    <!-- comment -->\r\n" + //
+				"  </payments>\r\n" + //
+				"  <unknown />\r\n" + //
+				"</invoice>";
+		List<Diagnostic> fromText = validate(xml, false);
+		List<Diagnostic> fromDOM = validate(xml, true);
+		assertFalse(fromText.isEmpty());
+		assertEquals(fromText, fromDOM);
+	}
+
+	@Test
+	public void notWellFormedAfterValidationErrors() throws Exception {
+		// the validation errors of the nodes before the syntax error are reported
+		// once, by the parse of the text
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n" + //
+				"<invoice xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n" + //
+				"  xsi:noNamespaceSchemaLocation=\"src/test/resources/xsd/invoice.xsd\">\r\n" + //
+				"  <date>2017-11-30</date>\r\n" + //
+				"  <number>abcd</number>\r\n" + //
+				"  <products>\r\n" + //
+				"    <product price=\"xx\" />\r\n" + //
+				"    &foo;\r\n" + //
+				"  </products>\r\n" + //
+				"</invoice>";
+		DOMDocument document = DOMParser.getInstance().parse(xml, "test.xml", null);
+		assertTrue(DOMDocumentScanner.canScan(document));
+		assertFalse(new DOMDocumentScanner(document, null).scanDocument(null));
+
+		List<Diagnostic> fromText = validate(xml, false);
+		List<Diagnostic> fromValidator = new ArrayList<>();
+		ContentModelManager contentModelManager = new ContentModelManager(new URIResolverExtensionManager());
+		XMLValidator.doDiagnostics(document, null, fromValidator, null, contentModelManager, () -> {
+		});
+		assertEquals(fromText.size(), new HashSet<>(fromText).size());
+		assertEquals(fromText, fromValidator);
+	}
+
+	private static boolean canScan(String xml) {
+		DOMDocument document = DOMParser.getInstance().parse(xml, "test.xml", null);
+		return DOMDocumentScanner.canScan(document) && new DOMDocumentScanner(document, null).scanDocument(null);
+	}
+
+	private static List<Diagnostic> validate(String xml, boolean fromDOM) throws Exception {
+		DOMDocument document = DOMParser.getInstance().parse(xml, "test.xml", null);
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		ContentModelManager contentModelManager = new ContentModelManager(new URIResolverExtensionManager());
+		LSPErrorReporterForXML reporter = new LSPErrorReporterForXML(document, diagnostics, contentModelManager,
+				false, new HashMap<>());
+		LSPErrorReporterForXML reporterForGrammar = new LSPErrorReporterForXML(document, diagnostics,
+				contentModelManager, false, new HashMap<>());
+		LSPXMLParserConfiguration configuration = new LSPXMLParserConfiguration(null, false, reporter,
+				reporterForGrammar, null);
+		LSPSAXParser parser = new LSPSAXParser(document, reporter, configuration, null);
+		parser.setFeature("http://apache.org/xml/features/validation/schema", true);
+		parser.setFeature("http://xml.org/sax/features/validation", true);
+		if (fromDOM) {
+			assertTrue(DOMDocumentScanner.canScan(document));
+			assertTrue(parser.parse(document));
+		} else {
+			InputSource inputSource = new InputSource(new StringReader(xml));
+			inputSource.setSystemId(document.getDocumentURI());
+			try {
+				parser.parse(inputSource);
+			} catch (SAXException e) {
+				// the syntax error is reported as a diagnostic
+			}
+		}
+		reporter.endReport();
+		reporterForGrammar.endReport();
+		return diagnostics;
+	}
+}
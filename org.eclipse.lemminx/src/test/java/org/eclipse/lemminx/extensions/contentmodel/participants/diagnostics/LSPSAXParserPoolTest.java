@@ -0,0 +1,118 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.model.ContentModelManager;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.uriresolver.URIResolverExtensionManager;
+import org.eclipse.lsp4j.Diagnostic;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+/**
+ * Test for {@link LSPSAXParserPool}
+ *
+ */
+public class LSPSAXParserPoolTest {
+
+	private final ContentModelManager contentModelManager = new ContentModelManager(
+			new URIResolverExtensionManager());
+
+	@Test
+	public void reuseParser() {
+		LSPSAXParserPool pool = new LSPSAXParserPool();
+		DOMDocument document = DOMParser.getInstance().parse("<root />", "test.xml", null);
+		LSPSAXParser parser = acquire(pool, document, null);
+		pool.release(parser);
+		// same validation settings
+		LSPSAXParser reused = acquire(pool, document, new XMLValidationSettings());
+		assertSame(parser, reused);
+		pool.release(reused);
+
+		// other validation settings
+		XMLValidationSettings validationSettings = new XMLValidationSettings();
+		validationSettings.setResolveExternalEntities(true);
+		LSPSAXParser other = acquire(pool, document, validationSettings);
+		assertNotSame(parser, other);
+		pool.release(other);
+	}
+
+	@Test
+	public void reusedParserUsesNewNoNamespaceSchema() throws Exception {
+		LSPSAXParserPool pool = new LSPSAXParserPool();
+		LSPXMLGrammarPool grammarPool = new LSPXMLGrammarPool();
+
+		String xml = "<money xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"src/test/resources/xsd/money.xsd\" currency=\"euros\"> </money>";
+		assertCodes(validate(pool, grammarPool, xml), "cvc-complex-type.2.1");
+		assertCodes(validate(pool, grammarPool, xml), "cvc-complex-type.2.1");
+
+		// the grammar of the previous validated document must not be used
+		xml = "<Annotation\r\n" + //
+				"	xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\r\n" + //
+				"	xsi:noNamespaceSchemaLocation=\"src/test/resources/xsd/pattern.xsd\"\r\n" + //
+				"	Term=\"X\"></Annotation>";
+		assertCodes(validate(pool, grammarPool, xml), "cvc-pattern-valid", "cvc-attribute.3");
+	}
+
+	private LSPSAXParser acquire(LSPSAXParserPool pool, DOMDocument document,
+			XMLValidationSettings validationSettings) {
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		LSPErrorReporterForXML reporter = new LSPErrorReporterForXML(document, diagnostics, contentModelManager,
+				false, new HashMap<>());
+		LSPErrorReporterForXML reporterForGrammar = new LSPErrorReporterForXML(document, diagnostics,
+				contentModelManager, false, new HashMap<>());
+		return pool.acquire(document, reporter, reporterForGrammar, null, null, false, validationSettings);
+	}
+
+	private List<Diagnostic> validate(LSPSAXParserPool pool, LSPXMLGrammarPool grammarPool, String xml)
+			throws Exception {
+		DOMDocument document = DOMParser.getInstance().parse(xml, "test.xml", null);
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		LSPErrorReporterForXML reporter = new LSPErrorReporterForXML(document, diagnostics, contentModelManager,
+				false, new HashMap<>());
+		LSPErrorReporterForXML reporterForGrammar = new LSPErrorReporterForXML(document, diagnostics,
+				contentModelManager, false, new HashMap<>());
+		LSPSAXParser parser = pool.acquire(document, reporter, reporterForGrammar, grammarPool, null, false, null);
+		try {
+			parser.setFeature("http://apache.org/xml/features/validation/schema", true);
+			parser.setFeature("http://xml.org/sax/features/validation", true);
+			InputSource inputSource = new InputSource(new StringReader(xml));
+			inputSource.setSystemId(document.getDocumentURI());
+			parser.parse(inputSource);
+		} finally {
+			pool.release(parser);
+		}
+		reporter.endReport();
+		reporterForGrammar.endReport();
+		return diagnostics;
+	}
+
+	private static void assertCodes(List<Diagnostic> diagnostics, String... expected) {
+		List<String> codes = new ArrayList<>();
+		for (Diagnostic diagnostic : diagnostics) {
+			codes.add(diagnostic.getCode().getLeft());
+		}
+		assertEquals(Arrays.asList(expected), codes);
+	}
+}
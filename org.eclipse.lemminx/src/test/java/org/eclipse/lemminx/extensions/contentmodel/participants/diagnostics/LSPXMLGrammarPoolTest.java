@@ -0,0 +1,129 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.xerces.impl.xs.XSDDescription;
+import org.apache.xerces.parsers.XMLGrammarPreparser;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.apache.xerces.xni.parser.XMLInputSource;
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LSPXMLGrammarPool}
+ *
+ */
+public class LSPXMLGrammarPoolTest extends BaseFileTempTest {
+
+	private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:include schemaLocation=\"pool-included.xsd\" />\r\n" + //
+			"  <xs:element name=\"root\" />\r\n" + //
+			"</xs:schema>";
+
+	private static final String INCLUDED_XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:element name=\"tag\" />\r\n" + //
+			"</xs:schema>";
+
+	@Test
+	public void fileChanged() throws Exception {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		Grammar grammar = loadGrammar(pool, "pool1.xsd");
+		XMLGrammarDescription desc = grammar.getGrammarDescription();
+		assertSame(grammar, pool.retrieveGrammar(desc));
+
+		// a file which is not used by the grammar has changed
+		pool.fileChanged(tempDirUri.resolve("other.xsd").toString());
+		assertSame(grammar, pool.retrieveGrammar(desc));
+
+		// the included XML Schema has changed
+		pool.fileChanged(tempDirUri.resolve("pool-included.xsd").toString());
+		assertNull(pool.retrieveGrammar(desc));
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void fileChangedOnDisk() throws Exception {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		Grammar grammar = loadGrammar(pool, "pool2.xsd");
+		XMLGrammarDescription desc = grammar.getGrammarDescription();
+		assertSame(grammar, pool.retrieveGrammar(desc));
+
+		// the file is changed without notification, it is checked after the check
+		// interval
+		updateFile(tempDirUri.resolve("pool-included.xsd"), INCLUDED_XSD.replace("tag", "label"));
+		assertNull(pool.retrieveGrammar(desc));
+	}
+
+	@Test
+	public void removeGrammar() throws Exception {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool();
+		Grammar grammar1 = loadGrammar(pool, "pool3.xsd");
+		Grammar grammar2 = loadGrammar(pool, "pool4.xsd");
+		pool.removeGrammar(grammar1.getGrammarDescription().getExpandedSystemId());
+		assertNull(pool.retrieveGrammar(grammar1.getGrammarDescription()));
+		assertSame(grammar2, pool.retrieveGrammar(grammar2.getGrammarDescription()));
+	}
+
+	@Test
+	public void parallelRetrieve() throws Exception {
+		LSPXMLGrammarPool pool = new LSPXMLGrammarPool(1);
+		List<Grammar> grammars = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			grammars.add(loadGrammar(pool, "parallel" + i + ".xsd"));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (int n = 0; n < 1000; n++) {
+						for (Grammar grammar : grammars) {
+							assertSame(grammar, pool.retrieveGrammar(grammar.getGrammarDescription()));
+						}
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static Grammar loadGrammar(LSPXMLGrammarPool pool, String fileName) throws Exception {
+		URI includedURI = tempDirUri.resolve("pool-included.xsd");
+		createFile(includedURI, INCLUDED_XSD);
+		URI xsdURI = tempDirUri.resolve(fileName);
+		createFile(xsdURI, XSD);
+		XMLGrammarPreparser preparser = new XMLGrammarPreparser();
+		preparser.registerPreparser(XMLGrammarDescription.XML_SCHEMA, null);
+		Grammar grammar = preparser.preparseGrammar(XMLGrammarDescription.XML_SCHEMA,
+				new XMLInputSource(null, xsdURI.toString(), null));
+		// the Xerces validator retrieves the grammar with the expanded system id
+		((XSDDescription) grammar.getGrammarDescription()).setExpandedSystemId(xsdURI.toString());
+		pool.cacheGrammars(XMLGrammarDescription.XML_SCHEMA, new Grammar[] { grammar });
+		return grammar;
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.extensions.xsd.participants.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.xerces.xni.grammars.Grammar;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.eclipse.lemminx.extensions.contentmodel.participants.diagnostics.LSPXMLGrammarPool;
+import org.eclipse.lsp4j.Diagnostic;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LSPXSDGrammarPool}
+ *
+ */
+public class LSPXSDGrammarPoolTest extends BaseFileTempTest {
+
+	private static final String IMPORTED_XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"urn:b\">\r\n"
+			+ //
+			"	<xs:element name=\"b\" type=\"xs:string\" />\r\n" + //
+			"</xs:schema>";
+
+	private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" xmlns:b=\"urn:b\" targetNamespace=\"urn:a\">\r\n"
+			+ //
+			"	<xs:import namespace=\"urn:b\" schemaLocation=\"imported.xsd\" />\r\n" + //
+			"	<xs:element name=\"a\">\r\n" + //
+			"		<xs:complexType>\r\n" + //
+			"			<xs:sequence>\r\n" + //
+			"				<xs:element ref=\"b:b\" />\r\n" + //
+			"				<xs:element ref=\"b:c\" />\r\n" + //
+			"			</xs:sequence>\r\n" + //
+			"		</xs:complexType>\r\n" + //
+			"	</xs:element>\r\n" + //
+			"</xs:schema>";
+
+	@Test
+	public void reuseImportedGrammar() throws IOException {
+		URI importedURI = tempDirUri.resolve("imported.xsd");
+		createFile(importedURI, IMPORTED_XSD);
+		LSPXMLGrammarPool importedGrammarPool = new LSPXMLGrammarPool();
+
+		// b:c is not declared in the imported XML Schema
+		List<Diagnostic> diagnostics = validate(XSD, importedGrammarPool);
+		assertEquals(1, diagnostics.size());
+		assertEquals("src-resolve", diagnostics.get(0).getCode().getLeft());
+		assertEquals(1, importedGrammarPool.size());
+		Grammar importedGrammar = importedGrammarPool.retrieveGrammar(importedURI.toString());
+		assertNotNull(importedGrammar);
+
+		// the compiled imported XML Schema is reused
+		assertEquals(diagnostics, validate(XSD, importedGrammarPool));
+		assertSame(importedGrammar, importedGrammarPool.retrieveGrammar(importedURI.toString()));
+
+		// the imported XML Schema is updated
+		updateFile(importedURI, IMPORTED_XSD.replace("</xs:schema>", //
+				"	<xs:element name=\"c\" type=\"xs:string\" />\r\n</xs:schema>"));
+		importedGrammarPool.fileChanged(importedURI.toString());
+		assertEquals(0, validate(XSD, importedGrammarPool).size());
+		assertNotSame(importedGrammar, importedGrammarPool.retrieveGrammar(importedURI.toString()));
+	}
+
+	@Test
+	public void importedGrammarWithErrorIsNotShared() throws IOException {
+		URI importedURI = tempDirUri.resolve("imported.xsd");
+		createFile(importedURI, IMPORTED_XSD.replace("xs:string", "xs:unknown"));
+		LSPXMLGrammarPool importedGrammarPool = new LSPXMLGrammarPool();
+
+		List<Diagnostic> diagnostics = validate(XSD, importedGrammarPool);
+		assertFalse(diagnostics.isEmpty());
+		assertEquals(0, importedGrammarPool.size());
+		// the error of the imported XML Schema is reported again
+		assertEquals(diagnostics, validate(XSD, importedGrammarPool));
+	}
+
+	private static List<Diagnostic> validate(String xsd, LSPXMLGrammarPool importedGrammarPool) {
+		DOMDocument document = DOMParser.getInstance().parse(xsd, tempDirUri.resolve("main.xsd").toString(), null);
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		XSDValidator.doDiagnostics(document, null, importedGrammarPool, diagnostics, false, () -> {
+		});
+		return diagnostics;
+	}
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.eclipse.lemminx.extensions.contentmodel.settings.XMLValidationSettings;
+import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipant;
+import org.eclipse.lsp4j.Diagnostic;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ValidationResultCache}.
+ *
+ */
+public class ValidationResultCacheTest extends BaseFileTempTest {
+
+	private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:include schemaLocation=\"result-cache-included.xsd\" />\r\n" + //
+			"  <xs:element name=\"root\" type=\"rootType\" />\r\n" + //
+			"</xs:schema>";
+
+	private static final String INCLUDED_XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n" + //
+			"  <xs:complexType name=\"rootType\" />\r\n" + //
+			"</xs:schema>";
+
+	private static final String INCLUDED_XSD_WITH_ATTRIBUTE = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\r\n"
+			+ //
+			"  <xs:complexType name=\"rootType\">\r\n" + //
+			"    <xs:attribute name=\"attr\" />\r\n" + //
+			"  </xs:complexType>\r\n" + //
+			"</xs:schema>";
+
+	private static final String XML = "<root attr=\"\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:noNamespaceSchemaLocation=\"result-cache.xsd\" />";
+
+	@Test
+	public void sameContent() {
+		XMLLanguageService xmlLanguageService = new XMLLanguageService();
+		AtomicInteger validations = new AtomicInteger();
+		xmlLanguageService.registerDiagnosticsParticipant(countValidations(validations));
+		String uri = tempDirUri.resolve("same-content.xml").toString();
+
+		List<Diagnostic> diagnostics = validate(xmlLanguageService, "<root>", uri);
+		assertEquals(1, validations.get());
+		// the same content is not validated again
+		assertEquals(diagnostics, validate(xmlLanguageService, "<root>", uri));
+		assertEquals(1, validations.get());
+
+		// another content is validated
+		validate(xmlLanguageService, "<root />", uri);
+		assertEquals(2, validations.get());
+		// undo
+		validate(xmlLanguageService, "<root>", uri);
+		assertEquals(2, validations.get());
+
+		// other validation settings
+		XMLValidationSettings settings = new XMLValidationSettings();
+		settings.setNoGrammar("error");
+		validate(xmlLanguageService, "<root>", uri, settings);
+		assertEquals(3, validations.get());
+	}
+
+	@Test
+	public void grammarChanged() throws Exception {
+		createFile(tempDirUri.resolve("result-cache.xsd"), XSD);
+		URI includedURI = tempDirUri.resolve("result-cache-included.xsd");
+		createFile(includedURI, INCLUDED_XSD);
+
+		XMLLanguageService xmlLanguageService = new XMLLanguageService();
+		AtomicInteger validations = new AtomicInteger();
+		xmlLanguageService.registerDiagnosticsParticipant(countValidations(validations));
+		String uri = tempDirUri.resolve("result-cache.xml").toString();
+
+		// attr is not allowed
+		assertEquals(1, validate(xmlLanguageService, XML, uri).size());
+		assertEquals(1, validate(xmlLanguageService, XML, uri).size());
+		assertEquals(1, validations.get());
+
+		// the included XML Schema declares attr, the cached diagnostics are obsolete
+		updateFile(includedURI, INCLUDED_XSD_WITH_ATTRIBUTE);
+		assertEquals(0, validate(xmlLanguageService, XML, uri).size());
+		assertEquals(2, validations.get());
+	}
+
+	@Test
+	public void grammarWrittenWithSameContent() throws Exception {
+		URI xsdURI = tempDirUri.resolve("result-cache-same.xsd");
+		createFile(xsdURI, XSD);
+		Path xsdFile = Paths.get(xsdURI);
+		Set<String> grammarURIs = Collections.singleton(xsdURI.toString());
+
+		ValidationResultCache cache = new ValidationResultCache();
+		ValidationResultCache.Key key = createKey(cache, "same.xml", new XMLValidationSettings());
+		cache.put(key, Collections.emptyList(), grammarURIs);
+		assertNotNull(cache.get(key));
+
+		// the file is not hashed when the entry is created, the entry is obsolete
+		touch(xsdFile, 1);
+		assertNull(cache.get(key));
+
+		// the file has been hashed by the previous check, the entry is up to date
+		cache.put(key, Collections.emptyList(), grammarURIs);
+		touch(xsdFile, 2);
+		assertNotNull(cache.get(key));
+
+		updateFile(xsdURI, INCLUDED_XSD);
+		assertNull(cache.get(key));
+	}
+
+	@Test
+	public void remoteGrammarNotAvailable() {
+		ValidationResultCache cache = new ValidationResultCache();
+		ValidationResultCache.Key key = createKey(cache, "remote.xml", new XMLValidationSettings());
+		// the remote grammar has not been downloaded (ex : download problem)
+		cache.put(key, Collections.emptyList(), Collections.singleton("http://localhost/unavailable.xsd"));
+		assertNull(cache.get(key));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void maxEntries() {
+		ValidationResultCache cache = new ValidationResultCache(2);
+		XMLValidationSettings settings = new XMLValidationSettings();
+		ValidationResultCache.Key a = createKey(cache, "a.xml", settings);
+		ValidationResultCache.Key b = createKey(cache, "b.xml", settings);
+		ValidationResultCache.Key c = createKey(cache, "c.xml", settings);
+		cache.put(a, Collections.emptyList(), Collections.emptySet());
+		cache.put(b, Collections.emptyList(), Collections.emptySet());
+		// a is the most recently used entry
+		assertNotNull(cache.get(a));
+		cache.put(c, Collections.emptyList(), Collections.emptySet());
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get(a));
+		assertNull(cache.get(b));
+		assertNotNull(cache.get(c));
+
+		// the grammar generation is a part of the key
+		assertNull(cache.get(cache.createKey(parse("<a />", "a.xml"), settings, 1)));
+	}
+
+	@Test
+	public void settingsUpdated() {
+		ValidationResultCache cache = new ValidationResultCache();
+		XMLValidationSettings settings = new XMLValidationSettings();
+		ValidationResultCache.Key key = createKey(cache, "a.xml", settings);
+		assertEquals(key, createKey(cache, "a.xml", settings));
+
+		// the settings are updated
+		settings.setNoGrammar("error");
+		cache.clear();
+		assertNotEquals(key, createKey(cache, "a.xml", settings));
+
+		// other settings
+		assertEquals(key, createKey(cache, "a.xml", new XMLValidationSettings()));
+	}
+
+	private static ValidationResultCache.Key createKey(ValidationResultCache cache, String uri,
+			XMLValidationSettings settings) {
+		return cache.createKey(parse("<a />", uri), settings, 0);
+	}
+
+	private static void touch(Path file, int minutes) throws Exception {
+		FileTime lastModified = Files.getLastModifiedTime(file);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + minutes * 60000L));
+	}
+
+	private static DOMDocument parse(String text, String uri) {
+		return DOMParser.getInstance().parse(text, uri, null);
+	}
+
+	private static IDiagnosticsParticipant countValidations(AtomicInteger validations) {
+		return (xmlDocument, diagnostics, validationSettings, cancelChecker) -> validations.incrementAndGet();
+	}
+
+	private static List<Diagnostic> validate(XMLLanguageService xmlLanguageService, String text, String uri) {
+		return validate(xmlLanguageService, text, uri, new XMLValidationSettings());
+	}
+
+	private static List<Diagnostic> validate(XMLLanguageService xmlLanguageService, String text, String uri,
+			XMLValidationSettings settings) {
+		DOMDocument document = DOMParser.getInstance().parse(text, uri,
+				xmlLanguageService.getResolverExtensionManager());
+		xmlLanguageService.setDocumentProvider((documentURI) -> document);
+		xmlLanguageService.initializeIfNeeded();
+		return xmlLanguageService.doDiagnostics(document, settings, () -> {
+		});
+	}
+}
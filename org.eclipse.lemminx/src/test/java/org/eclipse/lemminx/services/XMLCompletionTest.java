@@ -79,6 +79,20 @@ public class XMLCompletionTest {
 				c("End with '</a>'", "/a>", r(0, 7, 0, 8), "/a>"));
 	}
 
+	@Test
+	public void endTagCompletionAfterLargeElement() throws BadLocationException {
+		// the completion scans from the last scanner checkpoint of the large element
+		StringBuilder xml = new StringBuilder("<a><large>");
+		for (int i = 0; i < 1000; i++) {
+			xml.append("<b attr=\"value\">text</b><!-- comment -->");
+		}
+		xml.append("</large>");
+		int offset = xml.length() + 1;
+		testCompletionFor(xml + "<|</a>", 1 + 2 /* CDATA and Comments */,
+				c("large", "<large></large>", r(0, offset - 1, 0, offset), "<large"));
+		testCompletionFor(xml + "</|", 1, c("End with '</a>'", "/a>", r(0, offset, 0, offset + 1), "/a>"));
+	}
+
 	@Test
 	public void successfulEndTagCompletionWithIndent() throws BadLocationException {
 
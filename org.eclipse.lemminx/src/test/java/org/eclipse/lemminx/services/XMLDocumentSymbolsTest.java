@@ -15,6 +15,9 @@ import static org.eclipse.lemminx.XMLAssert.ds;
 import static org.eclipse.lemminx.XMLAssert.r;
 import static org.eclipse.lemminx.XMLAssert.testDocumentSymbolsFor;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -394,4 +397,45 @@ public class XMLDocumentSymbolsTest {
 						Arrays.asList(//
 								ds("bar", SymbolKind.Field, r(1, 1, 1, 46), r(1, 1, 1, 46), null, Arrays.asList()))));
 	}
+
+	@Test
+	public void reuseSymbolsOfUnchangedSubtrees() {
+		String a = "  <a>\n    <a1 /><?pi?>\n  </a>\n";
+		String b = "  <b><b1>text</b1>\n    <b2><b3 /></b2></b>\n";
+		XMLLanguageService languageService = new XMLLanguageService();
+		XMLSymbolSettings symbolSettings = new XMLSymbolSettings();
+
+		List<DocumentSymbol> symbols = findDocumentSymbols(languageService, "<root>\n" + a + b + "</root>",
+				symbolSettings);
+		assertEquals(findDocumentSymbols(new XMLLanguageService(), "<root>\n" + a + b + "</root>", symbolSettings),
+				symbols);
+
+		// insert an element after 'a' : the symbols of 'a' are reused, the symbols of
+		// 'b' are shifted
+		String xml = "<root>\n" + a + "  <c>\n</c>" + b + "</root>";
+		List<DocumentSymbol> updatedSymbols = findDocumentSymbols(languageService, xml, symbolSettings);
+		assertEquals(findDocumentSymbols(new XMLLanguageService(), xml, symbolSettings), updatedSymbols);
+		List<DocumentSymbol> children = symbols.get(0).getChildren();
+		List<DocumentSymbol> updatedChildren = updatedSymbols.get(0).getChildren();
+		assertSame(children.get(0), updatedChildren.get(0));
+		assertNotSame(children.get(1), updatedChildren.get(2));
+
+		// insert text in the same line as 'b'
+		xml = "<root>\n" + a + "<!-- c -->" + b + "</root>";
+		assertEquals(findDocumentSymbols(new XMLLanguageService(), xml, symbolSettings),
+				findDocumentSymbols(languageService, xml, symbolSettings));
+
+		// the limit is checked for the reused symbols
+		symbolSettings.setMaxItemsComputed(4);
+		DocumentSymbolsResult limitedSymbols = languageService.findDocumentSymbols(
+				DOMParser.getInstance().parse(xml, "test.xml", null), symbolSettings, () -> {
+				});
+		assertTrue(limitedSymbols.isResultLimitExceeded());
+	}
+
+	private static List<DocumentSymbol> findDocumentSymbols(XMLLanguageService languageService, String xml,
+			XMLSymbolSettings symbolSettings) {
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(xml, "test.xml", null);
+		return languageService.findDocumentSymbols(xmlDocument, symbolSettings);
+	}
 }
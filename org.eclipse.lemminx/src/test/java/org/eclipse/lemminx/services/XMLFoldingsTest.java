@@ -13,6 +13,7 @@
 package org.eclipse.lemminx.services;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -229,6 +230,54 @@ public class XMLFoldingsTest {
 		assertRanges(input,  new ExpectedIndentRange[] {r(0, 19)}, "limit 1", 1);
 	}
 			
+	@Test
+	public void restartAtScannerCheckpoints() {
+		StringBuilder xml = new StringBuilder("<root>\n  <!-- #region records -->\n");
+		for (int i = 0; i < 500; i++) {
+			xml.append("  <record id=\"").append(i).append("\">\n");
+			xml.append("    <!--\n      comment\n    -->\n");
+			xml.append("    <value>\n      ").append(i).append("\n    </value>\n");
+			xml.append("  </record>\n");
+		}
+		xml.append("  <!-- #endregion -->\n</root>");
+		String text = xml.toString();
+		XMLLanguageService languageService = new XMLLanguageService();
+		assertRangesAfterChange(languageService, text);
+		assertRangesAfterChange(languageService, text);
+
+		// insert an element at the end of the document
+		int offset = text.lastIndexOf("</record>");
+		text = text.substring(0, offset) + "<new>\n</new>\n" + text.substring(offset);
+		assertRangesAfterChange(languageService, text);
+
+		// remove an end tag in the middle of the document
+		offset = text.indexOf("</value>", text.length() / 2);
+		text = text.substring(0, offset) + text.substring(offset + "</value>".length());
+		assertRangesAfterChange(languageService, text);
+
+		// open a comment in the middle of the document
+		offset = text.indexOf("<record", text.length() / 3);
+		text = text.substring(0, offset) + "<!--\n" + text.substring(offset);
+		assertRangesAfterChange(languageService, text);
+
+		// change the start of the document
+		text = "<!--\n-->\n" + text;
+		assertRangesAfterChange(languageService, text);
+	}
+
+	/**
+	 * Assert that the folding ranges computed for the changed text with the
+	 * folding states of the previous text are the same as the folding ranges
+	 * computed from the start of the document.
+	 */
+	private static void assertRangesAfterChange(XMLLanguageService languageService, String text) {
+		TextDocument document = new TextDocument(text, "test://foo/bar.xml");
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document, null);
+		List<FoldingRange> expected = new XMLFoldings(null).getFoldingRanges(document, null, () -> {
+		});
+		assertEquals(expected, languageService.getFoldingRanges(xmlDocument, null));
+	}
+
 	private static void assertRanges(String[] lines, ExpectedIndentRange[] expected) {
 		assertRanges(lines, expected, "", null);
 	}
@@ -14,12 +14,19 @@ package org.eclipse.lemminx.services;
 
 import static java.lang.System.lineSeparator;
 import static org.eclipse.lemminx.XMLAssert.assertFormat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.eclipse.lemminx.commons.BadLocationException;
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
 import org.eclipse.lemminx.settings.EnforceQuoteStyle;
 import org.eclipse.lemminx.settings.QuoteStyle;
 import org.eclipse.lemminx.settings.SharedSettings;
 import org.eclipse.lemminx.settings.XMLFormattingOptions.EmptyElements;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -2991,4 +2998,26 @@ public class XMLFormatterTest {
 		assertFormat(content, expected, settings);
 	}
 
+	@Test
+	public void rangeFormattingWithScannerCheckpoints() throws BadLocationException {
+		StringBuilder xml = new StringBuilder("<root>\n");
+		for (int i = 0; i < 500; i++) {
+			xml.append("<record   id=\"").append(i).append("\"   >\n");
+			xml.append("<value>").append(i).append("</value>\n");
+			xml.append("</record>\n");
+		}
+		xml.append("</root>");
+		TextDocument document = new TextDocument(xml.toString(), "test.xml");
+		DOMDocument xmlDocument = DOMParser.getInstance().parse(document, null);
+		assertTrue(xmlDocument.getScannerCheckpoints().size() > 0);
+
+		XMLLanguageService languageService = new XMLLanguageService();
+		SharedSettings settings = new SharedSettings();
+		for (int line = 1; line < 1500; line += 97) {
+			Range range = new Range(new Position(line, 0), new Position(line + 4, 3));
+			assertEquals(languageService.format(document, range, settings),
+					languageService.format(xmlDocument, range, settings));
+		}
+	}
+
 }
@@ -14,6 +14,7 @@ package org.eclipse.lemminx.services.extensions;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Collection;
 import java.util.function.Predicate;
 
 import com.google.gson.JsonObject;
@@ -63,6 +64,10 @@ public class ExtensionRegistryDoSaveTest {
 		public void collectDocumentToValidate(Predicate<DOMDocument> validateDocumentPredicate) {
 		}
 
+		@Override
+		public void collectDocumentToValidate(Collection<String> documentURIs) {
+		}
+
 		@Override
 		public SaveContextType getType() {
 			return SaveContextType.DOCUMENT;
@@ -31,13 +31,20 @@ public class FilesUtilsTest {
 
 	@Test
 	public void testFilesCachePathPreference() throws Exception {
-		System.clearProperty(FilesUtils.LEMMINX_WORKDIR_KEY);
-		String newBasePathString = System.getProperty("user.home");
-		String newSubPathString = Paths.get("New", "Sub", "Path").toString();
-		Path newSubPath = Paths.get(newSubPathString);
-		FilesUtils.setCachePathSetting(newBasePathString);
-		Path finalPath = FilesUtils.getDeployedPath(newSubPath);
-		assertEquals(Paths.get(newBasePathString, newSubPathString).toString(), finalPath.toString());
+		String workDirectory = System.clearProperty(FilesUtils.LEMMINX_WORKDIR_KEY);
+		try {
+			String newBasePathString = System.getProperty("user.home");
+			String newSubPathString = Paths.get("New", "Sub", "Path").toString();
+			Path newSubPath = Paths.get(newSubPathString);
+			FilesUtils.setCachePathSetting(newBasePathString);
+			Path finalPath = FilesUtils.getDeployedPath(newSubPath);
+			assertEquals(Paths.get(newBasePathString, newSubPathString).toString(), finalPath.toString());
+		} finally {
+			if (workDirectory != null) {
+				System.setProperty(FilesUtils.LEMMINX_WORKDIR_KEY, workDirectory);
+			}
+			FilesUtils.setCachePathSetting(null);
+		}
 	}
 
 	@Test
@@ -0,0 +1,59 @@
+/*******************************************************************************
+* Copyright (c) 2021 Red Hat Inc. and others.
+* All rights reserved. This program and the accompanying materials
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v20.html
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     Red Hat Inc. - initial API and implementation
+*******************************************************************************/
+package org.eclipse.lemminx.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+
+import org.eclipse.lemminx.commons.Rope;
+import org.eclipse.lemminx.extensions.contentmodel.BaseFileTempTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link HashUtils}.
+ *
+ */
+public class HashUtilsTest extends BaseFileTempTest {
+
+	@Test
+	public void textHash() {
+		assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", HashUtils.computeHash(""));
+		assertEquals(HashUtils.computeHash("<root />"), HashUtils.computeHash("<root />"));
+		assertNotEquals(HashUtils.computeHash("<root />"), HashUtils.computeHash("<root/>"));
+	}
+
+	@Test
+	public void textSequenceHash() {
+		assertEquals(HashUtils.computeHash(""), HashUtils.computeHash(new StringBuilder()));
+		// a large text with surrogate pairs at the limit of the chunks
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			text.append("<\u00e9l\uD83D\uDE00/>");
+		}
+		String expected = HashUtils.computeHash(text.toString());
+		assertEquals(expected, HashUtils.computeHash(text));
+		Rope rope = Rope.of(text).replace(5000, 5000, "");
+		assertEquals(expected, HashUtils.computeHash(rope));
+		assertNotEquals(expected, HashUtils.computeHash(rope.replace(5000, 5001, "x")));
+	}
+
+	@Test
+	public void fileHash() throws Exception {
+		Path file = getTempDirPath().resolve("hash.xsd");
+		createFile(file.toUri(), "<root />");
+		assertEquals(HashUtils.computeHash("<root />"), HashUtils.computeHash(file));
+		assertNull(HashUtils.computeHash(getTempDirPath().resolve("unknown.xsd")));
+	}
+}